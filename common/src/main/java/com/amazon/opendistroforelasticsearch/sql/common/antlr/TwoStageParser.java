@@ -0,0 +1,65 @@
+/*
+ *   Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.common.antlr;
+
+import java.util.function.Function;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Two-stage parsing which tries faster SLL prediction first and falls back to full LL prediction
+ * only if SLL fails. SLL is enough for most queries and the result is the same as LL once it
+ * succeeds. Because syntax error is reported in LL stage only, error message is not changed.
+ * Note that DFA cache is a static field in ANTLR generated parser which is shared and kept warm
+ * across parser instances, so it's fine to create a new parser for each query.
+ */
+public class TwoStageParser {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  /**
+   * Parse by the start rule in two stages.
+   * @param parser        parser with token stream to parse
+   * @param errorListener error listener to report syntax error in LL stage
+   * @param startRule     start rule of the grammar
+   * @return              parse tree root
+   */
+  public static <P extends Parser, T extends ParseTree> T parse(
+      P parser, ANTLRErrorListener errorListener, Function<P, T> startRule) {
+    parser.removeErrorListeners();
+    parser.setErrorHandler(new BailErrorStrategy());
+    parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+    try {
+      return startRule.apply(parser);
+    } catch (ParseCancellationException e) {
+      LOG.debug("Failed to parse query in SLL mode, retry in LL mode", e);
+    }
+
+    parser.reset(); // rewind token stream
+    parser.addErrorListener(errorListener);
+    parser.setErrorHandler(new DefaultErrorStrategy());
+    parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+    return startRule.apply(parser);
+  }
+
+}
@@ -36,7 +36,17 @@ public abstract class Settings {
     /**
      * Common Setting for SQL and PPL.
      */
-    QUERY_SIZE_LIMIT("opendistro.query.size_limit");
+    QUERY_SIZE_LIMIT("opendistro.query.size_limit"),
+
+    QUERY_COST_BASED_OPTIMIZATION_ENABLED("opendistro.query.cost_based_optimization.enabled"),
+
+    QUERY_AGGREGATION_CACHE_ENABLED("opendistro.query.aggregation_cache.enabled"),
+
+    QUERY_AGGREGATION_CACHE_EXPIRE_AFTER("opendistro.query.aggregation_cache.expire_after"),
+
+    QUERY_AGGREGATION_CACHE_SIZE("opendistro.query.aggregation_cache.size"),
+
+    QUERY_MULTI_INDEX_FAN_OUT_ENABLED("opendistro.query.multi_index_fan_out.enabled");
 
     @Getter
     private final String keyValue;
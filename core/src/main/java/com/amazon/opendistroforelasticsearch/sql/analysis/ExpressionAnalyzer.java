@@ -50,6 +50,7 @@ import com.amazon.opendistroforelasticsearch.sql.expression.conditional.cases.Wh
 import com.amazon.opendistroforelasticsearch.sql.expression.function.BuiltinFunctionName;
 import com.amazon.opendistroforelasticsearch.sql.expression.function.BuiltinFunctionRepository;
 import com.amazon.opendistroforelasticsearch.sql.expression.function.FunctionName;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.aggregation.AggregateWindowFunction;
 import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -165,7 +166,11 @@ public class ExpressionAnalyzer extends AbstractNodeVisitor<Expression, Analysis
 
   @Override
   public Expression visitWindowFunction(WindowFunction node, AnalysisContext context) {
-    return visitFunction(node.getFunction(), context);
+    Expression function = node.getFunction().accept(this, context);
+    if (function instanceof Aggregator) {
+      return new AggregateWindowFunction((Aggregator<?>) function);
+    }
+    return function;
   }
 
   @Override
@@ -24,8 +24,12 @@ import com.amazon.opendistroforelasticsearch.sql.ast.expression.Alias;
 import com.amazon.opendistroforelasticsearch.sql.ast.expression.UnresolvedExpression;
 import com.amazon.opendistroforelasticsearch.sql.ast.expression.WindowFunction;
 import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption;
+import com.amazon.opendistroforelasticsearch.sql.common.utils.StringUtils;
+import com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType;
+import com.amazon.opendistroforelasticsearch.sql.exception.SemanticCheckException;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
 import com.amazon.opendistroforelasticsearch.sql.expression.window.WindowDefinition;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition;
 import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
 import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalSort;
 import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalWindow;
@@ -74,7 +78,9 @@ public class WindowExpressionAnalyzer extends AbstractNodeVisitor<LogicalPlan, A
     Expression windowFunction = expressionAnalyzer.analyze(node, context);
     List<Expression> partitionByList = analyzePartitionList(node, context);
     List<Pair<SortOption, Expression>> sortList = analyzeSortList(node, context);
-    WindowDefinition windowDefinition = new WindowDefinition(partitionByList, sortList);
+    validateFrame(node.getFrame(), sortList);
+    WindowDefinition windowDefinition =
+        new WindowDefinition(partitionByList, sortList, node.getFrame());
 
     return new LogicalWindow(
         new LogicalSort(child,windowDefinition.getAllSortItems()),
@@ -99,6 +105,25 @@ public class WindowExpressionAnalyzer extends AbstractNodeVisitor<LogicalPlan, A
                .collect(Collectors.toList());
   }
 
+  /**
+   * RANGE frame with offset requires exactly one numeric sort key to calculate the range.
+   */
+  private void validateFrame(FrameDefinition frame,
+                             List<Pair<SortOption, Expression>> sortList) {
+    if (frame == null
+        || frame.getUnit() != FrameDefinition.Unit.RANGE
+        || !frame.hasOffset()) {
+      return;
+    }
+
+    if (sortList.size() != 1
+        || !ExprCoreType.numberTypes().contains(sortList.get(0).getRight().type())) {
+      throw new SemanticCheckException(StringUtils.format(
+          "RANGE frame with offset requires exactly one numeric sort key but found %s",
+          sortList.stream().map(Pair::getRight).collect(Collectors.toList())));
+    }
+  }
+
   private SortOption getSortOption(String option) {
     return "ASC".equalsIgnoreCase(option) ? DEFAULT_ASC : DEFAULT_DESC;
   }
@@ -56,6 +56,7 @@ import com.amazon.opendistroforelasticsearch.sql.ast.tree.Rename;
 import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort;
 import com.amazon.opendistroforelasticsearch.sql.ast.tree.UnresolvedPlan;
 import com.amazon.opendistroforelasticsearch.sql.ast.tree.Values;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition;
 import java.util.Arrays;
 import java.util.List;
 import lombok.experimental.UtilityClass;
@@ -230,12 +231,19 @@ public class AstDSL {
     return new When(condition, result);
   }
 
-  public UnresolvedExpression window(Function function,
+  public UnresolvedExpression window(UnresolvedExpression function,
                                      List<UnresolvedExpression> partitionByList,
                                      List<Pair<String, UnresolvedExpression>> sortList) {
     return new WindowFunction(function, partitionByList, sortList);
   }
 
+  public UnresolvedExpression window(UnresolvedExpression function,
+                                     List<UnresolvedExpression> partitionByList,
+                                     List<Pair<String, UnresolvedExpression>> sortList,
+                                     FrameDefinition frame) {
+    return new WindowFunction(function, partitionByList, sortList, frame);
+  }
+
   public static UnresolvedExpression not(UnresolvedExpression expression) {
     return new Not(expression);
   }
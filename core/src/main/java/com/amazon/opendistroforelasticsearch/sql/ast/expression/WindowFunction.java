@@ -18,6 +18,7 @@ package com.amazon.opendistroforelasticsearch.sql.ast.expression;
 
 import com.amazon.opendistroforelasticsearch.sql.ast.AbstractNodeVisitor;
 import com.amazon.opendistroforelasticsearch.sql.ast.Node;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition;
 import java.util.Collections;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -32,9 +33,16 @@ import org.apache.commons.lang3.tuple.Pair;
 @RequiredArgsConstructor
 public class WindowFunction extends UnresolvedExpression {
 
-  private final Function function;
+  private final UnresolvedExpression function;
   private List<UnresolvedExpression> partitionByList;
   private List<Pair<String, UnresolvedExpression>> sortList;
+  private FrameDefinition frame;
+
+  public WindowFunction(UnresolvedExpression function,
+                        List<UnresolvedExpression> partitionByList,
+                        List<Pair<String, UnresolvedExpression>> sortList) {
+    this(function, partitionByList, sortList, null);
+  }
 
   @Override
   public List<? extends Node> getChild() {
@@ -20,6 +20,7 @@ import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort;
 import com.amazon.opendistroforelasticsearch.sql.executor.ExecutionEngine.ExplainResponse;
 import com.amazon.opendistroforelasticsearch.sql.executor.ExecutionEngine.ExplainResponseNode;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.WindowDefinition;
 import com.amazon.opendistroforelasticsearch.sql.planner.physical.AggregationOperator;
 import com.amazon.opendistroforelasticsearch.sql.planner.physical.DedupeOperator;
 import com.amazon.opendistroforelasticsearch.sql.planner.physical.EvalOperator;
@@ -89,11 +90,17 @@ public class Explain extends PhysicalPlanNodeVisitor<ExplainResponseNode, Object
 
   @Override
   public ExplainResponseNode visitWindow(WindowOperator node, Object context) {
+    WindowDefinition windowDefinition = node.getWindowDefinition();
+    ImmutableMap.Builder<String, Object> definition = ImmutableMap.<String, Object>builder()
+        .put("partitionBy", windowDefinition.getPartitionByList().toString())
+        .put("sortList", describeSortList(windowDefinition.getSortList()));
+    if (windowDefinition.getFrame() != null) {
+      definition.put("frame", windowDefinition.getFrame().toString());
+    }
+
     return explain(node, context, explainNode -> explainNode.setDescription(ImmutableMap.of(
         "function", node.getWindowFunction().toString(),
-        "definition", ImmutableMap.of(
-            "partitionBy", node.getWindowDefinition().getPartitionByList().toString(),
-            "sortList", describeSortList(node.getWindowDefinition().getSortList())))));
+        "definition", definition.build())));
   }
 
   @Override
@@ -21,6 +21,7 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
 import com.amazon.opendistroforelasticsearch.sql.expression.env.Environment;
 import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.WindowFrame;
+import com.google.common.collect.PeekingIterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -67,6 +68,14 @@ public class CumulativeWindowFrame implements WindowFrame {
   }
 
   @Override
+  public void load(PeekingIterator<ExprValue> input) {
+    add((ExprTupleValue) input.next());
+  }
+
+  /**
+   * Add a row to the window frame as current row.
+   * @param row   data row
+   */
   public void add(ExprTupleValue row) {
     previous = current;
     current = row;
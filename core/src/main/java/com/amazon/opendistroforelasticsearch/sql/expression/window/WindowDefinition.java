@@ -20,21 +20,42 @@ import static com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption
 import static com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption.DEFAULT_ASC;
 
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition;
 import java.util.ArrayList;
 import java.util.List;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 /**
- * Window definition that consists of partition and sort by information for a window.
+ * Window definition that consists of partition, sort by and frame information for a window.
  */
+@AllArgsConstructor
 @Data
 public class WindowDefinition {
 
   private final List<Expression> partitionByList;
   private final List<Pair<SortOption, Expression>> sortList;
 
+  /**
+   * Frame definition which is null if not specified.
+   */
+  private final FrameDefinition frame;
+
+  public WindowDefinition(List<Expression> partitionByList,
+                          List<Pair<SortOption, Expression>> sortList) {
+    this(partitionByList, sortList, null);
+  }
+
+  /**
+   * Return frame definition specified or default frame if absent.
+   * @return  frame definition
+   */
+  public FrameDefinition getFrameOrDefault() {
+    return (frame == null) ? FrameDefinition.DEFAULT_FRAME : frame;
+  }
+
   /**
    * Return all items in partition by and sort list.
    * @return  all sort items
@@ -0,0 +1,98 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.expression.window.aggregation;
+
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.amazon.opendistroforelasticsearch.sql.data.type.ExprType;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.FunctionExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.aggregation.Aggregator;
+import com.amazon.opendistroforelasticsearch.sql.expression.env.Environment;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.BufferedWindowFrame;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Aggregate function used as window function that calculates aggregation result over the frame
+ * of each row. Because frame start and end only move forward within a partition, aggregation
+ * state is maintained incrementally by adding rows entering and removing rows leaving the frame.
+ */
+@EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
+public class AggregateWindowFunction extends FunctionExpression {
+
+  @Getter
+  @EqualsAndHashCode.Include
+  private final Aggregator<?> delegated;
+
+  private IncrementalAggregation aggregation;
+
+  /**
+   * Rows in [addedStart, addedEnd) is aggregated in current state.
+   */
+  private int addedStart;
+  private int addedEnd;
+
+  public AggregateWindowFunction(Aggregator<?> delegated) {
+    super(delegated.getFunctionName(), delegated.getArguments());
+    this.delegated = delegated;
+  }
+
+  @Override
+  public ExprValue valueOf(Environment<Expression, ExprValue> valueEnv) {
+    BufferedWindowFrame frame = (BufferedWindowFrame) valueEnv;
+    if (frame.isNewPartition()) {
+      aggregation = IncrementalAggregation.of(delegated);
+      addedStart = 0;
+      addedEnd = 0;
+    }
+
+    for (; addedStart < Math.min(frame.getFrameStart(), addedEnd); addedStart++) {
+      aggregate(frame, addedStart, false);
+    }
+    addedStart = frame.getFrameStart();
+    addedEnd = Math.max(addedStart, addedEnd);
+    for (; addedEnd < frame.getFrameEnd(); addedEnd++) {
+      aggregate(frame, addedEnd, true);
+    }
+    return aggregation.result();
+  }
+
+  private void aggregate(BufferedWindowFrame frame, int position, boolean isAdd) {
+    Expression argument = getArguments().get(0);
+    ExprValue value = argument.valueOf(frame.get(position).bindingTuples());
+    if (value.isNull() || value.isMissing()) {
+      return;
+    }
+
+    if (isAdd) {
+      aggregation.add(value);
+    } else {
+      aggregation.remove(value);
+    }
+  }
+
+  @Override
+  public ExprType type() {
+    return delegated.type();
+  }
+
+  @Override
+  public String toString() {
+    return delegated.toString();
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.expression.window.aggregation;
+
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprNullValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils;
+import com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType;
+import com.amazon.opendistroforelasticsearch.sql.data.type.ExprType;
+import com.amazon.opendistroforelasticsearch.sql.exception.ExpressionEvaluationException;
+import com.amazon.opendistroforelasticsearch.sql.expression.aggregation.Aggregator;
+import com.amazon.opendistroforelasticsearch.sql.expression.function.BuiltinFunctionName;
+import com.amazon.opendistroforelasticsearch.sql.expression.function.FunctionName;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Aggregation state for aggregate window function that supports removing value in the same order
+ * as added, so that aggregation over sliding window frame costs O(1) amortized per row rather
+ * than O(frame size). NULL and MISSING value is ignored by caller as regular aggregator does.
+ */
+public abstract class IncrementalAggregation {
+
+  /**
+   * Create incremental aggregation state for the aggregator.
+   * @param aggregator  aggregator
+   * @return            aggregation state
+   */
+  public static IncrementalAggregation of(Aggregator<?> aggregator) {
+    FunctionName functionName = aggregator.getFunctionName();
+    if (functionName.equals(BuiltinFunctionName.COUNT.getName())) {
+      return new CountAggregation();
+    } else if (functionName.equals(BuiltinFunctionName.SUM.getName())) {
+      return new SumAggregation(aggregator.type());
+    } else if (functionName.equals(BuiltinFunctionName.AVG.getName())) {
+      return new AvgAggregation();
+    } else if (functionName.equals(BuiltinFunctionName.MIN.getName())) {
+      return new MinMaxAggregation(true);
+    } else if (functionName.equals(BuiltinFunctionName.MAX.getName())) {
+      return new MinMaxAggregation(false);
+    }
+    throw new ExpressionEvaluationException(
+        String.format("unsupported aggregate window function [%s]", functionName));
+  }
+
+  /**
+   * Add value entering window frame.
+   */
+  public abstract void add(ExprValue value);
+
+  /**
+   * Remove value leaving window frame which is the earliest added.
+   */
+  public abstract void remove(ExprValue value);
+
+  /**
+   * Aggregation result of all values added but not removed yet.
+   */
+  public abstract ExprValue result();
+
+  private static class CountAggregation extends IncrementalAggregation {
+    private int count;
+
+    @Override
+    public void add(ExprValue value) {
+      count++;
+    }
+
+    @Override
+    public void remove(ExprValue value) {
+      count--;
+    }
+
+    @Override
+    public ExprValue result() {
+      return ExprValueUtils.integerValue(count);
+    }
+  }
+
+  /**
+   * Sum aggregation that accumulates both integral and floating point sum to avoid type check
+   * per value. Result is converted to the return type of sum aggregator.
+   */
+  private static class SumAggregation extends IncrementalAggregation {
+    private final ExprType type;
+    private long longSum;
+    private double doubleSum;
+    private int count;
+
+    SumAggregation(ExprType type) {
+      this.type = type;
+    }
+
+    @Override
+    public void add(ExprValue value) {
+      longSum += ExprValueUtils.getLongValue(value);
+      doubleSum += ExprValueUtils.getDoubleValue(value);
+      count++;
+    }
+
+    @Override
+    public void remove(ExprValue value) {
+      longSum -= ExprValueUtils.getLongValue(value);
+      doubleSum -= ExprValueUtils.getDoubleValue(value);
+      count--;
+    }
+
+    @Override
+    public ExprValue result() {
+      if (count == 0) {
+        return ExprNullValue.of();
+      } else if (type == ExprCoreType.DOUBLE) {
+        return ExprValueUtils.doubleValue(doubleSum);
+      } else if (type == ExprCoreType.FLOAT) {
+        return ExprValueUtils.floatValue((float) doubleSum);
+      } else if (type == ExprCoreType.LONG) {
+        return ExprValueUtils.longValue(longSum);
+      }
+      return ExprValueUtils.integerValue((int) longSum);
+    }
+  }
+
+  private static class AvgAggregation extends IncrementalAggregation {
+    private double total;
+    private int count;
+
+    @Override
+    public void add(ExprValue value) {
+      total += ExprValueUtils.getDoubleValue(value);
+      count++;
+    }
+
+    @Override
+    public void remove(ExprValue value) {
+      total -= ExprValueUtils.getDoubleValue(value);
+      count--;
+    }
+
+    @Override
+    public ExprValue result() {
+      return count == 0 ? ExprNullValue.of() : ExprValueUtils.doubleValue(total / count);
+    }
+  }
+
+  /**
+   * Min or max aggregation by monotonic deque in which values are kept in ascending (min) or
+   * descending (max) order. The head is always the result. Because values are removed in the
+   * same order as added, a value dominated by a later value can never be the result and thus
+   * is discarded on add.
+   */
+  private static class MinMaxAggregation extends IncrementalAggregation {
+    private final boolean isMin;
+    private final Deque<ExprValue> deque = new ArrayDeque<>();
+
+    MinMaxAggregation(boolean isMin) {
+      this.isMin = isMin;
+    }
+
+    @Override
+    public void add(ExprValue value) {
+      while (!deque.isEmpty() && isDominatedBy(deque.peekLast(), value)) {
+        deque.pollLast();
+      }
+      deque.offerLast(value);
+    }
+
+    @Override
+    public void remove(ExprValue value) {
+      if (deque.peekFirst().compareTo(value) == 0) {
+        deque.pollFirst();
+      }
+    }
+
+    @Override
+    public ExprValue result() {
+      return deque.isEmpty() ? ExprNullValue.of() : deque.peekFirst();
+    }
+
+    private boolean isDominatedBy(ExprValue value, ExprValue newValue) {
+      int result = value.compareTo(newValue);
+      return isMin ? result > 0 : result < 0;
+    }
+  }
+}
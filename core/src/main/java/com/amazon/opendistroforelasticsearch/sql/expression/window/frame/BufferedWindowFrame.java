@@ -0,0 +1,305 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.expression.window.frame;
+
+import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.NullOrder;
+import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption;
+import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOrder;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprTupleValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.WindowDefinition;
+import com.amazon.opendistroforelasticsearch.sql.monitor.MemoryTracker;
+import com.google.common.collect.PeekingIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Buffered window frame that loads rows of current partition as needed to determine the frame
+ * of current row defined by ROWS or RANGE frame definition. Frame start and end are maintained
+ * as absolute positions in the partition and only move forward, so that window function can
+ * maintain its state incrementally by adding rows entering and removing rows leaving the frame.
+ * Rows neither in the frame nor after current row are evicted from buffer.
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public class BufferedWindowFrame implements WindowFrame {
+
+  @Getter
+  @ToString.Include
+  private final WindowDefinition windowDefinition;
+
+  private final FrameDefinition frame;
+
+  private final List<Expression> sortItems;
+
+  private final MemoryTracker memoryTracker;
+
+  /**
+   * Rows buffered. Rows before first valid position are evicted lazily.
+   */
+  private final List<ExprTupleValue> rows = new ArrayList<>();
+
+  /**
+   * Estimated size of rows in buffer which is charged to memory tracker.
+   */
+  private long bufferedBytes;
+
+  /**
+   * Absolute position of the first row in buffer.
+   */
+  private int offset;
+
+  /**
+   * Position of the first row that is not evicted.
+   */
+  private int firstValid;
+
+  /**
+   * Position of current row.
+   */
+  private int current = -1;
+
+  /**
+   * Frame start (inclusive) and end (exclusive) position of current row.
+   */
+  @Getter
+  private int frameStart;
+
+  @Getter
+  private int frameEnd;
+
+  /**
+   * Is all rows of current partition loaded which means next input row is in new partition.
+   */
+  private boolean isPartitionEnd;
+
+  private List<ExprValue> partitionValues;
+
+  private List<ExprValue> currentSortValues;
+
+  /**
+   * Construct buffered window frame.
+   * @param windowDefinition  window definition
+   * @param memoryTracker     memory tracker charged as frame buffer grows
+   */
+  public BufferedWindowFrame(WindowDefinition windowDefinition, MemoryTracker memoryTracker) {
+    this.windowDefinition = windowDefinition;
+    this.frame = windowDefinition.getFrameOrDefault();
+    this.sortItems = windowDefinition.getSortList().stream()
+                                     .map(Pair::getRight)
+                                     .collect(Collectors.toList());
+    this.memoryTracker = memoryTracker;
+  }
+
+  @Override
+  public boolean isNewPartition() {
+    return current == 0;
+  }
+
+  @Override
+  public int currentIndex() {
+    return current;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return current < lastPosition();
+  }
+
+  @Override
+  public ExprTupleValue get(int index) {
+    if (index < firstValid || index > lastPosition()) {
+      throw new IndexOutOfBoundsException("Index is out of boundary of window frame: " + index);
+    }
+    return rows.get(index - offset);
+  }
+
+  @Override
+  public void load(PeekingIterator<ExprValue> input) {
+    if (isPartitionEnd && current == lastPosition()) {
+      startNewPartition();
+    } else {
+      evict();
+    }
+
+    current++;
+    if (!ensureLoaded(input, current)) {
+      // Partition end is detected right before loading current row
+      startNewPartition();
+      current++;
+      ensureLoaded(input, current);
+    }
+    currentSortValues = resolve(sortItems, get(current));
+
+    while (ensureLoaded(input, frameStart) && isBeforeFrameStart(frameStart)) {
+      frameStart++;
+    }
+    frameEnd = Math.max(frameStart, frameEnd);
+    while (ensureLoaded(input, frameEnd) && isInFrameEnd(frameEnd)) {
+      frameEnd++;
+    }
+  }
+
+  private boolean isBeforeFrameStart(int position) {
+    FrameBound start = frame.getStart();
+    switch (start.getType()) {
+      case UNBOUNDED_PRECEDING:
+        return false;
+      case CURRENT_ROW:
+        if (frame.getUnit() == FrameDefinition.Unit.RANGE) {
+          return !isPeer(position);
+        }
+        return position < current;
+      default:
+        if (frame.getUnit() == FrameDefinition.Unit.RANGE) {
+          return compareToRangeBound(position, start.signedOffset()) < 0;
+        }
+        return position < current + start.signedOffset();
+    }
+  }
+
+  private boolean isInFrameEnd(int position) {
+    FrameBound end = frame.getEnd();
+    switch (end.getType()) {
+      case UNBOUNDED_FOLLOWING:
+        return true;
+      case CURRENT_ROW:
+        if (frame.getUnit() == FrameDefinition.Unit.RANGE) {
+          return isPeer(position);
+        }
+        return position <= current;
+      default:
+        if (frame.getUnit() == FrameDefinition.Unit.RANGE) {
+          return compareToRangeBound(position, end.signedOffset()) <= 0;
+        }
+        return position <= current + end.signedOffset();
+    }
+  }
+
+  private boolean isPeer(int position) {
+    return resolve(sortItems, get(position)).equals(currentSortValues);
+  }
+
+  /**
+   * Compare sort key value of the row at the position with current row's value plus offset
+   * in the order of sort key. The sort key is single and numeric as validated by analyzer.
+   */
+  private int compareToRangeBound(int position, long signedOffset) {
+    Pair<SortOption, Expression> sortItem = windowDefinition.getSortList().get(0);
+    SortOption option = sortItem.getLeft();
+    ExprValue value = sortItem.getRight().valueOf(get(position).bindingTuples());
+    ExprValue currentValue = currentSortValues.get(0);
+    boolean isNullFirst = (option.getNullOrder() == NullOrder.NULL_FIRST);
+
+    if (isNullOrMissing(currentValue)) {
+      return isNullOrMissing(value) ? 0 : (isNullFirst ? 1 : -1);
+    }
+    if (isNullOrMissing(value)) {
+      return isNullFirst ? -1 : 1;
+    }
+
+    double bound = ExprValueUtils.getDoubleValue(currentValue);
+    double rowValue = ExprValueUtils.getDoubleValue(value);
+    if (option.getSortOrder() == SortOrder.ASC) {
+      return Double.compare(rowValue, bound + signedOffset);
+    }
+    return Double.compare(bound - signedOffset, rowValue);
+  }
+
+  /**
+   * Make sure the row at the position is loaded unless partition ends before it.
+   * @return true if the row is available in current partition
+   */
+  private boolean ensureLoaded(PeekingIterator<ExprValue> input, int position) {
+    while (position > lastPosition() && !isPartitionEnd) {
+      if (input.hasNext() && isSamePartition((ExprTupleValue) input.peek())) {
+        add((ExprTupleValue) input.next());
+      } else {
+        isPartitionEnd = true;
+      }
+    }
+    return position <= lastPosition();
+  }
+
+  private boolean isSamePartition(ExprTupleValue row) {
+    return (partitionValues == null)
+        || partitionValues.equals(resolve(windowDefinition.getPartitionByList(), row));
+  }
+
+  private void add(ExprTupleValue row) {
+    if (partitionValues == null) {
+      partitionValues = resolve(windowDefinition.getPartitionByList(), row);
+    }
+    long bytes = MemoryTracker.estimateSize(row);
+    memoryTracker.charge(bytes);
+    bufferedBytes += bytes;
+    rows.add(row);
+  }
+
+  /**
+   * Evict rows before frame start and current row. If frame start is unbounded, window function
+   * only adds rows after frame end, so rows before frame end can be evicted too. Evicted rows are
+   * removed from buffer physically only when they take up half of the buffer, so the cost is
+   * amortized O(1) per row.
+   */
+  private void evict() {
+    int frameFirst = frame.getStart().isUnbounded() ? frameEnd : frameStart;
+    firstValid = Math.max(firstValid, Math.min(current, frameFirst));
+
+    int evicted = firstValid - offset;
+    if (evicted > rows.size() / 2) {
+      List<ExprTupleValue> evictedRows = rows.subList(0, evicted);
+      long bytes = evictedRows.stream().mapToLong(MemoryTracker::estimateSize).sum();
+      memoryTracker.release(bytes);
+      bufferedBytes -= bytes;
+      evictedRows.clear();
+      offset = firstValid;
+    }
+  }
+
+  private void startNewPartition() {
+    memoryTracker.release(bufferedBytes);
+    bufferedBytes = 0;
+    rows.clear();
+    offset = 0;
+    firstValid = 0;
+    current = -1;
+    frameStart = 0;
+    frameEnd = 0;
+    isPartitionEnd = false;
+    partitionValues = null;
+  }
+
+  private int lastPosition() {
+    return offset + rows.size() - 1;
+  }
+
+  private List<ExprValue> resolve(List<Expression> expressions, ExprTupleValue row) {
+    return expressions.stream()
+                      .map(expr -> expr.valueOf(row.bindingTuples()))
+                      .collect(Collectors.toList());
+  }
+
+  private boolean isNullOrMissing(ExprValue value) {
+    return value.isNull() || value.isMissing();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.expression.window.frame;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Frame bound that defines the start or end of a window frame relative to current row.
+ * The offset is number of rows for ROWS frame and distance of sort key value for RANGE frame.
+ */
+@EqualsAndHashCode
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class FrameBound {
+
+  /**
+   * Frame bound type in the order of position relative to current row.
+   */
+  public enum Type {
+    UNBOUNDED_PRECEDING,
+    PRECEDING,
+    CURRENT_ROW,
+    FOLLOWING,
+    UNBOUNDED_FOLLOWING
+  }
+
+  private final Type type;
+
+  /**
+   * Offset for PRECEDING and FOLLOWING bound, 0 for the others.
+   */
+  private final long offset;
+
+  public static FrameBound unboundedPreceding() {
+    return new FrameBound(Type.UNBOUNDED_PRECEDING, 0L);
+  }
+
+  public static FrameBound preceding(long offset) {
+    return new FrameBound(Type.PRECEDING, offset);
+  }
+
+  public static FrameBound currentRow() {
+    return new FrameBound(Type.CURRENT_ROW, 0L);
+  }
+
+  public static FrameBound following(long offset) {
+    return new FrameBound(Type.FOLLOWING, offset);
+  }
+
+  public static FrameBound unboundedFollowing() {
+    return new FrameBound(Type.UNBOUNDED_FOLLOWING, 0L);
+  }
+
+  public boolean isUnbounded() {
+    return type == Type.UNBOUNDED_PRECEDING || type == Type.UNBOUNDED_FOLLOWING;
+  }
+
+  public boolean isOffset() {
+    return type == Type.PRECEDING || type == Type.FOLLOWING;
+  }
+
+  /**
+   * Offset with sign which is negative for PRECEDING and positive for FOLLOWING.
+   * @return  signed offset
+   */
+  public long signedOffset() {
+    return (type == Type.PRECEDING) ? -offset : offset;
+  }
+
+  @Override
+  public String toString() {
+    switch (type) {
+      case UNBOUNDED_PRECEDING:
+        return "UNBOUNDED PRECEDING";
+      case PRECEDING:
+        return offset + " PRECEDING";
+      case CURRENT_ROW:
+        return "CURRENT ROW";
+      case FOLLOWING:
+        return offset + " FOLLOWING";
+      default:
+        return "UNBOUNDED FOLLOWING";
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.expression.window.frame;
+
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.currentRow;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.unboundedPreceding;
+
+import com.amazon.opendistroforelasticsearch.sql.common.utils.StringUtils;
+import com.amazon.opendistroforelasticsearch.sql.exception.SemanticCheckException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Frame definition in window definition that consists of frame unit, start and end bound.
+ */
+@EqualsAndHashCode
+@Getter
+public class FrameDefinition {
+
+  /**
+   * Default frame which is all rows from partition start to the last peer of current row.
+   * This is same as entire partition if no sort list defined because all rows are peers.
+   */
+  public static final FrameDefinition DEFAULT_FRAME =
+      new FrameDefinition(Unit.RANGE, unboundedPreceding(), currentRow());
+
+  /**
+   * Frame unit.
+   */
+  public enum Unit {
+    /**
+     * Frame bound offset is physical number of rows.
+     */
+    ROWS,
+
+    /**
+     * Frame bound offset is logical distance of sort key value and current row includes its peers.
+     */
+    RANGE
+  }
+
+  private final Unit unit;
+  private final FrameBound start;
+  private final FrameBound end;
+
+  /**
+   * Construct frame definition with start bound only which means frame ends at current row.
+   */
+  public FrameDefinition(Unit unit, FrameBound start) {
+    this(unit, start, currentRow());
+  }
+
+  /**
+   * Construct frame definition and validate the bounds.
+   */
+  public FrameDefinition(Unit unit, FrameBound start, FrameBound end) {
+    if (start.getType() == FrameBound.Type.UNBOUNDED_FOLLOWING) {
+      throw new SemanticCheckException("Frame start cannot be UNBOUNDED FOLLOWING");
+    }
+    if (end.getType() == FrameBound.Type.UNBOUNDED_PRECEDING) {
+      throw new SemanticCheckException("Frame end cannot be UNBOUNDED PRECEDING");
+    }
+    if (start.getType().compareTo(end.getType()) > 0) {
+      throw new SemanticCheckException(
+          StringUtils.format("Frame starting from %s cannot end with %s", start, end));
+    }
+    this.unit = unit;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Is frame bound offset specified which requires single numeric sort key for RANGE frame.
+   */
+  public boolean hasOffset() {
+    return start.isOffset() || end.isOffset();
+  }
+
+  @Override
+  public String toString() {
+    return StringUtils.format("%s BETWEEN %s AND %s", unit, start, end);
+  }
+}
@@ -20,6 +20,7 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprTupleValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
 import com.amazon.opendistroforelasticsearch.sql.expression.env.Environment;
+import com.google.common.collect.PeekingIterator;
 
 /**
  * Window frame that represents a subset of a window which is all data accessible to
@@ -50,10 +51,19 @@ public interface WindowFrame extends Environment<Expression, ExprValue> {
   int currentIndex();
 
   /**
-   * Add a row to the window frame.
-   * @param row   data row
+   * Load rows from input into the window frame until the frame of next row is determined
+   * and make it current row. Input is peeked to detect the end of partition without consuming.
+   * @param input   input rows
    */
-  void add(ExprTupleValue row);
+  void load(PeekingIterator<ExprValue> input);
+
+  /**
+   * Check if there is any row loaded after current row.
+   * @return  true if more rows loaded already, otherwise false
+   */
+  default boolean hasNext() {
+    return false;
+  }
 
   /**
    * Get a data rows within the frame by offset.
@@ -0,0 +1,162 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.monitor;
+
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprCollectionValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprStringValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprTupleValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Memory tracker of stateful physical operator which accounts the estimated size of rows or
+ * states retained by the operator. Charges are accumulated and flushed to resource monitor in
+ * batch to avoid checking it for every single row. All memory charged is released when
+ * the operator is closed.
+ *
+ * <p>Note that the tracker is not thread safe and supposed to be used by single operator.
+ */
+@RequiredArgsConstructor
+public class MemoryTracker {
+
+  /**
+   * Size of charges accumulated before flushing to resource monitor.
+   */
+  @VisibleForTesting
+  static final long FLUSH_THRESHOLD_IN_BYTES = 1024 * 1024;
+
+  /**
+   * Estimated size of object header and reference to it.
+   */
+  private static final long OBJECT_BYTES = 24;
+
+  /**
+   * Estimated size of map entry of tuple value excluding key and value.
+   */
+  private static final long ENTRY_BYTES = 32;
+
+  private final ResourceMonitor resourceMonitor;
+
+  /**
+   * Bytes charged to resource monitor already.
+   */
+  private long charged;
+
+  /**
+   * Bytes accounted but not charged to resource monitor yet.
+   */
+  private long pending;
+
+  /**
+   * Account the memory retained by the value.
+   *
+   * @param value value retained
+   */
+  public void charge(ExprValue value) {
+    charge(estimateSize(value));
+  }
+
+  /**
+   * Account memory retained.
+   *
+   * @param bytes estimated size in bytes
+   */
+  public void charge(long bytes) {
+    pending += bytes;
+    if (pending >= FLUSH_THRESHOLD_IN_BYTES) {
+      resourceMonitor.charge(pending);
+      charged += pending;
+      pending = 0;
+    }
+  }
+
+  /**
+   * Release memory no longer retained.
+   *
+   * @param bytes estimated size in bytes charged before
+   */
+  public void release(long bytes) {
+    long fromPending = Math.min(bytes, pending);
+    pending -= fromPending;
+
+    long fromCharged = Math.min(bytes - fromPending, charged);
+    if (fromCharged > 0) {
+      charged -= fromCharged;
+      resourceMonitor.release(fromCharged);
+    }
+  }
+
+  /**
+   * Release all memory accounted.
+   */
+  public void releaseAll() {
+    release(pending + charged);
+  }
+
+  /**
+   * Total bytes accounted.
+   */
+  public long used() {
+    return charged + pending;
+  }
+
+  /**
+   * Estimate the size of value in memory. The estimate is rough and only string, tuple and
+   * collection value are sized by their content.
+   *
+   * @param value value
+   * @return estimated size in bytes
+   */
+  public static long estimateSize(ExprValue value) {
+    if (value instanceof ExprStringValue) {
+      return estimateSize(value.stringValue());
+    }
+    if (value instanceof ExprTupleValue) {
+      long size = OBJECT_BYTES * 2;
+      for (Map.Entry<String, ExprValue> entry : value.tupleValue().entrySet()) {
+        size += ENTRY_BYTES + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+      }
+      return size;
+    }
+    if (value instanceof ExprCollectionValue) {
+      return OBJECT_BYTES * 2 + estimateSize(value.collectionValue());
+    }
+    return OBJECT_BYTES;
+  }
+
+  /**
+   * Estimate the size of values in a list.
+   *
+   * @param values values
+   * @return estimated size in bytes
+   */
+  public static long estimateSize(List<ExprValue> values) {
+    long size = OBJECT_BYTES;
+    for (ExprValue value : values) {
+      size += estimateSize(value);
+    }
+    return size;
+  }
+
+  private static long estimateSize(String value) {
+    return OBJECT_BYTES * 2 + 2L * value.length();
+  }
+}
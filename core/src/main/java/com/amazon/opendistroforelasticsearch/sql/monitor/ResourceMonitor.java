@@ -26,4 +26,20 @@ public abstract class ResourceMonitor {
    * @return true for healthy, otherwise false.
    */
   public abstract boolean isHealthy();
+
+  /**
+   * Charge memory retained by query execution. By default, memory is not accounted.
+   *
+   * @param bytes estimated size in bytes
+   */
+  public void charge(long bytes) {
+  }
+
+  /**
+   * Release memory charged before and no longer retained by query execution.
+   *
+   * @param bytes estimated size in bytes
+   */
+  public void release(long bytes) {
+  }
 }
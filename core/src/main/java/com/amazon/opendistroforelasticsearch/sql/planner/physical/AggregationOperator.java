@@ -22,6 +22,9 @@ import com.amazon.opendistroforelasticsearch.sql.expression.NamedExpression;
 import com.amazon.opendistroforelasticsearch.sql.expression.aggregation.AggregationState;
 import com.amazon.opendistroforelasticsearch.sql.expression.aggregation.Aggregator;
 import com.amazon.opendistroforelasticsearch.sql.expression.aggregation.NamedAggregator;
+import com.amazon.opendistroforelasticsearch.sql.monitor.AlwaysHealthyMonitor;
+import com.amazon.opendistroforelasticsearch.sql.monitor.MemoryTracker;
+import com.amazon.opendistroforelasticsearch.sql.monitor.ResourceMonitor;
 import com.amazon.opendistroforelasticsearch.sql.storage.bindingtuple.BindingTuple;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
@@ -55,8 +58,16 @@ public class AggregationOperator extends PhysicalPlan {
   @EqualsAndHashCode.Exclude
   private final Group group;
   @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final MemoryTracker memoryTracker;
+  @EqualsAndHashCode.Exclude
   private Iterator<ExprValue> iterator;
 
+  /**
+   * Estimated size of aggregation state of each aggregator per group.
+   */
+  private static final long STATE_BYTES = 64;
+
   /**
    * AggregationOperator Constructor.
    *
@@ -66,9 +77,24 @@ public class AggregationOperator extends PhysicalPlan {
    */
   public AggregationOperator(PhysicalPlan input, List<NamedAggregator> aggregatorList,
                              List<NamedExpression> groupByExprList) {
+    this(input, aggregatorList, groupByExprList, AlwaysHealthyMonitor.ALWAYS_HEALTHY_MONITOR);
+  }
+
+  /**
+   * AggregationOperator Constructor with resource monitor charged for groups created.
+   *
+   * @param input           Input {@link PhysicalPlan}
+   * @param aggregatorList  List of {@link Aggregator}
+   * @param groupByExprList List of group by {@link Expression}
+   * @param resourceMonitor Resource monitor
+   */
+  public AggregationOperator(PhysicalPlan input, List<NamedAggregator> aggregatorList,
+                             List<NamedExpression> groupByExprList,
+                             ResourceMonitor resourceMonitor) {
     this.input = input;
     this.aggregatorList = aggregatorList;
     this.groupByExprList = groupByExprList;
+    this.memoryTracker = new MemoryTracker(resourceMonitor);
     this.group = new Group();
   }
 
@@ -102,6 +128,12 @@ public class AggregationOperator extends PhysicalPlan {
     iterator = group.result().iterator();
   }
 
+  @Override
+  public void close() {
+    super.close();
+    memoryTracker.releaseAll();
+  }
+
   @VisibleForTesting
   @RequiredArgsConstructor
   public class Group {
@@ -116,12 +148,14 @@ public class AggregationOperator extends PhysicalPlan {
      */
     public void push(ExprValue inputValue) {
       GroupKey groupKey = new GroupKey(inputValue);
-      groupListMap.computeIfAbsent(groupKey, k ->
-          aggregatorList.stream()
-              .map(aggregator -> new AbstractMap.SimpleEntry<>(aggregator,
-                  aggregator.create()))
-              .collect(Collectors.toList())
-      );
+      groupListMap.computeIfAbsent(groupKey, k -> {
+        memoryTracker.charge(
+            MemoryTracker.estimateSize(k.groupByValueList) + STATE_BYTES * aggregatorList.size());
+        return aggregatorList.stream()
+            .map(aggregator -> new AbstractMap.SimpleEntry<>(aggregator,
+                aggregator.create()))
+            .collect(Collectors.toList());
+      });
       groupListMap.computeIfPresent(groupKey, (key, aggregatorList) -> {
         aggregatorList
             .forEach(entry -> entry.getKey().iterate(inputValue.bindingTuples(), entry.getValue()));
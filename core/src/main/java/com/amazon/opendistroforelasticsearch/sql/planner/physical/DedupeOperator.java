@@ -17,6 +17,9 @@ package com.amazon.opendistroforelasticsearch.sql.planner.physical;
 
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.monitor.AlwaysHealthyMonitor;
+import com.amazon.opendistroforelasticsearch.sql.monitor.MemoryTracker;
+import com.amazon.opendistroforelasticsearch.sql.monitor.ResourceMonitor;
 import com.amazon.opendistroforelasticsearch.sql.storage.bindingtuple.BindingTuple;
 import com.google.common.collect.ImmutableList;
 import java.util.Collections;
@@ -51,6 +54,8 @@ public class DedupeOperator extends PhysicalPlan {
   @EqualsAndHashCode.Exclude
   private final Deduper<List<ExprValue>> deduper;
   @EqualsAndHashCode.Exclude
+  private final MemoryTracker memoryTracker;
+  @EqualsAndHashCode.Exclude
   private ExprValue next;
 
   private static final Integer ALL_ONE_DUPLICATION = 1;
@@ -79,12 +84,34 @@ public class DedupeOperator extends PhysicalPlan {
       Integer allowedDuplication,
       Boolean keepEmpty,
       Boolean consecutive) {
+    this(input, dedupeList, allowedDuplication, keepEmpty, consecutive,
+        AlwaysHealthyMonitor.ALWAYS_HEALTHY_MONITOR);
+  }
+
+  /**
+   * Dedup Constructor with resource monitor charged for dedupe keys seen.
+   * @param input input {@link PhysicalPlan}
+   * @param dedupeList list of dedupe {@link Expression}
+   * @param allowedDuplication max allowed duplication
+   * @param keepEmpty keep empty
+   * @param consecutive consecutive mode
+   * @param resourceMonitor resource monitor
+   */
+  @NonNull
+  public DedupeOperator(
+      PhysicalPlan input,
+      List<Expression> dedupeList,
+      Integer allowedDuplication,
+      Boolean keepEmpty,
+      Boolean consecutive,
+      ResourceMonitor resourceMonitor) {
     this.input = input;
     this.dedupeList = dedupeList;
     this.allowedDuplication = allowedDuplication;
     this.keepEmpty = keepEmpty;
     this.consecutive = consecutive;
     this.deduper = this.consecutive ? Deduper.consecutiveDeduper() : Deduper.historicalDeduper();
+    this.memoryTracker = new MemoryTracker(resourceMonitor);
   }
 
   @Override
@@ -114,6 +141,12 @@ public class DedupeOperator extends PhysicalPlan {
     return this.next;
   }
 
+  @Override
+  public void close() {
+    super.close();
+    memoryTracker.releaseAll();
+  }
+
   /**
    * Test the {@link ExprValue} should be keep or ignore
    *
@@ -135,6 +168,10 @@ public class DedupeOperator extends PhysicalPlan {
     }
     List<ExprValue> dedupeKey = dedupeKeyBuilder.build();
     int seenTimes = deduper.seenTimes(dedupeKey);
+    if (seenTimes == SEEN_FIRST_TIME && !consecutive) {
+      // Consecutive deduper only retains the last key seen
+      memoryTracker.charge(MemoryTracker.estimateSize(dedupeKey));
+    }
     return seenTimes <= allowedDuplication;
   }
 
@@ -19,6 +19,9 @@ import com.amazon.opendistroforelasticsearch.sql.ast.tree.RareTopN.CommandType;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprTupleValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.monitor.AlwaysHealthyMonitor;
+import com.amazon.opendistroforelasticsearch.sql.monitor.MemoryTracker;
+import com.amazon.opendistroforelasticsearch.sql.monitor.ResourceMonitor;
 import com.amazon.opendistroforelasticsearch.sql.storage.bindingtuple.BindingTuple;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
@@ -60,6 +63,9 @@ public class RareTopNOperator extends PhysicalPlan {
   @EqualsAndHashCode.Exclude
   private final Group group;
   @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final MemoryTracker memoryTracker;
+  @EqualsAndHashCode.Exclude
   private Iterator<ExprValue> iterator;
 
   private static final Integer DEFAULT_NO_OF_RESULTS = 10;
@@ -82,11 +88,30 @@ public class RareTopNOperator extends PhysicalPlan {
   public RareTopNOperator(PhysicalPlan input, CommandType commandType, int noOfResults,
       List<Expression> fieldExprList,
       List<Expression> groupByExprList) {
+    this(input, commandType, noOfResults, fieldExprList, groupByExprList,
+        AlwaysHealthyMonitor.ALWAYS_HEALTHY_MONITOR);
+  }
+
+  /**
+   * RareTopNOperator Constructor with resource monitor charged for keys counted.
+   *
+   * @param input           Input {@link PhysicalPlan}
+   * @param commandType     Enum for Rare/TopN command.
+   * @param noOfResults     Number of results
+   * @param fieldExprList   List of {@link Expression}
+   * @param groupByExprList List of group by {@link Expression}
+   * @param resourceMonitor Resource monitor
+   */
+  public RareTopNOperator(PhysicalPlan input, CommandType commandType, int noOfResults,
+      List<Expression> fieldExprList,
+      List<Expression> groupByExprList,
+      ResourceMonitor resourceMonitor) {
     this.input = input;
     this.commandType = commandType;
     this.noOfResults = noOfResults;
     this.fieldExprList = fieldExprList;
     this.groupByExprList = groupByExprList;
+    this.memoryTracker = new MemoryTracker(resourceMonitor);
     this.group = new Group();
   }
 
@@ -119,6 +144,12 @@ public class RareTopNOperator extends PhysicalPlan {
     iterator = group.result().iterator();
   }
 
+  @Override
+  public void close() {
+    super.close();
+    memoryTracker.releaseAll();
+  }
+
   @VisibleForTesting
   @RequiredArgsConstructor
   public class Group {
@@ -132,12 +163,17 @@ public class RareTopNOperator extends PhysicalPlan {
       Key groupKey = new Key(inputValue, groupByExprList);
       Key fieldKey = new Key(inputValue, fieldExprList);
       groupListMap.computeIfAbsent(groupKey, k -> {
+        memoryTracker.charge(MemoryTracker.estimateSize(k.valueList)
+            + MemoryTracker.estimateSize(fieldKey.valueList));
         Map<Key, Integer> map = new HashMap<>();
         map.put(fieldKey, 1);
         return map;
       });
       groupListMap.computeIfPresent(groupKey, (key, map) -> {
-        map.computeIfAbsent(fieldKey, f -> 1);
+        map.computeIfAbsent(fieldKey, f -> {
+          memoryTracker.charge(MemoryTracker.estimateSize(f.valueList));
+          return 1;
+        });
         map.computeIfPresent(fieldKey, (field, count) -> {
           return count + 1;
         });
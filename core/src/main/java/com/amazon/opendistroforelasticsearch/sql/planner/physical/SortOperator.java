@@ -22,6 +22,9 @@ import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.data.utils.ExprValueOrdering;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.monitor.AlwaysHealthyMonitor;
+import com.amazon.opendistroforelasticsearch.sql.monitor.MemoryTracker;
+import com.amazon.opendistroforelasticsearch.sql.monitor.ResourceMonitor;
 import com.amazon.opendistroforelasticsearch.sql.planner.physical.SortOperator.Sorter.SorterBuilder;
 import java.util.Collections;
 import java.util.Comparator;
@@ -51,6 +54,9 @@ public class SortOperator extends PhysicalPlan {
   @EqualsAndHashCode.Exclude
   private final Sorter sorter;
   @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final MemoryTracker memoryTracker;
+  @EqualsAndHashCode.Exclude
   private Iterator<ExprValue> iterator;
 
   /**
@@ -61,20 +67,22 @@ public class SortOperator extends PhysicalPlan {
    */
   public SortOperator(
       PhysicalPlan input, List<Pair<SortOption, Expression>> sortList) {
+    this(input, sortList, AlwaysHealthyMonitor.ALWAYS_HEALTHY_MONITOR);
+  }
+
+  /**
+   * Sort Operator Constructor with resource monitor charged for rows buffered.
+   * @param input input {@link PhysicalPlan}
+   * @param sortList list of sort sort field.
+   * @param resourceMonitor resource monitor
+   */
+  public SortOperator(
+      PhysicalPlan input, List<Pair<SortOption, Expression>> sortList,
+      ResourceMonitor resourceMonitor) {
     this.input = input;
     this.sortList = sortList;
-    SorterBuilder sorterBuilder = Sorter.builder();
-    for (Pair<SortOption, Expression> pair : sortList) {
-      SortOption option = pair.getLeft();
-      ExprValueOrdering ordering =
-          ASC.equals(option.getSortOrder())
-              ? ExprValueOrdering.natural()
-              : ExprValueOrdering.natural().reverse();
-      ordering =
-          NULL_FIRST.equals(option.getNullOrder()) ? ordering.nullsFirst() : ordering.nullsLast();
-      sorterBuilder.comparator(Pair.of(pair.getRight(), ordering));
-    }
-    this.sorter = sorterBuilder.build();
+    this.sorter = Sorter.of(sortList);
+    this.memoryTracker = new MemoryTracker(resourceMonitor);
   }
 
   @Override
@@ -87,12 +95,20 @@ public class SortOperator extends PhysicalPlan {
     super.open();
     PriorityQueue<ExprValue> sorted = new PriorityQueue<>(1, sorter::compare);
     while (input.hasNext()) {
-      sorted.add(input.next());
+      ExprValue next = input.next();
+      memoryTracker.charge(next);
+      sorted.add(next);
     }
 
     iterator = iterator(sorted);
   }
 
+  @Override
+  public void close() {
+    super.close();
+    memoryTracker.releaseAll();
+  }
+
   @Override
   public List<PhysicalPlan> getChild() {
     return Collections.singletonList(input);
@@ -113,6 +129,26 @@ public class SortOperator extends PhysicalPlan {
     @Singular
     private final List<Pair<Expression, Comparator<ExprValue>>> comparators;
 
+    /**
+     * Create sorter that compares rows by the sort list.
+     * @param sortList list of sort field with sort option
+     * @return sorter
+     */
+    public static Sorter of(List<Pair<SortOption, Expression>> sortList) {
+      SorterBuilder sorterBuilder = Sorter.builder();
+      for (Pair<SortOption, Expression> pair : sortList) {
+        SortOption option = pair.getLeft();
+        ExprValueOrdering ordering =
+            ASC.equals(option.getSortOrder())
+                ? ExprValueOrdering.natural()
+                : ExprValueOrdering.natural().reverse();
+        ordering =
+            NULL_FIRST.equals(option.getNullOrder()) ? ordering.nullsFirst() : ordering.nullsLast();
+        sorterBuilder.comparator(Pair.of(pair.getRight(), ordering));
+      }
+      return sorterBuilder.build();
+    }
+
     @Override
     public int compare(ExprValue o1, ExprValue o2) {
       for (Pair<Expression, Comparator<ExprValue>> comparator : comparators) {
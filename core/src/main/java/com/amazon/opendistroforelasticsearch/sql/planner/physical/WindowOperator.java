@@ -21,8 +21,15 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
 import com.amazon.opendistroforelasticsearch.sql.expression.window.CumulativeWindowFrame;
 import com.amazon.opendistroforelasticsearch.sql.expression.window.WindowDefinition;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.BufferedWindowFrame;
 import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.WindowFrame;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.ranking.RankingWindowFunction;
+import com.amazon.opendistroforelasticsearch.sql.monitor.AlwaysHealthyMonitor;
+import com.amazon.opendistroforelasticsearch.sql.monitor.MemoryTracker;
+import com.amazon.opendistroforelasticsearch.sql.monitor.ResourceMonitor;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
 import java.util.Collections;
 import java.util.List;
 import lombok.EqualsAndHashCode;
@@ -44,10 +51,26 @@ public class WindowOperator extends PhysicalPlan {
   @Getter
   private final WindowDefinition windowDefinition;
 
+  @Getter
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final ResourceMonitor resourceMonitor;
+
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final MemoryTracker memoryTracker;
+
   @EqualsAndHashCode.Exclude
   @ToString.Exclude
   private final WindowFrame windowFrame;
 
+  /**
+   * Input wrapped to peek next row without consuming it.
+   */
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final PeekingIterator<ExprValue> peekingInput;
+
   /**
    * Initialize window operator.
    * @param input             child operator
@@ -57,10 +80,27 @@ public class WindowOperator extends PhysicalPlan {
   public WindowOperator(PhysicalPlan input,
                         Expression windowFunction,
                         WindowDefinition windowDefinition) {
+    this(input, windowFunction, windowDefinition, AlwaysHealthyMonitor.ALWAYS_HEALTHY_MONITOR);
+  }
+
+  /**
+   * Initialize window operator with resource monitor charged for rows buffered.
+   * @param input             child operator
+   * @param windowFunction    window function
+   * @param windowDefinition  window definition
+   * @param resourceMonitor   resource monitor
+   */
+  public WindowOperator(PhysicalPlan input,
+                        Expression windowFunction,
+                        WindowDefinition windowDefinition,
+                        ResourceMonitor resourceMonitor) {
     this.input = input;
     this.windowFunction = windowFunction;
     this.windowDefinition = windowDefinition;
+    this.resourceMonitor = resourceMonitor;
+    this.memoryTracker = new MemoryTracker(resourceMonitor);
     this.windowFrame = createWindowFrame();
+    this.peekingInput = Iterators.peekingIterator(input);
   }
 
   @Override
@@ -75,7 +115,7 @@ public class WindowOperator extends PhysicalPlan {
 
   @Override
   public boolean hasNext() {
-    return input.hasNext();
+    return windowFrame.hasNext() || peekingInput.hasNext();
   }
 
   @Override
@@ -85,20 +125,28 @@ public class WindowOperator extends PhysicalPlan {
   }
 
   /**
-   * For now cumulative window frame is returned always. When frame definition is supported:
-   *  1. Ranking window functions: ignore frame definition and always operates on entire window.
-   *  2. Aggregate window functions: operates on cumulative or sliding window based on definition.
+   * Ranking window functions ignore frame definition and only need previous and current row
+   * in cumulative window frame. Aggregate window functions operate on buffered window frame
+   * which supports ROWS and RANGE frame definition.
    */
   private WindowFrame createWindowFrame() {
-    return new CumulativeWindowFrame(windowDefinition);
+    if (windowFunction instanceof RankingWindowFunction) {
+      return new CumulativeWindowFrame(windowDefinition);
+    }
+    return new BufferedWindowFrame(windowDefinition, memoryTracker);
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    memoryTracker.releaseAll();
   }
 
   /**
-   * For now always load next row into window frame. In future, how/how many rows loaded
-   * should be based on window frame type.
+   * Let window frame load as many rows as it needs to determine frame of next row.
    */
   private void loadRowsIntoWindowFrame() {
-    windowFrame.add((ExprTupleValue) input.next());
+    windowFrame.load(peekingInput);
   }
 
   private ExprValue enrichCurrentRowByWindowFunctionResult() {
@@ -20,17 +20,29 @@ import static com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption
 import static com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption.DEFAULT_DESC;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.STRING;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.currentRow;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.following;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.preceding;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.unboundedPreceding;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.RANGE;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.ROWS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.amazon.opendistroforelasticsearch.sql.ast.dsl.AstDSL;
+import com.amazon.opendistroforelasticsearch.sql.ast.expression.UnresolvedExpression;
+import com.amazon.opendistroforelasticsearch.sql.exception.SemanticCheckException;
 import com.amazon.opendistroforelasticsearch.sql.expression.DSL;
 import com.amazon.opendistroforelasticsearch.sql.expression.config.ExpressionConfig;
 import com.amazon.opendistroforelasticsearch.sql.expression.window.WindowDefinition;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.aggregation.AggregateWindowFunction;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition;
 import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
 import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL;
 import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalRelation;
 import com.google.common.collect.ImmutableList;
 import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
@@ -80,6 +92,87 @@ class WindowExpressionAnalyzerTest extends AnalyzerTestBase {
             analysisContext));
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  void should_analyze_aggregate_window_function_with_frame() {
+    FrameDefinition frame = new FrameDefinition(RANGE, preceding(10), following(10));
+    assertEquals(
+        LogicalPlanDSL.window(
+            LogicalPlanDSL.sort(
+                LogicalPlanDSL.relation("test"),
+                ImmutablePair.of(DEFAULT_ASC, DSL.ref("string_value", STRING)),
+                ImmutablePair.of(DEFAULT_ASC, DSL.ref("integer_value", INTEGER))),
+            new AggregateWindowFunction(dsl.sum(DSL.ref("integer_value", INTEGER))),
+            new WindowDefinition(
+                ImmutableList.of(DSL.ref("string_value", STRING)),
+                ImmutableList.of(
+                    ImmutablePair.of(DEFAULT_ASC, DSL.ref("integer_value", INTEGER))),
+                frame)),
+        analyzer.analyze(
+            AstDSL.alias(
+                "sum",
+                AstDSL.window(
+                    AstDSL.aggregate("sum", AstDSL.qualifiedName("integer_value")),
+                    ImmutableList.of(AstDSL.qualifiedName("string_value")),
+                    ImmutableList.of(
+                        ImmutablePair.of("ASC", AstDSL.qualifiedName("integer_value"))),
+                    frame)),
+            analysisContext));
+  }
+
+  @Test
+  void should_allow_frame_without_offset_or_by_rows_for_any_sort_key() {
+    ImmutableList<Pair<String, UnresolvedExpression>> sortList = ImmutableList.of(
+        ImmutablePair.of("ASC", AstDSL.qualifiedName("string_value")),
+        ImmutablePair.of("ASC", AstDSL.qualifiedName("integer_value")));
+
+    analyzer.analyze(
+        AstDSL.alias("sum", AstDSL.window(
+            AstDSL.aggregate("sum", AstDSL.qualifiedName("integer_value")),
+            ImmutableList.of(), sortList,
+            new FrameDefinition(ROWS, preceding(1), following(1)))),
+        analysisContext);
+    analyzer.analyze(
+        AstDSL.alias("sum", AstDSL.window(
+            AstDSL.aggregate("sum", AstDSL.qualifiedName("integer_value")),
+            ImmutableList.of(), sortList,
+            new FrameDefinition(RANGE, unboundedPreceding(), currentRow()))),
+        analysisContext);
+  }
+
+  @Test
+  void should_fail_if_range_frame_with_offset_has_more_than_one_sort_key() {
+    SemanticCheckException exception = assertThrows(SemanticCheckException.class,
+        () -> analyzer.analyze(
+            AstDSL.alias("sum", AstDSL.window(
+                AstDSL.aggregate("sum", AstDSL.qualifiedName("integer_value")),
+                ImmutableList.of(),
+                ImmutableList.of(
+                    ImmutablePair.of("ASC", AstDSL.qualifiedName("integer_value")),
+                    ImmutablePair.of("ASC", AstDSL.qualifiedName("double_value"))),
+                new FrameDefinition(RANGE, preceding(1)))),
+            analysisContext));
+    assertEquals(
+        "RANGE frame with offset requires exactly one numeric sort key "
+            + "but found [integer_value, double_value]",
+        exception.getMessage());
+  }
+
+  @Test
+  void should_fail_if_range_frame_with_offset_has_non_numeric_sort_key() {
+    SemanticCheckException exception = assertThrows(SemanticCheckException.class,
+        () -> analyzer.analyze(
+            AstDSL.alias("sum", AstDSL.window(
+                AstDSL.aggregate("sum", AstDSL.qualifiedName("integer_value")),
+                ImmutableList.of(),
+                ImmutableList.of(ImmutablePair.of("ASC", AstDSL.qualifiedName("string_value"))),
+                new FrameDefinition(RANGE, currentRow(), following(1)))),
+            analysisContext));
+    assertEquals(
+        "RANGE frame with offset requires exactly one numeric sort key but found [string_value]",
+        exception.getMessage());
+  }
+
   @Test
   void should_return_original_child_if_project_item_not_windowed() {
     assertEquals(
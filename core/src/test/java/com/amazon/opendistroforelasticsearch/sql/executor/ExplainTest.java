@@ -24,6 +24,9 @@ import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.S
 import static com.amazon.opendistroforelasticsearch.sql.expression.DSL.literal;
 import static com.amazon.opendistroforelasticsearch.sql.expression.DSL.named;
 import static com.amazon.opendistroforelasticsearch.sql.expression.DSL.ref;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.currentRow;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.preceding;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.ROWS;
 import static com.amazon.opendistroforelasticsearch.sql.planner.physical.PhysicalPlanDSL.agg;
 import static com.amazon.opendistroforelasticsearch.sql.planner.physical.PhysicalPlanDSL.dedupe;
 import static com.amazon.opendistroforelasticsearch.sql.planner.physical.PhysicalPlanDSL.eval;
@@ -53,6 +56,8 @@ import com.amazon.opendistroforelasticsearch.sql.expression.NamedExpression;
 import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
 import com.amazon.opendistroforelasticsearch.sql.expression.aggregation.NamedAggregator;
 import com.amazon.opendistroforelasticsearch.sql.expression.window.WindowDefinition;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.aggregation.AggregateWindowFunction;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition;
 import com.amazon.opendistroforelasticsearch.sql.planner.physical.PhysicalPlan;
 import com.amazon.opendistroforelasticsearch.sql.storage.TableScanOperator;
 import com.google.common.collect.ImmutableList;
@@ -187,6 +192,34 @@ class ExplainTest extends ExpressionTestBase {
         explain.apply(plan));
   }
 
+  @Test
+  void can_explain_window_with_frame() {
+    List<Expression> partitionByList = ImmutableList.of(DSL.ref("state", STRING));
+    List<Pair<Sort.SortOption, Expression>> sortList = ImmutableList.of(
+        ImmutablePair.of(DEFAULT_ASC, ref("age", INTEGER)));
+
+    PhysicalPlan plan = window(tableScan,
+        new AggregateWindowFunction(dsl.sum(ref("age", INTEGER))),
+        new WindowDefinition(partitionByList, sortList,
+            new FrameDefinition(ROWS, preceding(1), currentRow())));
+
+    assertEquals(
+        new ExplainResponse(
+            new ExplainResponseNode(
+                "WindowOperator",
+                ImmutableMap.of(
+                    "function", "sum(age)",
+                    "definition", ImmutableMap.of(
+                        "partitionBy", "[state]",
+                        "sortList", ImmutableMap.of(
+                            "age", ImmutableMap.of(
+                                "sortOrder", "ASC",
+                                "nullOrder", "NULL_FIRST")),
+                        "frame", "ROWS BETWEEN 1 PRECEDING AND CURRENT ROW")),
+                singletonList(tableScan.explainNode()))),
+        explain.apply(plan));
+  }
+
   @Test
   void can_explain_other_operators() {
     ReferenceExpression[] removeList = {ref("state", STRING)};
@@ -27,10 +27,12 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprIntegerValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprStringValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprTupleValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.expression.DSL;
-import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.WindowFrame;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.junit.jupiter.api.Test;
 
@@ -40,7 +42,7 @@ class CumulativeWindowFrameTest {
       ImmutableList.of(DSL.ref("state", STRING)),
       ImmutableList.of(ImmutablePair.of(DEFAULT_ASC, DSL.ref("age", INTEGER))));
 
-  private final WindowFrame windowFrame = new CumulativeWindowFrame(windowDefinition);
+  private final CumulativeWindowFrame windowFrame = new CumulativeWindowFrame(windowDefinition);
 
   @Test
   void should_return_new_partition_if_partition_by_field_value_changed() {
@@ -73,6 +75,27 @@ class CumulativeWindowFrameTest {
         windowFrame.resolve(DSL.ref("age", INTEGER)));
   }
 
+  @Test
+  void should_load_one_row_from_input_each_time() {
+    PeekingIterator<ExprValue> input = Iterators.peekingIterator(ImmutableList.<ExprValue>of(
+        ExprTupleValue.fromExprValueMap(ImmutableMap.of(
+            "state", new ExprStringValue("WA"),
+            "age", new ExprIntegerValue(20))),
+        ExprTupleValue.fromExprValueMap(ImmutableMap.of(
+            "state", new ExprStringValue("WA"),
+            "age", new ExprIntegerValue(30)))).iterator());
+
+    windowFrame.load(input);
+    assertTrue(windowFrame.isNewPartition());
+    assertFalse(windowFrame.hasNext());
+    assertTrue(input.hasNext());
+
+    windowFrame.load(input);
+    assertEquals(new ExprIntegerValue(30), windowFrame.resolve(DSL.ref("age", INTEGER)));
+    assertFalse(windowFrame.hasNext());
+    assertFalse(input.hasNext());
+  }
+
   @Test
   void should_throw_exception_if_access_row_out_of_boundary() {
     assertThrows(IndexOutOfBoundsException.class, () -> windowFrame.get(2));
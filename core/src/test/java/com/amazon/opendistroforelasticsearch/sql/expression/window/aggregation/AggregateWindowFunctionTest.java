@@ -0,0 +1,210 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.expression.window.aggregation;
+
+import static com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption.DEFAULT_ASC;
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.doubleValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.floatValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.integerValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.longValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.DOUBLE;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.FLOAT;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.LONG;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.STRING;
+import static com.amazon.opendistroforelasticsearch.sql.expression.DSL.ref;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.currentRow;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.following;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.preceding;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.RANGE;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.ROWS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprNullValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils;
+import com.amazon.opendistroforelasticsearch.sql.exception.ExpressionEvaluationException;
+import com.amazon.opendistroforelasticsearch.sql.expression.ExpressionTestBase;
+import com.amazon.opendistroforelasticsearch.sql.expression.aggregation.Aggregator;
+import com.amazon.opendistroforelasticsearch.sql.expression.function.FunctionName;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.WindowDefinition;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.BufferedWindowFrame;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition;
+import com.amazon.opendistroforelasticsearch.sql.monitor.AlwaysHealthyMonitor;
+import com.amazon.opendistroforelasticsearch.sql.monitor.MemoryTracker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Aggregate window function test collection.
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class AggregateWindowFunctionTest extends ExpressionTestBase {
+
+  private static final FrameDefinition SLIDING_FRAME =
+      new FrameDefinition(ROWS, preceding(1), following(1));
+
+  @Test
+  void should_sum_values_in_sliding_frame() {
+    assertEquals(
+        Arrays.asList(integerValue(3), integerValue(6), integerValue(5), integerValue(3),
+            integerValue(9), integerValue(9)),
+        aggregate(dsl.sum(ref("age", INTEGER)), SLIDING_FRAME,
+            rows("WA", 1, 2, 3, null), rows("CA", 4, 5)));
+  }
+
+  @Test
+  void should_count_values_in_sliding_frame() {
+    assertEquals(
+        Arrays.asList(integerValue(2), integerValue(3), integerValue(2), integerValue(1)),
+        aggregate(dsl.count(ref("age", INTEGER)), SLIDING_FRAME,
+            rows("WA", 1, 2, 3, null)));
+  }
+
+  @Test
+  void should_average_values_in_sliding_frame() {
+    assertEquals(
+        Arrays.asList(doubleValue(1.5), doubleValue(2.0), doubleValue(2.5), doubleValue(3.0)),
+        aggregate(dsl.avg(ref("age", INTEGER)), SLIDING_FRAME,
+            rows("WA", 1, 2, 3, null)));
+  }
+
+  @Test
+  void should_find_min_value_in_sliding_frame() {
+    assertEquals(
+        Arrays.asList(integerValue(3), integerValue(1), integerValue(1), integerValue(1),
+            integerValue(2)),
+        aggregate(dsl.min(ref("age", INTEGER)),
+            new FrameDefinition(ROWS, preceding(2), currentRow()),
+            rows("WA", 3, 1, 2, 5, 7)));
+  }
+
+  @Test
+  void should_find_max_value_in_sliding_frame() {
+    assertEquals(
+        Arrays.asList(integerValue(3), integerValue(3), integerValue(3), integerValue(5),
+            integerValue(7)),
+        aggregate(dsl.max(ref("age", INTEGER)),
+            new FrameDefinition(ROWS, preceding(2), currentRow()),
+            rows("WA", 3, 1, 2, 5, 7)));
+  }
+
+  @Test
+  void should_return_null_if_no_value_in_frame() {
+    FrameDefinition frame = new FrameDefinition(ROWS, following(1), following(1));
+    List<ExprValue> expected =
+        Arrays.asList(ExprNullValue.of(), ExprNullValue.of(), ExprNullValue.of());
+    List<Map<String, Object>> rows = rows("WA", 1, null, null);
+
+    assertEquals(expected, aggregate(dsl.sum(ref("age", INTEGER)), frame, rows));
+    assertEquals(expected, aggregate(dsl.avg(ref("age", INTEGER)), frame, rows));
+    assertEquals(expected, aggregate(dsl.max(ref("age", INTEGER)), frame, rows));
+  }
+
+  @Test
+  void should_skip_rows_between_frames_if_frame_jumps_ahead() {
+    assertEquals(
+        Arrays.asList(integerValue(5), ExprNullValue.of(), ExprNullValue.of(),
+            ExprNullValue.of(), ExprNullValue.of()),
+        aggregate(dsl.sum(ref("age", INTEGER)),
+            new FrameDefinition(RANGE, following(5), following(5)),
+            rows("WA", 0, 5, 6, 7, 20)));
+  }
+
+  @Test
+  void should_return_sum_in_type_of_aggregator() {
+    assertEquals(
+        Arrays.asList(longValue(1L), longValue(3L)),
+        aggregate(dsl.sum(ref("age", LONG)), null, rows("WA", 1L, 2L)));
+    assertEquals(
+        Arrays.asList(floatValue(1.5F), floatValue(4.0F)),
+        aggregate(dsl.sum(ref("age", FLOAT)), null, rows("WA", 1.5F, 2.5F)));
+    assertEquals(
+        Arrays.asList(doubleValue(1.5), doubleValue(4.0)),
+        aggregate(dsl.sum(ref("age", DOUBLE)), null, rows("WA", 1.5, 2.5)));
+  }
+
+  @Test
+  void should_delegate_type_and_string_to_aggregator() {
+    Aggregator<?> sum = dsl.sum(ref("age", LONG));
+    AggregateWindowFunction windowFunction = new AggregateWindowFunction(sum);
+    assertEquals(sum, windowFunction.getDelegated());
+    assertEquals(LONG, windowFunction.type());
+    assertEquals("sum(age)", windowFunction.toString());
+  }
+
+  @Test
+  void should_throw_exception_for_unsupported_aggregator() {
+    Aggregator<?> aggregator = mock(Aggregator.class);
+    when(aggregator.getFunctionName()).thenReturn(FunctionName.of("unknown"));
+    ExpressionEvaluationException exception = assertThrows(ExpressionEvaluationException.class,
+        () -> IncrementalAggregation.of(aggregator));
+    assertEquals("unsupported aggregate window function [unknown]", exception.getMessage());
+  }
+
+  @SafeVarargs
+  private final List<ExprValue> aggregate(Aggregator<?> aggregator,
+                                          FrameDefinition frameDefinition,
+                                          List<Map<String, Object>>... partitions) {
+    BufferedWindowFrame frame = new BufferedWindowFrame(
+        new WindowDefinition(
+            ImmutableList.of(ref("state", STRING)),
+            ImmutableList.of(Pair.of(DEFAULT_ASC, ref("age", INTEGER))),
+            frameDefinition),
+        new MemoryTracker(AlwaysHealthyMonitor.ALWAYS_HEALTHY_MONITOR));
+    List<ExprValue> input = new ArrayList<>();
+    for (List<Map<String, Object>> partition : partitions) {
+      partition.forEach(row -> input.add(ExprValueUtils.tupleValue(row)));
+    }
+
+    AggregateWindowFunction windowFunction = new AggregateWindowFunction(aggregator);
+    PeekingIterator<ExprValue> iterator = Iterators.peekingIterator(input.iterator());
+    List<ExprValue> results = new ArrayList<>();
+    while (frame.hasNext() || iterator.hasNext()) {
+      frame.load(iterator);
+      results.add(windowFunction.valueOf(frame));
+    }
+    return results;
+  }
+
+  private List<Map<String, Object>> rows(String state, Object... ages) {
+    List<Map<String, Object>> rows = new ArrayList<>();
+    for (Object age : ages) {
+      Map<String, Object> row = new HashMap<>();
+      row.put("state", state);
+      if (age != null) {
+        row.put("age", age);
+      }
+      rows.add(row);
+    }
+    return rows;
+  }
+}
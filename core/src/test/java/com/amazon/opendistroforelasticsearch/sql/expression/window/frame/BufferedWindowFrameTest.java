@@ -0,0 +1,229 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.expression.window.frame;
+
+import static com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption.DEFAULT_ASC;
+import static com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption.DEFAULT_DESC;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.STRING;
+import static com.amazon.opendistroforelasticsearch.sql.expression.DSL.ref;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.currentRow;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.following;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.preceding;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.unboundedFollowing;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.unboundedPreceding;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.RANGE;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.ROWS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.WindowDefinition;
+import com.amazon.opendistroforelasticsearch.sql.monitor.AlwaysHealthyMonitor;
+import com.amazon.opendistroforelasticsearch.sql.monitor.MemoryTracker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class BufferedWindowFrameTest {
+
+  @Test
+  void should_slide_rows_frame_within_each_partition() {
+    assertFrames(
+        new FrameDefinition(ROWS, preceding(1), following(1)),
+        ImmutableList.of(ref("state", STRING)),
+        Collections.emptyList(),
+        Arrays.asList(
+            row("WA", 10), row("WA", 20), row("WA", 30),
+            row("CA", 40), row("CA", 50)),
+        "new:0[0,2)", "1[0,3)", "2[1,3)",
+        "new:0[0,2)", "1[0,2)");
+  }
+
+  @Test
+  void should_detect_partition_end_even_if_frame_ends_before_current_row() {
+    assertFrames(
+        new FrameDefinition(ROWS, unboundedPreceding(), preceding(1)),
+        ImmutableList.of(ref("state", STRING)),
+        Collections.emptyList(),
+        Arrays.asList(row("WA", 10), row("WA", 20), row("WA", 30), row("CA", 40)),
+        "new:0[0,0)", "1[0,1)", "2[0,2)", "new:0[0,0)");
+  }
+
+  @Test
+  void should_include_all_rows_in_partition_for_unbounded_rows_frame() {
+    assertFrames(
+        new FrameDefinition(ROWS, unboundedPreceding(), unboundedFollowing()),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Arrays.asList(row("WA", 10), row("WA", 20), row("CA", 30)),
+        "new:0[0,3)", "1[0,3)", "2[0,3)");
+  }
+
+  @Test
+  void should_include_current_row_only_for_current_row_frame() {
+    assertFrames(
+        new FrameDefinition(ROWS, currentRow(), currentRow()),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Arrays.asList(row("WA", 10), row("WA", 20), row("CA", 30)),
+        "new:0[0,1)", "1[1,2)", "2[2,3)");
+  }
+
+  @Test
+  void should_return_empty_frame_if_rows_frame_start_after_partition_end() {
+    assertFrames(
+        new FrameDefinition(ROWS, following(1), following(2)),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Arrays.asList(row("WA", 10), row("WA", 20), row("CA", 30)),
+        "new:0[1,3)", "1[2,3)", "2[3,3)");
+  }
+
+  @Test
+  void should_include_peers_for_default_range_frame() {
+    assertFrames(
+        null,
+        Collections.emptyList(),
+        ImmutableList.of(ImmutablePair.of(DEFAULT_ASC, ref("age", INTEGER))),
+        Arrays.asList(row("WA", 10), row("WA", 20), row("CA", 20), row("CA", 30)),
+        "new:0[0,1)", "1[0,3)", "2[0,3)", "3[0,4)");
+  }
+
+  @Test
+  void should_start_from_peers_for_range_frame_starting_from_current_row() {
+    assertFrames(
+        new FrameDefinition(RANGE, currentRow(), unboundedFollowing()),
+        Collections.emptyList(),
+        ImmutableList.of(ImmutablePair.of(DEFAULT_ASC, ref("age", INTEGER))),
+        Arrays.asList(row("WA", 10), row("WA", 20), row("CA", 20), row("CA", 30)),
+        "new:0[0,4)", "1[1,4)", "2[1,4)", "3[3,4)");
+  }
+
+  @Test
+  void should_slide_range_frame_by_sort_key_value_in_ascending_order() {
+    assertFrames(
+        new FrameDefinition(RANGE, preceding(5), following(5)),
+        Collections.emptyList(),
+        ImmutableList.of(ImmutablePair.of(DEFAULT_ASC, ref("age", INTEGER))),
+        Arrays.asList(row("WA", 1), row("WA", 3), row("WA", 8), row("WA", 20)),
+        "new:0[0,2)", "1[0,3)", "2[1,3)", "3[3,4)");
+  }
+
+  @Test
+  void should_slide_range_frame_by_sort_key_value_in_descending_order() {
+    assertFrames(
+        new FrameDefinition(RANGE, preceding(5), following(5)),
+        Collections.emptyList(),
+        ImmutableList.of(ImmutablePair.of(DEFAULT_DESC, ref("age", INTEGER))),
+        Arrays.asList(row("WA", 20), row("WA", 8), row("WA", 3), row("WA", null)),
+        "new:0[0,1)", "1[1,3)", "2[1,3)", "3[3,4)");
+  }
+
+  @Test
+  void should_only_include_null_peers_in_range_frame_if_null_first() {
+    assertFrames(
+        new FrameDefinition(RANGE, preceding(1), following(1)),
+        Collections.emptyList(),
+        ImmutableList.of(ImmutablePair.of(DEFAULT_ASC, ref("age", INTEGER))),
+        Arrays.asList(row("WA", null), row("WA", 1), row("WA", 2)),
+        "new:0[0,1)", "1[1,3)", "2[1,3)");
+  }
+
+  @Test
+  void should_throw_exception_if_access_row_out_of_boundary() {
+    BufferedWindowFrame frame = new BufferedWindowFrame(
+        new WindowDefinition(Collections.emptyList(), Collections.emptyList(),
+            new FrameDefinition(ROWS, currentRow(), currentRow())),
+        new MemoryTracker(AlwaysHealthyMonitor.ALWAYS_HEALTHY_MONITOR));
+    PeekingIterator<ExprValue> input = Iterators.peekingIterator(
+        IntStream.range(0, 6).mapToObj(i -> row("WA", i * 10)).iterator());
+    for (int i = 0; i < 5; i++) {
+      frame.load(input);
+    }
+
+    assertEquals(row("WA", 40), frame.get(frame.currentIndex()));
+    assertEquals(ExprValueUtils.integerValue(40), frame.resolve(ref("age", INTEGER)));
+    assertThrows(IndexOutOfBoundsException.class, () -> frame.get(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> frame.get(6));
+  }
+
+  @Test
+  void should_charge_rows_buffered_and_release_rows_evicted() {
+    MemoryTracker memoryTracker = new MemoryTracker(AlwaysHealthyMonitor.ALWAYS_HEALTHY_MONITOR);
+    BufferedWindowFrame frame = new BufferedWindowFrame(
+        new WindowDefinition(ImmutableList.of(ref("state", STRING)), Collections.emptyList(),
+            new FrameDefinition(ROWS, currentRow(), currentRow())),
+        memoryTracker);
+    List<ExprValue> rows = new ArrayList<>();
+    IntStream.range(0, 6).forEach(i -> rows.add(row("WA", i * 10)));
+    rows.add(row("CA", 60));
+    PeekingIterator<ExprValue> input = Iterators.peekingIterator(rows.iterator());
+    long rowSize = MemoryTracker.estimateSize(row("WA", 0));
+
+    for (int i = 0; i < 5; i++) {
+      frame.load(input);
+    }
+    assertEquals(3 * rowSize, memoryTracker.used());
+
+    frame.load(input);
+    frame.load(input);
+    assertEquals(row("CA", 60), frame.get(frame.currentIndex()));
+    assertEquals(rowSize, memoryTracker.used());
+  }
+
+  private void assertFrames(FrameDefinition frameDefinition,
+                            List<Expression> partitionByList,
+                            List<Pair<SortOption, Expression>> sortList,
+                            List<ExprValue> rows,
+                            String... expected) {
+    BufferedWindowFrame frame = new BufferedWindowFrame(
+        new WindowDefinition(partitionByList, sortList, frameDefinition),
+        new MemoryTracker(AlwaysHealthyMonitor.ALWAYS_HEALTHY_MONITOR));
+    PeekingIterator<ExprValue> input = Iterators.peekingIterator(rows.iterator());
+
+    List<String> actual = new ArrayList<>();
+    while (frame.hasNext() || input.hasNext()) {
+      frame.load(input);
+      actual.add((frame.isNewPartition() ? "new:" : "") + frame.currentIndex()
+          + "[" + frame.getFrameStart() + "," + frame.getFrameEnd() + ")");
+    }
+    assertEquals(Arrays.asList(expected), actual);
+  }
+
+  private static ExprValue row(String state, Integer age) {
+    return ExprValueUtils.tupleValue((age == null)
+        ? ImmutableMap.of("state", state)
+        : ImmutableMap.of("state", state, "age", age));
+  }
+}
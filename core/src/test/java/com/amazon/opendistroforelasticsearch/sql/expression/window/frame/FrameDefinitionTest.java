@@ -0,0 +1,94 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.expression.window.frame;
+
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.currentRow;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.following;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.preceding;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.unboundedFollowing;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.unboundedPreceding;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.RANGE;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.ROWS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.amazon.opendistroforelasticsearch.sql.exception.SemanticCheckException;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class FrameDefinitionTest {
+
+  @Test
+  void should_end_at_current_row_if_only_frame_start_specified() {
+    assertEquals(
+        new FrameDefinition(ROWS, preceding(3), currentRow()),
+        new FrameDefinition(ROWS, preceding(3)));
+  }
+
+  @Test
+  void should_format_frame_definition() {
+    assertEquals("RANGE BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW",
+        FrameDefinition.DEFAULT_FRAME.toString());
+    assertEquals("ROWS BETWEEN 2 PRECEDING AND 3 FOLLOWING",
+        new FrameDefinition(ROWS, preceding(2), following(3)).toString());
+    assertEquals("ROWS BETWEEN CURRENT ROW AND UNBOUNDED FOLLOWING",
+        new FrameDefinition(ROWS, currentRow(), unboundedFollowing()).toString());
+  }
+
+  @Test
+  void should_check_if_frame_bound_has_offset() {
+    assertFalse(FrameDefinition.DEFAULT_FRAME.hasOffset());
+    assertTrue(new FrameDefinition(RANGE, preceding(1)).hasOffset());
+    assertTrue(new FrameDefinition(RANGE, currentRow(), following(1)).hasOffset());
+  }
+
+  @Test
+  void should_check_if_frame_bound_is_unbounded() {
+    assertTrue(unboundedPreceding().isUnbounded());
+    assertTrue(unboundedFollowing().isUnbounded());
+    assertFalse(currentRow().isUnbounded());
+    assertEquals(-2L, preceding(2).signedOffset());
+    assertEquals(2L, following(2).signedOffset());
+  }
+
+  @Test
+  void should_throw_exception_if_frame_start_is_unbounded_following() {
+    SemanticCheckException exception = assertThrows(SemanticCheckException.class,
+        () -> new FrameDefinition(ROWS, unboundedFollowing(), unboundedFollowing()));
+    assertEquals("Frame start cannot be UNBOUNDED FOLLOWING", exception.getMessage());
+  }
+
+  @Test
+  void should_throw_exception_if_frame_end_is_unbounded_preceding() {
+    SemanticCheckException exception = assertThrows(SemanticCheckException.class,
+        () -> new FrameDefinition(ROWS, unboundedPreceding(), unboundedPreceding()));
+    assertEquals("Frame end cannot be UNBOUNDED PRECEDING", exception.getMessage());
+  }
+
+  @Test
+  void should_throw_exception_if_frame_end_is_before_start() {
+    SemanticCheckException exception = assertThrows(SemanticCheckException.class,
+        () -> new FrameDefinition(ROWS, following(1), preceding(1)));
+    assertEquals("Frame starting from 1 FOLLOWING cannot end with 1 PRECEDING",
+        exception.getMessage());
+  }
+}
@@ -27,4 +27,12 @@ class AlwaysHealthyMonitorTest {
   void isHealthy() {
     assertTrue(new AlwaysHealthyMonitor().isHealthy());
   }
+
+  @Test
+  void chargeAndReleaseWithoutAccounting() {
+    ResourceMonitor monitor = new AlwaysHealthyMonitor();
+    monitor.charge(100L);
+    monitor.release(100L);
+    assertTrue(monitor.isHealthy());
+  }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.monitor;
+
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.collectionValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.integerValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.stringValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.tupleValue;
+import static com.amazon.opendistroforelasticsearch.sql.monitor.MemoryTracker.FLUSH_THRESHOLD_IN_BYTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MemoryTrackerTest {
+
+  @Mock
+  private ResourceMonitor resourceMonitor;
+
+  @Test
+  void accountWithoutChargingBelowThreshold() {
+    MemoryTracker tracker = new MemoryTracker(resourceMonitor);
+    tracker.charge(100L);
+    tracker.release(40L);
+
+    assertEquals(60L, tracker.used());
+    verify(resourceMonitor, never()).charge(anyLong());
+    verify(resourceMonitor, never()).release(anyLong());
+  }
+
+  @Test
+  void chargeInBatchAndReleaseAll() {
+    MemoryTracker tracker = new MemoryTracker(resourceMonitor);
+    tracker.charge(FLUSH_THRESHOLD_IN_BYTES - 10);
+    tracker.charge(20L);
+    tracker.charge(30L);
+    verify(resourceMonitor).charge(FLUSH_THRESHOLD_IN_BYTES + 10);
+
+    tracker.release(40L);
+    verify(resourceMonitor).release(10L);
+
+    tracker.releaseAll();
+    verify(resourceMonitor).release(FLUSH_THRESHOLD_IN_BYTES);
+    assertEquals(0L, tracker.used());
+  }
+
+  @Test
+  void failIfResourceMonitorRejectsCharge() {
+    doThrow(new IllegalStateException("breaking")).when(resourceMonitor).charge(anyLong());
+    MemoryTracker tracker = new MemoryTracker(resourceMonitor);
+
+    assertThrows(IllegalStateException.class, () -> tracker.charge(FLUSH_THRESHOLD_IN_BYTES));
+    tracker.releaseAll();
+    verify(resourceMonitor, never()).release(anyLong());
+  }
+
+  @Test
+  void estimateSizeByContent() {
+    long intSize = MemoryTracker.estimateSize(integerValue(1));
+    long stringSize = MemoryTracker.estimateSize(stringValue("hello"));
+    assertTrue(stringSize > intSize);
+    assertTrue(MemoryTracker.estimateSize(stringValue("hello world")) > stringSize);
+
+    assertTrue(MemoryTracker.estimateSize(tupleValue(ImmutableMap.of("name", "hello")))
+        > stringSize);
+    assertTrue(MemoryTracker.estimateSize(collectionValue(Arrays.asList("hello", "world")))
+        > 2 * stringSize);
+    assertEquals(MemoryTracker.estimateSize(Arrays.asList(integerValue(1), integerValue(2))),
+        MemoryTracker.estimateSize(collectionValue(Arrays.asList(1, 2))) - intSize * 2);
+  }
+}
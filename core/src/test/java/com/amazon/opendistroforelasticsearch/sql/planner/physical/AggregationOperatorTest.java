@@ -31,6 +31,14 @@ import java.util.List;
 import org.junit.jupiter.api.Test;
 
 class AggregationOperatorTest extends PhysicalPlanTestBase {
+  @Test
+  public void charge_groups_and_release_on_close() {
+    assertMemoryChargedAndReleased((input, resourceMonitor) -> new AggregationOperator(input,
+        Collections.singletonList(DSL.named("count()", dsl.count(DSL.ref("id", INTEGER)))),
+        Collections.singletonList(DSL.named("message", DSL.ref("message", STRING))),
+        resourceMonitor));
+  }
+
   @Test
   public void avg_with_one_groups() {
     PhysicalPlan plan = new AggregationOperator(new TestScan(),
@@ -25,6 +25,7 @@ import static org.mockito.Mockito.when;
 
 import com.amazon.opendistroforelasticsearch.sql.expression.DSL;
 import com.amazon.opendistroforelasticsearch.sql.planner.physical.DedupeOperator.Deduper;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.util.HashMap;
 import java.util.Map;
@@ -50,6 +51,12 @@ class DedupeOperatorTest extends PhysicalPlanTestBase {
         }
       };
 
+  @Test
+  public void charge_dedupe_keys_seen_and_release_on_close() {
+    assertMemoryChargedAndReleased((input, resourceMonitor) -> new DedupeOperator(input,
+        ImmutableList.of(DSL.ref("message", STRING)), 1, false, false, resourceMonitor));
+  }
+
   @Test
   public void dedupe_one_field() {
     when(inputPlan.hasNext()).thenReturn(true, true, true, false);
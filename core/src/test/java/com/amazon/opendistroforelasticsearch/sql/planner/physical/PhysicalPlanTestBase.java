@@ -15,6 +15,9 @@
 
 package com.amazon.opendistroforelasticsearch.sql.planner.physical;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils;
 import com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType;
@@ -24,12 +27,16 @@ import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
 import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
 import com.amazon.opendistroforelasticsearch.sql.expression.config.ExpressionConfig;
 import com.amazon.opendistroforelasticsearch.sql.expression.env.Environment;
+import com.amazon.opendistroforelasticsearch.sql.monitor.ResourceMonitor;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -85,6 +92,12 @@ public class PhysicalPlanTestBase {
           .tupleValue(ImmutableMap.of("ip", "74.125.19.106", "action", "POST", "response", 500)))
       .build();
 
+  /**
+   * Row large enough for memory charged by operator to be flushed to resource monitor.
+   */
+  protected static final ExprValue LARGE_ROW = ExprValueUtils.tupleValue(ImmutableMap
+      .of("id", 1, "message", StringUtils.repeat('a', 1024 * 1024)));
+
   private static Map<String, ExprCoreType> typeMapping =
       new ImmutableMap.Builder<String, ExprCoreType>()
           .put("ip", ExprCoreType.STRING)
@@ -116,10 +129,28 @@ public class PhysicalPlanTestBase {
     return builder.build();
   }
 
+  /**
+   * Execute the operator on {@link PhysicalPlanTestBase#LARGE_ROW} and verify the memory
+   * charged to resource monitor is released all when the operator is closed.
+   */
+  protected void assertMemoryChargedAndReleased(
+      BiFunction<PhysicalPlan, ResourceMonitor, PhysicalPlan> operator) {
+    ResourceMonitor resourceMonitor = mock(ResourceMonitor.class);
+    execute(operator.apply(new TestScan(ImmutableList.of(LARGE_ROW)), resourceMonitor));
+
+    ArgumentCaptor<Long> charged = ArgumentCaptor.forClass(Long.class);
+    verify(resourceMonitor).charge(charged.capture());
+    verify(resourceMonitor).release(charged.getValue());
+  }
+
   protected static class TestScan extends PhysicalPlan {
     private final Iterator<ExprValue> iterator;
 
     public TestScan() {
+      this(inputs);
+    }
+
+    public TestScan(List<ExprValue> inputs) {
       iterator = inputs.iterator();
     }
 
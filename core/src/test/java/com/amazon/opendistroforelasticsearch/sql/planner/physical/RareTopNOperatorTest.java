@@ -31,6 +31,15 @@ import org.junit.jupiter.api.Test;
 
 public class RareTopNOperatorTest extends PhysicalPlanTestBase {
 
+  @Test
+  public void charge_keys_counted_and_release_on_close() {
+    assertMemoryChargedAndReleased((input, resourceMonitor) -> new RareTopNOperator(input,
+        CommandType.RARE, 10,
+        Collections.singletonList(DSL.ref("message", ExprCoreType.STRING)),
+        Collections.singletonList(DSL.ref("id", ExprCoreType.INTEGER)),
+        resourceMonitor));
+  }
+
   @Test
   public void rare_without_group() {
     PhysicalPlan plan = new RareTopNOperator(new TestScan(),
@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
 
 import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.util.HashMap;
 import java.util.Map;
@@ -51,6 +52,12 @@ class SortOperatorTest extends PhysicalPlanTestBase {
         }
       };
 
+  @Test
+  public void charge_rows_sorted_and_release_on_close() {
+    assertMemoryChargedAndReleased((input, resourceMonitor) -> new SortOperator(input,
+        ImmutableList.of(Pair.of(SortOption.DEFAULT_ASC, ref("id", INTEGER))), resourceMonitor));
+  }
+
   @Test
   public void sort_one_field_asc() {
     when(inputPlan.hasNext()).thenReturn(true, true, true, false);
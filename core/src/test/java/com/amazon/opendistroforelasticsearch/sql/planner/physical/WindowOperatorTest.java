@@ -20,6 +20,9 @@ import static com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.STRING;
 import static com.amazon.opendistroforelasticsearch.sql.expression.DSL.ref;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.currentRow;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.preceding;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.ROWS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -29,6 +32,9 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
 import com.amazon.opendistroforelasticsearch.sql.expression.FunctionExpression;
 import com.amazon.opendistroforelasticsearch.sql.expression.window.WindowDefinition;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.aggregation.AggregateWindowFunction;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.util.ArrayList;
 import java.util.List;
@@ -69,6 +75,61 @@ class WindowOperatorTest extends PhysicalPlanTestBase {
         .done();
   }
 
+  @Test
+  void test_aggregate_window_function_with_sliding_frame() {
+    window(new AggregateWindowFunction(dsl.sum(ref("response", INTEGER))))
+        .partitionBy(ref("action", STRING))
+        .sortBy(DEFAULT_ASC, ref("response", INTEGER))
+        .frame(new FrameDefinition(ROWS, preceding(1), currentRow()))
+        .expectNext(ImmutableMap.of(
+            "ip", "209.160.24.63", "action", "GET", "response", 200, "referer", "www.amazon.com",
+            "sum(response)", 200))
+        .expectNext(ImmutableMap.of(
+            "ip", "112.111.162.4", "action", "GET", "response", 200, "referer", "www.amazon.com",
+            "sum(response)", 400))
+        .expectNext(ImmutableMap.of(
+            "ip", "209.160.24.63", "action", "GET", "response", 404, "referer", "www.amazon.com",
+            "sum(response)", 604))
+        .expectNext(ImmutableMap.of(
+            "ip", "74.125.19.106", "action", "POST", "response", 200, "referer", "www.google.com",
+            "sum(response)", 200))
+        .expectNext(ImmutableMap.of(
+            "ip", "74.125.19.106", "action", "POST", "response", 500,
+            "sum(response)", 700))
+        .done();
+  }
+
+  @Test
+  void test_aggregate_window_function_with_default_frame() {
+    window(new AggregateWindowFunction(dsl.max(ref("response", INTEGER))))
+        .partitionBy(ref("action", STRING))
+        .sortBy(DEFAULT_ASC, ref("response", INTEGER))
+        .expectNext(ImmutableMap.of(
+            "ip", "209.160.24.63", "action", "GET", "response", 200, "referer", "www.amazon.com",
+            "max(response)", 200))
+        .expectNext(ImmutableMap.of(
+            "ip", "112.111.162.4", "action", "GET", "response", 200, "referer", "www.amazon.com",
+            "max(response)", 200))
+        .expectNext(ImmutableMap.of(
+            "ip", "209.160.24.63", "action", "GET", "response", 404, "referer", "www.amazon.com",
+            "max(response)", 404))
+        .expectNext(ImmutableMap.of(
+            "ip", "74.125.19.106", "action", "POST", "response", 200, "referer", "www.google.com",
+            "max(response)", 200))
+        .expectNext(ImmutableMap.of(
+            "ip", "74.125.19.106", "action", "POST", "response", 500,
+            "max(response)", 500))
+        .done();
+  }
+
+  @Test
+  void test_aggregate_window_function_charge_rows_buffered_and_release_on_close() {
+    assertMemoryChargedAndReleased((input, resourceMonitor) -> new WindowOperator(input,
+        new AggregateWindowFunction(dsl.sum(ref("id", INTEGER))),
+        new WindowDefinition(ImmutableList.of(), ImmutableList.of()),
+        resourceMonitor));
+  }
+
   private WindowOperatorAssertion window(FunctionExpression windowFunction) {
     return new WindowOperatorAssertion(windowFunction);
   }
@@ -78,6 +139,7 @@ class WindowOperatorTest extends PhysicalPlanTestBase {
     private final Expression windowFunction;
     private final List<Expression> partitionByList = new ArrayList<>();
     private final List<Pair<SortOption, Expression>> sortList = new ArrayList<>();
+    private FrameDefinition frame;
 
     private WindowOperator windowOperator;
 
@@ -91,9 +153,14 @@ class WindowOperatorTest extends PhysicalPlanTestBase {
       return this;
     }
 
+    WindowOperatorAssertion frame(FrameDefinition frame) {
+      this.frame = frame;
+      return this;
+    }
+
     WindowOperatorAssertion expectNext(Map<String, Object> expected) {
       if (windowOperator == null) {
-        WindowDefinition definition = new WindowDefinition(partitionByList, sortList);
+        WindowDefinition definition = new WindowDefinition(partitionByList, sortList, frame);
         windowOperator = new WindowOperator(
             new SortOperator(new TestScan(), definition.getAllSortItems()),
             windowFunction,
@@ -17,10 +17,14 @@
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.client;
 
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.mapping.IndexMapping;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.IndexStatistics;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchRequest;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchStatisticsRequest;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.response.ElasticsearchResponse;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import org.elasticsearch.index.query.QueryBuilder;
 
 /**
  * Elasticsearch client abstraction to wrap different Elasticsearch client implementation. For
@@ -46,6 +50,42 @@ public interface ElasticsearchClient {
    */
   ElasticsearchResponse search(ElasticsearchRequest request);
 
+  /**
+   * Collect statistics of the index in the statistics request.
+   *
+   * @param request statistics request
+   * @return index statistics
+   */
+  IndexStatistics statistics(ElasticsearchStatisticsRequest request);
+
+  /**
+   * Get the state of concrete indices matched by index expression. The state changes once
+   * the indices matched, or the mapping or settings of any of them change.
+   *
+   * @param indexExpression index expression
+   * @return index state or empty if unavailable
+   */
+  Optional<String> indexState(String indexExpression);
+
+  /**
+   * Get the identity of current user which decides the documents and fields visible to search,
+   * for example with document or field level security enabled.
+   *
+   * @return empty string if no security enabled, user identity if known, or empty otherwise
+   */
+  Optional<String> userIdentity();
+
+  /**
+   * Resolve index expression to concrete indices that may contain document matching the filter.
+   * Index is excluded if the filter is rewritten to match none on all its shards, for example by
+   * range query out of the minimum and maximum value of the field.
+   *
+   * @param indexExpression index expression
+   * @param indexFilter     filter query or null if absent
+   * @return concrete index names in order
+   */
+  List<String> resolveIndices(String indexExpression, QueryBuilder indexFilter);
+
   /**
    * Get the combination of the indices and the alias.
    *
@@ -73,4 +113,12 @@ public interface ElasticsearchClient {
    * @param task task
    */
   void schedule(Runnable task);
+
+  /**
+   * Run a task asynchronously in parallel with the caller. RejectedExecutionException is thrown
+   * if there is no capacity to run the task.
+   *
+   * @param task task
+   */
+  void fork(Runnable task);
 }
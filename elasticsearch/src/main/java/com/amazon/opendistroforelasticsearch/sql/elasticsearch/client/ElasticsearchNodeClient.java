@@ -16,8 +16,11 @@
 
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.client;
 
+import com.amazon.opendistroforelasticsearch.sql.common.utils.StringUtils;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.mapping.IndexMapping;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.IndexStatistics;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchRequest;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchStatisticsRequest;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.response.ElasticsearchResponse;
 import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
 import com.google.common.collect.ImmutableList;
@@ -28,24 +31,32 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import lombok.extern.log4j.Log4j2;
 import org.apache.logging.log4j.ThreadContext;
 import org.elasticsearch.action.admin.indices.get.GetIndexResponse;
+import org.elasticsearch.action.fieldcaps.FieldCapabilitiesRequest;
 import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.AliasMetadata;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.metadata.MappingMetadata;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.mapper.IndexFieldMapper;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.threadpool.ThreadPool;
 
 /** Elasticsearch connection by node client. */
+@Log4j2
 public class ElasticsearchNodeClient implements ElasticsearchClient {
 
   /** Default types and field filter to match all. */
@@ -63,16 +74,39 @@ public class ElasticsearchNodeClient implements ElasticsearchClient {
   /** Index name expression resolver to get concrete index name. */
   private final IndexNameExpressionResolver resolver;
 
+  /** Listener notified of latency in nanoseconds of each search round trip. */
+  private final LongConsumer searchLatencyListener;
+
   private static final String SQL_WORKER_THREAD_POOL_NAME = "sql-worker";
 
+  /** Thread context transient of user authenticated by security plugin. */
+  private static final String SECURITY_USER = "_opendistro_security_user";
+
+  /** Thread context transient of user name, backend roles and roles by security plugin. */
+  private static final String SECURITY_USER_INFO = "_opendistro_security_user_info";
+
+  /** Whether current thread is running a task dispatched to SQL worker thread pool. */
+  private static final ThreadLocal<Boolean> IN_SQL_WORKER_TASK =
+      ThreadLocal.withInitial(() -> false);
+
   /**
    * Constructor of ElasticsearchNodeClient.
    */
   public ElasticsearchNodeClient(ClusterService clusterService,
                                  NodeClient client) {
+    this(clusterService, client, latency -> { });
+  }
+
+  /**
+   * Constructor of ElasticsearchNodeClient with listener of search latency.
+   */
+  public ElasticsearchNodeClient(ClusterService clusterService,
+                                 NodeClient client,
+                                 LongConsumer searchLatencyListener) {
     this.clusterService = clusterService;
     this.client = client;
     this.resolver = new IndexNameExpressionResolver(client.threadPool().getThreadContext());
+    this.searchLatencyListener = searchLatencyListener;
   }
 
   /**
@@ -105,10 +139,69 @@ public class ElasticsearchNodeClient implements ElasticsearchClient {
    */
   @Override
   public ElasticsearchResponse search(ElasticsearchRequest request) {
-    return request.search(
-        req -> client.search(req).actionGet(),
-        req -> client.searchScroll(req).actionGet()
-    );
+    long startTime = System.nanoTime();
+    try {
+      return request.search(
+          req -> client.search(req).actionGet(),
+          req -> client.searchScroll(req).actionGet()
+      );
+    } finally {
+      searchLatencyListener.accept(System.nanoTime() - startTime);
+    }
+  }
+
+  @Override
+  public IndexStatistics statistics(ElasticsearchStatisticsRequest request) {
+    return request.search(req -> client.search(req).actionGet());
+  }
+
+  /**
+   * Index state consists of the UUID, mapping version and settings version of each concrete
+   * index in the cluster state on local node, so no request is sent to any shard. Changes to
+   * documents are not reflected and are left to the expiry of the cache entry instead. Index state
+   * is unavailable if the index expression cannot be resolved.
+   */
+  @Override
+  public Optional<String> indexState(String indexExpression) {
+    try {
+      ClusterState state = clusterService.state();
+      return Optional.of(Arrays.stream(
+          resolveIndexExpression(state, new String[] {indexExpression}))
+          .sorted()
+          .map(index -> indexState(state.metadata().index(index)))
+          .collect(Collectors.joining(",")));
+    } catch (Exception e) {
+      log.debug("Failed to get state of index {}", indexExpression, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * User identity is user name with backend roles and security roles put in thread context by
+   * security plugin. If security plugin authenticated current user but the roles are absent,
+   * the identity is unknown.
+   */
+  @Override
+  public Optional<String> userIdentity() {
+    Object userInfo = client.threadPool().getThreadContext().getTransient(SECURITY_USER_INFO);
+    if (userInfo != null) {
+      return Optional.of(userInfo.toString());
+    }
+    if (client.threadPool().getThreadContext().getTransient(SECURITY_USER) != null) {
+      return Optional.empty();
+    }
+    return Optional.of("");
+  }
+
+  @Override
+  public List<String> resolveIndices(String indexExpression, QueryBuilder indexFilter) {
+    FieldCapabilitiesRequest request = new FieldCapabilitiesRequest()
+        .indices(indexExpression)
+        .fields(IndexFieldMapper.NAME)
+        .indexFilter(indexFilter);
+    return Arrays.stream(client.fieldCaps(request).actionGet().getIndices())
+        .sorted()
+        .collect(Collectors.toList());
   }
 
   /**
@@ -147,16 +240,57 @@ public class ElasticsearchNodeClient implements ElasticsearchClient {
     request.clean(scrollId -> client.prepareClearScroll().addScrollId(scrollId).get());
   }
 
+  /**
+   * Schedule the task in SQL worker thread pool. If already running in a SQL worker task,
+   * for example the whole query is dispatched as a single task, run the task directly
+   * to avoid occupying another worker and queue slot.
+   */
   @Override
   public void schedule(Runnable task) {
+    if (IN_SQL_WORKER_TASK.get()) {
+      task.run();
+      return;
+    }
+
     ThreadPool threadPool = client.threadPool();
     threadPool.schedule(
-        withCurrentContext(task),
+        withCurrentContext(asSqlWorkerTask(task)),
         new TimeValue(0),
         SQL_WORKER_THREAD_POOL_NAME
     );
   }
 
+  @Override
+  public void fork(Runnable task) {
+    client.threadPool()
+        .executor(SQL_WORKER_THREAD_POOL_NAME)
+        .execute(withCurrentContext(asSqlWorkerTask(task)));
+  }
+
+  /**
+   * Mark the task as running in SQL worker thread pool, so that work scheduled by the task
+   * runs directly. This must only wrap task that is submitted to SQL worker thread pool.
+   *
+   * @param task task submitted to SQL worker thread pool
+   * @return     task that marks current thread while running
+   */
+  public static Runnable asSqlWorkerTask(Runnable task) {
+    return () -> {
+      boolean isInSqlWorkerTask = IN_SQL_WORKER_TASK.get();
+      IN_SQL_WORKER_TASK.set(true);
+      try {
+        task.run();
+      } finally {
+        IN_SQL_WORKER_TASK.set(isInSqlWorkerTask);
+      }
+    };
+  }
+
+  private String indexState(IndexMetadata metadata) {
+    return StringUtils.format("%s[%s]:%d:%d", metadata.getIndex().getName(),
+        metadata.getIndexUUID(), metadata.getMappingVersion(), metadata.getSettingsVersion());
+  }
+
   private String[] resolveIndexExpression(ClusterState state, String[] indices) {
     return resolver.concreteIndexNames(state, IndicesOptions.strictExpandOpen(), indices);
   }
@@ -17,7 +17,9 @@
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.client;
 
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.mapping.IndexMapping;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.IndexStatistics;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchRequest;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchStatisticsRequest;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.response.ElasticsearchResponse;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -26,10 +28,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.elasticsearch.action.admin.cluster.settings.ClusterGetSettingsRequest;
+import org.elasticsearch.action.fieldcaps.FieldCapabilitiesRequest;
 import org.elasticsearch.action.search.ClearScrollRequest;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
@@ -39,6 +43,8 @@ import org.elasticsearch.client.indices.GetMappingsRequest;
 import org.elasticsearch.client.indices.GetMappingsResponse;
 import org.elasticsearch.cluster.metadata.AliasMetadata;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.mapper.IndexFieldMapper;
+import org.elasticsearch.index.query.QueryBuilder;
 
 /**
  * Elasticsearch REST client to support standalone mode that runs entire engine from remote.
@@ -85,6 +91,51 @@ public class ElasticsearchRestClient implements ElasticsearchClient {
     );
   }
 
+  @Override
+  public IndexStatistics statistics(ElasticsearchStatisticsRequest request) {
+    return request.search(
+        req -> {
+          try {
+            return client.search(req, RequestOptions.DEFAULT);
+          } catch (IOException e) {
+            throw new IllegalStateException(
+                "Failed to collect statistics with request " + req, e);
+          }
+        });
+  }
+
+  /**
+   * Cluster state is not available on the high level REST client, so index state is unknown
+   * and no result is cached in standalone mode.
+   */
+  @Override
+  public Optional<String> indexState(String indexExpression) {
+    return Optional.empty();
+  }
+
+  /**
+   * User identity is unknown in standalone mode, which doesn't matter because nothing is cached.
+   */
+  @Override
+  public Optional<String> userIdentity() {
+    return Optional.empty();
+  }
+
+  @Override
+  public List<String> resolveIndices(String indexExpression, QueryBuilder indexFilter) {
+    FieldCapabilitiesRequest request = new FieldCapabilitiesRequest()
+        .indices(indexExpression)
+        .fields(IndexFieldMapper.NAME)
+        .indexFilter(indexFilter);
+    try {
+      return Arrays.stream(client.fieldCaps(request, RequestOptions.DEFAULT).getIndices())
+          .sorted()
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to resolve indices for " + indexExpression, e);
+    }
+  }
+
   /**
    * Get the combination of the indices and the alias.
    *
@@ -145,4 +196,9 @@ public class ElasticsearchRestClient implements ElasticsearchClient {
   public void schedule(Runnable task) {
     task.run();
   }
+
+  @Override
+  public void fork(Runnable task) {
+    task.run();
+  }
 }
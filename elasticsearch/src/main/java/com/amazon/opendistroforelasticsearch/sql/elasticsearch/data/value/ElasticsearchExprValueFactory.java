@@ -14,7 +14,6 @@
  *    permissions and limitations under the License.
  *
  */
-
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.value;
 
 import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.nullValue;
@@ -45,7 +44,6 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprBooleanValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprByteValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprCollectionValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprDateValue;
-import com.amazon.opendistroforelasticsearch.sql.data.model.ExprDatetimeValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprDoubleValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprFloatValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprIntegerValue;
@@ -57,29 +55,47 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprTimestampValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprTupleValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.data.type.ExprType;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
-import lombok.AllArgsConstructor;
-import lombok.Setter;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.time.DateFormatters;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
 
 /** Construct ExprValue from Elasticsearch response. */
-@AllArgsConstructor
 public class ElasticsearchExprValueFactory {
   /** The Mapping of Field and ExprType. */
-  @Setter
+  @Getter
   private Map<String, ExprType> typeMapping;
 
+  /**
+   * Decoder tree compiled from type mapping on first use, which avoids type lookup and
+   * comparison for each field of each document.
+   */
+  private FieldDecoder rootDecoder;
+
   private static final DateTimeFormatter DATE_TIME_FORMATTER =
       new DateTimeFormatterBuilder()
           .appendOptional(SQL_LITERAL_DATE_TIME_FORMAT)
@@ -87,10 +103,53 @@ public class ElasticsearchExprValueFactory {
           .appendOptional(STRICT_HOUR_MINUTE_SECOND_FORMATTER)
           .toFormatter();
 
+  /**
+   * Template of date time string in ISO format parsed without date time formatter.
+   * Digit is represented by 0 and the date time separator could be 'T' or space.
+   */
+  private static final String ISO_DATE_TIME_TEMPLATE = "0000-00-00T00:00:00";
+
+  private static final int ISO_DATE_LENGTH = 10;
+
   private static final String TOP_PATH = "";
 
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+  private static final Map<ExprType, ValueDecoder> VALUE_DECODERS =
+      new ImmutableMap.Builder<ExprType, ValueDecoder>()
+          .put(INTEGER, (parser, field) -> new ExprIntegerValue(parser.getValueAsInt()))
+          .put(LONG, (parser, field) -> new ExprLongValue(parser.getValueAsLong()))
+          .put(SHORT, (parser, field) -> new ExprShortValue((short) parser.getValueAsInt()))
+          .put(BYTE, (parser, field) -> new ExprByteValue((byte) parser.getValueAsInt()))
+          .put(FLOAT, (parser, field) -> new ExprFloatValue((float) parser.getValueAsDouble()))
+          .put(DOUBLE, (parser, field) -> new ExprDoubleValue(parser.getValueAsDouble()))
+          .put(STRING, (parser, field) -> new ExprStringValue(parser.getValueAsString()))
+          .put(BOOLEAN, (parser, field) -> ExprBooleanValue.of(parser.getValueAsBoolean()))
+          .put(STRUCT, ElasticsearchExprValueFactory::decodeStruct)
+          .put(ARRAY, ElasticsearchExprValueFactory::decodeArray)
+          .put(TIMESTAMP, (parser, field) -> parser.currentToken().isNumeric()
+              ? constructTimestamp(parser.getLongValue()) : constructTimestamp(parser.getText()))
+          .put(ES_TEXT, (parser, field) -> new ElasticsearchExprTextValue(parser.getText()))
+          .put(ES_TEXT_KEYWORD,
+              (parser, field) -> new ElasticsearchExprTextKeywordValue(parser.getText()))
+          .put(ES_IP, (parser, field) -> new ElasticsearchExprIpValue(parser.getText()))
+          .put(ES_GEO_POINT, (parser, field) -> {
+            JsonNode value = OBJECT_MAPPER.readTree(parser);
+            return new ElasticsearchExprGeoPointValue(value.get("lat").doubleValue(),
+                value.get("lon").doubleValue());
+          })
+          .put(ES_BINARY, (parser, field) -> new ElasticsearchExprBinaryValue(parser.getText()))
+          .build();
+
+  public ElasticsearchExprValueFactory(Map<String, ExprType> typeMapping) {
+    this.typeMapping = typeMapping;
+  }
+
+  public void setTypeMapping(Map<String, ExprType> typeMapping) {
+    this.typeMapping = typeMapping;
+    this.rootDecoder = null;
+  }
+
   /**
    * The struct construction has the following assumption. 1. The field has Elasticsearch Object
    * data type. https://www.elastic.co/guide/en/elasticsearch/reference/current/object.html 2. The
@@ -98,62 +157,41 @@ public class ElasticsearchExprValueFactory {
    * "INTEGER"} {"employ.state", "STRING"}
    */
   public ExprTupleValue construct(String jsonString) {
-    try {
-      return constructStruct(OBJECT_MAPPER.readTree(jsonString), TOP_PATH);
-    } catch (JsonProcessingException e) {
+    try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(jsonString)) {
+      return construct(parser);
+    } catch (IOException e) {
       throw new IllegalStateException(String.format("invalid json: %s.", jsonString), e);
     }
   }
 
-  /** Construct ExprValue from field and value pair. */
-  private ExprValue construct(String field, JsonNode value) {
-    if (value.isNull()) {
-      return nullValue();
-    }
-
-    ExprType type = type(field);
-    if (type.equals(INTEGER)) {
-      return constructInteger(value.intValue());
-    } else if (type.equals(LONG)) {
-      return constructLong(value.longValue());
-    } else if (type.equals(SHORT)) {
-      return constructShort(value.shortValue());
-    } else if (type.equals(BYTE)) {
-      return constructByte(((byte)value.shortValue()));
-    } else if (type.equals(FLOAT)) {
-      return constructFloat(value.floatValue());
-    } else if (type.equals(DOUBLE)) {
-      return constructDouble(value.doubleValue());
-    } else if (type.equals(STRING)) {
-      return constructString(value.textValue());
-    } else if (type.equals(BOOLEAN)) {
-      return constructBoolean(value.booleanValue());
-    } else if (type.equals(STRUCT)) {
-      return constructStruct(value, field);
-    } else if (type.equals(ARRAY)) {
-      return constructArray(value, field);
-    } else if (type.equals(TIMESTAMP)) {
-      if (value.isNumber()) {
-        return constructTimestamp(value.longValue());
-      } else {
-        return constructTimestamp(value.asText());
+  /**
+   * Construct ExprTupleValue from document source bytes. The bytes is parsed by streaming
+   * parser directly unless the source is not stored in JSON.
+   */
+  public ExprTupleValue construct(BytesReference source) {
+    BytesRef bytes = source.toBytesRef();
+    XContentType contentType =
+        XContentFactory.xContentType(bytes.bytes, bytes.offset, bytes.length);
+    try {
+      if (contentType != null && contentType != XContentType.JSON) {
+        return construct(XContentHelper.convertToJson(source, false, contentType));
       }
-    } else if (type.equals(ES_TEXT)) {
-      return new ElasticsearchExprTextValue(value.asText());
-    } else if (type.equals(ES_TEXT_KEYWORD)) {
-      return new ElasticsearchExprTextKeywordValue(value.asText());
-    } else if (type.equals(ES_IP)) {
-      return new ElasticsearchExprIpValue(value.asText());
-    } else if (type.equals(ES_GEO_POINT)) {
-      return new ElasticsearchExprGeoPointValue(value.get("lat").doubleValue(),
-          value.get("lon").doubleValue());
-    } else if (type.equals(ES_BINARY)) {
-      return new ElasticsearchExprBinaryValue(value.textValue());
-    } else {
+      try (JsonParser parser =
+               OBJECT_MAPPER.getFactory().createParser(bytes.bytes, bytes.offset, bytes.length)) {
+        return construct(parser);
+      }
+    } catch (IOException e) {
       throw new IllegalStateException(
-          String.format(
-              "Unsupported type: %s for field: %s, value: %s.", type.typeName(), field, value));
+          String.format("invalid json: %s.", source.utf8ToString()), e);
+    }
+  }
+
+  private ExprTupleValue construct(JsonParser parser) throws IOException {
+    if (rootDecoder == null) {
+      rootDecoder = compile(typeMapping);
     }
+    parser.nextToken();
+    return (ExprTupleValue) decodeStruct(parser, rootDecoder);
   }
 
   /**
@@ -238,14 +276,6 @@ public class ElasticsearchExprValueFactory {
     return new ExprLongValue(value);
   }
 
-  private ExprShortValue constructShort(Short value) {
-    return new ExprShortValue(value);
-  }
-
-  private ExprByteValue constructByte(Byte value) {
-    return new ExprByteValue(value);
-  }
-
   private ExprFloatValue constructFloat(Float value) {
     return new ExprFloatValue(value);
   }
@@ -262,11 +292,11 @@ public class ElasticsearchExprValueFactory {
     return ExprBooleanValue.of(value);
   }
 
-  private ExprValue constructTimestamp(Long value) {
+  private static ExprValue constructTimestamp(Long value) {
     return constructTimestamp(Instant.ofEpochMilli(value));
   }
 
-  private ExprValue constructTimestamp(Instant instant) {
+  private static ExprValue constructTimestamp(Instant instant) {
     return new ExprTimestampValue(instant);
   }
 
@@ -275,7 +305,12 @@ public class ElasticsearchExprValueFactory {
    * https://www.elastic.co/guide/en/elasticsearch/reference/current/date.html
    * The customized date_format is not supported.
    */
-  private ExprValue constructTimestamp(String value) {
+  private static ExprValue constructTimestamp(String value) {
+    Instant instant = parseIsoDateTime(value);
+    if (instant != null) {
+      return new ExprTimestampValue(instant);
+    }
+
     try {
       return new ExprTimestampValue(
           // Using Elasticsearch DateFormatters for now.
@@ -288,12 +323,150 @@ public class ElasticsearchExprValueFactory {
     }
   }
 
-  private ExprTupleValue constructStruct(JsonNode value, String path) {
+  /**
+   * Parse date time in the most common format yyyy-MM-dd, yyyy-MM-dd'T'HH:mm:ss[.S][Z] or
+   * yyyy-MM-dd HH:mm:ss[.S] in UTC by hand, because the formatter composed of optional
+   * patterns is expensive. Return null for any other format to fall back to the formatter.
+   */
+  private static Instant parseIsoDateTime(String value) {
+    int length = value.length();
+    if (length != ISO_DATE_LENGTH && length < ISO_DATE_TIME_TEMPLATE.length()) {
+      return null;
+    }
+
+    int end = Math.min(length, ISO_DATE_TIME_TEMPLATE.length());
+    for (int i = 0; i < end; i++) {
+      char expected = ISO_DATE_TIME_TEMPLATE.charAt(i);
+      char actual = value.charAt(i);
+      boolean matched = (expected == '0')
+          ? (actual >= '0' && actual <= '9')
+          : (actual == expected || (i == ISO_DATE_LENGTH && actual == ' '));
+      if (!matched) {
+        return null;
+      }
+    }
+
+    int nano = 0;
+    int pos = end;
+    if (pos < length && value.charAt(pos) == '.') {
+      int digits = 0;
+      for (pos++; pos < length && Character.isDigit(value.charAt(pos)); pos++, digits++) {
+        nano = nano * 10 + (value.charAt(pos) - '0');
+      }
+      if (digits == 0 || digits > 9) {
+        return null;
+      }
+      for (; digits < 9; digits++) {
+        nano *= 10;
+      }
+    }
+    if (pos < length && value.charAt(pos) == 'Z') {
+      pos++;
+    }
+    if (pos != length) {
+      return null;
+    }
+
+    try {
+      return LocalDateTime.of(
+          digits(value, 0, 4), digits(value, 5, 7), digits(value, 8, 10),
+          digits(value, 11, 13), digits(value, 14, 16), digits(value, 17, 19), nano)
+          .toInstant(ZoneOffset.UTC);
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Convert digits at the given position to int, or 0 if out of the string.
+   */
+  private static int digits(String value, int start, int end) {
+    int result = 0;
+    for (int i = start; i < end && i < value.length(); i++) {
+      result = result * 10 + (value.charAt(i) - '0');
+    }
+    return result;
+  }
+
+  /**
+   * Compile type mapping to decoder tree. The flattened field path is split into segments and
+   * each decoder is attached to its parent. Parent missing in the mapping is created without
+   * type and fails in the same way as unknown field if any value found for it. Each decoder is
+   * also registered to its ancestors by the rest of the path for source key containing dot.
+   */
+  private static FieldDecoder compile(Map<String, ExprType> typeMapping) {
+    FieldDecoder root = new FieldDecoder(TOP_PATH, STRUCT, VALUE_DECODERS.get(STRUCT));
+    for (Map.Entry<String, ExprType> entry : typeMapping.entrySet()) {
+      String[] segments = entry.getKey().split("\\.");
+      FieldDecoder field = new FieldDecoder(
+          entry.getKey(), entry.getValue(), valueDecoder(entry.getValue()));
+
+      FieldDecoder parent = root;
+      for (int i = 0; i < segments.length - 1; i++) {
+        parent.dottedChildren.put(
+            String.join(".", Arrays.copyOfRange(segments, i, segments.length)), field);
+        parent = parent.childOrUnknown(segments[i]);
+      }
+
+      // Keep inner fields compiled already if any
+      String name = segments[segments.length - 1];
+      FieldDecoder previous = parent.children.put(name, field);
+      if (previous != null) {
+        field.children.putAll(previous.children);
+        field.dottedChildren.putAll(previous.dottedChildren);
+      }
+    }
+    return root;
+  }
+
+  private static ValueDecoder valueDecoder(ExprType type) {
+    return VALUE_DECODERS.getOrDefault(type, (parser, field) -> {
+      throw new IllegalStateException(String.format(
+          "Unsupported type: %s for field: %s, value: %s.",
+          type.typeName(), field.path, OBJECT_MAPPER.readTree(parser)));
+    });
+  }
+
+  /**
+   * Decode the value the parser is pointing at. Only first element is taken if an array found
+   * for non-array field, because any Elasticsearch field could have multiple values.
+   */
+  private static ExprValue decode(JsonParser parser, FieldDecoder field) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.VALUE_NULL) {
+      return nullValue();
+    }
+    if (token == JsonToken.START_ARRAY && field.type != ARRAY) {
+      ExprValue value = nullValue();
+      if (parser.nextToken() != JsonToken.END_ARRAY) {
+        value = decode(parser, field);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          parser.skipChildren();
+        }
+      }
+      return value;
+    }
+
+    // Skip the rest of object or array unexpected for the type to keep parser in sync
+    ExprValue value = field.decoder.decode(parser, field);
+    parser.skipChildren();
+    return value;
+  }
+
+  private static ExprValue decodeStruct(JsonParser parser, FieldDecoder struct)
+      throws IOException {
     LinkedHashMap<String, ExprValue> map = new LinkedHashMap<>();
-    value
-        .fieldNames()
-        .forEachRemaining(
-            field -> map.put(field, construct(makeField(path, field), value.get(field))));
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return new ExprTupleValue(map);
+    }
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      FieldDecoder field = struct.child(name);
+      parser.nextToken();
+      map.put(name, decode(parser, field));
+    }
     return new ExprTupleValue(map);
   }
 
@@ -302,18 +475,70 @@ public class ElasticsearchExprValueFactory {
    * https://www.elastic.co/guide/en/elasticsearch/reference/current/array.html. The similar data
    * type is nested, but it can only allow a list of objects.
    */
-  private ExprCollectionValue constructArray(JsonNode value, String path) {
+  private static ExprValue decodeArray(JsonParser parser, FieldDecoder field)
+      throws IOException {
     List<ExprValue> list = new ArrayList<>();
-    value
-        .elements()
-        .forEachRemaining(
-            node -> {
-              list.add(constructStruct(node, path));
-            });
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      list.add(decodeStruct(parser, field));
+    } else {
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        list.add(decodeStruct(parser, field));
+      }
+    }
     return new ExprCollectionValue(list);
   }
 
-  private String makeField(String path, String field) {
+  private static String makeField(String path, String field) {
     return path.equalsIgnoreCase(TOP_PATH) ? field : String.join(".", path, field);
   }
+
+  /**
+   * Decode value of specific type from current token of the parser.
+   */
+  @FunctionalInterface
+  private interface ValueDecoder {
+    ExprValue decode(JsonParser parser, FieldDecoder field) throws IOException;
+  }
+
+  /**
+   * Decoder of a field in the type mapping along with decoders of its inner fields.
+   */
+  @RequiredArgsConstructor
+  private static class FieldDecoder {
+    private final String path;
+    private final ExprType type;
+    private final ValueDecoder decoder;
+    private final Map<String, FieldDecoder> children = new HashMap<>();
+
+    /**
+     * Inner fields by the flattened path relative to this field, e.g. "b.c" of field "a" for
+     * mapped field "a.b.c", which is looked up if the source key contains dot.
+     */
+    private final Map<String, FieldDecoder> dottedChildren = new HashMap<>();
+
+    FieldDecoder child(String name) {
+      FieldDecoder child = children.get(name);
+      if (child == null) {
+        child = dottedChildren.get(name);
+      }
+      if (child == null) {
+        throw new IllegalStateException(
+            String.format("No type found for field: %s.", makeField(path, name)));
+      }
+      return child;
+    }
+
+    /**
+     * Get child decoder or create one which reports missing type on decoding.
+     */
+    FieldDecoder childOrUnknown(String name) {
+      return children.computeIfAbsent(name, key -> {
+        String childPath = makeField(path, key);
+        return new FieldDecoder(childPath, null, (parser, field) -> {
+          throw new IllegalStateException(
+              String.format("No type found for field: %s.", childPath));
+        });
+      });
+    }
+  }
 }
@@ -69,7 +69,14 @@ public class ElasticsearchExecutionEngine implements ExecutionEngine {
           @Override
           public ExplainResponseNode visitTableScan(TableScanOperator node, Object context) {
             return explain(node, context, explainNode -> {
-              explainNode.setDescription(ImmutableMap.of("request", node.explain()));
+              ImmutableMap.Builder<String, Object> description = ImmutableMap.builder();
+              description.put("request", node.explain());
+              if (node instanceof ElasticsearchIndexScan
+                  && ((ElasticsearchIndexScan) node).getEstimatedCost() != null) {
+                description.put("cost", ((ElasticsearchIndexScan) node).getEstimatedCost()
+                    .toString());
+              }
+              explainNode.setDescription(description.build());
             });
           }
         };
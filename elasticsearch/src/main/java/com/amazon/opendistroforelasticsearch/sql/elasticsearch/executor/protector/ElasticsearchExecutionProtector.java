@@ -55,16 +55,23 @@ public class ElasticsearchExecutionProtector extends ExecutionProtector {
     return new FilterOperator(visitInput(node.getInput(), context), node.getConditions());
   }
 
+  /**
+   * Pass resource monitor to aggregation operator which retains state for each group.
+   */
   @Override
   public PhysicalPlan visitAggregation(AggregationOperator node, Object context) {
     return new AggregationOperator(visitInput(node.getInput(), context), node.getAggregatorList(),
-        node.getGroupByExprList());
+        node.getGroupByExprList(), resourceMonitor);
   }
 
+  /**
+   * Pass resource monitor to rare/top operator which retains count for each key.
+   */
   @Override
   public PhysicalPlan visitRareTopN(RareTopNOperator node, Object context) {
     return new RareTopNOperator(visitInput(node.getInput(), context), node.getCommandType(),
-        node.getNoOfResults(), node.getFieldExprList(), node.getGroupByExprList());
+        node.getNoOfResults(), node.getFieldExprList(), node.getGroupByExprList(),
+        resourceMonitor);
   }
 
   @Override
@@ -95,10 +102,14 @@ public class ElasticsearchExecutionProtector extends ExecutionProtector {
     return new EvalOperator(visitInput(node.getInput(), context), node.getExpressionList());
   }
 
+  /**
+   * Pass resource monitor to dedupe operator which retains dedupe keys seen.
+   */
   @Override
   public PhysicalPlan visitDedupe(DedupeOperator node, Object context) {
     return new DedupeOperator(visitInput(node.getInput(), context), node.getDedupeList(),
-        node.getAllowedDuplication(), node.getKeepEmpty(), node.getConsecutive());
+        node.getAllowedDuplication(), node.getKeepEmpty(), node.getConsecutive(),
+        resourceMonitor);
   }
 
   @Override
@@ -111,23 +122,29 @@ public class ElasticsearchExecutionProtector extends ExecutionProtector {
     );
   }
 
+  /**
+   * Pass resource monitor to window operator which may buffer rows in window frame.
+   */
   @Override
   public PhysicalPlan visitWindow(WindowOperator node, Object context) {
     return new WindowOperator(
         visitInput(node.getInput(), context),
         node.getWindowFunction(),
-        node.getWindowDefinition());
+        node.getWindowDefinition(),
+        resourceMonitor);
   }
 
   /**
-   * Decorate with {@link ResourceMonitorPlan}.
+   * Decorate with {@link ResourceMonitorPlan} and pass resource monitor to sort operator
+   * which buffers all rows.
    */
   @Override
   public PhysicalPlan visitSort(SortOperator node, Object context) {
     return new ResourceMonitorPlan(
         new SortOperator(
             visitInput(node.getInput(), context),
-            node.getSortList()),
+            node.getSortList(),
+            resourceMonitor),
         resourceMonitor);
   }
 
@@ -19,7 +19,9 @@ package com.amazon.opendistroforelasticsearch.sql.elasticsearch.mapping;
 import static java.util.Collections.emptyMap;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -33,15 +35,34 @@ import org.elasticsearch.cluster.metadata.MappingMetadata;
 @ToString
 public class IndexMapping {
 
+  /** Field types whose doc value is the same as value in _source except for multi-value. */
+  private static final Set<String> DOC_VALUE_TYPES =
+      ImmutableSet.of("integer", "long", "float", "double", "keyword", "boolean", "date");
+
   /** Field mappings from field name to field type in Elasticsearch date type system. */
   private final Map<String, String> fieldMappings;
 
+  /** Top level fields whose value can be read from doc values instead of _source. */
+  private final Set<String> docValueFields;
+
+  /**
+   * Constructor of index mapping with field types only. Doc values are assumed enabled with
+   * default settings for fields of type supported.
+   */
   public IndexMapping(Map<String, String> fieldMappings) {
     this.fieldMappings = fieldMappings;
+    this.docValueFields = fieldMappings.entrySet().stream()
+        .filter(e -> !e.getKey().contains(".") && DOC_VALUE_TYPES.contains(e.getValue()))
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toSet());
   }
 
+  /**
+   * Constructor of index mapping from mapping metadata.
+   */
   public IndexMapping(MappingMetadata metaData) {
     this.fieldMappings = flatMappings(metaData.getSourceAsMap());
+    this.docValueFields = docValueFields(metaData.getSourceAsMap());
   }
 
   /**
@@ -75,6 +96,37 @@ public class IndexMapping {
         .collect(Collectors.toMap(Map.Entry::getKey, e -> transform.apply(e.getValue())));
   }
 
+  /**
+   * Return top level fields whose value can be read from doc values rather than _source.
+   *
+   * @return field names
+   */
+  public Set<String> getDocValueFields() {
+    return docValueFields;
+  }
+
+  /**
+   * Only top level field of the types supported is read from doc values. The field is skipped if
+   * doc values is disabled, value longer than ignore_above is not indexed at all or keyword
+   * normalizer makes doc values differ from the original value.
+   */
+  @SuppressWarnings("unchecked")
+  private Set<String> docValueFields(Map<String, Object> indexMapping) {
+    Map<String, Object> properties =
+        (Map<String, Object>) indexMapping.getOrDefault("properties", emptyMap());
+    return properties.entrySet().stream()
+        .filter(e -> {
+          Map<String, Object> mapping = (Map<String, Object>) e.getValue();
+          return !isMultiField(mapping)
+              && DOC_VALUE_TYPES.contains(mapping.get("type"))
+              && !"false".equals(String.valueOf(mapping.get("doc_values")))
+              && !mapping.containsKey("ignore_above")
+              && !mapping.containsKey("normalizer");
+        })
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toSet());
+  }
+
   @SuppressWarnings("unchecked")
   private Map<String, String> flatMappings(Map<String, Object> indexMapping) {
     ImmutableMap.Builder<String, String> builder = new ImmutableMap.Builder<>();
@@ -16,28 +16,24 @@
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.monitor;
 
 import com.google.common.annotations.VisibleForTesting;
-import java.util.concurrent.ThreadLocalRandom;
 import lombok.NoArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 
 /**
- * Elasticsearch Memory Monitor.
+ * Elasticsearch Memory Monitor. Memory retained by each query is accounted separately by
+ * {@link ElasticsearchResourceMonitor} against request circuit breaker, so this only checks
+ * the heap usage of whole JVM before query starts.
  */
 @Log4j2
 public class ElasticsearchMemoryHealthy {
-  private final RandomFail randomFail;
   private final MemoryUsage memoryUsage;
 
   public ElasticsearchMemoryHealthy() {
-    randomFail = new RandomFail();
     memoryUsage = new MemoryUsage();
   }
 
   @VisibleForTesting
-  public ElasticsearchMemoryHealthy(
-      RandomFail randomFail,
-      MemoryUsage memoryUsage) {
-    this.randomFail = randomFail;
+  public ElasticsearchMemoryHealthy(MemoryUsage memoryUsage) {
     this.memoryUsage = memoryUsage;
   }
 
@@ -51,18 +47,7 @@ public class ElasticsearchMemoryHealthy {
       return true;
     } else {
       log.warn("Memory usage:{} exceed limit:{}", memoryUsage, limitBytes);
-      if (randomFail.shouldFail()) {
-        log.warn("Fast failure the current request");
-        throw new MemoryUsageExceedFastFailureException();
-      } else {
-        throw new MemoryUsageExceedException();
-      }
-    }
-  }
-
-  static class RandomFail {
-    public boolean shouldFail() {
-      return ThreadLocalRandom.current().nextBoolean();
+      throw new MemoryUsageExceedException();
     }
   }
 
@@ -74,11 +59,6 @@ public class ElasticsearchMemoryHealthy {
     }
   }
 
-  @NoArgsConstructor
-  public static class MemoryUsageExceedFastFailureException extends RuntimeException {
-
-  }
-
   @NoArgsConstructor
   public static class MemoryUsageExceedException extends RuntimeException {
 
@@ -22,11 +22,14 @@ import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import java.util.function.Supplier;
 import lombok.extern.log4j.Log4j2;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.unit.ByteSizeValue;
 
 /**
  * {@link ResourceMonitor} implementation on Elasticsearch. When the heap memory usage exceeds
- * certain threshold, the monitor is not healthy.
+ * certain threshold, the monitor is not healthy. Memory retained by query execution is charged
+ * to request circuit breaker, so that the query which charges more when the breaker limit is
+ * reached fails with {@link org.elasticsearch.common.breaker.CircuitBreakingException}.
  * Todo, add metrics.
  */
 @Log4j2
@@ -35,23 +38,33 @@ public class ElasticsearchResourceMonitor extends ResourceMonitor {
   private final Retry retry;
   private final ElasticsearchMemoryHealthy memoryMonitor;
 
+  /**
+   * Label shown in circuit breaking exception.
+   */
+  private static final String LABEL = "<opendistro_sql_query>";
+
+  /**
+   * Request circuit breaker. Null if unavailable in which case memory is not accounted.
+   */
+  private final CircuitBreaker breaker;
+
   /**
    * Constructor of ElasticsearchCircuitBreaker.
    */
   public ElasticsearchResourceMonitor(
       Settings settings,
-      ElasticsearchMemoryHealthy memoryMonitor) {
+      ElasticsearchMemoryHealthy memoryMonitor,
+      CircuitBreaker breaker) {
     this.settings = settings;
     RetryConfig config =
         RetryConfig.custom()
             .maxAttempts(3)
             .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(1000))
             .retryExceptions(ElasticsearchMemoryHealthy.MemoryUsageExceedException.class)
-            .ignoreExceptions(
-                ElasticsearchMemoryHealthy.MemoryUsageExceedFastFailureException.class)
             .build();
     retry = Retry.of("mem", config);
     this.memoryMonitor = memoryMonitor;
+    this.breaker = breaker;
   }
 
   /**
@@ -72,4 +85,24 @@ public class ElasticsearchResourceMonitor extends ResourceMonitor {
       return false;
     }
   }
+
+  /**
+   * Charge memory to request circuit breaker.
+   *
+   * @param bytes estimated size in bytes
+   * @throws org.elasticsearch.common.breaker.CircuitBreakingException if circuit breaker tripped
+   */
+  @Override
+  public void charge(long bytes) {
+    if (breaker != null) {
+      breaker.addEstimateBytesAndMaybeBreak(bytes, LABEL);
+    }
+  }
+
+  @Override
+  public void release(long bytes) {
+    if (breaker != null) {
+      breaker.addWithoutBreaking(-bytes);
+    }
+  }
 }
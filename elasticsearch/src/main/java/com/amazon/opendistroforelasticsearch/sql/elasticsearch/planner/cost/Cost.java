@@ -0,0 +1,51 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost;
+
+import com.amazon.opendistroforelasticsearch.sql.common.utils.StringUtils;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Estimated cost of a logical plan.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class Cost implements Comparable<Cost> {
+
+  /**
+   * Estimated number of rows output.
+   */
+  private final double rows;
+
+  /**
+   * Estimated cost accumulated of the plan and all its children.
+   */
+  private final double cost;
+
+  @Override
+  public int compareTo(Cost other) {
+    return Double.compare(cost, other.cost);
+  }
+
+  @Override
+  public String toString() {
+    return StringUtils.format("rows=%.0f, cost=%.2f", rows, cost);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost;
+
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalIndexAgg;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalIndexScan;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalAggregation;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalFilter;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalRelation;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalSort;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Cost based optimizer that runs after the rule based push down. For each operator pushed down to
+ * Elasticsearch, the equivalent plan that runs the operator in memory is considered as
+ * alternative and the one with lower estimated cost is chosen.
+ */
+@Log4j2
+@RequiredArgsConstructor
+public class CostBasedOptimizer {
+
+  private final CostModel costModel;
+
+  /**
+   * Optimize the logical plan which has been optimized by rules.
+   */
+  public LogicalPlan optimize(LogicalPlan plan) {
+    if (plan instanceof ElasticsearchLogicalIndexScan
+        || plan instanceof ElasticsearchLogicalIndexAgg) {
+      return choose(plan);
+    }
+
+    plan.replaceChildPlans(
+        plan.getChild().stream().map(this::optimize).collect(Collectors.toList()));
+    return plan;
+  }
+
+  private LogicalPlan choose(LogicalPlan pushDown) {
+    Optional<LogicalPlan> alternative = inMemoryAlternative(pushDown);
+    if (!alternative.isPresent()) {
+      return pushDown;
+    }
+
+    Cost pushDownCost = costModel.estimate(pushDown);
+    Cost inMemoryCost = costModel.estimate(alternative.get());
+    log.debug("Estimated cost of push down: {}, in memory: {}", pushDownCost, inMemoryCost);
+    return (inMemoryCost.compareTo(pushDownCost) < 0) ? alternative.get() : pushDown;
+  }
+
+  /**
+   * Build the equivalent plan that runs filter or aggregation in memory. Alternative is available
+   * only if all documents can be fetched by index scan.
+   */
+  private Optional<LogicalPlan> inMemoryAlternative(LogicalPlan pushDown) {
+    if (!costModel.isCompleteScan()) {
+      return Optional.empty();
+    }
+
+    if (pushDown instanceof ElasticsearchLogicalIndexScan) {
+      ElasticsearchLogicalIndexScan indexScan = (ElasticsearchLogicalIndexScan) pushDown;
+      if (indexScan.getFilter() == null
+          || indexScan.getSortList() != null
+          || indexScan.hasLimit()
+          || indexScan.hasScriptFields()) {
+        return Optional.empty();
+      }
+      return Optional.of(new LogicalFilter(
+          new LogicalRelation(indexScan.getRelationName()), indexScan.getFilter()));
+    }
+
+    ElasticsearchLogicalIndexAgg indexAgg = (ElasticsearchLogicalIndexAgg) pushDown;
+    LogicalPlan source = (indexAgg.getFilter() == null)
+        ? new LogicalRelation(indexAgg.getRelationName())
+        : ElasticsearchLogicalIndexScan.builder()
+            .relationName(indexAgg.getRelationName())
+            .filter(indexAgg.getFilter())
+            .build();
+    LogicalPlan aggregation = new LogicalAggregation(
+        source, indexAgg.getAggregatorList(), indexAgg.getGroupByList());
+    return Optional.of((indexAgg.getSortList() == null)
+        ? aggregation : new LogicalSort(aggregation, indexAgg.getSortList()));
+  }
+}
@@ -0,0 +1,306 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost;
+
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.aggregation.AggregationQueryBuilder.AGGREGATION_BUCKET_SIZE;
+
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalIndexAgg;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalIndexScan;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.FilterQueryBuilder;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.serialization.DefaultExpressionSerializer;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.FunctionExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.NamedExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.function.BuiltinFunctionName;
+import com.amazon.opendistroforelasticsearch.sql.expression.function.FunctionName;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalAggregation;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalFilter;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalLimit;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanNodeVisitor;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalRelation;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalSort;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.ScriptQueryBuilder;
+
+/**
+ * Cost model that estimates output rows and cost of a logical plan by index statistics. The unit
+ * of cost is the CPU time to process one row in memory. Work done by Elasticsearch is divided by
+ * shard count because shards are searched in parallel.
+ */
+@RequiredArgsConstructor
+public class CostModel {
+
+  /** Fixed cost of a round trip to Elasticsearch. */
+  static final double REQUEST_COST = 200.0;
+
+  /** Cost to fetch, transfer and parse one row from Elasticsearch. */
+  static final double TRANSFER_COST_PER_ROW = 5.0;
+
+  /** Cost to match one document by Lucene query. */
+  static final double LUCENE_FILTER_COST_PER_DOC = 0.05;
+
+  /** Cost to deserialize and set up filter script for a search. */
+  static final double SCRIPT_SETUP_COST = 100.0;
+
+  /** Cost to run filter script on one document. */
+  static final double SCRIPT_FILTER_COST_PER_DOC = 2.0;
+
+  /** Cost to collect one document into Elasticsearch aggregation. */
+  static final double INDEX_AGG_COST_PER_DOC = 0.5;
+
+  /** Cost to process one row in memory, such as filter or projection. */
+  static final double CPU_COST_PER_ROW = 1.0;
+
+  /** Cost to hash and accumulate one row in memory aggregation. */
+  static final double HASH_AGG_COST_PER_ROW = 2.0;
+
+  /** Selectivity assumed for predicate that cannot be estimated by statistics. */
+  static final double DEFAULT_SELECTIVITY = 1.0 / 3;
+
+  /**
+   * Headroom factor for stale statistics when deciding if a single search request returns all
+   * the documents of the index.
+   */
+  static final int COMPLETE_SCAN_HEADROOM = 2;
+
+  private static final FunctionName AND = BuiltinFunctionName.AND.getName();
+  private static final FunctionName OR = BuiltinFunctionName.OR.getName();
+  private static final FunctionName NOT = BuiltinFunctionName.NOT.getName();
+  private static final FunctionName EQUAL = BuiltinFunctionName.EQUAL.getName();
+
+  private final IndexStatistics statistics;
+
+  /** Max number of documents returned by an index scan without limit. */
+  private final int scanSizeLimit;
+
+  private final FilterQueryBuilder filterQueryBuilder =
+      new FilterQueryBuilder(new DefaultExpressionSerializer());
+
+  /**
+   * Estimate the cost of the logical plan.
+   */
+  public Cost estimate(LogicalPlan plan) {
+    return plan.accept(new CostEstimator(), null);
+  }
+
+  /**
+   * Is an index scan without limit guaranteed to fetch all documents. This is required before
+   * replacing a push down by in-memory operator because index scan doesn't page for now.
+   */
+  public boolean isCompleteScan() {
+    return statistics.getDocCount() * COMPLETE_SCAN_HEADROOM <= scanSizeLimit;
+  }
+
+  /**
+   * Find fields whose cardinality is used for estimating the logical plan.
+   */
+  public static Set<String> fieldsRequired(LogicalPlan plan) {
+    Set<String> fields = new HashSet<>();
+    collectFields(plan, fields);
+    return fields;
+  }
+
+  private static void collectFields(LogicalPlan plan, Set<String> fields) {
+    if (plan instanceof ElasticsearchLogicalIndexScan) {
+      collectFields(((ElasticsearchLogicalIndexScan) plan).getFilter(), fields);
+    } else if (plan instanceof ElasticsearchLogicalIndexAgg) {
+      ElasticsearchLogicalIndexAgg indexAgg = (ElasticsearchLogicalIndexAgg) plan;
+      collectFields(indexAgg.getFilter(), fields);
+      collectFields(indexAgg.getGroupByList(), fields);
+    } else if (plan instanceof LogicalFilter) {
+      collectFields(((LogicalFilter) plan).getCondition(), fields);
+    } else if (plan instanceof LogicalAggregation) {
+      collectFields(((LogicalAggregation) plan).getGroupByList(), fields);
+    }
+    plan.getChild().forEach(child -> collectFields(child, fields));
+  }
+
+  private static void collectFields(Expression condition, Set<String> fields) {
+    if (!(condition instanceof FunctionExpression)) {
+      return;
+    }
+
+    FunctionExpression function = (FunctionExpression) condition;
+    List<Expression> arguments = function.getArguments();
+    if (EQUAL.equals(function.getFunctionName())) {
+      if (arguments.get(0) instanceof ReferenceExpression) {
+        fields.add(((ReferenceExpression) arguments.get(0)).getAttr());
+      }
+    } else if (isLogicalFunction(function.getFunctionName())) {
+      arguments.forEach(arg -> collectFields(arg, fields));
+    }
+  }
+
+  private static void collectFields(List<NamedExpression> groupByList, Set<String> fields) {
+    for (NamedExpression groupBy : groupByList) {
+      if (groupBy.getDelegated() instanceof ReferenceExpression) {
+        fields.add(((ReferenceExpression) groupBy.getDelegated()).getAttr());
+      }
+    }
+  }
+
+  private static boolean isLogicalFunction(FunctionName name) {
+    return AND.equals(name) || OR.equals(name) || NOT.equals(name);
+  }
+
+  /**
+   * Estimate fraction of rows that satisfy the condition. Equality on field is estimated by field
+   * cardinality and other predicates by default selectivity.
+   */
+  private double selectivity(Expression condition) {
+    if (condition instanceof FunctionExpression) {
+      FunctionExpression function = (FunctionExpression) condition;
+      FunctionName name = function.getFunctionName();
+      List<Expression> arguments = function.getArguments();
+      if (AND.equals(name)) {
+        return selectivity(arguments.get(0)) * selectivity(arguments.get(1));
+      } else if (OR.equals(name)) {
+        double left = selectivity(arguments.get(0));
+        double right = selectivity(arguments.get(1));
+        return left + right - left * right;
+      } else if (NOT.equals(name)) {
+        return 1.0 - selectivity(arguments.get(0));
+      } else if (EQUAL.equals(name) && (arguments.get(0) instanceof ReferenceExpression)) {
+        return 1.0 / statistics.getCardinality(((ReferenceExpression) arguments.get(0)).getAttr());
+      }
+    }
+    return DEFAULT_SELECTIVITY;
+  }
+
+  /**
+   * Estimate number of groups by product of group by field cardinality. Group by expression is
+   * assumed to produce distinct value for each row.
+   */
+  private double groups(List<NamedExpression> groupByList, double inputRows) {
+    double groups = 1.0;
+    for (NamedExpression groupBy : groupByList) {
+      Expression expr = groupBy.getDelegated();
+      if (expr instanceof ReferenceExpression) {
+        groups *= statistics.getCardinality(((ReferenceExpression) expr).getAttr());
+      } else {
+        groups *= inputRows;
+      }
+    }
+    return Math.max(1.0, Math.min(groups, inputRows));
+  }
+
+  private double filterCost(Expression filter, double docs) {
+    if (filter == null) {
+      return 0.0;
+    }
+    if (isScriptQuery(filterQueryBuilder.build(filter))) {
+      return SCRIPT_SETUP_COST + docs * SCRIPT_FILTER_COST_PER_DOC / shards();
+    }
+    return docs * LUCENE_FILTER_COST_PER_DOC / shards();
+  }
+
+  private boolean isScriptQuery(QueryBuilder query) {
+    if (query instanceof BoolQueryBuilder) {
+      BoolQueryBuilder boolQuery = (BoolQueryBuilder) query;
+      return Stream.of(boolQuery.must(), boolQuery.filter(), boolQuery.should(),
+          boolQuery.mustNot())
+          .flatMap(List::stream)
+          .anyMatch(this::isScriptQuery);
+    }
+    return query instanceof ScriptQueryBuilder;
+  }
+
+  private double shards() {
+    return Math.max(1, statistics.getShardCount());
+  }
+
+  private class CostEstimator extends LogicalPlanNodeVisitor<Cost, Object> {
+
+    @Override
+    public Cost visitNode(LogicalPlan plan, Object context) {
+      if (plan instanceof ElasticsearchLogicalIndexScan) {
+        ElasticsearchLogicalIndexScan indexScan = (ElasticsearchLogicalIndexScan) plan;
+        return scan(indexScan.getFilter(), indexScan.getLimit());
+      } else if (plan instanceof ElasticsearchLogicalIndexAgg) {
+        return indexAgg((ElasticsearchLogicalIndexAgg) plan);
+      } else if (plan.getChild().isEmpty()) {
+        return new Cost(1.0, 0.0);
+      }
+
+      Cost child = plan.getChild().get(0).accept(this, context);
+      return new Cost(child.getRows(), child.getCost() + child.getRows() * CPU_COST_PER_ROW);
+    }
+
+    @Override
+    public Cost visitRelation(LogicalRelation plan, Object context) {
+      return scan(null, null);
+    }
+
+    @Override
+    public Cost visitFilter(LogicalFilter plan, Object context) {
+      Cost child = plan.getChild().get(0).accept(this, context);
+      return new Cost(child.getRows() * selectivity(plan.getCondition()),
+          child.getCost() + child.getRows() * CPU_COST_PER_ROW);
+    }
+
+    @Override
+    public Cost visitAggregation(LogicalAggregation plan, Object context) {
+      Cost child = plan.getChild().get(0).accept(this, context);
+      return new Cost(groups(plan.getGroupByList(), child.getRows()),
+          child.getCost() + child.getRows() * HASH_AGG_COST_PER_ROW);
+    }
+
+    @Override
+    public Cost visitSort(LogicalSort plan, Object context) {
+      Cost child = plan.getChild().get(0).accept(this, context);
+      double rows = child.getRows();
+      return new Cost(rows,
+          child.getCost() + rows * log2(Math.max(2.0, rows)) * CPU_COST_PER_ROW);
+    }
+
+    @Override
+    public Cost visitLimit(LogicalLimit plan, Object context) {
+      Cost child = plan.getChild().get(0).accept(this, context);
+      return new Cost(Math.min(plan.getLimit(), child.getRows()), child.getCost());
+    }
+
+    private Cost scan(Expression filter, Integer limit) {
+      double docs = statistics.getDocCount();
+      double matched = (filter == null) ? docs : docs * selectivity(filter);
+      double returned = Math.min(matched, (limit == null) ? scanSizeLimit : limit);
+      return new Cost(returned,
+          REQUEST_COST + filterCost(filter, docs) + returned * TRANSFER_COST_PER_ROW);
+    }
+
+    private Cost indexAgg(ElasticsearchLogicalIndexAgg plan) {
+      double docs = statistics.getDocCount();
+      double matched = (plan.getFilter() == null) ? docs : docs * selectivity(plan.getFilter());
+      double returned = Math.min(groups(plan.getGroupByList(), matched), AGGREGATION_BUCKET_SIZE);
+      return new Cost(returned, REQUEST_COST
+          + filterCost(plan.getFilter(), docs)
+          + matched * INDEX_AGG_COST_PER_DOC / shards()
+          + returned * TRANSFER_COST_PER_ROW);
+    }
+
+    private double log2(double value) {
+      return Math.log(value) / Math.log(2);
+    }
+  }
+}
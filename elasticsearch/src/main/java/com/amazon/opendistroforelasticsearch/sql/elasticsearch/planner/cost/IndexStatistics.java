@@ -0,0 +1,73 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Statistics of an Elasticsearch index used by cost model.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class IndexStatistics {
+
+  /**
+   * Total number of documents.
+   */
+  private final long docCount;
+
+  /**
+   * Number of shards the search runs on.
+   */
+  private final int shardCount;
+
+  /**
+   * Estimated distinct value count of field by cardinality aggregation.
+   */
+  private final Map<String, Long> fieldCardinality;
+
+  /**
+   * Is cardinality of all the fields given known.
+   */
+  public boolean hasCardinality(Collection<String> fields) {
+    return fieldCardinality.keySet().containsAll(fields);
+  }
+
+  /**
+   * Estimated distinct value count of the field. Assume all values are distinct if unknown.
+   */
+  public long getCardinality(String field) {
+    return Math.max(1L, fieldCardinality.getOrDefault(field, docCount));
+  }
+
+  /**
+   * Merge with newer statistics which may only have cardinality of part of fields.
+   */
+  public IndexStatistics merge(IndexStatistics newer) {
+    Map<String, Long> cardinality = new HashMap<>(fieldCardinality);
+    cardinality.putAll(newer.fieldCardinality);
+    return new IndexStatistics(newer.docCount, newer.shardCount, cardinality);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost;
+
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.client.ElasticsearchClient;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchStatisticsRequest;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Index statistics provider that caches statistics per index for a short while to avoid
+ * issuing statistics request for every query. Because storage engine is created for each query,
+ * the cache is shared by all providers on the node.
+ */
+@Log4j2
+public class IndexStatisticsProvider {
+
+  /**
+   * How long statistics cached is considered fresh.
+   */
+  @VisibleForTesting
+  static final long CACHE_EXPIRE_MINUTES = 1L;
+
+  private static final long MAX_CACHED_INDICES = 1000L;
+
+  private static final Cache<String, IndexStatistics> SHARED_CACHE =
+      newCache(Ticker.systemTicker());
+
+  private final ElasticsearchClient client;
+
+  private final Cache<String, IndexStatistics> cache;
+
+  public IndexStatisticsProvider(ElasticsearchClient client) {
+    this(client, SHARED_CACHE);
+  }
+
+  @VisibleForTesting
+  IndexStatisticsProvider(ElasticsearchClient client, Cache<String, IndexStatistics> cache) {
+    this.client = client;
+    this.cache = cache;
+  }
+
+  @VisibleForTesting
+  static Cache<String, IndexStatistics> newCache(Ticker ticker) {
+    return CacheBuilder.newBuilder()
+        .expireAfterWrite(CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES)
+        .maximumSize(MAX_CACHED_INDICES)
+        .ticker(ticker)
+        .build();
+  }
+
+  /**
+   * Get statistics of the index with cardinality of the fields given. Only statistics missing
+   * in cache is requested from Elasticsearch.
+   *
+   * @param indexName index name
+   * @param fields    fields whose cardinality is required
+   * @return index statistics or empty if failed to collect
+   */
+  public Optional<IndexStatistics> getStatistics(String indexName, Set<String> fields) {
+    IndexStatistics cached = cache.getIfPresent(indexName);
+    if (cached != null && cached.hasCardinality(fields)) {
+      return Optional.of(cached);
+    }
+
+    Set<String> missing = new HashSet<>(fields);
+    if (cached != null) {
+      missing.removeAll(cached.getFieldCardinality().keySet());
+    }
+
+    try {
+      IndexStatistics collected =
+          client.statistics(new ElasticsearchStatisticsRequest(indexName, missing));
+      IndexStatistics statistics = (cached == null) ? collected : cached.merge(collected);
+      cache.put(indexName, statistics);
+      return Optional.of(statistics);
+    } catch (Exception e) {
+      log.warn("Failed to collect statistics of index {}, fall back to rule based plan",
+          indexName, e);
+      return Optional.empty();
+    }
+  }
+}
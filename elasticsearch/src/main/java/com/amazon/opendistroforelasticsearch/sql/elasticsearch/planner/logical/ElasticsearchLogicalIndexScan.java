@@ -25,6 +25,7 @@ import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
 import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanNodeVisitor;
 import com.google.common.collect.ImmutableList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -64,6 +65,12 @@ public class ElasticsearchLogicalIndexScan extends LogicalPlan {
   @Setter
   private List<Pair<Sort.SortOption, Expression>> sortList;
 
+  /**
+   * Computed fields evaluated by script on each document returned.
+   */
+  @Setter
+  private Map<ReferenceExpression, Expression> scriptFields;
+
   @Setter
   private Integer offset;
 
@@ -79,12 +86,14 @@ public class ElasticsearchLogicalIndexScan extends LogicalPlan {
       Expression filter,
       Set<ReferenceExpression> projectList,
       List<Pair<Sort.SortOption, Expression>> sortList,
+      Map<ReferenceExpression, Expression> scriptFields,
       Integer limit, Integer offset) {
     super(ImmutableList.of());
     this.relationName = relationName;
     this.filter = filter;
     this.projectList = projectList;
     this.sortList = sortList;
+    this.scriptFields = scriptFields;
     this.limit = limit;
     this.offset = offset;
   }
@@ -106,4 +115,13 @@ public class ElasticsearchLogicalIndexScan extends LogicalPlan {
   public boolean hasProjects() {
     return projectList != null && !projectList.isEmpty();
   }
+
+  /**
+   * Test has script fields or not.
+   *
+   * @return true for has script fields, otherwise false.
+   */
+  public boolean hasScriptFields() {
+    return scriptFields != null && !scriptFields.isEmpty();
+  }
 }
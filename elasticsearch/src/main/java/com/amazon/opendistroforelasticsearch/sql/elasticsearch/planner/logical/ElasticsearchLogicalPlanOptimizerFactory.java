@@ -25,8 +25,11 @@ import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.r
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.MergeSortAndIndexAgg;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.MergeSortAndIndexScan;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.MergeSortAndRelation;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.MergeSortAndWindow;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.PushEvalAndIndexScan;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.PushProjectAndIndexScan;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.PushProjectAndRelation;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.PushProjectExpressionAndIndexScan;
 import com.amazon.opendistroforelasticsearch.sql.planner.optimizer.LogicalPlanOptimizer;
 import java.util.Arrays;
 import lombok.experimental.UtilityClass;
@@ -49,8 +52,11 @@ public class ElasticsearchLogicalPlanOptimizerFactory {
         new MergeSortAndIndexScan(),
         new MergeSortAndIndexAgg(),
         new MergeSortAndIndexScan(),
+        new MergeSortAndWindow(),
         new MergeLimitAndRelation(),
         new MergeLimitAndIndexScan(),
+        new PushEvalAndIndexScan(),
+        new PushProjectExpressionAndIndexScan(),
         new PushProjectAndRelation(),
         new PushProjectAndIndexScan()
     ));
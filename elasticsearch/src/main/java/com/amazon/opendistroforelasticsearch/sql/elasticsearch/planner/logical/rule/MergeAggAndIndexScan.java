@@ -49,7 +49,7 @@ public class MergeAggAndIndexScan implements Rule<LogicalAggregation> {
     this.capture = Capture.newCapture();
     this.pattern = typeOf(LogicalAggregation.class)
         .with(source().matching(typeOf(ElasticsearchLogicalIndexScan.class)
-            .matching(indexScan -> !indexScan.hasLimit())
+            .matching(indexScan -> !indexScan.hasLimit() && !indexScan.hasScriptFields())
             .capturedAs(capture)));
   }
 
@@ -53,6 +53,7 @@ public class MergeLimitAndIndexScan implements Rule<LogicalLimit> {
         ElasticsearchLogicalIndexScan.builder();
     builder.relationName(indexScan.getRelationName())
         .filter(indexScan.getFilter())
+        .scriptFields(indexScan.getScriptFields())
         .offset(plan.getOffset())
         .limit(plan.getLimit());
     if (indexScan.getSortList() != null) {
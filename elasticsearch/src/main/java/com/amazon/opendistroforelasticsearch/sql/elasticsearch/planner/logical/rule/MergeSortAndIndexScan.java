@@ -49,7 +49,9 @@ public class MergeSortAndIndexScan implements Rule<LogicalSort> {
     this.indexScanCapture = Capture.newCapture();
     this.pattern = typeOf(LogicalSort.class).matching(OptimizationRuleUtils::sortByFieldsOnly)
         .with(source()
-            .matching(typeOf(ElasticsearchLogicalIndexScan.class).capturedAs(indexScanCapture)));
+            .matching(typeOf(ElasticsearchLogicalIndexScan.class)
+                .matching(indexScan -> !indexScan.hasScriptFields())
+                .capturedAs(indexScanCapture)));
   }
 
   @Override
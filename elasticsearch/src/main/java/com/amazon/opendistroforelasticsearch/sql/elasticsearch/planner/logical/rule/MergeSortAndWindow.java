@@ -0,0 +1,89 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule;
+
+import static com.facebook.presto.matching.Pattern.typeOf;
+
+import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalIndexScan;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalSort;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalWindow;
+import com.amazon.opendistroforelasticsearch.sql.planner.optimizer.Rule;
+import com.facebook.presto.matching.Captures;
+import com.facebook.presto.matching.Pattern;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Merge Sort with Window if the input of Window is sorted in the same order already. This is
+ * the case when multiple window functions share the same window definition. Because Window
+ * preserves the order of its input, the Sort is redundant and can be removed so that all
+ * Window operators stream over the sorted index scan without buffering in Sort operator.
+ */
+public class MergeSortAndWindow implements Rule<LogicalSort> {
+
+  private final Pattern<LogicalSort> pattern;
+
+  /**
+   * Constructor of MergeSortAndWindow.
+   */
+  public MergeSortAndWindow() {
+    this.pattern = typeOf(LogicalSort.class).matching(MergeSortAndWindow::isSortedByWindowInput);
+  }
+
+  @Override
+  public Pattern<LogicalSort> pattern() {
+    return pattern;
+  }
+
+  @Override
+  public LogicalPlan apply(LogicalSort sort,
+                           Captures captures) {
+    return sort.getChild().get(0);
+  }
+
+  private static boolean isSortedByWindowInput(LogicalSort sort) {
+    LogicalPlan child = sort.getChild().get(0);
+    if (!(child instanceof LogicalWindow)) {
+      return false;
+    }
+
+    List<Pair<Sort.SortOption, Expression>> inputSortList = inputSortList(child);
+    List<Pair<Sort.SortOption, Expression>> sortList = sort.getSortList();
+    return sortList.size() <= inputSortList.size()
+        && sortList.equals(inputSortList.subList(0, sortList.size()));
+  }
+
+  /**
+   * Find out the order of rows output by the plan. Window preserves the order of its input.
+   */
+  private static List<Pair<Sort.SortOption, Expression>> inputSortList(LogicalPlan plan) {
+    if (plan instanceof LogicalWindow) {
+      return inputSortList(plan.getChild().get(0));
+    } else if (plan instanceof LogicalSort) {
+      return ((LogicalSort) plan).getSortList();
+    } else if (plan instanceof ElasticsearchLogicalIndexScan
+        && ((ElasticsearchLogicalIndexScan) plan).getSortList() != null) {
+      return ((ElasticsearchLogicalIndexScan) plan).getSortList();
+    }
+    return Collections.emptyList();
+  }
+}
@@ -17,20 +17,53 @@
 
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule;
 
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.BOOLEAN;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.DOUBLE;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.FLOAT;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.LONG;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.STRING;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.TIMESTAMP;
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.type.ElasticsearchDataType.ES_TEXT_KEYWORD;
+
 import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort;
+import com.amazon.opendistroforelasticsearch.sql.data.type.ExprType;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalIndexScan;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
 import com.amazon.opendistroforelasticsearch.sql.expression.ExpressionNodeVisitor;
+import com.amazon.opendistroforelasticsearch.sql.expression.FunctionExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.LiteralExpression;
 import com.amazon.opendistroforelasticsearch.sql.expression.NamedExpression;
 import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.aggregation.Aggregator;
+import com.amazon.opendistroforelasticsearch.sql.expression.aggregation.NamedAggregator;
+import com.amazon.opendistroforelasticsearch.sql.expression.function.BuiltinFunctionName;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalRelation;
 import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalSort;
+import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
 public class OptimizationRuleUtils {
 
+  /**
+   * Result types of expression that can be computed by script field.
+   */
+  private static final Set<ExprType> SCRIPT_FIELD_TYPES =
+      ImmutableSet.of(INTEGER, LONG, FLOAT, DOUBLE, STRING, BOOLEAN);
+
+  /**
+   * Types of field that script field can read from doc values.
+   */
+  private static final Set<ExprType> DOC_VALUE_TYPES =
+      ImmutableSet.of(INTEGER, LONG, FLOAT, DOUBLE, STRING, BOOLEAN, TIMESTAMP, ES_TEXT_KEYWORD);
+
   /**
    * Does the sort list only contain {@link ReferenceExpression}.
    *
@@ -79,7 +112,7 @@ public class OptimizationRuleUtils {
    * @return a list of ReferenceExpression
    */
   public static List<ReferenceExpression> findReferenceExpression(
-      NamedExpression expression) {
+      Expression expression) {
     List<ReferenceExpression> results = new ArrayList<>();
     expression.accept(new ExpressionNodeVisitor<Object, Object>() {
       @Override
@@ -89,4 +122,79 @@ public class OptimizationRuleUtils {
     }, null);
     return results;
   }
+
+  /**
+   * Can the expression be computed by script field on each document returned. Only
+   * deterministic function on top level fields with doc values is supported and its result
+   * type has to be primitive. Function without any field is left to be evaluated in memory.
+   *
+   * @param expression expression.
+   * @return true if the expression can be pushed down as script field, otherwise false.
+   */
+  public static boolean isScriptFieldExpression(Expression expression) {
+    return expression instanceof FunctionExpression
+        && SCRIPT_FIELD_TYPES.contains(expression.type())
+        && expression.accept(new ExpressionNodeVisitor<Boolean, Object>() {
+          @Override
+          public Boolean visitLiteral(LiteralExpression node, Object context) {
+            return true;
+          }
+
+          @Override
+          public Boolean visitReference(ReferenceExpression node, Object context) {
+            return DOC_VALUE_TYPES.contains(node.type()) && !node.getAttr().contains(".");
+          }
+
+          @Override
+          public Boolean visitFunction(FunctionExpression node, Object context) {
+            return !BuiltinFunctionName.RAND.getName().equals(node.getFunctionName())
+                && node.getArguments().stream().allMatch(arg -> arg.accept(this, context));
+          }
+
+          @Override
+          public Boolean visitAggregator(Aggregator<?> node, Object context) {
+            return false;
+          }
+
+          @Override
+          public Boolean visitNamedAggregator(NamedAggregator node, Object context) {
+            return false;
+          }
+        }, null)
+        && !findReferenceExpression(expression).isEmpty();
+  }
+
+  /**
+   * Can script fields be pushed down to the plan, which is either a relation or an index scan
+   * without script fields. Script fields are pushed down at most once to make sure no script
+   * refers to the result of another.
+   *
+   * @param plan logical plan.
+   * @return true if script fields can be pushed down, otherwise false.
+   */
+  public static boolean canPushDownScriptFields(LogicalPlan plan) {
+    return plan instanceof LogicalRelation
+        || (plan instanceof ElasticsearchLogicalIndexScan
+            && !((ElasticsearchLogicalIndexScan) plan).hasScriptFields());
+  }
+
+  /**
+   * Push down script fields to relation or index scan.
+   *
+   * @param plan         relation or index scan.
+   * @param scriptFields script fields.
+   * @return index scan with the script fields.
+   */
+  public static ElasticsearchLogicalIndexScan pushDownScriptFields(
+      LogicalPlan plan, Map<ReferenceExpression, Expression> scriptFields) {
+    if (plan instanceof LogicalRelation) {
+      return ElasticsearchLogicalIndexScan.builder()
+          .relationName(((LogicalRelation) plan).getRelationName())
+          .scriptFields(scriptFields)
+          .build();
+    }
+    ElasticsearchLogicalIndexScan indexScan = (ElasticsearchLogicalIndexScan) plan;
+    indexScan.setScriptFields(scriptFields);
+    return indexScan;
+  }
 }
@@ -0,0 +1,111 @@
+/*
+ *
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule;
+
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.OptimizationRuleUtils.findReferenceExpression;
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.OptimizationRuleUtils.isScriptFieldExpression;
+import static com.amazon.opendistroforelasticsearch.sql.planner.optimizer.pattern.Patterns.source;
+import static com.facebook.presto.matching.Pattern.typeOf;
+
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalEval;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
+import com.amazon.opendistroforelasticsearch.sql.planner.optimizer.Rule;
+import com.facebook.presto.matching.Capture;
+import com.facebook.presto.matching.Captures;
+import com.facebook.presto.matching.Pattern;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Push the assignments in Eval that can be computed by script field into Relation or IndexScan.
+ * The rest of the assignments, if any, remain in Eval and are evaluated in memory after the
+ * script fields. The transformed plan is [Eval -] IndexScan.
+ */
+public class PushEvalAndIndexScan implements Rule<LogicalEval> {
+
+  private final Capture<LogicalPlan> scanCapture;
+
+  private final Pattern<LogicalEval> pattern;
+
+  private Map<ReferenceExpression, Expression> pushDownFields;
+
+  private List<Pair<ReferenceExpression, Expression>> remainingFields;
+
+  /**
+   * Constructor of PushEvalAndIndexScan.
+   */
+  public PushEvalAndIndexScan() {
+    this.scanCapture = Capture.newCapture();
+    this.pattern = typeOf(LogicalEval.class)
+        .matching(eval -> {
+          split(eval.getExpressions());
+          return !pushDownFields.isEmpty();
+        })
+        .with(source().matching(typeOf(LogicalPlan.class)
+            .matching(OptimizationRuleUtils::canPushDownScriptFields)
+            .capturedAs(scanCapture)));
+  }
+
+  @Override
+  public Pattern<LogicalEval> pattern() {
+    return pattern;
+  }
+
+  @Override
+  public LogicalPlan apply(LogicalEval eval,
+                           Captures captures) {
+    LogicalPlan indexScan = OptimizationRuleUtils.pushDownScriptFields(
+        captures.get(scanCapture), pushDownFields);
+    return remainingFields.isEmpty() ? indexScan : new LogicalEval(indexScan, remainingFields);
+  }
+
+  /**
+   * Split the assignments into those pushed down and those remaining. Because assignment can
+   * refer to the result of previous one, an assignment is pushed down only if it neither refers
+   * to nor overwrites any field assigned before, nor overwrites any field that remaining
+   * assignment before refers to.
+   */
+  private void split(List<Pair<ReferenceExpression, Expression>> expressions) {
+    pushDownFields = new LinkedHashMap<>();
+    remainingFields = new ArrayList<>();
+    Set<String> assigned = new HashSet<>();
+    Set<String> referredByRemaining = new HashSet<>();
+    for (Pair<ReferenceExpression, Expression> assignment : expressions) {
+      String name = assignment.getLeft().getAttr();
+      List<ReferenceExpression> references = findReferenceExpression(assignment.getRight());
+      if (isScriptFieldExpression(assignment.getRight())
+          && !name.contains(".")
+          && !assigned.contains(name)
+          && !referredByRemaining.contains(name)
+          && references.stream().noneMatch(ref -> assigned.contains(ref.getAttr()))) {
+        pushDownFields.put(assignment.getLeft(), assignment.getRight());
+      } else {
+        remainingFields.add(assignment);
+        references.forEach(ref -> referredByRemaining.add(ref.getAttr()));
+      }
+      assigned.add(name);
+    }
+  }
+}
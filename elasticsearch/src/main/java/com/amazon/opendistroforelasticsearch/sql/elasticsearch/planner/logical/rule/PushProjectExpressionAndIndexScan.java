@@ -0,0 +1,114 @@
+/*
+ *
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule;
+
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.OptimizationRuleUtils.findReferenceExpressions;
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.OptimizationRuleUtils.isScriptFieldExpression;
+import static com.amazon.opendistroforelasticsearch.sql.planner.optimizer.pattern.Patterns.source;
+import static com.facebook.presto.matching.Pattern.typeOf;
+
+import com.amazon.opendistroforelasticsearch.sql.expression.DSL;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.NamedExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalProject;
+import com.amazon.opendistroforelasticsearch.sql.planner.optimizer.Rule;
+import com.facebook.presto.matching.Capture;
+import com.facebook.presto.matching.Captures;
+import com.facebook.presto.matching.Pattern;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Push the computed expressions in Project list into Relation or IndexScan as script fields.
+ * Each expression pushed down is replaced by reference to the script field with the same name.
+ * The transformed plan is Project - IndexScan.
+ */
+public class PushProjectExpressionAndIndexScan implements Rule<LogicalProject> {
+
+  private final Capture<LogicalPlan> scanCapture;
+
+  private final Pattern<LogicalProject> pattern;
+
+  private Map<ReferenceExpression, Expression> pushDownFields;
+
+  /**
+   * Constructor of PushProjectExpressionAndIndexScan.
+   */
+  public PushProjectExpressionAndIndexScan() {
+    this.scanCapture = Capture.newCapture();
+    this.pattern = typeOf(LogicalProject.class)
+        .matching(project -> {
+          pushDownFields = findScriptFields(project.getProjectList());
+          return !pushDownFields.isEmpty();
+        })
+        .with(source().matching(typeOf(LogicalPlan.class)
+            .matching(OptimizationRuleUtils::canPushDownScriptFields)
+            .capturedAs(scanCapture)));
+  }
+
+  @Override
+  public Pattern<LogicalProject> pattern() {
+    return pattern;
+  }
+
+  @Override
+  public LogicalPlan apply(LogicalProject project,
+                           Captures captures) {
+    Map<Expression, ReferenceExpression> scriptFieldRefs = new LinkedHashMap<>();
+    pushDownFields.forEach((ref, expr) -> scriptFieldRefs.put(expr, ref));
+
+    List<NamedExpression> projectList = project.getProjectList().stream()
+        .map(expr -> scriptFieldRefs.containsKey(expr.getDelegated())
+            ? new NamedExpression(
+                expr.getName(), scriptFieldRefs.get(expr.getDelegated()), expr.getAlias())
+            : expr)
+        .collect(Collectors.toList());
+    return new LogicalProject(
+        OptimizationRuleUtils.pushDownScriptFields(captures.get(scanCapture), pushDownFields),
+        projectList);
+  }
+
+  /**
+   * Script field is named after the project item. To avoid shadowing any field read by other
+   * project item, the name must be different from any field referred in Project list and any
+   * other script field. The same expression is only computed once.
+   */
+  private Map<ReferenceExpression, Expression> findScriptFields(List<NamedExpression> projects) {
+    Set<String> referred = findReferenceExpressions(projects).stream()
+        .map(ReferenceExpression::getAttr)
+        .collect(Collectors.toSet());
+    Map<ReferenceExpression, Expression> scriptFields = new LinkedHashMap<>();
+    for (NamedExpression project : projects) {
+      Expression expr = project.getDelegated();
+      String name = project.getNameOrAlias();
+      if (isScriptFieldExpression(expr)
+          && !name.contains(".")
+          && !referred.contains(name)
+          && !scriptFields.containsValue(expr)) {
+        scriptFields.put(DSL.ref(name, expr.type()), expr);
+        referred.add(name);
+      }
+    }
+    return scriptFields;
+  }
+}
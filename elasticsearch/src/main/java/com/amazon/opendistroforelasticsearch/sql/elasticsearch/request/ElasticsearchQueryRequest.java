@@ -85,6 +85,16 @@ public class ElasticsearchQueryRequest implements ElasticsearchRequest {
     this.exprValueFactory = factory;
   }
 
+  /**
+   * Constructor of ElasticsearchQueryRequest with search source built already.
+   */
+  public ElasticsearchQueryRequest(String indexName, SearchSourceBuilder sourceBuilder,
+                                   ElasticsearchExprValueFactory factory) {
+    this.indexName = indexName;
+    this.sourceBuilder = sourceBuilder;
+    this.exprValueFactory = factory;
+  }
+
   @Override
   public ElasticsearchResponse search(Function<SearchRequest, SearchResponse> searchAction,
                                       Function<SearchScrollRequest, SearchResponse> scrollAction) {
@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.request;
+
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchQueryRequest.DEFAULT_QUERY_TIMEOUT;
+
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.IndexStatistics;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.metrics.Cardinality;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+/**
+ * Elasticsearch statistics request that collects document count, shard count and field
+ * cardinality estimate of an index by a single search request without any hit returned.
+ */
+@EqualsAndHashCode
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ElasticsearchStatisticsRequest {
+
+  /**
+   * Index name.
+   */
+  private final String indexName;
+
+  /**
+   * Fields to estimate cardinality for.
+   */
+  private final Set<String> fields;
+
+  /**
+   * Perform the statistics search.
+   *
+   * @param searchAction search action
+   * @return index statistics
+   */
+  public IndexStatistics search(Function<SearchRequest, SearchResponse> searchAction) {
+    SearchResponse response = searchAction.apply(searchRequest());
+
+    Map<String, Long> cardinality = new HashMap<>();
+    Aggregations aggregations = response.getAggregations();
+    if (aggregations != null) {
+      aggregations.forEach(agg -> cardinality.put(agg.getName(), ((Cardinality) agg).getValue()));
+    }
+    return new IndexStatistics(
+        response.getHits().getTotalHits().value, response.getTotalShards(), cardinality);
+  }
+
+  /**
+   * Generate Elasticsearch search request.
+   *
+   * @return search request
+   */
+  @VisibleForTesting
+  protected SearchRequest searchRequest() {
+    SearchSourceBuilder sourceBuilder = new SearchSourceBuilder()
+        .size(0)
+        .trackTotalHits(true)
+        .timeout(DEFAULT_QUERY_TIMEOUT);
+    fields.forEach(field ->
+        sourceBuilder.aggregation(AggregationBuilders.cardinality(field).field(field)));
+    return new SearchRequest()
+        .indices(indexName)
+        .source(sourceBuilder);
+  }
+}
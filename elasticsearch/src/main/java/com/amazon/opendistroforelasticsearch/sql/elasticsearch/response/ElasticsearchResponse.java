@@ -20,12 +20,18 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprTupleValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.value.ElasticsearchExprValueFactory;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.aggregations.Aggregations;
 
@@ -36,6 +42,14 @@ import org.elasticsearch.search.aggregations.Aggregations;
 @ToString
 public class ElasticsearchResponse implements Iterable<ExprValue> {
 
+  /**
+   * Metadata fields which may be returned along with doc value fields in search hit. User field
+   * whose name happens to start with underscore is not one of them.
+   */
+  private static final Set<String> METADATA_FIELDS = ImmutableSet.of(
+      "_id", "_index", "_type", "_routing", "_source", "_seq_no", "_version", "_primary_term",
+      "_ignored", "_field_names", "_size", "_uid", "_parent");
+
   /**
    * Search query result (non-aggregation).
    */
@@ -100,8 +114,32 @@ public class ElasticsearchResponse implements Iterable<ExprValue> {
         return (ExprValue) ExprTupleValue.fromExprValueMap(builder.build());
       }).iterator();
     } else {
-      return Arrays.stream(hits.getHits())
-          .map(hit -> (ExprValue) exprValueFactory.construct(hit.getSourceAsString())).iterator();
+      return Arrays.stream(hits.getHits()).map(this::construct).iterator();
+    }
+  }
+
+  /**
+   * Build row from _source and doc value fields of the search hit. Only first value is taken
+   * for multi-valued doc value field which is the same as what happens in expression script.
+   * Because doc values are sorted and de-duplicated, this is the smallest value rather than the
+   * first element in _source. Metadata fields such as _routing are ignored.
+   */
+  private ExprValue construct(SearchHit hit) {
+    BytesReference source = hit.getSourceRef();
+    Map<String, DocumentField> fields = hit.getFields();
+    if (fields.isEmpty() && source != null) {
+      return exprValueFactory.construct(source);
+    }
+
+    Map<String, ExprValue> row = new LinkedHashMap<>();
+    if (source != null) {
+      row.putAll(exprValueFactory.construct(source).tupleValue());
+    }
+    for (DocumentField field : fields.values()) {
+      if (!METADATA_FIELDS.contains(field.getName()) && !field.getValues().isEmpty()) {
+        row.put(field.getName(), exprValueFactory.construct(field.getName(), field.getValue()));
+      }
     }
+    return ExprTupleValue.fromExprValueMap(row);
   }
 }
@@ -31,6 +31,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.TimeValue;
 
 /**
  * Setting implementation on Elasticsearch.
@@ -65,6 +66,39 @@ public class ElasticsearchSettings extends Settings {
       Setting.Property.NodeScope,
       Setting.Property.Dynamic);
 
+  private static final Setting<?> QUERY_COST_BASED_OPTIMIZATION_ENABLED_SETTINGS =
+      Setting.boolSetting(
+          Key.QUERY_COST_BASED_OPTIMIZATION_ENABLED.getKeyValue(),
+          false,
+          Setting.Property.NodeScope,
+          Setting.Property.Dynamic);
+
+  private static final Setting<?> QUERY_AGGREGATION_CACHE_ENABLED_SETTINGS = Setting.boolSetting(
+      Key.QUERY_AGGREGATION_CACHE_ENABLED.getKeyValue(),
+      false,
+      Setting.Property.NodeScope,
+      Setting.Property.Dynamic);
+
+  private static final Setting<?> QUERY_AGGREGATION_CACHE_EXPIRE_AFTER_SETTINGS =
+      Setting.positiveTimeSetting(
+          Key.QUERY_AGGREGATION_CACHE_EXPIRE_AFTER.getKeyValue(),
+          TimeValue.timeValueMinutes(1),
+          Setting.Property.NodeScope,
+          Setting.Property.Dynamic);
+
+  private static final Setting<?> QUERY_AGGREGATION_CACHE_SIZE_SETTINGS =
+      Setting.memorySizeSetting(
+          Key.QUERY_AGGREGATION_CACHE_SIZE.getKeyValue(),
+          "10mb",
+          Setting.Property.NodeScope,
+          Setting.Property.Dynamic);
+
+  private static final Setting<?> QUERY_MULTI_INDEX_FAN_OUT_ENABLED_SETTINGS = Setting.boolSetting(
+      Key.QUERY_MULTI_INDEX_FAN_OUT_ENABLED.getKeyValue(),
+      false,
+      Setting.Property.NodeScope,
+      Setting.Property.Dynamic);
+
   /**
    * Construct ElasticsearchSetting.
    * The ElasticsearchSetting must be singleton.
@@ -77,6 +111,21 @@ public class ElasticsearchSettings extends Settings {
         PPL_ENABLED_SETTINGS, new Updater(Key.PPL_ENABLED));
     register(settingBuilder, clusterSettings, Key.QUERY_SIZE_LIMIT,
         QUERY_SIZE_LIMIT_SETTINGS, new Updater(Key.QUERY_SIZE_LIMIT));
+    register(settingBuilder, clusterSettings, Key.QUERY_COST_BASED_OPTIMIZATION_ENABLED,
+        QUERY_COST_BASED_OPTIMIZATION_ENABLED_SETTINGS,
+        new Updater(Key.QUERY_COST_BASED_OPTIMIZATION_ENABLED));
+    register(settingBuilder, clusterSettings, Key.QUERY_AGGREGATION_CACHE_ENABLED,
+        QUERY_AGGREGATION_CACHE_ENABLED_SETTINGS,
+        new Updater(Key.QUERY_AGGREGATION_CACHE_ENABLED));
+    register(settingBuilder, clusterSettings, Key.QUERY_AGGREGATION_CACHE_EXPIRE_AFTER,
+        QUERY_AGGREGATION_CACHE_EXPIRE_AFTER_SETTINGS,
+        new Updater(Key.QUERY_AGGREGATION_CACHE_EXPIRE_AFTER));
+    register(settingBuilder, clusterSettings, Key.QUERY_AGGREGATION_CACHE_SIZE,
+        QUERY_AGGREGATION_CACHE_SIZE_SETTINGS,
+        new Updater(Key.QUERY_AGGREGATION_CACHE_SIZE));
+    register(settingBuilder, clusterSettings, Key.QUERY_MULTI_INDEX_FAN_OUT_ENABLED,
+        QUERY_MULTI_INDEX_FAN_OUT_ENABLED_SETTINGS,
+        new Updater(Key.QUERY_MULTI_INDEX_FAN_OUT_ENABLED));
     defaultSettings = settingBuilder.build();
   }
 
@@ -122,6 +171,11 @@ public class ElasticsearchSettings extends Settings {
         .add(PPL_QUERY_MEMORY_LIMIT_SETTINGS)
         .add(PPL_ENABLED_SETTINGS)
         .add(QUERY_SIZE_LIMIT_SETTINGS)
+        .add(QUERY_COST_BASED_OPTIMIZATION_ENABLED_SETTINGS)
+        .add(QUERY_AGGREGATION_CACHE_ENABLED_SETTINGS)
+        .add(QUERY_AGGREGATION_CACHE_EXPIRE_AFTER_SETTINGS)
+        .add(QUERY_AGGREGATION_CACHE_SIZE_SETTINGS)
+        .add(QUERY_MULTI_INDEX_FAN_OUT_ENABLED_SETTINGS)
         .build();
   }
 }
@@ -0,0 +1,114 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage;
+
+import com.amazon.opendistroforelasticsearch.sql.common.setting.Settings;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.amazon.opendistroforelasticsearch.sql.monitor.MemoryTracker;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+
+/**
+ * Node level cache of the result of aggregation pushed down to Elasticsearch. Dashboard issues
+ * identical aggregation query repeatedly on every refresh. Because the key consists of the search
+ * source and the metadata of indices searched, result cached is served without searching shards
+ * until the index is recreated, its mapping or settings change or the entry expires.
+ */
+@RequiredArgsConstructor
+public class AggregationResultCache {
+
+  private static final AggregationResultCache INSTANCE =
+      new AggregationResultCache(Ticker.systemTicker());
+
+  private final Ticker ticker;
+
+  /**
+   * Cache built for the expiry and size settings current. It's rebuilt once either one changes.
+   */
+  private Cache<String, List<ExprValue>> cache;
+
+  private TimeValue expireAfter;
+
+  private ByteSizeValue maxSize;
+
+  /**
+   * Statistics accumulated by caches rebuilt earlier.
+   */
+  private CacheStats previousStats = new CacheStats(0L, 0L, 0L, 0L, 0L, 0L);
+
+  public static AggregationResultCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the result cached by the key, or load the result and cache it if absent.
+   *
+   * @param key      cache key
+   * @param settings settings of entry expiry and cache size
+   * @param loader   result loader
+   * @return result cached or loaded
+   */
+  public List<ExprValue> get(String key, Settings settings, Supplier<List<ExprValue>> loader) {
+    Cache<String, List<ExprValue>> current = cache(
+        settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_EXPIRE_AFTER),
+        settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_SIZE));
+    List<ExprValue> result = current.getIfPresent(key);
+    if (result == null) {
+      result = loader.get();
+      current.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Statistics of hit, miss and eviction count.
+   */
+  public synchronized CacheStats stats() {
+    return (cache == null) ? previousStats : previousStats.plus(cache.stats());
+  }
+
+  private synchronized Cache<String, List<ExprValue>> cache(TimeValue expireAfter,
+                                                           ByteSizeValue maxSize) {
+    if (cache == null || !expireAfter.equals(this.expireAfter) || !maxSize.equals(this.maxSize)) {
+      previousStats = stats();
+      cache = CacheBuilder.newBuilder()
+          .expireAfterWrite(expireAfter.nanos(), TimeUnit.NANOSECONDS)
+          .maximumWeight(maxSize.getBytes())
+          .weigher(AggregationResultCache::weigh)
+          .ticker(ticker)
+          .recordStats()
+          .build();
+      this.expireAfter = expireAfter;
+      this.maxSize = maxSize;
+    }
+    return cache;
+  }
+
+  private static int weigh(String key, List<ExprValue> result) {
+    long size = 2L * key.length() + MemoryTracker.estimateSize(result);
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+}
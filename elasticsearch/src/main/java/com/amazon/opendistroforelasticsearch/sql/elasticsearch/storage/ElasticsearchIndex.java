@@ -16,34 +16,50 @@
 
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage;
 
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.rule.OptimizationRuleUtils.findReferenceExpression;
+
+import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption;
 import com.amazon.opendistroforelasticsearch.sql.common.setting.Settings;
 import com.amazon.opendistroforelasticsearch.sql.common.utils.StringUtils;
+import com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType;
 import com.amazon.opendistroforelasticsearch.sql.data.type.ExprType;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.client.ElasticsearchClient;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.value.ElasticsearchExprValueFactory;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.mapping.IndexMapping;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.CostBasedOptimizer;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.CostModel;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.IndexStatisticsProvider;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalIndexAgg;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalIndexScan;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalPlanOptimizerFactory;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.system.ElasticsearchDescribeIndexRequest;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.aggregation.AggregationQueryBuilder;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.field.ScriptFieldBuilder;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.FilterQueryBuilder;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.sort.SortQueryBuilder;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.serialization.DefaultExpressionSerializer;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
 import com.amazon.opendistroforelasticsearch.sql.planner.DefaultImplementor;
 import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
 import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalRelation;
 import com.amazon.opendistroforelasticsearch.sql.planner.physical.PhysicalPlan;
+import com.amazon.opendistroforelasticsearch.sql.planner.physical.SortOperator.Sorter;
 import com.amazon.opendistroforelasticsearch.sql.storage.Table;
+import com.amazon.opendistroforelasticsearch.sql.storage.TableScanOperator;
 import com.google.common.annotations.VisibleForTesting;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.tuple.Pair;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
 
 /** Elasticsearch table (index) implementation. */
-@RequiredArgsConstructor
 public class ElasticsearchIndex implements Table {
 
   /** Elasticsearch client connection. */
@@ -54,6 +70,27 @@ public class ElasticsearchIndex implements Table {
   /** Current Elasticsearch index name. */
   private final String indexName;
 
+  /** Index statistics provider for cost based optimization. Null means rule based only. */
+  private final IndexStatisticsProvider statisticsProvider;
+
+  /**
+   * Constructor of ElasticsearchIndex without cost based optimization.
+   */
+  public ElasticsearchIndex(ElasticsearchClient client, Settings settings, String indexName) {
+    this(client, settings, indexName, null);
+  }
+
+  /**
+   * Constructor of ElasticsearchIndex.
+   */
+  public ElasticsearchIndex(ElasticsearchClient client, Settings settings, String indexName,
+                            IndexStatisticsProvider statisticsProvider) {
+    this.client = client;
+    this.settings = settings;
+    this.indexName = indexName;
+    this.statisticsProvider = statisticsProvider;
+  }
+
   /*
    * TODO: Assume indexName doesn't have wildcard.
    *  Need to either handle field name conflicts
@@ -64,6 +101,19 @@ public class ElasticsearchIndex implements Table {
     return new ElasticsearchDescribeIndexRequest(client, indexName).getFieldTypes();
   }
 
+  /**
+   * Fields that can be read from doc values in every index the index name resolved to. Because
+   * the mapping may be different in each index, any field not qualified in one index is read
+   * from _source instead.
+   */
+  private Set<String> getDocValueFields() {
+    Collection<IndexMapping> mappings = client.getIndexMappings(indexName).values();
+    Set<String> fields = new HashSet<>();
+    mappings.forEach(mapping -> fields.addAll(mapping.getDocValueFields()));
+    mappings.forEach(mapping -> fields.retainAll(mapping.getDocValueFields()));
+    return fields;
+  }
+
   /**
    * TODO: Push down operations to index scan operator as much as possible in future.
    */
@@ -71,26 +121,90 @@ public class ElasticsearchIndex implements Table {
   public PhysicalPlan implement(LogicalPlan plan) {
     ElasticsearchIndexScan indexScan = new ElasticsearchIndexScan(client, settings, indexName,
         new ElasticsearchExprValueFactory(getFieldTypes()));
+    indexScan.setDocValueFields(getDocValueFields());
+    costModel(plan).ifPresent(model -> indexScan.setEstimatedCost(model.estimate(plan)));
 
     /*
      * Visit logical plan with index scan as context so logical operators visited, such as
      * aggregation, filter, will accumulate (push down) Elasticsearch query and aggregation DSL on
      * index scan.
      */
-    return plan.accept(new ElasticsearchDefaultImplementor(indexScan), indexScan);
+    return plan.accept(
+        new ElasticsearchDefaultImplementor(indexScan, tableScan(plan, indexScan)), indexScan);
+  }
+
+  /**
+   * Fan out index scan to each concrete index if enabled and the index name is resolved to more
+   * than one index. Aggregation and limit are always executed by single search because partial
+   * results on each index cannot be simply merged.
+   */
+  private TableScanOperator tableScan(LogicalPlan plan, ElasticsearchIndexScan indexScan) {
+    LogicalPlan leaf = plan;
+    while (!leaf.getChild().isEmpty()) {
+      leaf = leaf.getChild().get(0);
+    }
+
+    if (leaf instanceof ElasticsearchLogicalIndexAgg
+        || (leaf instanceof ElasticsearchLogicalIndexScan
+            && ((ElasticsearchLogicalIndexScan) leaf).hasLimit())
+        || client.getIndexMappings(indexName).size() <= 1
+        || !Boolean.TRUE.equals(
+            settings.getSettingValue(Settings.Key.QUERY_MULTI_INDEX_FAN_OUT_ENABLED))) {
+      return indexScan;
+    }
+
+    List<Pair<SortOption, Expression>> sortList = (leaf instanceof ElasticsearchLogicalIndexScan)
+        ? ((ElasticsearchLogicalIndexScan) leaf).getSortList() : null;
+    return new ElasticsearchMultiIndexScan(
+        client, indexScan, (sortList == null) ? null : Sorter.of(sortList));
   }
 
+  /**
+   * Push down operations by rules first and then choose between push down and in-memory
+   * alternatives by estimated cost if statistics of the index is available.
+   */
   @Override
   public LogicalPlan optimize(LogicalPlan plan) {
-    return ElasticsearchLogicalPlanOptimizerFactory.create().optimize(plan);
+    LogicalPlan optimized = ElasticsearchLogicalPlanOptimizerFactory.create().optimize(plan);
+    return costModel(optimized)
+        .map(model -> new CostBasedOptimizer(model).optimize(optimized))
+        .orElse(optimized);
+  }
+
+  private Optional<CostModel> costModel(LogicalPlan plan) {
+    if (statisticsProvider == null || !Boolean.TRUE.equals(
+        settings.getSettingValue(Settings.Key.QUERY_COST_BASED_OPTIMIZATION_ENABLED))) {
+      return Optional.empty();
+    }
+
+    // Only collect cardinality of field that supports aggregation
+    Map<String, ExprType> fieldTypes = getFieldTypes();
+    Set<String> fields = CostModel.fieldsRequired(plan).stream()
+        .filter(field -> fieldTypes.get(field) instanceof ExprCoreType)
+        .collect(Collectors.toSet());
+    return statisticsProvider.getStatistics(indexName, fields)
+        .map(statistics -> new CostModel(statistics,
+            settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)));
   }
 
   @VisibleForTesting
-  @RequiredArgsConstructor
   public static class ElasticsearchDefaultImplementor
       extends DefaultImplementor<ElasticsearchIndexScan> {
     private final ElasticsearchIndexScan indexScan;
 
+    /** Table scan operator for index scan, which may fan out to multiple indices. */
+    private final TableScanOperator tableScan;
+
+    public ElasticsearchDefaultImplementor(ElasticsearchIndexScan indexScan) {
+      this(indexScan, indexScan);
+    }
+
+    public ElasticsearchDefaultImplementor(ElasticsearchIndexScan indexScan,
+                                           TableScanOperator tableScan) {
+      this.indexScan = indexScan;
+      this.tableScan = tableScan;
+    }
+
     @Override
     public PhysicalPlan visitNode(LogicalPlan plan, ElasticsearchIndexScan context) {
       if (plan instanceof ElasticsearchLogicalIndexScan) {
@@ -125,10 +239,31 @@ public class ElasticsearchIndex implements Table {
         context.pushDownLimit(node.getLimit(), node.getOffset());
       }
 
+      if (node.hasScriptFields()) {
+        ScriptFieldBuilder builder = new ScriptFieldBuilder(new DefaultExpressionSerializer());
+        context.pushDownScriptFields(
+            builder.build(node.getScriptFields()),
+            builder.buildTypeMapping(node.getScriptFields()));
+      }
+
       if (node.hasProjects()) {
-        context.pushDownProjects(node.getProjectList());
+        context.pushDownProjects(projectsWithSortKeys(node));
       }
-      return indexScan;
+      return tableScan;
+    }
+
+    /**
+     * Results of index scan on multiple indices are merged by the sort keys evaluated on each row
+     * returned, so fields referred by sort are fetched as well even if not projected.
+     */
+    private Set<ReferenceExpression> projectsWithSortKeys(ElasticsearchLogicalIndexScan node) {
+      if (!(tableScan instanceof ElasticsearchMultiIndexScan) || node.getSortList() == null) {
+        return node.getProjectList();
+      }
+
+      Set<ReferenceExpression> projects = new HashSet<>(node.getProjectList());
+      node.getSortList().forEach(sort -> projects.addAll(findReferenceExpression(sort.getRight())));
+      return projects;
     }
 
     /**
@@ -156,7 +291,7 @@ public class ElasticsearchIndex implements Table {
 
     @Override
     public PhysicalPlan visitRelation(LogicalRelation node, ElasticsearchIndexScan context) {
-      return indexScan;
+      return tableScan;
     }
   }
 }
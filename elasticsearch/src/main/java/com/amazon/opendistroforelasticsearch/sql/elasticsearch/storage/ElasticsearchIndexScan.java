@@ -16,6 +16,7 @@
 
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage;
 
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.TIMESTAMP;
 import static org.elasticsearch.search.sort.FieldSortBuilder.DOC_FIELD_NAME;
 import static org.elasticsearch.search.sort.SortOrder.ASC;
 
@@ -24,24 +25,32 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.data.type.ExprType;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.client.ElasticsearchClient;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.value.ElasticsearchExprValueFactory;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.Cost;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchQueryRequest;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchRequest;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.response.ElasticsearchResponse;
 import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
 import com.amazon.opendistroforelasticsearch.sql.storage.TableScanOperator;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.script.Script;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.sort.SortBuilder;
@@ -53,9 +62,21 @@ import org.elasticsearch.search.sort.SortBuilder;
 @ToString(onlyExplicitlyIncluded = true)
 public class ElasticsearchIndexScan extends TableScanOperator {
 
+  /** Date format of doc value which can be parsed the same way as date in _source. */
+  private static final String DOC_VALUE_DATE_FORMAT = "strict_date_optional_time";
+
   /** Elasticsearch client. */
   private final ElasticsearchClient client;
 
+  private final Settings settings;
+
+  /** Index name or expression searched. */
+  @Getter
+  private final String indexName;
+
+  /** Node level cache of aggregation result. */
+  private final AggregationResultCache aggregationResultCache;
+
   /** Search request. */
   @EqualsAndHashCode.Include
   @Getter
@@ -65,21 +86,69 @@ public class ElasticsearchIndexScan extends TableScanOperator {
   /** Search response for current batch. */
   private Iterator<ExprValue> iterator;
 
+  /** Estimated cost of the plan this index scan belongs to. Null if statistics unavailable. */
+  @Getter
+  @Setter
+  private Cost estimatedCost;
+
+  /** Fields whose value is read from doc values rather than _source if projected. */
+  @Setter
+  private Set<String> docValueFields = ImmutableSet.of();
+
   /**
    * Todo.
    */
   public ElasticsearchIndexScan(ElasticsearchClient client,
                                 Settings settings, String indexName,
                                 ElasticsearchExprValueFactory exprValueFactory) {
+    this(client, settings, indexName, exprValueFactory, AggregationResultCache.getInstance());
+  }
+
+  @VisibleForTesting
+  ElasticsearchIndexScan(ElasticsearchClient client,
+                         Settings settings, String indexName,
+                         ElasticsearchExprValueFactory exprValueFactory,
+                         AggregationResultCache aggregationResultCache) {
+    this(client, settings, aggregationResultCache, new ElasticsearchQueryRequest(indexName,
+            settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT), exprValueFactory));
+  }
+
+  private ElasticsearchIndexScan(ElasticsearchClient client, Settings settings,
+                                 AggregationResultCache aggregationResultCache,
+                                 ElasticsearchQueryRequest request) {
     this.client = client;
-    this.request = new ElasticsearchQueryRequest(indexName,
-            settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT), exprValueFactory);
+    this.settings = settings;
+    this.indexName = request.getIndexName();
+    this.aggregationResultCache = aggregationResultCache;
+    this.request = request;
+  }
+
+  /**
+   * Create index scan on another index with the same operations pushed down.
+   *
+   * @param index index name
+   * @return index scan on the index
+   */
+  public ElasticsearchIndexScan withIndex(String index) {
+    return new ElasticsearchIndexScan(client, settings, aggregationResultCache,
+        new ElasticsearchQueryRequest(index, request.getSourceBuilder().shallowCopy(),
+            request.getExprValueFactory()));
   }
 
   @Override
   public void open() {
     super.open();
 
+    Optional<String> cacheKey = aggregationCacheKey();
+    if (cacheKey.isPresent()) {
+      iterator = aggregationResultCache.get(
+          cacheKey.get(), settings, () -> ImmutableList.copyOf(searchAll())).iterator();
+    } else {
+      iterator = searchAll().iterator();
+    }
+  }
+
+  private Iterable<ExprValue> searchAll() {
     // For now pull all results immediately once open
     List<ElasticsearchResponse> responses = new ArrayList<>();
     ElasticsearchResponse response = client.search(request);
@@ -87,7 +156,26 @@ public class ElasticsearchIndexScan extends TableScanOperator {
       responses.add(response);
       response = client.search(request);
     }
-    iterator = Iterables.concat(responses.toArray(new ElasticsearchResponse[0])).iterator();
+    return Iterables.concat(responses.toArray(new ElasticsearchResponse[0]));
+  }
+
+  /**
+   * Only aggregation result is cached because it's small and deterministic. The cache key is
+   * the search source along with the state of indices searched and the user who searches them,
+   * because the same query may see different documents and fields with security enabled.
+   */
+  private Optional<String> aggregationCacheKey() {
+    SearchSourceBuilder source = request.getSourceBuilder();
+    if (source.aggregations() == null || !Boolean.TRUE.equals(
+        settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_ENABLED))) {
+      return Optional.empty();
+    }
+
+    Optional<String> user = client.userIdentity();
+    if (!user.isPresent()) {
+      return Optional.empty();
+    }
+    return client.indexState(indexName).map(state -> user.get() + "|" + state + "|" + source);
   }
 
   @Override
@@ -156,13 +244,60 @@ public class ElasticsearchIndexScan extends TableScanOperator {
   }
 
   /**
-   * Push down project list to DSL requets.
+   * Push down script fields to DSL request. Each script field computes the value of an
+   * expression on the shard for each document returned, which overwrites the field with the
+   * same name in _source if any.
+   *
+   * @param scriptFields script field name and script
+   * @param types        script field name and value type
+   */
+  public void pushDownScriptFields(Map<String, Script> scriptFields, Map<String, ExprType> types) {
+    SearchSourceBuilder sourceBuilder = request.getSourceBuilder();
+    scriptFields.forEach(sourceBuilder::scriptField);
+    sourceBuilder.fetchSource(null, scriptFields.keySet().toArray(new String[0]));
+
+    ElasticsearchExprValueFactory exprValueFactory = request.getExprValueFactory();
+    Map<String, ExprType> typeMapping = new HashMap<>(exprValueFactory.getTypeMapping());
+    typeMapping.putAll(types);
+    exprValueFactory.setTypeMapping(typeMapping);
+  }
+
+  /**
+   * Push down project list to DSL requets. Fields with complete doc values per index mapping,
+   * such as numeric, keyword, boolean and date fields, are read from doc values which avoids
+   * loading and parsing the _source. Only the rest are fetched from _source.
    */
   public void pushDownProjects(Set<ReferenceExpression> projects) {
     SearchSourceBuilder sourceBuilder = request.getSourceBuilder();
-    final Set<String> projectsSet =
-        projects.stream().map(ReferenceExpression::getAttr).collect(Collectors.toSet());
-    sourceBuilder.fetchSource(projectsSet.toArray(new String[0]), new String[0]);
+    Set<String> sourceFields = new HashSet<>();
+    for (ReferenceExpression ref : projects) {
+      if (isScriptField(ref)) {
+        continue;
+      }
+      if (isDocValueField(ref)) {
+        sourceBuilder.docValueField(ref.getAttr(),
+            TIMESTAMP.equals(ref.type()) ? DOC_VALUE_DATE_FORMAT : null);
+      } else {
+        sourceFields.add(ref.getAttr());
+      }
+    }
+
+    if (sourceFields.isEmpty()) {
+      sourceBuilder.fetchSource(false);
+    } else {
+      sourceBuilder.fetchSource(sourceFields.toArray(new String[0]), new String[0]);
+    }
+  }
+
+  private boolean isScriptField(ReferenceExpression ref) {
+    List<SearchSourceBuilder.ScriptField> scriptFields =
+        request.getSourceBuilder().scriptFields();
+    return scriptFields != null
+        && scriptFields.stream().anyMatch(field -> field.fieldName().equals(ref.getAttr()));
+  }
+
+  private boolean isDocValueField(ReferenceExpression ref) {
+    return docValueFields.contains(ref.getAttr());
   }
 
   public void pushTypeMapping(Map<String, ExprType> typeMapping) {
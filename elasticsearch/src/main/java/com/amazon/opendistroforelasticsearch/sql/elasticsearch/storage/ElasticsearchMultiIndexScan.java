@@ -0,0 +1,136 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage;
+
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.client.ElasticsearchClient;
+import com.amazon.opendistroforelasticsearch.sql.storage.TableScanOperator;
+import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+/**
+ * Index scan on index pattern or alias that fans out to one index scan per concrete index.
+ * Indices that can't match the filter pushed down are pruned before search. The remaining
+ * indices are searched in parallel and the results are merged in sort order if sort pushed down.
+ */
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = false)
+@ToString(onlyExplicitlyIncluded = true)
+@RequiredArgsConstructor
+public class ElasticsearchMultiIndexScan extends TableScanOperator {
+
+  /** Elasticsearch client. */
+  private final ElasticsearchClient client;
+
+  /** Index scan on the index pattern with all operations pushed down. */
+  @EqualsAndHashCode.Include
+  @ToString.Include
+  private final ElasticsearchIndexScan indexScan;
+
+  /** Comparator of the sort pushed down or null if results are concatenated in any order. */
+  private final Comparator<ExprValue> sorter;
+
+  /** Index scan per concrete index. */
+  private List<ElasticsearchIndexScan> scans = Collections.emptyList();
+
+  private Iterator<ExprValue> iterator;
+
+  @Override
+  public void open() {
+    super.open();
+
+    SearchSourceBuilder source = indexScan.getRequest().getSourceBuilder();
+    scans = client.resolveIndices(indexScan.getIndexName(), source.query()).stream()
+        .map(indexScan::withIndex)
+        .collect(Collectors.toList());
+    openInParallel();
+
+    List<Iterator<ExprValue>> results = new ArrayList<>(scans);
+    Iterator<ExprValue> merged = (sorter == null)
+        ? Iterators.concat(results.iterator())
+        : Iterators.mergeSorted(results, sorter);
+    iterator = Iterators.limit(merged, source.size());
+  }
+
+  /**
+   * Open index scans except the first one in worker threads, and then run any index scan not
+   * picked up by workers yet in current thread. Because current thread never blocks on a scan
+   * not started, this cannot deadlock even if all workers are busy.
+   */
+  private void openInParallel() {
+    List<FutureTask<Void>> tasks = scans.stream()
+        .map(scan -> new FutureTask<Void>(scan::open, null))
+        .collect(Collectors.toList());
+    for (FutureTask<Void> task : tasks.subList(Math.min(1, tasks.size()), tasks.size())) {
+      try {
+        client.fork(task);
+      } catch (RejectedExecutionException e) {
+        // Run by current thread below
+      }
+    }
+
+    tasks.forEach(FutureTask::run);
+    tasks.forEach(this::await);
+  }
+
+  private void await(FutureTask<Void> task) {
+    try {
+      task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while scanning index", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Failed to scan index", e.getCause());
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    return iterator.hasNext();
+  }
+
+  @Override
+  public ExprValue next() {
+    return iterator.next();
+  }
+
+  @Override
+  public void close() {
+    super.close();
+
+    scans.forEach(ElasticsearchIndexScan::close);
+  }
+
+  @Override
+  public String explain() {
+    return indexScan.explain();
+  }
+}
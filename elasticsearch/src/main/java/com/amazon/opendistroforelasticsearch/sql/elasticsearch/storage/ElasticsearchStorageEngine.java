@@ -20,13 +20,12 @@ import static com.amazon.opendistroforelasticsearch.sql.utils.SystemIndexUtils.i
 
 import com.amazon.opendistroforelasticsearch.sql.common.setting.Settings;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.client.ElasticsearchClient;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.IndexStatisticsProvider;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.system.ElasticsearchSystemIndex;
 import com.amazon.opendistroforelasticsearch.sql.storage.StorageEngine;
 import com.amazon.opendistroforelasticsearch.sql.storage.Table;
-import lombok.RequiredArgsConstructor;
 
 /** Elasticsearch storage engine implementation. */
-@RequiredArgsConstructor
 public class ElasticsearchStorageEngine implements StorageEngine {
 
   /** Elasticsearch client connection. */
@@ -34,12 +33,24 @@ public class ElasticsearchStorageEngine implements StorageEngine {
 
   private final Settings settings;
 
+  /** Index statistics provider shared by all queries so statistics cached are reused. */
+  private final IndexStatisticsProvider statisticsProvider;
+
+  /**
+   * Constructor of ElasticsearchStorageEngine.
+   */
+  public ElasticsearchStorageEngine(ElasticsearchClient client, Settings settings) {
+    this.client = client;
+    this.settings = settings;
+    this.statisticsProvider = new IndexStatisticsProvider(client);
+  }
+
   @Override
   public Table getTable(String name) {
     if (isSystemIndex(name)) {
       return new ElasticsearchSystemIndex(client, name);
     } else {
-      return new ElasticsearchIndex(client, settings, name);
+      return new ElasticsearchIndex(client, settings, name, statisticsProvider);
     }
   }
 }
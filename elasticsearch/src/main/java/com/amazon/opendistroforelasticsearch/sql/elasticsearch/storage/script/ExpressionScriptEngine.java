@@ -17,6 +17,7 @@
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script;
 
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.aggregation.ExpressionAggregationScriptFactory;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.field.ExpressionFieldScriptFactory;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.ExpressionFilterScriptFactory;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.serialization.ExpressionSerializer;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
@@ -26,6 +27,7 @@ import java.util.Set;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import org.elasticsearch.script.AggregationScript;
+import org.elasticsearch.script.FieldScript;
 import org.elasticsearch.script.FilterScript;
 import org.elasticsearch.script.ScriptContext;
 import org.elasticsearch.script.ScriptEngine;
@@ -49,6 +51,7 @@ public class ExpressionScriptEngine implements ScriptEngine {
       new ImmutableMap.Builder<ScriptContext<?>, Function<Expression, Object>>()
           .put(FilterScript.CONTEXT, ExpressionFilterScriptFactory::new)
           .put(AggregationScript.CONTEXT, ExpressionAggregationScriptFactory::new)
+          .put(FieldScript.CONTEXT, ExpressionFieldScriptFactory::new)
           .build();
 
   /**
@@ -0,0 +1,55 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.field;
+
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.core.ExpressionScript;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.script.FieldScript;
+import org.elasticsearch.search.lookup.SearchLookup;
+
+/**
+ * Script field expression script that computes the value of an expression on each document
+ * returned. Missing or null value is returned as null because doc value can't tell them apart.
+ */
+@EqualsAndHashCode(callSuper = false)
+public class ExpressionFieldScript extends FieldScript {
+
+  /**
+   * Expression Script.
+   */
+  private final ExpressionScript expressionScript;
+
+  /**
+   * Constructor of ExpressionFieldScript.
+   */
+  public ExpressionFieldScript(Expression expression,
+                               SearchLookup lookup,
+                               LeafReaderContext context,
+                               Map<String, Object> params) {
+    super(params, lookup, context);
+    this.expressionScript = new ExpressionScript(expression);
+  }
+
+  @Override
+  public Object execute() {
+    return expressionScript.execute(this::getDoc, Expression::valueOf).value();
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.field;
+
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.ExpressionScriptEngine.EXPRESSION_LANG_NAME;
+import static java.util.Collections.emptyMap;
+import static org.elasticsearch.script.Script.DEFAULT_SCRIPT_TYPE;
+
+import com.amazon.opendistroforelasticsearch.sql.data.type.ExprType;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.serialization.ExpressionSerializer;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.elasticsearch.script.Script;
+
+/**
+ * Build the script fields from the computed fields pushed down.
+ */
+@RequiredArgsConstructor
+public class ScriptFieldBuilder {
+
+  /**
+   * Serializer that serializes expression for build DSL query.
+   */
+  private final ExpressionSerializer serializer;
+
+  /**
+   * Build script of each computed field by its name.
+   */
+  public Map<String, Script> build(Map<ReferenceExpression, Expression> scriptFields) {
+    ImmutableMap.Builder<String, Script> builder = new ImmutableMap.Builder<>();
+    scriptFields.forEach((field, expr) -> builder.put(field.getAttr(), new Script(
+        DEFAULT_SCRIPT_TYPE, EXPRESSION_LANG_NAME, serializer.serialize(expr), emptyMap())));
+    return builder.build();
+  }
+
+  /**
+   * Build type mapping of each computed field by its name.
+   */
+  public Map<String, ExprType> buildTypeMapping(
+      Map<ReferenceExpression, Expression> scriptFields) {
+    ImmutableMap.Builder<String, ExprType> builder = new ImmutableMap.Builder<>();
+    scriptFields.forEach((field, expr) -> builder.put(field.getAttr(), expr.type()));
+    return builder.build();
+  }
+}
@@ -20,30 +20,45 @@ import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.sc
 import static java.util.Collections.emptyMap;
 import static org.elasticsearch.script.Script.DEFAULT_SCRIPT_TYPE;
 
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.lucene.ExistsQuery;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.lucene.LuceneQuery;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.lucene.NotQuery;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.lucene.RangeQuery;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.lucene.RangeQuery.Comparison;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.lucene.RegexpQuery;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.lucene.TermQuery;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.lucene.WildcardQuery;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.serialization.ExpressionSerializer;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
 import com.amazon.opendistroforelasticsearch.sql.expression.ExpressionNodeVisitor;
 import com.amazon.opendistroforelasticsearch.sql.expression.FunctionExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.LiteralExpression;
 import com.amazon.opendistroforelasticsearch.sql.expression.function.BuiltinFunctionName;
 import com.amazon.opendistroforelasticsearch.sql.expression.function.FunctionName;
 import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.BiFunction;
 import lombok.RequiredArgsConstructor;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.index.query.ScriptQueryBuilder;
+import org.elasticsearch.index.query.TermQueryBuilder;
 import org.elasticsearch.script.Script;
-import org.elasticsearch.search.sort.FieldSortBuilder;
-import org.elasticsearch.search.sort.SortBuilder;
-import org.elasticsearch.search.sort.SortBuilders;
 
+/**
+ * Filter query builder that builds Elasticsearch query from filter condition. Before building
+ * native Lucene query, the condition is normalized on the fly as follows so that as much as
+ * possible of the condition is built into Lucene query rather than script query:
+ *  1. NOT is pushed down to leaf predicate and replaced by its complement if any.
+ *  2. Nested AND and OR are flattened and range queries on the same field in AND merged.
+ *  3. Equality on the same field in OR is combined into single terms query as IN list.
+ *  4. Comparison with literal on the left is commuted, ex. 5 < age to age > 5.
+ */
 @RequiredArgsConstructor
 public class FilterQueryBuilder extends ExpressionNodeVisitor<QueryBuilder, Object> {
 
@@ -58,11 +73,34 @@ public class FilterQueryBuilder extends ExpressionNodeVisitor<QueryBuilder, Obje
   private final Map<FunctionName, LuceneQuery> luceneQueries =
       ImmutableMap.<FunctionName, LuceneQuery>builder()
           .put(BuiltinFunctionName.EQUAL.getName(), new TermQuery())
+          .put(BuiltinFunctionName.NOTEQUAL.getName(), new NotQuery(new TermQuery()))
           .put(BuiltinFunctionName.LESS.getName(), new RangeQuery(Comparison.LT))
           .put(BuiltinFunctionName.GREATER.getName(), new RangeQuery(Comparison.GT))
           .put(BuiltinFunctionName.LTE.getName(), new RangeQuery(Comparison.LTE))
           .put(BuiltinFunctionName.GTE.getName(), new RangeQuery(Comparison.GTE))
           .put(BuiltinFunctionName.LIKE.getName(), new WildcardQuery())
+          .put(BuiltinFunctionName.NOT_LIKE.getName(), new NotQuery(new WildcardQuery()))
+          .put(BuiltinFunctionName.IS_NULL.getName(), new ExistsQuery(false))
+          .put(BuiltinFunctionName.IS_NOT_NULL.getName(), new ExistsQuery(true))
+          .put(BuiltinFunctionName.REGEXP.getName(), new RegexpQuery())
+          .build();
+
+  /**
+   * Mapping from function name to its complement used when pushing NOT down. Note that
+   * NOT (age = 30) is the same as age != 30 in SQL because both are null if age is null.
+   */
+  private static final Map<FunctionName, FunctionName> COMPLEMENTS =
+      ImmutableMap.<FunctionName, FunctionName>builder()
+          .put(BuiltinFunctionName.EQUAL.getName(), BuiltinFunctionName.NOTEQUAL.getName())
+          .put(BuiltinFunctionName.NOTEQUAL.getName(), BuiltinFunctionName.EQUAL.getName())
+          .put(BuiltinFunctionName.LESS.getName(), BuiltinFunctionName.GTE.getName())
+          .put(BuiltinFunctionName.GTE.getName(), BuiltinFunctionName.LESS.getName())
+          .put(BuiltinFunctionName.GREATER.getName(), BuiltinFunctionName.LTE.getName())
+          .put(BuiltinFunctionName.LTE.getName(), BuiltinFunctionName.GREATER.getName())
+          .put(BuiltinFunctionName.LIKE.getName(), BuiltinFunctionName.NOT_LIKE.getName())
+          .put(BuiltinFunctionName.NOT_LIKE.getName(), BuiltinFunctionName.LIKE.getName())
+          .put(BuiltinFunctionName.IS_NULL.getName(), BuiltinFunctionName.IS_NOT_NULL.getName())
+          .put(BuiltinFunctionName.IS_NOT_NULL.getName(), BuiltinFunctionName.IS_NULL.getName())
           .build();
 
   /**
@@ -71,43 +109,152 @@ public class FilterQueryBuilder extends ExpressionNodeVisitor<QueryBuilder, Obje
    * @return      query
    */
   public QueryBuilder build(Expression expr) {
-    return expr.accept(this, null);
+    return expr.accept(this, false);
+  }
+
+  /**
+   * Predicate other than function, ex. boolean field, is evaluated by script.
+   */
+  @Override
+  public QueryBuilder visitNode(Expression node, Object context) {
+    return buildScriptQuery(node, (Boolean) context);
   }
 
   @Override
   public QueryBuilder visitFunction(FunctionExpression func, Object context) {
-    FunctionName name = func.getFunctionName();
-    switch (name.getFunctionName()) {
+    boolean negated = (Boolean) context;
+    String name = func.getFunctionName().getFunctionName();
+    switch (name) {
       case "and":
-        return buildBoolQuery(func, context, BoolQueryBuilder::filter);
-      case "or":
-        return buildBoolQuery(func, context, BoolQueryBuilder::should);
+      case "or": {
+        List<QueryBuilder> queries = new ArrayList<>();
+        for (Expression operand : flatten(func, name, new ArrayList<>())) {
+          queries.add(operand.accept(this, negated));
+        }
+        // By De Morgan's law, NOT (A AND B) is NOT A OR NOT B and vice versa
+        return ("and".equals(name) != negated) ? buildAndQuery(queries) : buildOrQuery(queries);
+      }
       case "not":
-        return buildBoolQuery(func, context, BoolQueryBuilder::mustNot);
+        return func.getArguments().get(0).accept(this, !negated);
       default: {
-        LuceneQuery query = luceneQueries.get(name);
-        if (query != null && query.canSupport(func)) {
-          return query.build(func);
+        if (isRegexpMatch(func)) {
+          // name REGEXP 'J.*' = 0 is the negation of the match
+          LiteralExpression expected = (LiteralExpression) func.getArguments().get(1);
+          return buildLeafQuery((FunctionExpression) func.getArguments().get(0),
+              negated != (expected.valueOf(null).integerValue() == 0));
         }
-        return buildScriptQuery(func);
+        return buildLeafQuery(func, negated);
+      }
+    }
+  }
+
+  private List<Expression> flatten(Expression expr, String connective, List<Expression> result) {
+    if ((expr instanceof FunctionExpression) && connective.equals(
+        ((FunctionExpression) expr).getFunctionName().getFunctionName())) {
+      ((FunctionExpression) expr).getArguments().forEach(arg -> flatten(arg, connective, result));
+    } else {
+      result.add(expr);
+    }
+    return result;
+  }
+
+  private QueryBuilder buildAndQuery(List<QueryBuilder> queries) {
+    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery();
+    Map<String, RangeQueryBuilder> ranges = new HashMap<>();
+    for (QueryBuilder query : queries) {
+      if (!(query instanceof RangeQueryBuilder) || !mergeRange(ranges, (RangeQueryBuilder) query)) {
+        boolQuery.filter(query);
       }
     }
+    return (boolQuery.filter().size() == 1) ? boolQuery.filter().get(0) : boolQuery;
+  }
+
+  /**
+   * Merge range query with only upper bound into the one on the same field with only lower bound
+   * or vice versa, ex. age > 20 AND age < 30.
+   */
+  private boolean mergeRange(Map<String, RangeQueryBuilder> ranges, RangeQueryBuilder range) {
+    RangeQueryBuilder existing = ranges.putIfAbsent(range.fieldName(), range);
+    if (existing == null) {
+      return false;
+    }
+
+    if (existing.to() == null && range.from() == null) {
+      existing.to(range.to()).includeUpper(range.includeUpper());
+      return true;
+    }
+    if (existing.from() == null && range.to() == null) {
+      existing.from(range.from()).includeLower(range.includeLower());
+      return true;
+    }
+    return false;
   }
 
-  private BoolQueryBuilder buildBoolQuery(FunctionExpression node,
-                                          Object context,
-                                          BiFunction<BoolQueryBuilder, QueryBuilder,
-                                              QueryBuilder> accumulator) {
+  private QueryBuilder buildOrQuery(List<QueryBuilder> queries) {
+    Map<String, List<Object>> termValues = new HashMap<>();
+    for (QueryBuilder query : queries) {
+      if (query instanceof TermQueryBuilder) {
+        TermQueryBuilder term = (TermQueryBuilder) query;
+        termValues.computeIfAbsent(term.fieldName(), field -> new ArrayList<>()).add(term.value());
+      }
+    }
+
     BoolQueryBuilder boolQuery = QueryBuilders.boolQuery();
-    for (Expression arg : node.getArguments()) {
-      accumulator.apply(boolQuery, arg.accept(this, context));
+    for (QueryBuilder query : queries) {
+      if (query instanceof TermQueryBuilder) {
+        // Equalities on the same field are combined into the position of the first one
+        List<Object> values = termValues.remove(((TermQueryBuilder) query).fieldName());
+        if (values != null) {
+          boolQuery.should((values.size() == 1) ? query
+              : QueryBuilders.termsQuery(((TermQueryBuilder) query).fieldName(), values));
+        }
+      } else {
+        boolQuery.should(query);
+      }
+    }
+    return (boolQuery.should().size() == 1) ? boolQuery.should().get(0) : boolQuery;
+  }
+
+  private QueryBuilder buildLeafQuery(FunctionExpression func, boolean negated) {
+    FunctionName name = func.getFunctionName();
+    if (negated && COMPLEMENTS.containsKey(name)) {
+      name = COMPLEMENTS.get(name);
+      negated = false;
+    }
+
+    LuceneQuery query = luceneQueries.get(name);
+    if (query != null && query.canSupport(func)) {
+      return negated ? new NotQuery(query).build(func) : query.build(func);
+    }
+    return buildScriptQuery(func, negated);
+  }
+
+  /**
+   * REGEXP function returns 1 or 0 rather than boolean, so it appears in filter as comparison
+   * with literal, ex. name REGEXP 'J.*' = 1.
+   */
+  private boolean isRegexpMatch(FunctionExpression func) {
+    if (!BuiltinFunctionName.EQUAL.getName().equals(func.getFunctionName())) {
+      return false;
     }
-    return boolQuery;
+
+    Expression left = func.getArguments().get(0);
+    Expression right = func.getArguments().get(1);
+    if (!(left instanceof FunctionExpression) || !(right instanceof LiteralExpression)) {
+      return false;
+    }
+
+    FunctionExpression regexp = (FunctionExpression) left;
+    ExprValue value = ((LiteralExpression) right).valueOf(null);
+    return BuiltinFunctionName.REGEXP.getName().equals(regexp.getFunctionName())
+        && luceneQueries.get(regexp.getFunctionName()).canSupport(regexp)
+        && (value.integerValue() == 0 || value.integerValue() == 1);
   }
 
-  private ScriptQueryBuilder buildScriptQuery(FunctionExpression node) {
-    return new ScriptQueryBuilder(new Script(
+  private QueryBuilder buildScriptQuery(Expression node, boolean negated) {
+    ScriptQueryBuilder query = new ScriptQueryBuilder(new Script(
         DEFAULT_SCRIPT_TYPE, EXPRESSION_LANG_NAME, serializer.serialize(node), emptyMap()));
+    return negated ? QueryBuilders.boolQuery().mustNot(query) : query;
   }
 
 }
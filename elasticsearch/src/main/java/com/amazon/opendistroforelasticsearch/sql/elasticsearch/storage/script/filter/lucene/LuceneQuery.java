@@ -20,6 +20,7 @@ import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.type.
 
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.data.type.ExprType;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
 import com.amazon.opendistroforelasticsearch.sql.expression.FunctionExpression;
 import com.amazon.opendistroforelasticsearch.sql.expression.LiteralExpression;
 import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
@@ -33,30 +34,54 @@ public abstract class LuceneQuery {
   /**
    * Check if function expression supported by current Lucene query.
    * Default behavior is that report supported if:
-   *  1. Left is a reference
-   *  2. Right side is a literal
+   *  1. Left is a reference and right side is a literal, or
+   *  2. Left is a literal and right side is a reference if the query can be commuted
    *
    * @param func    function
    * @return        return true if supported, otherwise false.
    */
   public boolean canSupport(FunctionExpression func) {
-    return (func.getArguments().size() == 2)
-        && (func.getArguments().get(0) instanceof ReferenceExpression)
-        && (func.getArguments().get(1) instanceof LiteralExpression);
+    if (func.getArguments().size() != 2) {
+      return false;
+    }
+
+    Expression left = func.getArguments().get(0);
+    Expression right = func.getArguments().get(1);
+    return (left instanceof ReferenceExpression && right instanceof LiteralExpression)
+        || (left instanceof LiteralExpression && right instanceof ReferenceExpression
+            && commute() != null);
   }
 
   /**
-   * Build Lucene query from function expression.
+   * Build Lucene query from function expression. Literal on the left is commuted to right side
+   * so that comparison such as 5 < age is built as age > 5.
    *
    * @param func  function
    * @return      query
    */
   public QueryBuilder build(FunctionExpression func) {
-    ReferenceExpression ref = (ReferenceExpression) func.getArguments().get(0);
-    LiteralExpression literal = (LiteralExpression) func.getArguments().get(1);
+    Expression left = func.getArguments().get(0);
+    Expression right = func.getArguments().get(1);
+    if (left instanceof LiteralExpression) {
+      return commute().build((ReferenceExpression) right, (LiteralExpression) left);
+    }
+    return build((ReferenceExpression) left, (LiteralExpression) right);
+  }
+
+  private QueryBuilder build(ReferenceExpression ref, LiteralExpression literal) {
     return doBuild(ref.getAttr(), ref.type(), literal.valueOf(null));
   }
 
+  /**
+   * Lucene query equivalent to current one after the reference and literal argument swapped.
+   * By default the query is symmetric and thus the same query returned.
+   *
+   * @return  commuted query or null if the query cannot be commuted
+   */
+  protected LuceneQuery commute() {
+    return this;
+  }
+
   /**
    * Build method that subclass implements by default which is to build query
    * from reference and literal in function arguments.
@@ -0,0 +1,59 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.lucene;
+
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.FunctionExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
+import lombok.RequiredArgsConstructor;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+
+/**
+ * Lucene query that negates the query built by the delegated one. Because negation of predicate
+ * on null or missing field is not true in SQL, the query built requires the field exists.
+ * For example, name != 'John' is built as:
+ * <pre>
+ *   bool: {
+ *     filter: { exists: { field: name } },
+ *     must_not: { term: { name: John } }
+ *   }
+ * </pre>
+ */
+@RequiredArgsConstructor
+public class NotQuery extends LuceneQuery {
+
+  private final LuceneQuery delegate;
+
+  @Override
+  public boolean canSupport(FunctionExpression func) {
+    return delegate.canSupport(func);
+  }
+
+  @Override
+  public QueryBuilder build(FunctionExpression func) {
+    ReferenceExpression ref = (ReferenceExpression) func.getArguments().stream()
+        .filter(arg -> arg instanceof ReferenceExpression)
+        .findFirst()
+        .get();
+    return QueryBuilders.boolQuery()
+        .filter(QueryBuilders.existsQuery(ref.getAttr()))
+        .mustNot(delegate.build(func));
+  }
+
+}
@@ -38,6 +38,22 @@ public class RangeQuery extends LuceneQuery {
    */
   private final Comparison comparison;
 
+  @Override
+  protected LuceneQuery commute() {
+    switch (comparison) {
+      case LT:
+        return new RangeQuery(Comparison.GT);
+      case GT:
+        return new RangeQuery(Comparison.LT);
+      case LTE:
+        return new RangeQuery(Comparison.GTE);
+      case GTE:
+        return new RangeQuery(Comparison.LTE);
+      default:
+        return null;
+    }
+  }
+
   @Override
   protected QueryBuilder doBuild(String fieldName, ExprType fieldType, ExprValue literal) {
     Object value = literal.value();
@@ -0,0 +1,62 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.lucene;
+
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.amazon.opendistroforelasticsearch.sql.data.type.ExprType;
+import com.amazon.opendistroforelasticsearch.sql.expression.FunctionExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.LiteralExpression;
+import java.util.regex.Pattern;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.RegexpFlag;
+
+/**
+ * Lucene query that builds regexp query for REGEXP predicate. Both Java regex used by REGEXP
+ * function and Lucene regular expression match the entire string. The query is only built if
+ * the pattern has the same meaning in both, namely no escape, anchor, embedded flag,
+ * possessive quantifier or character class intersection. All optional operators of Lucene
+ * are disabled so that characters such as '@' and '~' are matched literally as in Java.
+ * The only difference left is that '.' in Lucene matches line terminator as well.
+ */
+public class RegexpQuery extends LuceneQuery {
+
+  private static final Pattern JAVA_ONLY_SYNTAX = Pattern.compile("[\\\\\"^$&]|\\(\\?|[*+?}]\\+");
+
+  @Override
+  public boolean canSupport(FunctionExpression func) {
+    return super.canSupport(func)
+        && !JAVA_ONLY_SYNTAX.matcher(
+            ((LiteralExpression) func.getArguments().get(1)).valueOf(null).stringValue()).find();
+  }
+
+  /**
+   * Pattern on the left side is not a regexp match of the field.
+   */
+  @Override
+  protected LuceneQuery commute() {
+    return null;
+  }
+
+  @Override
+  protected QueryBuilder doBuild(String fieldName, ExprType fieldType, ExprValue literal) {
+    fieldName = convertTextToKeyword(fieldName, fieldType);
+    return QueryBuilders.regexpQuery(fieldName, literal.stringValue()).flags(RegexpFlag.NONE);
+  }
+
+}
@@ -26,6 +26,14 @@ import org.elasticsearch.index.query.QueryBuilders;
  */
 public class WildcardQuery extends LuceneQuery {
 
+  /**
+   * Pattern on the left side is not a wildcard match of the field.
+   */
+  @Override
+  protected LuceneQuery commute() {
+    return null;
+  }
+
   @Override
   protected QueryBuilder doBuild(String fieldName, ExprType fieldType, ExprValue literal) {
     fieldName = convertTextToKeyword(fieldName, fieldType);
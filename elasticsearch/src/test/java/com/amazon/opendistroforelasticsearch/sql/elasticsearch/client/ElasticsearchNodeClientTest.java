@@ -23,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Answers.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -34,10 +35,14 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprTupleValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.value.ElasticsearchExprValueFactory;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.mapping.IndexMapping;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.IndexStatistics;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchRequest;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchScrollRequest;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchStatisticsRequest;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.response.ElasticsearchResponse;
 import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.io.Resources;
 import java.io.IOException;
@@ -46,9 +51,14 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
 import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.admin.indices.get.GetIndexResponse;
+import org.elasticsearch.action.fieldcaps.FieldCapabilitiesResponse;
 import org.elasticsearch.action.search.ClearScrollRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.node.NodeClient;
@@ -60,13 +70,17 @@ import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.MappingMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.common.xcontent.DeprecationHandler;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -183,8 +197,8 @@ class ElasticsearchNodeClientTest {
                 new SearchHit[] {searchHit},
                 new TotalHits(1L, TotalHits.Relation.EQUAL_TO),
                 1.0F));
-    when(searchHit.getSourceAsString()).thenReturn("{\"id\", 1}");
-    when(factory.construct(any())).thenReturn(exprTupleValue);
+    when(searchHit.getSourceRef()).thenReturn(new BytesArray("{\"id\", 1}"));
+    when(factory.construct(any(BytesReference.class))).thenReturn(exprTupleValue);
 
     // Mock second scroll request followed
     SearchResponse scrollResponse = mock(SearchResponse.class);
@@ -207,6 +221,20 @@ class ElasticsearchNodeClientTest {
     assertTrue(response2.isEmpty());
   }
 
+  @Test
+  void searchLatencyListener() {
+    LongConsumer listener = mock(LongConsumer.class);
+    ElasticsearchNodeClient client =
+        new ElasticsearchNodeClient(mock(ClusterService.class), nodeClient, listener);
+
+    ElasticsearchRequest request = mock(ElasticsearchRequest.class);
+    ElasticsearchResponse response = mock(ElasticsearchResponse.class);
+    when(request.search(any(), any())).thenReturn(response);
+
+    assertEquals(response, client.search(request));
+    verify(listener).accept(anyLong());
+  }
+
   @Test
   void schedule() {
     ThreadPool threadPool = mock(ThreadPool.class);
@@ -229,6 +257,168 @@ class ElasticsearchNodeClientTest {
     assertTrue(isRun.get());
   }
 
+  @Test
+  void scheduleInSqlWorkerTask() {
+    ThreadPool threadPool = mock(ThreadPool.class);
+    when(nodeClient.threadPool()).thenReturn(threadPool);
+    when(threadPool.getThreadContext()).thenReturn(threadContext);
+
+    ElasticsearchNodeClient client =
+        new ElasticsearchNodeClient(mock(ClusterService.class), nodeClient);
+    AtomicBoolean isRun = new AtomicBoolean(false);
+    ElasticsearchNodeClient.asSqlWorkerTask(() -> client.schedule(() -> isRun.set(true))).run();
+
+    assertTrue(isRun.get());
+    verify(threadPool, never()).schedule(any(), any(), any());
+  }
+
+  @Test
+  void scheduleNestedInScheduledTask() {
+    ThreadPool threadPool = mock(ThreadPool.class);
+    when(nodeClient.threadPool()).thenReturn(threadPool);
+    when(threadPool.getThreadContext()).thenReturn(threadContext);
+
+    doAnswer(
+        invocation -> {
+          Runnable task = invocation.getArgument(0);
+          task.run();
+          return null;
+        })
+        .when(threadPool)
+        .schedule(any(), any(), any());
+
+    ElasticsearchNodeClient client =
+        new ElasticsearchNodeClient(mock(ClusterService.class), nodeClient);
+    AtomicBoolean isRun = new AtomicBoolean(false);
+    client.schedule(() -> client.schedule(() -> isRun.set(true)));
+
+    assertTrue(isRun.get());
+    verify(threadPool).schedule(any(), any(), any());
+  }
+
+  @Test
+  void scheduleOutsideSqlWorkerTaskAfterTaskDone() {
+    ThreadPool threadPool = mock(ThreadPool.class);
+    when(nodeClient.threadPool()).thenReturn(threadPool);
+    when(threadPool.getThreadContext()).thenReturn(threadContext);
+
+    ElasticsearchNodeClient client =
+        new ElasticsearchNodeClient(mock(ClusterService.class), nodeClient);
+    ElasticsearchNodeClient.asSqlWorkerTask(() -> { }).run();
+    client.schedule(() -> { });
+
+    verify(threadPool).schedule(any(), any(), any());
+  }
+
+  @Test
+  void fork() {
+    ThreadPool threadPool = mock(ThreadPool.class);
+    ExecutorService executor = mock(ExecutorService.class);
+    when(nodeClient.threadPool()).thenReturn(threadPool);
+    when(threadPool.getThreadContext()).thenReturn(threadContext);
+    when(threadPool.executor("sql-worker")).thenReturn(executor);
+    doAnswer(
+        invocation -> {
+          Runnable task = invocation.getArgument(0);
+          task.run();
+          return null;
+        })
+        .when(executor)
+        .execute(any());
+
+    ElasticsearchNodeClient client =
+        new ElasticsearchNodeClient(mock(ClusterService.class), nodeClient);
+    AtomicBoolean isRun = new AtomicBoolean(false);
+    client.fork(() -> isRun.set(true));
+    assertTrue(isRun.get());
+  }
+
+  @Test
+  void resolveIndices() {
+    FieldCapabilitiesResponse response = mock(FieldCapabilitiesResponse.class);
+    when(nodeClient.fieldCaps(any()).actionGet()).thenReturn(response);
+    when(response.getIndices()).thenReturn(new String[] {"logs-2", "logs-1"});
+
+    ElasticsearchNodeClient client =
+        new ElasticsearchNodeClient(mock(ClusterService.class), nodeClient);
+    assertEquals(
+        Arrays.asList("logs-1", "logs-2"),
+        client.resolveIndices("logs-*", QueryBuilders.rangeQuery("@timestamp").gte("now-1h")));
+  }
+
+  @Test
+  void statistics() {
+    ElasticsearchNodeClient client =
+        new ElasticsearchNodeClient(mock(ClusterService.class), nodeClient);
+
+    SearchResponse searchResponse = mock(SearchResponse.class);
+    when(nodeClient.search(any()).actionGet()).thenReturn(searchResponse);
+    when(searchResponse.getHits())
+        .thenReturn(
+            new SearchHits(
+                new SearchHit[0],
+                new TotalHits(100L, TotalHits.Relation.EQUAL_TO),
+                0.0F));
+    when(searchResponse.getTotalShards()).thenReturn(2);
+
+    assertEquals(
+        new IndexStatistics(100L, 2, ImmutableMap.of()),
+        client.statistics(new ElasticsearchStatisticsRequest("test", ImmutableSet.of())));
+  }
+
+  @Test
+  void indexState() {
+    ClusterService clusterService = mock(ClusterService.class);
+    when(clusterService.state()).thenReturn(ClusterState.builder(ClusterName.DEFAULT)
+        .metadata(Metadata.builder()
+            .put(indexMetadata("logs-2", 3L, 1L), false)
+            .put(indexMetadata("logs-1", 5L, 2L), false))
+        .build());
+
+    ElasticsearchNodeClient client = new ElasticsearchNodeClient(clusterService, nodeClient);
+    assertEquals(
+        Optional.of("logs-1[logs-1_uuid]:5:2,logs-2[logs-2_uuid]:3:1"),
+        client.indexState("logs-*"));
+    verify(nodeClient, never()).admin();
+  }
+
+  @Test
+  void indexStateUnavailableIfIndexNotFound() {
+    ElasticsearchNodeClient client =
+        new ElasticsearchNodeClient(mockClusterService("test"), nodeClient);
+    assertEquals(Optional.empty(), client.indexState("logs"));
+  }
+
+  @Test
+  void userIdentityWithoutSecurity() {
+    when(nodeClient.threadPool().getThreadContext()).thenReturn(threadContext);
+
+    ElasticsearchNodeClient client =
+        new ElasticsearchNodeClient(mock(ClusterService.class), nodeClient);
+    assertEquals(Optional.of(""), client.userIdentity());
+  }
+
+  @Test
+  void userIdentityWithSecurityUserInfo() {
+    when(nodeClient.threadPool().getThreadContext()).thenReturn(threadContext);
+    when(threadContext.getTransient("_opendistro_security_user_info"))
+        .thenReturn("alice|backend_role|all_access");
+
+    ElasticsearchNodeClient client =
+        new ElasticsearchNodeClient(mock(ClusterService.class), nodeClient);
+    assertEquals(Optional.of("alice|backend_role|all_access"), client.userIdentity());
+  }
+
+  @Test
+  void userIdentityUnknownWithSecurityUserOnly() {
+    when(nodeClient.threadPool().getThreadContext()).thenReturn(threadContext);
+    when(threadContext.getTransient("_opendistro_security_user")).thenReturn(new Object());
+
+    ElasticsearchNodeClient client =
+        new ElasticsearchNodeClient(mock(ClusterService.class), nodeClient);
+    assertEquals(Optional.empty(), client.userIdentity());
+  }
+
   @Test
   void cleanup() {
     ClearScrollRequestBuilder requestBuilder = mock(ClearScrollRequestBuilder.class);
@@ -356,6 +546,18 @@ class ElasticsearchNodeClientTest {
     return mockService;
   }
 
+  private IndexMetadata indexMetadata(String index, long mappingVersion, long settingsVersion) {
+    return IndexMetadata.builder(index)
+        .settings(Settings.builder()
+            .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexMetadata.SETTING_INDEX_UUID, index + "_uuid"))
+        .numberOfShards(1)
+        .numberOfReplicas(0)
+        .mappingVersion(mappingVersion)
+        .settingsVersion(settingsVersion)
+        .build();
+  }
+
   private XContentParser createParser(String mappings) throws IOException {
     return XContentType.JSON
         .xContent()
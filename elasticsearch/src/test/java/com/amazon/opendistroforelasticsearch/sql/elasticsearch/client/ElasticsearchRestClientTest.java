@@ -33,19 +33,24 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprTupleValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.value.ElasticsearchExprValueFactory;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.mapping.IndexMapping;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.IndexStatistics;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchScrollRequest;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchStatisticsRequest;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.response.ElasticsearchResponse;
 import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Resources;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.lucene.search.TotalHits;
 import org.elasticsearch.action.admin.cluster.settings.ClusterGetSettingsResponse;
+import org.elasticsearch.action.fieldcaps.FieldCapabilitiesResponse;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
@@ -55,11 +60,14 @@ import org.elasticsearch.client.indices.GetMappingsRequest;
 import org.elasticsearch.client.indices.GetMappingsResponse;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.MappingMetadata;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.DeprecationHandler;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.junit.jupiter.api.BeforeEach;
@@ -152,8 +160,8 @@ class ElasticsearchRestClientTest {
                 new SearchHit[] {searchHit},
                 new TotalHits(1L, TotalHits.Relation.EQUAL_TO),
                 1.0F));
-    when(searchHit.getSourceAsString()).thenReturn("{\"id\", 1}");
-    when(factory.construct(any())).thenReturn(exprTupleValue);
+    when(searchHit.getSourceRef()).thenReturn(new BytesArray("{\"id\", 1}"));
+    when(factory.construct(any(BytesReference.class))).thenReturn(exprTupleValue);
 
     // Mock second scroll request followed
     SearchResponse scrollResponse = mock(SearchResponse.class);
@@ -217,6 +225,65 @@ class ElasticsearchRestClientTest {
     assertTrue(isRun.get());
   }
 
+  @Test
+  void fork() {
+    AtomicBoolean isRun = new AtomicBoolean(false);
+    client.fork(() -> isRun.set(true));
+    assertTrue(isRun.get());
+  }
+
+  @Test
+  void resolveIndices() throws IOException {
+    FieldCapabilitiesResponse response = mock(FieldCapabilitiesResponse.class);
+    when(restClient.fieldCaps(any(), any())).thenReturn(response);
+    when(response.getIndices()).thenReturn(new String[] {"logs-2", "logs-1"});
+
+    assertEquals(
+        Arrays.asList("logs-1", "logs-2"),
+        client.resolveIndices("logs-*", QueryBuilders.rangeQuery("@timestamp").gte("now-1h")));
+  }
+
+  @Test
+  void resolveIndicesWithIOException() throws IOException {
+    when(restClient.fieldCaps(any(), any())).thenThrow(new IOException());
+    assertThrows(IllegalStateException.class, () -> client.resolveIndices("logs-*", null));
+  }
+
+  @Test
+  void statistics() throws IOException {
+    SearchResponse searchResponse = mock(SearchResponse.class);
+    when(restClient.search(any(), any())).thenReturn(searchResponse);
+    when(searchResponse.getHits())
+        .thenReturn(
+            new SearchHits(
+                new SearchHit[0],
+                new TotalHits(100L, TotalHits.Relation.EQUAL_TO),
+                0.0F));
+    when(searchResponse.getTotalShards()).thenReturn(2);
+
+    assertEquals(
+        new IndexStatistics(100L, 2, ImmutableMap.of()),
+        client.statistics(new ElasticsearchStatisticsRequest("test", ImmutableSet.of())));
+  }
+
+  @Test
+  void statisticsWithIOException() throws IOException {
+    when(restClient.search(any(), any())).thenThrow(new IOException());
+    assertThrows(
+        IllegalStateException.class,
+        () -> client.statistics(new ElasticsearchStatisticsRequest("test", ImmutableSet.of())));
+  }
+
+  @Test
+  void indexState() {
+    assertFalse(client.indexState("test").isPresent());
+  }
+
+  @Test
+  void userIdentity() {
+    assertFalse(client.userIdentity().isPresent());
+  }
+
   @Test
   void cleanup() throws IOException {
     ElasticsearchScrollRequest request = new ElasticsearchScrollRequest("test", factory);
@@ -58,12 +58,16 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.data.type.ExprType;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentFactory;
 import org.junit.jupiter.api.Test;
 
 class ElasticsearchExprValueFactoryTest {
@@ -208,6 +212,35 @@ class ElasticsearchExprValueFactoryTest {
         constructFromObject("datetimeV", "2015-01-01 12:10:30"));
   }
 
+  @Test
+  public void constructDateInIsoFormat() {
+    assertEquals(
+        new ExprTimestampValue(Instant.parse("2015-01-01T12:10:30.123Z")),
+        tupleValue("{\"timestampV\":\"2015-01-01T12:10:30.123Z\"}").get("timestampV"));
+    assertEquals(
+        new ExprTimestampValue(Instant.parse("2015-01-01T12:10:30.123456789Z")),
+        tupleValue("{\"timestampV\":\"2015-01-01 12:10:30.123456789\"}").get("timestampV"));
+    assertEquals(
+        new ExprTimestampValue(Instant.parse("2015-01-01T11:10:30Z")),
+        tupleValue("{\"timestampV\":\"2015-01-01T12:10:30+01:00\"}").get("timestampV"));
+    assertEquals(
+        new ExprTimestampValue(Instant.parse("2015-01-01T11:10:30.100Z")),
+        tupleValue("{\"timestampV\":\"2015-01-01T12:10:30.1+01:00\"}").get("timestampV"));
+    assertEquals(
+        new ExprTimestampValue(Instant.parse("2015-01-01T12:10:30.500Z")),
+        constructFromObject("timestampV", "2015-01-01T12:10:30.5Z"));
+  }
+
+  @Test
+  public void constructDateFromInvalidIsoFormatThrowException() {
+    for (String value : ImmutableList.of("201a-01-01", "201+-01-01", "2015/01/01",
+        "2015-01-01X12:10:30",
+        "2015-01-01T25:10:30", "2015-01-01T12:10:30.Z", "2015-01-01T12:10:30.1234567891Z")) {
+      assertThrows(IllegalStateException.class,
+          () -> tupleValue("{\"timestampV\":\"" + value + "\"}"), value);
+    }
+  }
+
   @Test
   public void constructDateFromUnsupportedFormatThrowException() {
     IllegalStateException exception =
@@ -263,6 +296,110 @@ class ElasticsearchExprValueFactoryTest {
         tupleValue("{\"binaryV\":\"U29tZSBiaW5hcnkgYmxvYg==\"}").get("binaryV"));
   }
 
+  @Test
+  public void constructFirstValueOfMultiValuedField() {
+    Map<String, ExprValue> tuple = tupleValue(
+        "{\"intV\":[1,[2],{\"id\":3}],\"longV\":[],\"stringV\":[null,\"text\"]}");
+    assertEquals(integerValue(1), tuple.get("intV"));
+    assertEquals(nullValue(), tuple.get("longV"));
+    assertEquals(nullValue(), tuple.get("stringV"));
+  }
+
+  @Test
+  public void skipObjectValueOfPrimitiveField() {
+    assertEquals(
+        longValue(1L),
+        tupleValue("{\"intV\":{\"id\":[1]},\"longV\":1}").get("longV"));
+    assertEquals(
+        new ExprTupleValue(new LinkedHashMap<>()),
+        tupleValue("{\"structV\":1}").get("structV"));
+  }
+
+  @Test
+  public void constructArrayOfSingleObject() {
+    assertEquals(
+        new ExprCollectionValue(ImmutableList.of(
+            new ExprTupleValue(new LinkedHashMap<>(ImmutableMap.of("info", stringValue("zz")))),
+            new ExprTupleValue(new LinkedHashMap<>()))),
+        tupleValue("{\"arrayV\":[{\"info\":\"zz\"},[\"zz\"]]}").get("arrayV"));
+    assertEquals(
+        new ExprCollectionValue(ImmutableList.of(
+            new ExprTupleValue(new LinkedHashMap<>(ImmutableMap.of("info", stringValue("zz")))))),
+        tupleValue("{\"arrayV\":{\"info\":\"zz\"}}").get("arrayV"));
+  }
+
+  @Test
+  public void constructFromSourceBytes() throws IOException {
+    assertEquals(
+        integerValue(1),
+        exprValueFactory.construct(new BytesArray("{\"intV\":1}")).tupleValue().get("intV"));
+
+    BytesReference smile = BytesReference.bytes(
+        XContentFactory.smileBuilder().startObject().field("intV", 1).endObject());
+    assertEquals(
+        integerValue(1), exprValueFactory.construct(smile).tupleValue().get("intV"));
+
+    IllegalStateException exception = assertThrows(IllegalStateException.class,
+        () -> exprValueFactory.construct(new BytesArray("invalid")));
+    assertEquals("invalid json: invalid.", exception.getMessage());
+  }
+
+  @Test
+  public void constructLogDocument() {
+    ElasticsearchExprValueFactory exprValueFactory = new ElasticsearchExprValueFactory(
+        new ImmutableMap.Builder<String, ExprType>()
+            .put("request.status", INTEGER)
+            .put("request.bytes", LONG)
+            .put("request", STRUCT)
+            .put("@timestamp", TIMESTAMP)
+            .put("host", ES_IP)
+            .put("message", ES_TEXT)
+            .build());
+    Map<String, ExprValue> tuple = exprValueFactory.construct(
+        "{\"@timestamp\":\"2020-10-01T10:00:00.000Z\",\"host\":\"10.0.0.1\","
+            + "\"message\":\"GET /index.html HTTP/1.1\","
+            + "\"request\":{\"status\":200,\"bytes\":1024}}").tupleValue();
+
+    assertEquals(
+        new ExprTimestampValue(Instant.parse("2020-10-01T10:00:00Z")), tuple.get("@timestamp"));
+    assertEquals(new ElasticsearchExprIpValue("10.0.0.1"), tuple.get("host"));
+    assertEquals(
+        new ElasticsearchExprTextValue("GET /index.html HTTP/1.1"), tuple.get("message"));
+    assertEquals(
+        new ExprTupleValue(new LinkedHashMap<>(ImmutableMap.of(
+            "status", integerValue(200), "bytes", longValue(1024L)))),
+        tuple.get("request"));
+  }
+
+  @Test
+  public void constructFieldOfDottedSourceKey() {
+    ElasticsearchExprValueFactory exprValueFactory = new ElasticsearchExprValueFactory(
+        new ImmutableMap.Builder<String, ExprType>()
+            .put("a.b", INTEGER)
+            .put("c", STRUCT)
+            .put("c.d.e", STRING)
+            .build());
+    Map<String, ExprValue> tuple = exprValueFactory.construct(
+        "{\"a.b\":1,\"c\":{\"d.e\":\"text\"}}").tupleValue();
+
+    assertEquals(integerValue(1), tuple.get("a.b"));
+    assertEquals(
+        new ExprTupleValue(new LinkedHashMap<>(ImmutableMap.of("d.e", stringValue("text")))),
+        tuple.get("c"));
+  }
+
+  @Test
+  public void constructAfterTypeMappingChanged() {
+    ElasticsearchExprValueFactory exprValueFactory =
+        new ElasticsearchExprValueFactory(ImmutableMap.of("value", INTEGER));
+    assertEquals(integerValue(1), exprValueFactory.construct("{\"value\":1}").tupleValue()
+        .get("value"));
+
+    exprValueFactory.setTypeMapping(ImmutableMap.of("value", STRING));
+    assertEquals(stringValue("1"), exprValueFactory.construct("{\"value\":\"1\"}").tupleValue()
+        .get("value"));
+  }
+
   @Test
   public void constructFromInvalidJsonThrowException() {
     IllegalStateException exception =
@@ -277,6 +414,19 @@ class ElasticsearchExprValueFactoryTest {
     assertEquals("No type found for field: not_exist.", exception.getMessage());
   }
 
+  @Test
+  public void noTypeFoundForInnerFieldThrowException() {
+    IllegalStateException exception = assertThrows(IllegalStateException.class,
+        () -> tupleValue("{\"structV\":{\"not_exist\":1}}"));
+    assertEquals("No type found for field: structV.not_exist.", exception.getMessage());
+
+    ElasticsearchExprValueFactory exprValueFactory =
+        new ElasticsearchExprValueFactory(ImmutableMap.of("parent.id", INTEGER));
+    exception = assertThrows(IllegalStateException.class,
+        () -> exprValueFactory.construct("{\"parent\":{\"id\":1}}"));
+    assertEquals("No type found for field: parent.", exception.getMessage());
+  }
+
   @Test
   public void constructUnsupportedTypeThrowException() {
     ElasticsearchExprValueFactory exprValueFactory =
@@ -36,6 +36,7 @@ import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.client.ElasticsearchClient;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.value.ElasticsearchExprValueFactory;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.executor.protector.ElasticsearchExecutionProtector;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.Cost;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.ElasticsearchIndexScan;
 import com.amazon.opendistroforelasticsearch.sql.executor.ExecutionEngine;
 import com.amazon.opendistroforelasticsearch.sql.executor.ExecutionEngine.ExplainResponse;
@@ -154,6 +155,52 @@ class ElasticsearchExecutionEngineTest {
     assertNotNull(result.get());
   }
 
+  @Test
+  void explainWithEstimatedCost() {
+    ElasticsearchExecutionEngine executor = new ElasticsearchExecutionEngine(client, protector);
+    Settings settings = mock(Settings.class);
+    when(settings.getSettingValue(QUERY_SIZE_LIMIT)).thenReturn(100);
+    ElasticsearchIndexScan plan = new ElasticsearchIndexScan(mock(ElasticsearchClient.class),
+        settings, "test", mock(ElasticsearchExprValueFactory.class));
+    plan.setEstimatedCost(new Cost(10, 250));
+
+    AtomicReference<ExplainResponse> result = new AtomicReference<>();
+    executor.explain(plan, new ResponseListener<ExplainResponse>() {
+      @Override
+      public void onResponse(ExplainResponse response) {
+        result.set(response);
+      }
+
+      @Override
+      public void onFailure(Exception e) {
+        fail(e);
+      }
+    });
+
+    assertEquals("rows=10, cost=250.00", result.get().getRoot().getDescription().get("cost"));
+  }
+
+  @Test
+  void explainOtherTableScanWithoutCost() {
+    ElasticsearchExecutionEngine executor = new ElasticsearchExecutionEngine(client, protector);
+    PhysicalPlan plan = new FakePhysicalPlan(Arrays.<ExprValue>asList().iterator());
+
+    AtomicReference<ExplainResponse> result = new AtomicReference<>();
+    executor.explain(plan, new ResponseListener<ExplainResponse>() {
+      @Override
+      public void onResponse(ExplainResponse response) {
+        result.set(response);
+      }
+
+      @Override
+      public void onFailure(Exception e) {
+        fail(e);
+      }
+    });
+
+    assertEquals(of("request", "explain"), result.get().getRoot().getDescription());
+  }
+
   @Test
   void explainWithFailure() {
     ElasticsearchExecutionEngine executor = new ElasticsearchExecutionEngine(client, protector);
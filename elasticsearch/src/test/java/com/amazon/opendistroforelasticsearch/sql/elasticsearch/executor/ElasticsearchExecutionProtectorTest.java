@@ -30,6 +30,7 @@ import static com.amazon.opendistroforelasticsearch.sql.planner.physical.Physica
 import static com.amazon.opendistroforelasticsearch.sql.planner.physical.PhysicalPlanDSL.window;
 import static java.util.Collections.emptyList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -54,6 +55,7 @@ import com.amazon.opendistroforelasticsearch.sql.expression.window.ranking.RankF
 import com.amazon.opendistroforelasticsearch.sql.monitor.ResourceMonitor;
 import com.amazon.opendistroforelasticsearch.sql.planner.physical.PhysicalPlan;
 import com.amazon.opendistroforelasticsearch.sql.planner.physical.PhysicalPlanDSL;
+import com.amazon.opendistroforelasticsearch.sql.planner.physical.WindowOperator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.util.Arrays;
@@ -213,6 +215,16 @@ class ElasticsearchExecutionProtectorTest {
                 windowDefinition)));
   }
 
+  @Test
+  public void testPassResourceMonitorToWindowOperator() {
+    Expression rank = mock(RankFunction.class);
+    WindowDefinition windowDefinition = new WindowDefinition(emptyList(), emptyList());
+
+    WindowOperator windowOperator = (WindowOperator) executionProtector.protect(
+        window(values(emptyList()), rank, windowDefinition));
+    assertSame(resourceMonitor, windowOperator.getResourceMonitor());
+  }
+
   @Test
   public void testWithoutProtection() {
     Expression filterExpr = literal(ExprBooleanValue.of(true));
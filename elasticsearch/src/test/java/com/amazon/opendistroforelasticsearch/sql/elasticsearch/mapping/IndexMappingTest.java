@@ -24,7 +24,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.util.Map;
+import org.elasticsearch.cluster.metadata.MappingMetadata;
 import org.junit.jupiter.api.Test;
 
 class IndexMappingTest {
@@ -44,4 +46,37 @@ class IndexMappingTest {
         fieldTypes,
         allOf(aMapWithSize(2), hasEntry("name", "our_type"), hasEntry("age", "our_type")));
   }
+
+  @Test
+  public void getDocValueFieldsByFieldTypes() {
+    IndexMapping indexMapping = new IndexMapping(ImmutableMap.of(
+        "name", "text", "age", "integer", "manager.id", "long"));
+    assertEquals(ImmutableSet.of("age"), indexMapping.getDocValueFields());
+  }
+
+  @Test
+  public void getDocValueFieldsByMappingMetadata() {
+    IndexMapping indexMapping = new IndexMapping(new MappingMetadata("_doc", ImmutableMap.of(
+        "properties", ImmutableMap.<String, Object>builder()
+            .put("age", ImmutableMap.of("type", "integer"))
+            .put("birthday", ImmutableMap.of("type", "date"))
+            .put("city", ImmutableMap.of("type", "keyword", "ignore_above", 256))
+            .put("balance", ImmutableMap.of("type", "double", "doc_values", false))
+            .put("address", ImmutableMap.of("type", "text"))
+            .put("employer", ImmutableMap.of("type", "text", "fields",
+                ImmutableMap.of("raw", ImmutableMap.of("type", "keyword"))))
+            .put("manager", ImmutableMap.of("properties",
+                ImmutableMap.of("id", ImmutableMap.of("type", "long"))))
+            .build())));
+    assertEquals(ImmutableSet.of("age", "birthday"), indexMapping.getDocValueFields());
+  }
+
+  @Test
+  public void getDocValueFieldsExcludeNormalizedKeyword() {
+    IndexMapping indexMapping = new IndexMapping(new MappingMetadata("_doc", ImmutableMap.of(
+        "properties", ImmutableMap.of(
+            "state", ImmutableMap.of("type", "keyword"),
+            "email", ImmutableMap.of("type", "keyword", "normalizer", "lowercase")))));
+    assertEquals(ImmutableSet.of("state"), indexMapping.getDocValueFields());
+  }
 }
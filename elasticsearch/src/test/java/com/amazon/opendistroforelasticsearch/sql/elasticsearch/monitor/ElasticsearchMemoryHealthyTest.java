@@ -29,9 +29,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class ElasticsearchMemoryHealthyTest {
 
-  @Mock
-  private ElasticsearchMemoryHealthy.RandomFail randomFail;
-
   @Mock
   private ElasticsearchMemoryHealthy.MemoryUsage memoryUsage;
 
@@ -39,7 +36,7 @@ class ElasticsearchMemoryHealthyTest {
 
   @BeforeEach
   public void setup() {
-    monitor = new ElasticsearchMemoryHealthy(randomFail, memoryUsage);
+    monitor = new ElasticsearchMemoryHealthy(memoryUsage);
   }
 
   @Test
@@ -50,18 +47,8 @@ class ElasticsearchMemoryHealthyTest {
   }
 
   @Test
-  void memoryUsageExceedLimitFastFailure() {
+  void memoryUsageExceedLimit() {
     when(memoryUsage.usage()).thenReturn(10L);
-    when(randomFail.shouldFail()).thenReturn(true);
-
-    assertThrows(ElasticsearchMemoryHealthy.MemoryUsageExceedFastFailureException.class,
-        () -> monitor.isMemoryHealthy(9L));
-  }
-
-  @Test
-  void memoryUsageExceedLimitWithoutFastFailure() {
-    when(memoryUsage.usage()).thenReturn(10L);
-    when(randomFail.shouldFail()).thenReturn(false);
 
     assertThrows(ElasticsearchMemoryHealthy.MemoryUsageExceedException.class,
         () -> monitor.isMemoryHealthy(9L));
@@ -73,12 +60,6 @@ class ElasticsearchMemoryHealthyTest {
     assertNotNull(monitor);
   }
 
-  @Test
-  void randomFail() {
-    ElasticsearchMemoryHealthy.RandomFail randomFail = new ElasticsearchMemoryHealthy.RandomFail();
-    assertNotNull(randomFail.shouldFail());
-  }
-
   @Test
   void setMemoryUsage() {
     ElasticsearchMemoryHealthy.MemoryUsage usage =
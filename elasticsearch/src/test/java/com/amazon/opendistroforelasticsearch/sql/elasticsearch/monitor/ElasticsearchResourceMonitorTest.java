@@ -15,14 +15,22 @@
 
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.monitor;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.amazon.opendistroforelasticsearch.sql.common.setting.Settings;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -41,7 +49,7 @@ class ElasticsearchResourceMonitorTest {
 
   @BeforeEach
   public void setup() {
-    when(settings.getSettingValue(Settings.Key.PPL_QUERY_MEMORY_LIMIT))
+    lenient().when(settings.getSettingValue(Settings.Key.PPL_QUERY_MEMORY_LIMIT))
         .thenReturn(new ByteSizeValue(10L));
   }
 
@@ -50,28 +58,17 @@ class ElasticsearchResourceMonitorTest {
     when(memoryMonitor.isMemoryHealthy(anyLong())).thenReturn(true);
 
     ElasticsearchResourceMonitor resourceMonitor =
-        new ElasticsearchResourceMonitor(settings, memoryMonitor);
+        new ElasticsearchResourceMonitor(settings, memoryMonitor, null);
     assertTrue(resourceMonitor.isHealthy());
   }
 
-  @Test
-  void notHealthyFastFailure() {
-    when(memoryMonitor.isMemoryHealthy(anyLong())).thenThrow(
-        ElasticsearchMemoryHealthy.MemoryUsageExceedFastFailureException.class);
-
-    ElasticsearchResourceMonitor resourceMonitor =
-        new ElasticsearchResourceMonitor(settings, memoryMonitor);
-    assertFalse(resourceMonitor.isHealthy());
-    verify(memoryMonitor, times(1)).isMemoryHealthy(anyLong());
-  }
-
   @Test
   void notHealthyWithRetry() {
     when(memoryMonitor.isMemoryHealthy(anyLong())).thenThrow(
         ElasticsearchMemoryHealthy.MemoryUsageExceedException.class);
 
     ElasticsearchResourceMonitor resourceMonitor =
-        new ElasticsearchResourceMonitor(settings, memoryMonitor);
+        new ElasticsearchResourceMonitor(settings, memoryMonitor, null);
     assertFalse(resourceMonitor.isHealthy());
     verify(memoryMonitor, times(3)).isMemoryHealthy(anyLong());
   }
@@ -83,8 +80,40 @@ class ElasticsearchResourceMonitorTest {
         ElasticsearchMemoryHealthy.MemoryUsageExceedException.class).thenReturn(true);
 
     ElasticsearchResourceMonitor resourceMonitor =
-        new ElasticsearchResourceMonitor(settings, memoryMonitor);
+        new ElasticsearchResourceMonitor(settings, memoryMonitor, null);
     assertTrue(resourceMonitor.isHealthy());
     verify(memoryMonitor, times(2)).isMemoryHealthy(anyLong());
   }
+
+  @Test
+  void chargeAndReleaseRequestCircuitBreaker() {
+    CircuitBreaker breaker = mock(CircuitBreaker.class);
+    ElasticsearchResourceMonitor resourceMonitor =
+        new ElasticsearchResourceMonitor(settings, memoryMonitor, breaker);
+
+    resourceMonitor.charge(100L);
+    resourceMonitor.release(100L);
+    verify(breaker).addEstimateBytesAndMaybeBreak(100L, "<opendistro_sql_query>");
+    verify(breaker).addWithoutBreaking(-100L);
+  }
+
+  @Test
+  void failIfRequestCircuitBreakerTripped() {
+    CircuitBreaker breaker = mock(CircuitBreaker.class);
+    doThrow(new CircuitBreakingException("tripped", CircuitBreaker.Durability.TRANSIENT))
+        .when(breaker).addEstimateBytesAndMaybeBreak(anyLong(), anyString());
+    ElasticsearchResourceMonitor resourceMonitor =
+        new ElasticsearchResourceMonitor(settings, memoryMonitor, breaker);
+
+    assertThrows(CircuitBreakingException.class, () -> resourceMonitor.charge(100L));
+  }
+
+  @Test
+  void chargeAndReleaseWithoutCircuitBreaker() {
+    ElasticsearchResourceMonitor resourceMonitor =
+        new ElasticsearchResourceMonitor(settings, memoryMonitor, null);
+
+    assertDoesNotThrow(() -> resourceMonitor.charge(100L));
+    assertDoesNotThrow(() -> resourceMonitor.release(100L));
+  }
 }
@@ -0,0 +1,162 @@
+/*
+ *
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost;
+
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.integerValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.stringValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.STRING;
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils.indexScan;
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils.indexScanAgg;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.aggregation;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.filter;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.project;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.relation;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.sort;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalIndexAgg;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalIndexScan;
+import com.amazon.opendistroforelasticsearch.sql.expression.DSL;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.NamedExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.aggregation.NamedAggregator;
+import com.amazon.opendistroforelasticsearch.sql.expression.config.ExpressionConfig;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+class CostBasedOptimizerTest {
+
+  private final DSL dsl = new ExpressionConfig().dsl(new ExpressionConfig().functionRepository());
+
+  private final ReferenceExpression name = DSL.ref("name", STRING);
+
+  private final ReferenceExpression age = DSL.ref("age", INTEGER);
+
+  private final List<NamedAggregator> aggregators =
+      ImmutableList.of(DSL.named("AVG(age)", dsl.avg(age)));
+
+  private final List<NamedExpression> groupByList = ImmutableList.of(DSL.named("name", name));
+
+  private final CostBasedOptimizer smallIndexOptimizer = new CostBasedOptimizer(
+      new CostModel(new IndexStatistics(10L, 1, ImmutableMap.of("name", 5L)), 200));
+
+  @Test
+  void filter_in_memory_if_script_filter_is_more_expensive() {
+    Expression condition = dsl.equal(dsl.abs(age), DSL.literal(integerValue(1)));
+    LogicalPlan optimized = smallIndexOptimizer.optimize(
+        project(indexScan("test", condition), DSL.named("age", age)));
+
+    assertEquals(
+        project(filter(relation("test"), condition), DSL.named("age", age)),
+        optimized);
+    assertEquals(relation("test"), optimized.getChild().get(0).getChild().get(0));
+  }
+
+  @Test
+  void keep_filter_push_down_if_cheaper() {
+    LogicalPlan pushDown = indexScan("test",
+        dsl.equal(name, DSL.literal(stringValue("a"))));
+    assertSame(pushDown, smallIndexOptimizer.optimize(pushDown));
+  }
+
+  @Test
+  void keep_index_scan_without_alternative() {
+    Expression condition = dsl.equal(dsl.abs(age), DSL.literal(integerValue(1)));
+    LogicalPlan noFilter = indexScan("test", ImmutableSet.of(age));
+    LogicalPlan withSort = indexScan("test", condition, Pair.of(Sort.SortOption.DEFAULT_ASC, age));
+    LogicalPlan withLimit = indexScan("test", condition, 0, 10, ImmutableSet.of());
+    LogicalPlan withScriptFields = ElasticsearchLogicalIndexScan.builder()
+        .relationName("test")
+        .filter(condition)
+        .scriptFields(ImmutableMap.of(DSL.ref("a", INTEGER), dsl.abs(age)))
+        .build();
+
+    assertSame(noFilter, smallIndexOptimizer.optimize(noFilter));
+    assertSame(withSort, smallIndexOptimizer.optimize(withSort));
+    assertSame(withLimit, smallIndexOptimizer.optimize(withLimit));
+    assertSame(withScriptFields, smallIndexOptimizer.optimize(withScriptFields));
+  }
+
+  @Test
+  void keep_push_down_if_index_scan_may_not_be_complete() {
+    CostBasedOptimizer optimizer = new CostBasedOptimizer(
+        new CostModel(new IndexStatistics(1000L, 1, ImmutableMap.of()), 200));
+    LogicalPlan pushDown = indexScan("test", dsl.equal(dsl.abs(age), DSL.literal(integerValue(1))));
+    assertSame(pushDown, optimizer.optimize(pushDown));
+  }
+
+  @Test
+  void keep_aggregation_push_down_if_cheaper() {
+    LogicalPlan pushDown = indexScanAgg("test", aggregators, groupByList);
+    assertSame(pushDown, smallIndexOptimizer.optimize(pushDown));
+  }
+
+  @Test
+  void aggregate_in_memory_if_cheaper() {
+    CostBasedOptimizer optimizer = new CostBasedOptimizer(inMemoryPreferred());
+    LogicalPlan optimized = optimizer.optimize(indexScanAgg("test", aggregators, groupByList));
+
+    assertEquals(aggregation(relation("test"), aggregators, groupByList), optimized);
+    assertEquals(relation("test"), optimized.getChild().get(0));
+  }
+
+  @Test
+  void aggregate_and_sort_in_memory_with_filter_push_down_if_cheaper() {
+    Expression condition = dsl.equal(name, DSL.literal(stringValue("a")));
+    Pair<Sort.SortOption, Expression> sortByName = Pair.of(Sort.SortOption.DEFAULT_ASC, name);
+    CostBasedOptimizer optimizer = new CostBasedOptimizer(inMemoryPreferred());
+    LogicalPlan optimized = optimizer.optimize(
+        ElasticsearchLogicalIndexAgg.builder()
+            .relationName("test")
+            .filter(condition)
+            .aggregatorList(aggregators)
+            .groupByList(groupByList)
+            .sortList(ImmutableList.of(sortByName))
+            .build());
+
+    assertEquals(
+        sort(aggregation(indexScan("test", condition), aggregators, groupByList), sortByName),
+        optimized);
+    assertEquals(indexScan("test", condition),
+        optimized.getChild().get(0).getChild().get(0));
+  }
+
+  /**
+   * Cost model that always estimates push down more expensive.
+   */
+  private CostModel inMemoryPreferred() {
+    CostModel costModel = mock(CostModel.class);
+    when(costModel.isCompleteScan()).thenReturn(true);
+    when(costModel.estimate(any())).thenAnswer(invocation ->
+        (invocation.getArgument(0) instanceof ElasticsearchLogicalIndexAgg)
+            ? new Cost(1, 100) : new Cost(1, 10));
+    return costModel;
+  }
+}
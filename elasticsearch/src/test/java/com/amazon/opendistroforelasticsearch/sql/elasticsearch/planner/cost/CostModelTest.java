@@ -0,0 +1,184 @@
+/*
+ *
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost;
+
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.integerValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.stringValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.STRING;
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils.indexScan;
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils.indexScanAgg;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.aggregation;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.filter;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.limit;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.project;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.relation;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.sort;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort;
+import com.amazon.opendistroforelasticsearch.sql.expression.DSL;
+import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
+import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
+import com.amazon.opendistroforelasticsearch.sql.expression.aggregation.NamedAggregator;
+import com.amazon.opendistroforelasticsearch.sql.expression.config.ExpressionConfig;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
+import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalValues;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+class CostModelTest {
+
+  private static final double DELTA = 0.01;
+
+  private final DSL dsl = new ExpressionConfig().dsl(new ExpressionConfig().functionRepository());
+
+  private final ReferenceExpression name = DSL.ref("name", STRING);
+
+  private final ReferenceExpression age = DSL.ref("age", INTEGER);
+
+  private final List<NamedAggregator> aggregators =
+      ImmutableList.of(DSL.named("AVG(age)", dsl.avg(age)));
+
+  private final CostModel costModel = new CostModel(
+      new IndexStatistics(1000L, 5, ImmutableMap.of("name", 20L, "age", 50L)), 200);
+
+  @Test
+  void estimateRelation() {
+    assertCost(200, 1200, relation("test"));
+  }
+
+  @Test
+  void estimateIndexScanWithLuceneFilter() {
+    assertCost(50, 460, indexScan("test", nameEqualTo("a")));
+  }
+
+  @Test
+  void estimateIndexScanWithScriptFilter() {
+    assertCost(200, 1700, indexScan("test", absAgeEqualTo(1)));
+  }
+
+  @Test
+  void estimateIndexScanWithLimit() {
+    assertCost(10, 250, indexScan("test", 0, 10, ImmutableSet.of()));
+  }
+
+  @Test
+  void estimateIndexScanWithCompoundFilter() {
+    assertCost(16.67, 293.33,
+        indexScan("test", dsl.and(nameEqualTo("a"), dsl.greater(age, literal(30)))));
+    assertCost(16.67, 783.33,
+        indexScan("test", dsl.and(nameEqualTo("a"), absAgeEqualTo(1))));
+    assertCost(97.5, 697.5,
+        indexScan("test", dsl.or(nameEqualTo("a"), nameEqualTo("b"))));
+    assertCost(200, 1210,
+        indexScan("test", dsl.not(nameEqualTo("a"))));
+  }
+
+  @Test
+  void estimateIndexAggregation() {
+    assertCost(20, 400,
+        indexScanAgg("test", aggregators, ImmutableList.of(DSL.named("name", name))));
+    assertCost(50, 465,
+        indexScanAgg("test", nameEqualTo("a"), aggregators,
+            ImmutableList.of(DSL.named("abs(age)", dsl.abs(age)))));
+  }
+
+  @Test
+  void estimateIndexAggregationWithBucketSizeLimit() {
+    CostModel model = new CostModel(new IndexStatistics(100000L, 1, ImmutableMap.of()), 200);
+    assertEquals(new Cost(1000, 55200),
+        model.estimate(
+            indexScanAgg("test", aggregators, ImmutableList.of(DSL.named("name", name)))));
+  }
+
+  @Test
+  void estimateInMemoryOperators() {
+    assertCost(10, 1400, filter(relation("test"), nameEqualTo("a")));
+    assertCost(66.67, 1400, filter(relation("test"), DSL.literal(true)));
+    assertCost(20, 1600,
+        aggregation(relation("test"), aggregators, ImmutableList.of(DSL.named("name", name))));
+    assertCost(1, 1600, aggregation(relation("test"), aggregators, ImmutableList.of()));
+    assertCost(200, 2728.77, sort(relation("test"), Pair.of(Sort.SortOption.DEFAULT_ASC, age)));
+    assertCost(10, 1200, limit(relation("test"), 10, 0));
+    assertCost(200, 1400, project(relation("test"), DSL.named("age", age)));
+    assertCost(1, 0, new LogicalValues(ImmutableList.of()));
+  }
+
+  @Test
+  void isCompleteScan() {
+    assertFalse(costModel.isCompleteScan());
+    assertTrue(new CostModel(new IndexStatistics(100L, 1, ImmutableMap.of()), 200)
+        .isCompleteScan());
+  }
+
+  @Test
+  void fieldsRequired() {
+    LogicalPlan plan =
+        project(
+            filter(
+                aggregation(
+                    indexScan("test",
+                        dsl.and(
+                            nameEqualTo("a"),
+                            dsl.or(
+                                dsl.not(dsl.equal(age, literal(1))),
+                                dsl.greater(DSL.ref("balance", INTEGER), literal(1))))),
+                    aggregators,
+                    ImmutableList.of(
+                        DSL.named("gender", DSL.ref("gender", STRING)),
+                        DSL.named("abs(age)", dsl.abs(age)))),
+                dsl.equal(dsl.abs(DSL.ref("account", INTEGER)), literal(1))),
+            DSL.named("gender", DSL.ref("gender", STRING)));
+    assertEquals(ImmutableSet.of("name", "age", "gender"), CostModel.fieldsRequired(plan));
+
+    assertEquals(ImmutableSet.of("state"),
+        CostModel.fieldsRequired(
+            indexScanAgg("test", aggregators,
+                ImmutableList.of(DSL.named("state", DSL.ref("state", STRING))))));
+  }
+
+  @Test
+  void costToString() {
+    assertEquals("rows=10, cost=250.50", new Cost(10, 250.5).toString());
+  }
+
+  private void assertCost(double expectedRows, double expectedCost, LogicalPlan plan) {
+    Cost cost = costModel.estimate(plan);
+    assertEquals(expectedRows, cost.getRows(), DELTA);
+    assertEquals(expectedCost, cost.getCost(), DELTA);
+  }
+
+  private Expression nameEqualTo(String value) {
+    return dsl.equal(name, DSL.literal(stringValue(value)));
+  }
+
+  private Expression absAgeEqualTo(int value) {
+    return dsl.equal(dsl.abs(age), literal(value));
+  }
+
+  private Expression literal(int value) {
+    return DSL.literal(integerValue(value));
+  }
+}
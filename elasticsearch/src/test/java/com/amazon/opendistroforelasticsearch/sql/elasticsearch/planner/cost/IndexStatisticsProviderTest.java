@@ -0,0 +1,105 @@
+/*
+ *
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.client.ElasticsearchClient;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchStatisticsRequest;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class IndexStatisticsProviderTest {
+
+  @Mock
+  private ElasticsearchClient client;
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  private final Ticker ticker = new Ticker() {
+    @Override
+    public long read() {
+      return nanos.get();
+    }
+  };
+
+  @Test
+  void getStatisticsFromCacheIfPresent() {
+    IndexStatistics statistics = new IndexStatistics(100L, 1, ImmutableMap.of("name", 10L));
+    when(client.statistics(any())).thenReturn(statistics);
+
+    IndexStatisticsProvider provider =
+        new IndexStatisticsProvider(client, IndexStatisticsProvider.newCache(ticker));
+    assertEquals(Optional.of(statistics),
+        provider.getStatistics("test", ImmutableSet.of("name")));
+    assertEquals(Optional.of(statistics),
+        provider.getStatistics("test", ImmutableSet.of("name")));
+    verify(client, times(1)).statistics(any());
+  }
+
+  @Test
+  void getStatisticsOfMissingFieldOnly() {
+    when(client.statistics(new ElasticsearchStatisticsRequest("test", ImmutableSet.of("name"))))
+        .thenReturn(new IndexStatistics(100L, 1, ImmutableMap.of("name", 10L)));
+    when(client.statistics(new ElasticsearchStatisticsRequest("test", ImmutableSet.of("age"))))
+        .thenReturn(new IndexStatistics(110L, 1, ImmutableMap.of("age", 50L)));
+
+    IndexStatisticsProvider provider =
+        new IndexStatisticsProvider(client, IndexStatisticsProvider.newCache(ticker));
+    provider.getStatistics("test", ImmutableSet.of("name"));
+    assertEquals(
+        Optional.of(new IndexStatistics(110L, 1, ImmutableMap.of("name", 10L, "age", 50L))),
+        provider.getStatistics("test", ImmutableSet.of("name", "age")));
+  }
+
+  @Test
+  void getStatisticsAgainAfterExpired() {
+    when(client.statistics(any()))
+        .thenReturn(new IndexStatistics(100L, 1, ImmutableMap.of()))
+        .thenReturn(new IndexStatistics(200L, 1, ImmutableMap.of()));
+
+    IndexStatisticsProvider provider =
+        new IndexStatisticsProvider(client, IndexStatisticsProvider.newCache(ticker));
+    provider.getStatistics("test", ImmutableSet.of());
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(IndexStatisticsProvider.CACHE_EXPIRE_MINUTES));
+    assertEquals(Optional.of(new IndexStatistics(200L, 1, ImmutableMap.of())),
+        provider.getStatistics("test", ImmutableSet.of()));
+  }
+
+  @Test
+  void getStatisticsWithFailure() {
+    when(client.statistics(any())).thenThrow(new IllegalStateException("index not found"));
+
+    IndexStatisticsProvider provider = new IndexStatisticsProvider(client);
+    assertFalse(provider.getStatistics("statistics_failure_test", ImmutableSet.of()).isPresent());
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ *
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+class IndexStatisticsTest {
+
+  private final IndexStatistics statistics =
+      new IndexStatistics(1000L, 5, ImmutableMap.of("name", 20L, "empty", 0L));
+
+  @Test
+  void hasCardinality() {
+    assertTrue(statistics.hasCardinality(ImmutableSet.of("name")));
+    assertFalse(statistics.hasCardinality(ImmutableSet.of("name", "age")));
+  }
+
+  @Test
+  void getCardinality() {
+    assertEquals(20L, statistics.getCardinality("name"));
+    assertEquals(1L, statistics.getCardinality("empty"));
+    assertEquals(1000L, statistics.getCardinality("age"));
+  }
+
+  @Test
+  void merge() {
+    assertEquals(
+        new IndexStatistics(1200L, 5, ImmutableMap.of("name", 25L, "empty", 0L, "age", 60L)),
+        statistics.merge(
+            new IndexStatistics(1200L, 5, ImmutableMap.of("name", 25L, "age", 60L))));
+  }
+}
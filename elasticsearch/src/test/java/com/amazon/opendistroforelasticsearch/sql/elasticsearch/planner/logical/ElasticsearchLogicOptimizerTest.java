@@ -18,29 +18,37 @@
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical;
 
 import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.integerValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.DATE;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.DOUBLE;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.FLOAT;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.LONG;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.STRING;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.TIMESTAMP;
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.type.ElasticsearchDataType.ES_TEXT;
 import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils.indexScan;
 import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils.indexScanAgg;
 import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils.noProjects;
 import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils.projects;
 import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.aggregation;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.eval;
 import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.filter;
 import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.limit;
 import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.project;
 import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.relation;
 import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.sort;
+import static com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlanDSL.window;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils;
 import com.amazon.opendistroforelasticsearch.sql.expression.DSL;
 import com.amazon.opendistroforelasticsearch.sql.expression.config.ExpressionConfig;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.WindowDefinition;
 import com.amazon.opendistroforelasticsearch.sql.planner.logical.LogicalPlan;
 import com.amazon.opendistroforelasticsearch.sql.planner.optimizer.LogicalPlanOptimizer;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.Disabled;
@@ -51,6 +59,10 @@ class ElasticsearchLogicOptimizerTest {
 
   private final DSL dsl = new ExpressionConfig().dsl(new ExpressionConfig().functionRepository());
 
+  private final WindowDefinition windowDefinition = new WindowDefinition(
+      ImmutableList.of(DSL.ref("stringV", STRING)),
+      ImmutableList.of(Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("longV", LONG))));
+
   /**
    * SELECT intV as i FROM schema WHERE intV = 1.
    */
@@ -455,15 +467,17 @@ class ElasticsearchLogicOptimizerTest {
   /**
    * Project(intV, abs(intV)) -> Relation.
    * -- will be optimized as
-   * Project(intV, abs(intV)) -> Relation(project=intV).
+   * Project(intV, absi) -> Relation(project=[intV, absi], scriptFields=[absi=abs(intV)]).
    */
   @Test
   void push_down_should_handle_duplication() {
     assertEquals(
         project(
-            indexScan("schema", projects(DSL.ref("intV", INTEGER))),
+            indexScan("schema",
+                ImmutableMap.of(DSL.ref("absi", INTEGER), dsl.abs(DSL.ref("intV", INTEGER))),
+                projects(DSL.ref("intV", INTEGER), DSL.ref("absi", INTEGER))),
             DSL.named("i", DSL.ref("intV", INTEGER)),
-            DSL.named("absi", dsl.abs(DSL.ref("intV", INTEGER)))
+            DSL.named("absi", DSL.ref("absi", INTEGER))
         ),
         optimize(
             project(
@@ -521,6 +535,360 @@ class ElasticsearchLogicOptimizerTest {
     );
   }
 
+  /**
+   * SELECT ROW_NUMBER() OVER(PARTITION BY stringV ORDER BY longV) FROM schema.
+   */
+  @Test
+  void window_sort_merge_with_relation() {
+    assertEquals(
+        window(
+            indexScan("schema",
+                Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("stringV", STRING)),
+                Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("longV", LONG))),
+            dsl.rowNumber(),
+            windowDefinition),
+        optimize(
+            window(
+                sort(
+                    relation("schema"),
+                    Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("stringV", STRING)),
+                    Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("longV", LONG))),
+                dsl.rowNumber(),
+                windowDefinition)));
+  }
+
+  /**
+   * SELECT ROW_NUMBER() OVER(PARTITION BY stringV ORDER BY longV),
+   *        RANK() OVER(PARTITION BY stringV ORDER BY longV) FROM schema.
+   */
+  @Test
+  void sort_merge_with_window_on_sorted_index_scan() {
+    assertEquals(
+        window(
+            window(
+                indexScan("schema",
+                    Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("stringV", STRING)),
+                    Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("longV", LONG))),
+                dsl.rowNumber(),
+                windowDefinition),
+            dsl.rank(),
+            windowDefinition),
+        optimize(
+            window(
+                sort(
+                    window(
+                        sort(
+                            relation("schema"),
+                            Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("stringV", STRING)),
+                            Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("longV", LONG))),
+                        dsl.rowNumber(),
+                        windowDefinition),
+                    Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("stringV", STRING)),
+                    Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("longV", LONG))),
+                dsl.rank(),
+                windowDefinition)));
+  }
+
+  /**
+   * Sort by prefix of window input order is redundant even if window input is sorted in memory.
+   */
+  @Test
+  void sort_by_prefix_merge_with_window_on_sorted_input() {
+    assertEquals(
+        window(
+            window(
+                sort(
+                    relation("schema"),
+                    Pair.of(Sort.SortOption.DEFAULT_ASC, dsl.abs(DSL.ref("intV", INTEGER))),
+                    Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("longV", LONG))),
+                dsl.rowNumber(),
+                windowDefinition),
+            dsl.rank(),
+            windowDefinition),
+        optimize(
+            window(
+                sort(
+                    window(
+                        sort(
+                            relation("schema"),
+                            Pair.of(Sort.SortOption.DEFAULT_ASC, dsl.abs(DSL.ref("intV", INTEGER))),
+                            Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("longV", LONG))),
+                        dsl.rowNumber(),
+                        windowDefinition),
+                    Pair.of(Sort.SortOption.DEFAULT_ASC, dsl.abs(DSL.ref("intV", INTEGER)))),
+                dsl.rank(),
+                windowDefinition)));
+  }
+
+  @Test
+  void sort_in_different_order_cannot_merge_with_window() {
+    assertEquals(
+        window(
+            sort(
+                window(
+                    indexScan("schema",
+                        Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("stringV", STRING))),
+                    dsl.rowNumber(),
+                    windowDefinition),
+                Pair.of(Sort.SortOption.DEFAULT_DESC, DSL.ref("stringV", STRING))),
+            dsl.rank(),
+            windowDefinition),
+        optimize(
+            window(
+                sort(
+                    window(
+                        indexScan("schema",
+                            Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("stringV", STRING))),
+                        dsl.rowNumber(),
+                        windowDefinition),
+                    Pair.of(Sort.SortOption.DEFAULT_DESC, DSL.ref("stringV", STRING))),
+                dsl.rank(),
+                windowDefinition)));
+  }
+
+  @Test
+  void sort_cannot_merge_with_window_on_unsorted_input() {
+    assertEquals(
+        window(
+            sort(
+                window(
+                    relation("schema"),
+                    dsl.rowNumber(),
+                    windowDefinition),
+                Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("stringV", STRING))),
+            dsl.rank(),
+            windowDefinition),
+        optimize(
+            window(
+                sort(
+                    window(
+                        relation("schema"),
+                        dsl.rowNumber(),
+                        windowDefinition),
+                    Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("stringV", STRING))),
+                dsl.rank(),
+                windowDefinition)));
+
+    assertEquals(
+        window(
+            sort(
+                window(
+                    indexScan("schema",
+                        dsl.equal(DSL.ref("intV", INTEGER), DSL.literal(integerValue(1)))),
+                    dsl.rowNumber(),
+                    windowDefinition),
+                Pair.of(Sort.SortOption.DEFAULT_ASC, dsl.abs(DSL.ref("intV", INTEGER)))),
+            dsl.rank(),
+            windowDefinition),
+        optimize(
+            window(
+                sort(
+                    window(
+                        filter(
+                            relation("schema"),
+                            dsl.equal(DSL.ref("intV", INTEGER), DSL.literal(integerValue(1)))),
+                        dsl.rowNumber(),
+                        windowDefinition),
+                    Pair.of(Sort.SortOption.DEFAULT_ASC, dsl.abs(DSL.ref("intV", INTEGER)))),
+                dsl.rank(),
+                windowDefinition)));
+  }
+
+  /**
+   * Eval(a=abs(intV)) -> Relation.
+   * -- will be optimized as
+   * Relation(scriptFields=[a=abs(intV)]).
+   */
+  @Test
+  void eval_push_down_to_relation() {
+    assertEquals(
+        indexScan("schema",
+            ImmutableMap.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER))),
+            noProjects()),
+        optimize(
+            eval(
+                relation("schema"),
+                Pair.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER))))
+        )
+    );
+  }
+
+  @Test
+  void eval_push_down_to_index_scan() {
+    assertEquals(
+        ElasticsearchLogicalIndexScan.builder()
+            .relationName("schema")
+            .filter(dsl.equal(DSL.ref("intV", INTEGER), DSL.literal(integerValue(1))))
+            .scriptFields(
+                ImmutableMap.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER))))
+            .build(),
+        optimize(
+            eval(
+                filter(
+                    relation("schema"),
+                    dsl.equal(DSL.ref("intV", INTEGER), DSL.literal(integerValue(1)))),
+                Pair.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER))))
+        )
+    );
+  }
+
+  /**
+   * Only assignment independent of others is pushed down and the rest remains in Eval.
+   */
+  @Test
+  void eval_partially_push_down_to_relation() {
+    assertEquals(
+        eval(
+            indexScan("schema",
+                ImmutableMap.of(
+                    DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER)),
+                    DSL.ref("f", LONG), dsl.abs(DSL.ref("longV", LONG))),
+                noProjects()),
+            Pair.of(DSL.ref("b", INTEGER), dsl.add(DSL.ref("a", INTEGER), DSL.literal(1))),
+            Pair.of(DSL.ref("c", STRING), DSL.ref("stringV", STRING)),
+            Pair.of(DSL.ref("stringV", STRING), dsl.lower(DSL.ref("stringV", STRING))),
+            Pair.of(DSL.ref("a", LONG), dsl.abs(DSL.ref("longV", LONG))),
+            Pair.of(DSL.ref("d.e", LONG), dsl.abs(DSL.ref("longV", LONG)))),
+        optimize(
+            eval(
+                relation("schema"),
+                Pair.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER))),
+                Pair.of(DSL.ref("b", INTEGER), dsl.add(DSL.ref("a", INTEGER), DSL.literal(1))),
+                Pair.of(DSL.ref("c", STRING), DSL.ref("stringV", STRING)),
+                Pair.of(DSL.ref("stringV", STRING), dsl.lower(DSL.ref("stringV", STRING))),
+                Pair.of(DSL.ref("a", LONG), dsl.abs(DSL.ref("longV", LONG))),
+                Pair.of(DSL.ref("d.e", LONG), dsl.abs(DSL.ref("longV", LONG))),
+                Pair.of(DSL.ref("f", LONG), dsl.abs(DSL.ref("longV", LONG))))
+        )
+    );
+  }
+
+  @Test
+  void eval_without_script_field_expression_no_push() {
+    LogicalPlan plan =
+        eval(
+            relation("schema"),
+            Pair.of(DSL.ref("a", INTEGER), DSL.literal(1)),
+            Pair.of(DSL.ref("b", INTEGER), dsl.abs(DSL.literal(-1))),
+            Pair.of(DSL.ref("c", FLOAT), dsl.rand(DSL.ref("intV", INTEGER))),
+            Pair.of(DSL.ref("d", STRING), dsl.lower(DSL.ref("textV", ES_TEXT))),
+            Pair.of(DSL.ref("e", INTEGER), dsl.abs(DSL.ref("obj.intV", INTEGER))),
+            Pair.of(DSL.ref("f", DATE), dsl.date(DSL.ref("timestampV", TIMESTAMP))),
+            Pair.of(DSL.ref("g", DOUBLE), dsl.abs(dsl.avg(DSL.ref("intV", INTEGER)))),
+            Pair.of(DSL.ref("h", DOUBLE),
+                dsl.abs(DSL.named("avg", dsl.avg(DSL.ref("intV", INTEGER))))));
+    assertEquals(plan, optimize(plan));
+  }
+
+  /**
+   * Eval(b=abs(longV)) -> Eval(a=abs(intV)) -> Relation.
+   * -- will be optimized as
+   * Eval(b=abs(longV)) -> Relation(scriptFields=[a=abs(intV)]).
+   */
+  @Test
+  void eval_cannot_push_down_to_index_scan_with_script_fields() {
+    assertEquals(
+        eval(
+            indexScan("schema",
+                ImmutableMap.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER))),
+                noProjects()),
+            Pair.of(DSL.ref("b", LONG), dsl.abs(DSL.ref("longV", LONG)))),
+        optimize(
+            eval(
+                eval(
+                    relation("schema"),
+                    Pair.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER)))),
+                Pair.of(DSL.ref("b", LONG), dsl.abs(DSL.ref("longV", LONG))))
+        )
+    );
+  }
+
+  /**
+   * Project(abs(intV) AS a, intV=abs(intV), b=abs(intV), s.x=abs(longV)) -> Relation.
+   * -- will be optimized as
+   * Project(a, intV=a, b=a, s.x=abs(longV)) -> Relation(scriptFields=[a=abs(intV)]).
+   */
+  @Test
+  void project_expression_push_down_to_relation() {
+    assertEquals(
+        project(
+            indexScan("schema",
+                ImmutableMap.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER))),
+                projects(DSL.ref("a", INTEGER), DSL.ref("longV", LONG))),
+            DSL.named("abs(intV)", DSL.ref("a", INTEGER), "a"),
+            DSL.named("intV", DSL.ref("a", INTEGER)),
+            DSL.named("b", DSL.ref("a", INTEGER)),
+            DSL.named("s.x", dsl.abs(DSL.ref("longV", LONG)))
+        ),
+        optimize(
+            project(
+                relation("schema"),
+                DSL.named("abs(intV)", dsl.abs(DSL.ref("intV", INTEGER)), "a"),
+                DSL.named("intV", dsl.abs(DSL.ref("intV", INTEGER))),
+                DSL.named("b", dsl.abs(DSL.ref("intV", INTEGER))),
+                DSL.named("s.x", dsl.abs(DSL.ref("longV", LONG))))
+        )
+    );
+  }
+
+  @Test
+  void sort_cannot_merge_with_index_scan_with_script_fields() {
+    assertEquals(
+        sort(
+            indexScan("schema",
+                ImmutableMap.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER))),
+                noProjects()),
+            Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("a", INTEGER))),
+        optimize(
+            sort(
+                eval(
+                    relation("schema"),
+                    Pair.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER)))),
+                Pair.of(Sort.SortOption.DEFAULT_ASC, DSL.ref("a", INTEGER)))
+        )
+    );
+  }
+
+  @Test
+  void aggregation_cannot_merge_with_index_scan_with_script_fields() {
+    assertEquals(
+        aggregation(
+            indexScan("schema",
+                ImmutableMap.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER))),
+                noProjects()),
+            ImmutableList.of(DSL.named("AVG(a)", dsl.avg(DSL.ref("a", INTEGER)))),
+            ImmutableList.of()),
+        optimize(
+            aggregation(
+                eval(
+                    relation("schema"),
+                    Pair.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER)))),
+                ImmutableList.of(DSL.named("AVG(a)", dsl.avg(DSL.ref("a", INTEGER)))),
+                ImmutableList.of())
+        )
+    );
+  }
+
+  @Test
+  void limit_merge_with_index_scan_with_script_fields() {
+    assertEquals(
+        ElasticsearchLogicalIndexScan.builder()
+            .relationName("schema")
+            .scriptFields(
+                ImmutableMap.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER))))
+            .offset(0)
+            .limit(10)
+            .build(),
+        optimize(
+            limit(
+                eval(
+                    relation("schema"),
+                    Pair.of(DSL.ref("a", INTEGER), dsl.abs(DSL.ref("intV", INTEGER)))),
+                10, 0)
+        )
+    );
+  }
+
   private LogicalPlan optimize(LogicalPlan plan) {
     final LogicalPlanOptimizer optimizer = ElasticsearchLogicalPlanOptimizerFactory.create();
     final LogicalPlan optimize = optimizer.optimize(plan);
@@ -19,6 +19,7 @@ package com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.junit.jupiter.api.Test;
 
@@ -32,4 +33,13 @@ class ElasticsearchLogicalIndexScanTest {
 
     assertFalse(ElasticsearchLogicalIndexScan.builder().build().hasProjects());
   }
-}
\ No newline at end of file
+
+  @Test
+  void has_script_fields() {
+    assertFalse(ElasticsearchLogicalIndexScan.builder()
+        .scriptFields(ImmutableMap.of()).build()
+        .hasScriptFields());
+
+    assertFalse(ElasticsearchLogicalIndexScan.builder().build().hasScriptFields());
+  }
+}
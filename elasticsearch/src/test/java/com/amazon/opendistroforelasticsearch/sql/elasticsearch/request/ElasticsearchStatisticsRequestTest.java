@@ -0,0 +1,112 @@
+/*
+ *
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.IndexStatistics;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Function;
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.metrics.Cardinality;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ElasticsearchStatisticsRequestTest {
+
+  @Mock
+  private Function<SearchRequest, SearchResponse> searchAction;
+
+  @Mock
+  private SearchResponse searchResponse;
+
+  @Mock
+  private Cardinality nameCardinality;
+
+  @Mock
+  private Cardinality ageCardinality;
+
+  @Test
+  void searchRequest() {
+    ElasticsearchStatisticsRequest request =
+        new ElasticsearchStatisticsRequest("test", ImmutableSet.of("name"));
+
+    assertEquals(
+        new SearchRequest()
+            .indices("test")
+            .source(new SearchSourceBuilder()
+                .size(0)
+                .trackTotalHits(true)
+                .timeout(ElasticsearchQueryRequest.DEFAULT_QUERY_TIMEOUT)
+                .aggregation(AggregationBuilders.cardinality("name").field("name"))),
+        request.searchRequest());
+  }
+
+  @Test
+  void searchWithFieldCardinality() {
+    when(searchAction.apply(any())).thenReturn(searchResponse);
+    when(searchResponse.getHits()).thenReturn(hits(1000L));
+    when(searchResponse.getTotalShards()).thenReturn(5);
+    when(nameCardinality.getName()).thenReturn("name");
+    when(nameCardinality.getValue()).thenReturn(20L);
+    when(ageCardinality.getName()).thenReturn("age");
+    when(ageCardinality.getValue()).thenReturn(60L);
+    when(searchResponse.getAggregations())
+        .thenReturn(new Aggregations(Arrays.asList(nameCardinality, ageCardinality)));
+
+    ElasticsearchStatisticsRequest request =
+        new ElasticsearchStatisticsRequest("test", ImmutableSet.of("name", "age"));
+    assertEquals(
+        new IndexStatistics(1000L, 5, ImmutableMap.of("name", 20L, "age", 60L)),
+        request.search(searchAction));
+  }
+
+  @Test
+  void searchWithoutField() {
+    when(searchAction.apply(any())).thenReturn(searchResponse);
+    when(searchResponse.getHits()).thenReturn(hits(10L));
+    when(searchResponse.getTotalShards()).thenReturn(1);
+    when(searchResponse.getAggregations()).thenReturn(null);
+
+    ElasticsearchStatisticsRequest request =
+        new ElasticsearchStatisticsRequest("test", Collections.emptySet());
+    assertEquals(
+        new IndexStatistics(10L, 1, Collections.emptyMap()),
+        request.search(searchAction));
+  }
+
+  private SearchHits hits(long total) {
+    return new SearchHits(
+        new SearchHit[0], new TotalHits(total, TotalHits.Relation.EQUAL_TO), 0.0F);
+  }
+}
@@ -23,16 +23,22 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprIntegerValue;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprStringValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprTupleValue;
 import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.value.ElasticsearchExprValueFactory;
 import com.google.common.collect.ImmutableMap;
 import java.util.Arrays;
+import java.util.Iterator;
 import org.apache.lucene.search.TotalHits;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.aggregations.Aggregations;
@@ -101,9 +107,11 @@ class ElasticsearchResponseTest {
                 new TotalHits(2L, TotalHits.Relation.EQUAL_TO),
                 1.0F));
 
-    when(searchHit1.getSourceAsString()).thenReturn("{\"id1\", 1}");
-    when(searchHit2.getSourceAsString()).thenReturn("{\"id1\", 2}");
-    when(factory.construct(any())).thenReturn(exprTupleValue1).thenReturn(exprTupleValue2);
+    when(searchHit1.getSourceRef()).thenReturn(new BytesArray("{\"id1\", 1}"));
+    when(searchHit2.getSourceRef()).thenReturn(new BytesArray("{\"id1\", 2}"));
+    when(factory.construct(any(BytesReference.class)))
+        .thenReturn(exprTupleValue1)
+        .thenReturn(exprTupleValue2);
 
     int i = 0;
     for (ExprValue hit : new ElasticsearchResponse(esResponse, factory)) {
@@ -118,6 +126,57 @@ class ElasticsearchResponseTest {
     }
   }
 
+  @Test
+  void iterator_with_doc_value_fields() {
+    SearchHit searchHit3 = mock(SearchHit.class);
+    when(esResponse.getHits())
+        .thenReturn(
+            new SearchHits(
+                new SearchHit[] {searchHit1, searchHit2, searchHit3},
+                new TotalHits(3L, TotalHits.Relation.EQUAL_TO),
+                1.0F));
+
+    when(searchHit1.getSourceRef()).thenReturn(new BytesArray("{\"id1\": 1}"));
+    when(searchHit1.getFields()).thenReturn(ImmutableMap.of(
+        "id2", new DocumentField("id2", Arrays.asList(2, 3)),
+        "_routing", new DocumentField("_routing", Arrays.asList("shard"))));
+    when(searchHit2.getFields()).thenReturn(ImmutableMap.of(
+        "id1", new DocumentField("id1", emptyList()),
+        "id2", new DocumentField("id2", Arrays.asList(2))));
+    when(factory.construct(any(BytesReference.class))).thenReturn(exprTupleValue1);
+    when(factory.construct("id2", 2)).thenReturn(new ExprIntegerValue(2));
+
+    Iterator<ExprValue> hits = new ElasticsearchResponse(esResponse, factory).iterator();
+    assertEquals(
+        ExprTupleValue.fromExprValueMap(ImmutableMap.of(
+            "id1", new ExprIntegerValue(1), "id2", new ExprIntegerValue(2))),
+        hits.next());
+    assertEquals(exprTupleValue2, hits.next());
+    assertEquals(ExprTupleValue.fromExprValueMap(ImmutableMap.of()), hits.next());
+    assertFalse(hits.hasNext());
+  }
+
+  @Test
+  void iterator_with_doc_value_field_name_starts_with_underscore() {
+    when(esResponse.getHits())
+        .thenReturn(
+            new SearchHits(
+                new SearchHit[] {searchHit1},
+                new TotalHits(1L, TotalHits.Relation.EQUAL_TO),
+                1.0F));
+
+    when(searchHit1.getFields()).thenReturn(ImmutableMap.of(
+        "_id", new DocumentField("_id", Arrays.asList("doc1")),
+        "_tag", new DocumentField("_tag", Arrays.asList("new"))));
+    when(factory.construct("_tag", "new")).thenReturn(new ExprStringValue("new"));
+
+    Iterator<ExprValue> hits = new ElasticsearchResponse(esResponse, factory).iterator();
+    assertEquals(
+        ExprTupleValue.fromExprValueMap(ImmutableMap.of("_tag", new ExprStringValue("new"))),
+        hits.next());
+    assertFalse(hits.hasNext());
+  }
+
   @Test
   void response_is_aggregation_when_aggregation_not_empty() {
     when(esResponse.getAggregations()).thenReturn(aggregations);
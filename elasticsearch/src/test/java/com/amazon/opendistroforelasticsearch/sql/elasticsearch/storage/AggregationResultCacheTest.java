@@ -0,0 +1,133 @@
+/*
+ *
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage;
+
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.integerValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.stringValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.amazon.opendistroforelasticsearch.sql.common.setting.Settings;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AggregationResultCacheTest {
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  private final Ticker ticker = new Ticker() {
+    @Override
+    public long read() {
+      return nanos.get();
+    }
+  };
+
+  private final AggregationResultCache cache = new AggregationResultCache(ticker);
+
+  private final Settings settings = mock(Settings.class);
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    expireAfter(TimeValue.timeValueMinutes(1));
+    maxSize(new ByteSizeValue(10, ByteSizeUnit.MB));
+  }
+
+  @Test
+  void getResultFromCacheIfPresent() {
+    assertEquals(ImmutableList.of(integerValue(1)), cache.get("key", settings, this::load));
+    assertEquals(ImmutableList.of(integerValue(1)), cache.get("key", settings, this::load));
+    assertEquals(1, loads.get());
+    assertEquals(1L, cache.stats().hitCount());
+    assertEquals(1L, cache.stats().missCount());
+  }
+
+  @Test
+  void loadResultAgainAfterExpired() {
+    cache.get("key", settings, this::load);
+    nanos.addAndGet(TimeValue.timeValueMinutes(1).nanos());
+    assertEquals(ImmutableList.of(integerValue(2)), cache.get("key", settings, this::load));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void evictResultLargerThanCacheSize() {
+    List<ExprValue> largeResult = ImmutableList.of(stringValue(
+        Strings.repeat("a", (int) new ByteSizeValue(10, ByteSizeUnit.MB).getBytes())));
+    assertEquals(largeResult, cache.get("key", settings, () -> largeResult));
+
+    assertEquals(1L, cache.stats().evictionCount());
+    assertEquals(ImmutableList.of(integerValue(1)), cache.get("key", settings, this::load));
+  }
+
+  @Test
+  void loadResultAgainAfterExpirySettingChanged() {
+    cache.get("key", settings, this::load);
+    expireAfter(TimeValue.timeValueSeconds(10));
+    assertEquals(ImmutableList.of(integerValue(2)), cache.get("key", settings, this::load));
+
+    nanos.addAndGet(TimeValue.timeValueSeconds(10).nanos());
+    assertEquals(ImmutableList.of(integerValue(3)), cache.get("key", settings, this::load));
+    assertEquals(3L, cache.stats().missCount());
+  }
+
+  @Test
+  void loadResultAgainAfterSizeSettingChanged() {
+    cache.get("key", settings, this::load);
+    maxSize(new ByteSizeValue(1, ByteSizeUnit.KB));
+    assertEquals(ImmutableList.of(integerValue(2)), cache.get("key", settings, this::load));
+    assertEquals(ImmutableList.of(integerValue(2)), cache.get("key", settings, this::load));
+    assertEquals(1L, cache.stats().hitCount());
+    assertEquals(2L, cache.stats().missCount());
+  }
+
+  @Test
+  void getEmptyStatsBeforeAnyResultCached() {
+    assertEquals(0L, cache.stats().requestCount());
+  }
+
+  @Test
+  void getSharedInstance() {
+    assertNotNull(AggregationResultCache.getInstance());
+  }
+
+  private void expireAfter(TimeValue expireAfter) {
+    when(settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_EXPIRE_AFTER))
+        .thenReturn(expireAfter);
+  }
+
+  private void maxSize(ByteSizeValue maxSize) {
+    when(settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_SIZE)).thenReturn(maxSize);
+  }
+
+  private List<ExprValue> load() {
+    return ImmutableList.of(integerValue(loads.incrementAndGet()));
+  }
+}
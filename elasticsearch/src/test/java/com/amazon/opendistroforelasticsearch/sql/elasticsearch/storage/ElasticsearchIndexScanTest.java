@@ -16,7 +16,11 @@
 
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage;
 
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.DOUBLE;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.STRING;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.TIMESTAMP;
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.type.ElasticsearchDataType.ES_TEXT;
 import static org.elasticsearch.search.sort.FieldSortBuilder.DOC_FIELD_NAME;
 import static org.elasticsearch.search.sort.SortOrder.ASC;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -25,6 +29,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,14 +43,24 @@ import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.Elasticse
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchRequest;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.response.ElasticsearchResponse;
 import com.amazon.opendistroforelasticsearch.sql.expression.ReferenceExpression;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FieldAndFormat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -123,6 +139,151 @@ class ElasticsearchIndexScanTest {
                 .filter(QueryBuilders.rangeQuery("balance").gte(10000)));
   }
 
+  @Test
+  void pushDownProjectsOfDocValueAndSourceFields() {
+    try (ElasticsearchIndexScan indexScan =
+             new ElasticsearchIndexScan(client, settings, "test", exprValueFactory)) {
+      indexScan.setDocValueFields(ImmutableSet.of("name", "age", "birthday"));
+      indexScan.pushDownProjects(ImmutableSet.of(
+          new ReferenceExpression("name", STRING),
+          new ReferenceExpression("age", INTEGER),
+          new ReferenceExpression("birthday", TIMESTAMP),
+          new ReferenceExpression("email", STRING),
+          new ReferenceExpression("address", ES_TEXT),
+          new ReferenceExpression("manager.name", STRING)));
+
+      SearchSourceBuilder sourceBuilder = indexScan.getRequest().getSourceBuilder();
+      Map<String, String> docValueFields = new HashMap<>();
+      for (FieldAndFormat field : sourceBuilder.docValueFields()) {
+        docValueFields.put(field.field, String.valueOf(field.format));
+      }
+      assertEquals(
+          ImmutableMap.of("name", "null", "age", "null", "birthday", "strict_date_optional_time"),
+          docValueFields);
+      assertTrue(sourceBuilder.fetchSource().fetchSource());
+      assertEquals(
+          ImmutableSet.of("email", "address", "manager.name"),
+          ImmutableSet.copyOf(sourceBuilder.fetchSource().includes()));
+    }
+  }
+
+  @Test
+  void pushDownProjectsOfDocValueFieldsOnly() {
+    try (ElasticsearchIndexScan indexScan =
+             new ElasticsearchIndexScan(client, settings, "test", exprValueFactory)) {
+      indexScan.setDocValueFields(ImmutableSet.of("name", "balance"));
+      indexScan.pushDownProjects(ImmutableSet.of(
+          new ReferenceExpression("name", STRING),
+          new ReferenceExpression("balance", DOUBLE)));
+
+      SearchSourceBuilder sourceBuilder = indexScan.getRequest().getSourceBuilder();
+      assertEquals(2, sourceBuilder.docValueFields().size());
+      assertFalse(sourceBuilder.fetchSource().fetchSource());
+    }
+  }
+
+  @Test
+  void queryAggregationResultFromCache() {
+    when(settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_ENABLED)).thenReturn(true);
+    when(client.userIdentity()).thenReturn(Optional.of(""));
+    when(client.indexState("employees")).thenReturn(Optional.of("employees[uuid]:1:1"));
+    mockResponse(new ExprValue[]{employee(1, "John", "IT")});
+
+    AggregationResultCache cache = aggregationResultCache();
+    for (int i = 0; i < 2; i++) {
+      try (ElasticsearchIndexScan indexScan = aggregationScan(cache)) {
+        indexScan.open();
+        assertTrue(indexScan.hasNext());
+        assertEquals(employee(1, "John", "IT"), indexScan.next());
+        assertFalse(indexScan.hasNext());
+      }
+    }
+    verify(client, times(2)).search(any());
+    assertEquals(1L, cache.stats().hitCount());
+  }
+
+  @Test
+  void queryAggregationResultWithoutCacheIfDisabled() {
+    when(settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_ENABLED))
+        .thenReturn(false);
+    mockResponse();
+
+    AggregationResultCache cache = mock(AggregationResultCache.class);
+    try (ElasticsearchIndexScan indexScan = aggregationScan(cache)) {
+      indexScan.open();
+      assertFalse(indexScan.hasNext());
+    }
+    verify(client, never()).indexState(any());
+    verify(cache, never()).get(any(), any(), any());
+  }
+
+  @Test
+  void queryAggregationResultWithoutCacheIfIndexStateUnavailable() {
+    when(settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_ENABLED)).thenReturn(true);
+    when(client.userIdentity()).thenReturn(Optional.of(""));
+    when(client.indexState("employees")).thenReturn(Optional.empty());
+    mockResponse();
+
+    AggregationResultCache cache = mock(AggregationResultCache.class);
+    try (ElasticsearchIndexScan indexScan = aggregationScan(cache)) {
+      indexScan.open();
+      assertFalse(indexScan.hasNext());
+    }
+    verify(cache, never()).get(any(), any(), any());
+  }
+
+  @Test
+  void queryAggregationResultCachedSeparatelyForEachUser() {
+    when(settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_ENABLED)).thenReturn(true);
+    when(client.userIdentity()).thenReturn(
+        Optional.of("alice|[]|[dept_it]"), Optional.of("bob|[]|[dept_hr]"));
+    when(client.indexState("employees")).thenReturn(Optional.of("employees[uuid]:1:1"));
+    ElasticsearchResponse emptyResponse = mock(ElasticsearchResponse.class);
+    when(emptyResponse.isEmpty()).thenReturn(true);
+    when(client.search(any())).thenReturn(emptyResponse);
+
+    AggregationResultCache cache = aggregationResultCache();
+    for (int i = 0; i < 2; i++) {
+      try (ElasticsearchIndexScan indexScan = aggregationScan(cache)) {
+        indexScan.open();
+      }
+    }
+    verify(client, times(2)).search(any());
+    assertEquals(0L, cache.stats().hitCount());
+    assertEquals(2L, cache.stats().missCount());
+  }
+
+  @Test
+  void queryAggregationResultWithoutCacheIfUserIdentityUnknown() {
+    when(settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_ENABLED)).thenReturn(true);
+    when(client.userIdentity()).thenReturn(Optional.empty());
+    mockResponse();
+
+    AggregationResultCache cache = mock(AggregationResultCache.class);
+    try (ElasticsearchIndexScan indexScan = aggregationScan(cache)) {
+      indexScan.open();
+      assertFalse(indexScan.hasNext());
+    }
+    verify(client, never()).indexState(any());
+    verify(cache, never()).get(any(), any(), any());
+  }
+
+  private AggregationResultCache aggregationResultCache() {
+    when(settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_EXPIRE_AFTER))
+        .thenReturn(TimeValue.timeValueMinutes(1));
+    when(settings.getSettingValue(Settings.Key.QUERY_AGGREGATION_CACHE_SIZE))
+        .thenReturn(new ByteSizeValue(10, ByteSizeUnit.MB));
+    return new AggregationResultCache(Ticker.systemTicker());
+  }
+
+  private ElasticsearchIndexScan aggregationScan(AggregationResultCache cache) {
+    ElasticsearchIndexScan indexScan = new ElasticsearchIndexScan(
+        client, settings, "employees", exprValueFactory, cache);
+    indexScan.pushDownAggregation(
+        Arrays.asList(AggregationBuilders.terms("department").field("department")));
+    return indexScan;
+  }
+
   private PushDownAssertion assertThat() {
     return new PushDownAssertion(client, exprValueFactory, settings);
   }
@@ -19,6 +19,7 @@ package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.DOUBLE;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.STRING;
+import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.type.ElasticsearchDataType.ES_TEXT;
 import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils.indexScan;
 import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils.indexScanAgg;
 import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.utils.Utils.noProjects;
@@ -42,7 +43,10 @@ import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.emptyArray;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort;
@@ -54,6 +58,10 @@ import com.amazon.opendistroforelasticsearch.sql.elasticsearch.client.Elasticsea
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.type.ElasticsearchDataType;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.value.ElasticsearchExprValueFactory;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.mapping.IndexMapping;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.IndexStatistics;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.cost.IndexStatisticsProvider;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.planner.logical.ElasticsearchLogicalIndexScan;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchRequest;
 import com.amazon.opendistroforelasticsearch.sql.expression.DSL;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
 import com.amazon.opendistroforelasticsearch.sql.expression.NamedExpression;
@@ -71,12 +79,15 @@ import com.amazon.opendistroforelasticsearch.sql.planner.physical.PhysicalPlanDS
 import com.amazon.opendistroforelasticsearch.sql.planner.physical.ProjectOperator;
 import com.amazon.opendistroforelasticsearch.sql.storage.Table;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
-import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -349,6 +360,102 @@ class ElasticsearchIndexTest {
     assertTrue(((ProjectOperator) plan).getInput() instanceof ElasticsearchIndexScan);
   }
 
+  @Test
+  void shouldFanOutRelationOnMultipleIndices() {
+    when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
+    when(settings.getSettingValue(Settings.Key.QUERY_MULTI_INDEX_FAN_OUT_ENABLED))
+        .thenReturn(true);
+    mockMultipleIndices("logs-*");
+
+    ElasticsearchIndex index = new ElasticsearchIndex(client, settings, "logs-*");
+    PhysicalPlan plan =
+        index.implement(project(relation("logs-*"), named("n", ref("name", STRING))));
+
+    assertTrue(((ProjectOperator) plan).getInput() instanceof ElasticsearchMultiIndexScan);
+  }
+
+  @Test
+  void shouldFanOutIndexScanOnMultipleIndices() {
+    when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
+    when(settings.getSettingValue(Settings.Key.QUERY_MULTI_INDEX_FAN_OUT_ENABLED))
+        .thenReturn(true);
+    mockMultipleIndices("logs-*");
+
+    ElasticsearchIndex index = new ElasticsearchIndex(client, settings, "logs-*");
+    assertTrue(index.implement(
+        indexScan("logs-*", dsl.equal(ref("name", STRING), literal("John"))))
+        instanceof ElasticsearchMultiIndexScan);
+    assertTrue(index.implement(
+        indexScan("logs-*", Pair.of(Sort.SortOption.DEFAULT_ASC, ref("name", STRING))))
+        instanceof ElasticsearchMultiIndexScan);
+  }
+
+  @Test
+  void shouldFetchSortKeyNotProjectedIfFanOut() {
+    when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
+    when(settings.getSettingValue(Settings.Key.QUERY_MULTI_INDEX_FAN_OUT_ENABLED))
+        .thenReturn(true);
+    mockMultipleIndices("logs-*");
+
+    ElasticsearchIndex index = new ElasticsearchIndex(client, settings, "logs-*");
+    PhysicalPlan plan = index.implement(
+        project(
+            ElasticsearchLogicalIndexScan.builder()
+                .relationName("logs-*")
+                .sortList(Arrays.asList(Pair.of(Sort.SortOption.DEFAULT_ASC, ref("age", INTEGER))))
+                .projectList(projects(ref("name", STRING)))
+                .build(),
+            named("name", ref("name", STRING))));
+
+    // Sort key is fetched either from doc values or from _source for merge
+    String request = ((ElasticsearchMultiIndexScan) ((ProjectOperator) plan).getInput()).explain();
+    assertTrue(Pattern.compile(
+        "\"(docvalue_fields|includes)\":\\[[^\\]]*\"age\"").matcher(request).find(),
+        request);
+  }
+
+  @Test
+  void shouldNotFanOutIfDisabled() {
+    when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
+    when(settings.getSettingValue(Settings.Key.QUERY_MULTI_INDEX_FAN_OUT_ENABLED))
+        .thenReturn(false);
+    mockMultipleIndices("logs-*");
+
+    ElasticsearchIndex index = new ElasticsearchIndex(client, settings, "logs-*");
+    assertTrue(index.implement(relation("logs-*")) instanceof ElasticsearchIndexScan);
+  }
+
+  @Test
+  void shouldReadDocValuesOnlyIfAvailableInAllIndices() {
+    when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
+    when(settings.getSettingValue(Settings.Key.QUERY_MULTI_INDEX_FAN_OUT_ENABLED))
+        .thenReturn(false);
+    when(client.getIndexMappings("logs-*"))
+        .thenReturn(ImmutableMap.of(
+            "logs-1", new IndexMapping(ImmutableMap.of("age", "integer", "name", "keyword")),
+            "logs-2", new IndexMapping(ImmutableMap.of("age", "integer", "name", "text"))));
+
+    ElasticsearchIndex index = new ElasticsearchIndex(client, settings, "logs-*");
+    PhysicalPlan plan = index.implement(
+        project(
+            indexScan("logs-*", projects(ref("age", INTEGER), ref("name", STRING))),
+            named("age", ref("age", INTEGER)),
+            named("name", ref("name", STRING))));
+
+    SearchSourceBuilder sourceBuilder =
+        ((ElasticsearchIndexScan) ((ProjectOperator) plan).getInput()).getRequest()
+            .getSourceBuilder();
+    assertEquals(1, sourceBuilder.docValueFields().size());
+    assertEquals("age", sourceBuilder.docValueFields().get(0).field);
+    assertThat(sourceBuilder.fetchSource().includes(), arrayContaining("name"));
+  }
+
+  private void mockMultipleIndices(String indexName) {
+    IndexMapping mapping = new IndexMapping(ImmutableMap.of("name", "keyword"));
+    when(client.getIndexMappings(indexName))
+        .thenReturn(ImmutableMap.of("logs-1", mapping, "logs-2", mapping));
+  }
+
   @Test
   void shouldImplIndexScanWithLimit() {
     when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
@@ -421,23 +528,128 @@ class ElasticsearchIndexTest {
   @Test
   void shouldPushDownProjects() {
     when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
+    when(client.getIndexMappings("test"))
+        .thenReturn(ImmutableMap.of("test", new IndexMapping(ImmutableMap.of(
+            "intV", "integer", "textV", "text"))));
 
     String indexName = "test";
     ElasticsearchIndex index = new ElasticsearchIndex(client, settings, indexName);
     PhysicalPlan plan = index.implement(
         project(
             indexScan(
-                indexName, projects(ref("intV", INTEGER))
+                indexName, projects(ref("intV", INTEGER), ref("textV", ES_TEXT))
             ),
-            named("i", ref("intV", INTEGER))));
+            named("i", ref("intV", INTEGER)),
+            named("t", ref("textV", ES_TEXT))));
 
     assertTrue(plan instanceof ProjectOperator);
     assertTrue(((ProjectOperator) plan).getInput() instanceof ElasticsearchIndexScan);
 
-    final FetchSourceContext fetchSource =
+    final SearchSourceBuilder sourceBuilder =
         ((ElasticsearchIndexScan) ((ProjectOperator) plan).getInput()).getRequest()
-            .getSourceBuilder().fetchSource();
-    assertThat(fetchSource.includes(), arrayContaining("intV"));
-    assertThat(fetchSource.excludes(), emptyArray());
+            .getSourceBuilder();
+    assertThat(sourceBuilder.fetchSource().includes(), arrayContaining("textV"));
+    assertThat(sourceBuilder.fetchSource().excludes(), emptyArray());
+    assertEquals(1, sourceBuilder.docValueFields().size());
+    assertEquals("intV", sourceBuilder.docValueFields().get(0).field);
+  }
+
+  @Test
+  void shouldPushDownScriptFields() {
+    when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
+
+    String indexName = "test";
+    ElasticsearchIndex index = new ElasticsearchIndex(client, settings, indexName);
+    PhysicalPlan plan = index.implement(
+        project(
+            indexScan(
+                indexName,
+                ImmutableMap.of(ref("a", INTEGER), dsl.abs(ref("intV", INTEGER))),
+                projects(ref("a", INTEGER), ref("textV", ES_TEXT))
+            ),
+            named("a", ref("a", INTEGER)),
+            named("t", ref("textV", ES_TEXT))));
+
+    assertTrue(plan instanceof ProjectOperator);
+    assertTrue(((ProjectOperator) plan).getInput() instanceof ElasticsearchIndexScan);
+
+    final ElasticsearchRequest request =
+        ((ElasticsearchIndexScan) ((ProjectOperator) plan).getInput()).getRequest();
+    final SearchSourceBuilder sourceBuilder = request.getSourceBuilder();
+    assertEquals(1, sourceBuilder.scriptFields().size());
+    assertEquals("a", sourceBuilder.scriptFields().get(0).fieldName());
+    assertThat(sourceBuilder.fetchSource().includes(), arrayContaining("textV"));
+    assertNull(sourceBuilder.docValueFields());
+    assertEquals(INTEGER, request.getExprValueFactory().getTypeMapping().get("a"));
+  }
+
+  @Test
+  void filterInMemoryIfCheaperByEstimatedCost() {
+    when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
+    when(settings.getSettingValue(Settings.Key.QUERY_COST_BASED_OPTIMIZATION_ENABLED))
+        .thenReturn(true);
+    when(client.getIndexMappings("test"))
+        .thenReturn(ImmutableMap.of("test", new IndexMapping(ImmutableMap.of(
+            "name", "keyword", "address", "text", "age", "integer"))));
+    IndexStatisticsProvider statisticsProvider = mock(IndexStatisticsProvider.class);
+    when(statisticsProvider.getStatistics("test", ImmutableSet.of("name")))
+        .thenReturn(Optional.of(new IndexStatistics(10L, 1, ImmutableMap.of("name", 5L))));
+
+    // Script filter setup cost outweighs fetching all 10 documents
+    Expression condition = dsl.and(
+        dsl.and(
+            dsl.equal(dsl.abs(ref("age", INTEGER)), literal(1)),
+            dsl.equal(ref("name", STRING), literal("a"))),
+        dsl.equal(ref("address", STRING), literal("x")));
+    ElasticsearchIndex index =
+        new ElasticsearchIndex(client, settings, "test", statisticsProvider);
+    LogicalPlan optimized = index.optimize(filter(relation("test"), condition));
+    assertEquals(filter(relation("test"), condition), optimized);
+    assertEquals(relation("test"), optimized.getChild().get(0));
+
+    PhysicalPlan plan = index.implement(optimized);
+    assertTrue(plan instanceof FilterOperator);
+    assertEquals(260.0,
+        ((ElasticsearchIndexScan) ((FilterOperator) plan).getInput()).getEstimatedCost().getCost(),
+        0.01);
+  }
+
+  @Test
+  void pushDownByRulesOnlyIfStatisticsUnavailable() {
+    when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
+    when(settings.getSettingValue(Settings.Key.QUERY_COST_BASED_OPTIMIZATION_ENABLED))
+        .thenReturn(true);
+    when(client.getIndexMappings("test"))
+        .thenReturn(ImmutableMap.of("test", new IndexMapping(ImmutableMap.of("age", "integer"))));
+    IndexStatisticsProvider statisticsProvider = mock(IndexStatisticsProvider.class);
+    when(statisticsProvider.getStatistics("test", ImmutableSet.of()))
+        .thenReturn(Optional.empty());
+
+    Expression condition = dsl.equal(dsl.abs(ref("age", INTEGER)), literal(1));
+    ElasticsearchIndex index =
+        new ElasticsearchIndex(client, settings, "test", statisticsProvider);
+    LogicalPlan optimized = index.optimize(filter(relation("test"), condition));
+    assertEquals(indexScan("test", condition), optimized);
+
+    PhysicalPlan plan = index.implement(optimized);
+    assertNull(((ElasticsearchIndexScan) plan).getEstimatedCost());
+  }
+
+  @Test
+  void pushDownByRulesOnlyIfCostBasedOptimizationDisabled() {
+    when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
+    when(settings.getSettingValue(Settings.Key.QUERY_COST_BASED_OPTIMIZATION_ENABLED))
+        .thenReturn(false);
+    IndexStatisticsProvider statisticsProvider = mock(IndexStatisticsProvider.class);
+
+    Expression condition = dsl.equal(dsl.abs(ref("age", INTEGER)), literal(1));
+    ElasticsearchIndex index =
+        new ElasticsearchIndex(client, settings, "test", statisticsProvider);
+    LogicalPlan optimized = index.optimize(filter(relation("test"), condition));
+    assertEquals(indexScan("test", condition), optimized);
+
+    PhysicalPlan plan = index.implement(optimized);
+    assertNull(((ElasticsearchIndexScan) plan).getEstimatedCost());
+    verifyNoInteractions(statisticsProvider);
   }
 }
@@ -0,0 +1,253 @@
+/*
+ *
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage;
+
+import static com.amazon.opendistroforelasticsearch.sql.data.model.ExprValueUtils.tupleValue;
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazon.opendistroforelasticsearch.sql.ast.tree.Sort.SortOption;
+import com.amazon.opendistroforelasticsearch.sql.common.setting.Settings;
+import com.amazon.opendistroforelasticsearch.sql.data.model.ExprValue;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.client.ElasticsearchClient;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.value.ElasticsearchExprValueFactory;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.request.ElasticsearchQueryRequest;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.response.ElasticsearchResponse;
+import com.amazon.opendistroforelasticsearch.sql.expression.DSL;
+import com.amazon.opendistroforelasticsearch.sql.planner.physical.SortOperator.Sorter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.commons.lang3.tuple.Pair;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ElasticsearchMultiIndexScanTest {
+
+  @Mock
+  private ElasticsearchClient client;
+
+  @Mock
+  private Settings settings;
+
+  private final ElasticsearchExprValueFactory exprValueFactory =
+      new ElasticsearchExprValueFactory(ImmutableMap.of("age", INTEGER));
+
+  private ElasticsearchIndexScan indexScan;
+
+  @BeforeEach
+  void setUp() {
+    when(settings.getSettingValue(Settings.Key.QUERY_SIZE_LIMIT)).thenReturn(200);
+    indexScan = new ElasticsearchIndexScan(client, settings, "logs-*", exprValueFactory);
+  }
+
+  @Test
+  void scanIndicesNotPrunedOnly() {
+    QueryBuilder filter = QueryBuilders.rangeQuery("@timestamp").gte("now-1h");
+    indexScan.pushDown(filter);
+    when(client.resolveIndices("logs-*", filter))
+        .thenReturn(Arrays.asList("logs-2", "logs-3"));
+    forkInCurrentThread();
+    mockSearch(ImmutableMap.of(
+        "logs-2", Arrays.asList(row(3), row(1)),
+        "logs-3", Arrays.asList(row(2))));
+
+    assertEquals(
+        Arrays.asList(row(3), row(1), row(2)),
+        scan(new ElasticsearchMultiIndexScan(client, indexScan, null)));
+    verify(client, times(4)).search(any());
+    verify(client, times(2)).cleanup(any());
+  }
+
+  @Test
+  void mergeResultsInSortOrder() {
+    when(client.resolveIndices("logs-*", null))
+        .thenReturn(Arrays.asList("logs-1", "logs-2", "logs-3"));
+    forkInCurrentThread();
+    mockSearch(ImmutableMap.of(
+        "logs-1", Arrays.asList(row(1), row(5)),
+        "logs-2", Arrays.asList(row(2), row(3)),
+        "logs-3", Arrays.asList(row(4))));
+
+    Sorter sorter = Sorter.of(ImmutableList.of(
+        Pair.of(SortOption.DEFAULT_ASC, DSL.ref("age", INTEGER))));
+    assertEquals(
+        Arrays.asList(row(1), row(2), row(3), row(4), row(5)),
+        scan(new ElasticsearchMultiIndexScan(client, indexScan, sorter)));
+  }
+
+  @Test
+  void limitResultsToQuerySize() {
+    indexScan.getRequest().getSourceBuilder().size(2);
+    when(client.resolveIndices("logs-*", null)).thenReturn(Arrays.asList("logs-1", "logs-2"));
+    forkInCurrentThread();
+    mockSearch(ImmutableMap.of(
+        "logs-1", Arrays.asList(row(1), row(2)),
+        "logs-2", Arrays.asList(row(3))));
+
+    assertEquals(
+        Arrays.asList(row(1), row(2)),
+        scan(new ElasticsearchMultiIndexScan(client, indexScan, null)));
+  }
+
+  @Test
+  void scanNothingIfAllIndicesPruned() {
+    when(client.resolveIndices("logs-*", null)).thenReturn(ImmutableList.of());
+
+    assertEquals(
+        ImmutableList.of(),
+        scan(new ElasticsearchMultiIndexScan(client, indexScan, null)));
+    verify(client, times(0)).search(any());
+  }
+
+  @Test
+  void scanInCurrentThreadIfRejected() {
+    when(client.resolveIndices("logs-*", null)).thenReturn(Arrays.asList("logs-1", "logs-2"));
+    doThrow(new RejectedExecutionException()).when(client).fork(any());
+    mockSearch(ImmutableMap.of(
+        "logs-1", Arrays.asList(row(1)),
+        "logs-2", Arrays.asList(row(2))));
+
+    assertEquals(
+        Arrays.asList(row(1), row(2)),
+        scan(new ElasticsearchMultiIndexScan(client, indexScan, null)));
+  }
+
+  @Test
+  void throwExceptionFromIndexScan() {
+    when(client.resolveIndices("logs-*", null)).thenReturn(Arrays.asList("logs-1", "logs-2"));
+    forkInCurrentThread();
+    IllegalStateException exception = new IllegalStateException("search failed");
+    when(client.search(any())).thenThrow(exception);
+
+    ElasticsearchMultiIndexScan multiIndexScan =
+        new ElasticsearchMultiIndexScan(client, indexScan, null);
+    assertSame(exception, assertThrows(IllegalStateException.class, multiIndexScan::open));
+  }
+
+  @Test
+  void throwIllegalStateExceptionForErrorFromIndexScan() {
+    when(client.resolveIndices("logs-*", null)).thenReturn(Arrays.asList("logs-1"));
+    AssertionError error = new AssertionError("search failed");
+    when(client.search(any())).thenThrow(error);
+
+    ElasticsearchMultiIndexScan multiIndexScan =
+        new ElasticsearchMultiIndexScan(client, indexScan, null);
+    assertSame(error,
+        assertThrows(IllegalStateException.class, multiIndexScan::open).getCause());
+  }
+
+  @Test
+  void throwIllegalStateExceptionIfInterrupted() throws InterruptedException {
+    when(client.resolveIndices("logs-*", null)).thenReturn(Arrays.asList("logs-1", "logs-2"));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch finished = new CountDownLatch(1);
+    ElasticsearchResponse empty = mock(ElasticsearchResponse.class);
+    when(empty.isEmpty()).thenReturn(true);
+    when(client.search(any())).thenAnswer(invocation -> {
+      ElasticsearchQueryRequest request = invocation.getArgument(0);
+      if (request.getIndexName().equals("logs-2")) {
+        started.countDown();
+        finished.await();
+      }
+      return empty;
+    });
+    doAnswer(invocation -> {
+      new Thread(invocation.<Runnable>getArgument(0)).start();
+      started.await();
+      Thread.currentThread().interrupt();
+      return null;
+    }).when(client).fork(any());
+
+    ElasticsearchMultiIndexScan multiIndexScan =
+        new ElasticsearchMultiIndexScan(client, indexScan, null);
+    try {
+      assertThrows(IllegalStateException.class, multiIndexScan::open);
+      assertTrue(Thread.interrupted());
+    } finally {
+      finished.countDown();
+    }
+  }
+
+  @Test
+  void explain() {
+    ElasticsearchMultiIndexScan multiIndexScan =
+        new ElasticsearchMultiIndexScan(client, indexScan, null);
+    assertEquals(indexScan.explain(), multiIndexScan.explain());
+    assertEquals(new ElasticsearchMultiIndexScan(client, indexScan, null), multiIndexScan);
+  }
+
+  private List<ExprValue> scan(ElasticsearchMultiIndexScan multiIndexScan) {
+    List<ExprValue> results = new ArrayList<>();
+    try (ElasticsearchMultiIndexScan scan = multiIndexScan) {
+      scan.open();
+      scan.forEachRemaining(results::add);
+      assertFalse(scan.hasNext());
+    }
+    return results;
+  }
+
+  private void forkInCurrentThread() {
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(0).run();
+      return null;
+    }).when(client).fork(any());
+  }
+
+  private void mockSearch(Map<String, List<ExprValue>> results) {
+    Set<String> searched = ConcurrentHashMap.newKeySet();
+    when(client.search(any())).thenAnswer(invocation -> {
+      ElasticsearchQueryRequest request = invocation.getArgument(0);
+      ElasticsearchResponse response = mock(ElasticsearchResponse.class);
+      if (searched.add(request.getIndexName())) {
+        when(response.isEmpty()).thenReturn(false);
+        when(response.iterator()).thenReturn(results.get(request.getIndexName()).iterator());
+      } else {
+        when(response.isEmpty()).thenReturn(true);
+      }
+      return response;
+    });
+  }
+
+  private ExprValue row(int age) {
+    return tupleValue(ImmutableMap.<String, Object>of("age", age));
+  }
+}
@@ -24,11 +24,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.field.ExpressionFieldScriptFactory;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter.ExpressionFilterScriptFactory;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.serialization.ExpressionSerializer;
 import com.amazon.opendistroforelasticsearch.sql.expression.DSL;
 import com.amazon.opendistroforelasticsearch.sql.expression.Expression;
 import org.elasticsearch.script.AggregationScript;
+import org.elasticsearch.script.FieldScript;
 import org.elasticsearch.script.FilterScript;
 import org.elasticsearch.script.ScriptContext;
 import org.elasticsearch.script.ScriptEngine;
@@ -66,13 +68,22 @@ class ExpressionScriptEngineTest {
     when(serializer.deserialize("test code")).thenReturn(expression);
 
     assertThat(scriptEngine.getSupportedContexts(),
-        contains(FilterScript.CONTEXT, AggregationScript.CONTEXT));
+        contains(FilterScript.CONTEXT, AggregationScript.CONTEXT, FieldScript.CONTEXT));
 
     Object actualFactory = scriptEngine.compile(
         "test", "test code", FilterScript.CONTEXT, emptyMap());
     assertEquals(new ExpressionFilterScriptFactory(expression), actualFactory);
   }
 
+  @Test
+  void can_initialize_field_script_factory_by_compiled_script() {
+    when(serializer.deserialize("test code")).thenReturn(expression);
+
+    Object actualFactory = scriptEngine.compile(
+        "test", "test code", FieldScript.CONTEXT, emptyMap());
+    assertEquals(new ExpressionFieldScriptFactory(expression), actualFactory);
+  }
+
   @Test
   void should_throw_exception_for_unsupported_script_context() {
     ScriptContext<?> unknownCtx = mock(ScriptContext.class);
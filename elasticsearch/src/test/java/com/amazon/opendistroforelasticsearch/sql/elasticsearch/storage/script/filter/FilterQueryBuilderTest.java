@@ -16,11 +16,13 @@
 
 package com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.filter;
 
+import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.BOOLEAN;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.INTEGER;
 import static com.amazon.opendistroforelasticsearch.sql.data.type.ExprCoreType.STRING;
 import static com.amazon.opendistroforelasticsearch.sql.elasticsearch.data.type.ElasticsearchDataType.ES_TEXT_KEYWORD;
 import static com.amazon.opendistroforelasticsearch.sql.expression.DSL.literal;
 import static com.amazon.opendistroforelasticsearch.sql.expression.DSL.ref;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
@@ -33,6 +35,10 @@ import com.amazon.opendistroforelasticsearch.sql.expression.FunctionExpression;
 import com.amazon.opendistroforelasticsearch.sql.expression.config.ExpressionConfig;
 import com.google.common.collect.ImmutableMap;
 import java.util.Map;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.RegexpFlag;
+import org.elasticsearch.index.query.RegexpQueryBuilder;
+import org.elasticsearch.index.query.ScriptQueryBuilder;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
@@ -122,14 +128,14 @@ class FilterQueryBuilderTest {
         "{\n"
             + "  \"script\" : {\n"
             + "    \"script\" : {\n"
-            + "      \"source\" : \"is not null(age)\",\n"
+            + "      \"source\" : \"is not null(abs(age))\",\n"
             + "      \"lang\" : \"opendistro_expression\"\n"
             + "    },\n"
             + "    \"boost\" : 1.0\n"
             + "  }\n"
             + "}",
         buildQuery(
-            dsl.isnotnull(ref("age", INTEGER))));
+            dsl.isnotnull(dsl.abs(ref("age", INTEGER)))));
   }
 
   @Test
@@ -209,10 +215,18 @@ class FilterQueryBuilderTest {
   }
 
   @Test
-  void should_build_bool_query_for_not_expression() {
+  void should_push_not_down_to_complement_of_equality_expression() {
     assertJsonEquals(
         "{\n"
             + "  \"bool\" : {\n"
+            + "    \"filter\" : [\n"
+            + "      {\n"
+            + "        \"exists\" : {\n"
+            + "          \"field\" : \"age\",\n"
+            + "          \"boost\" : 1.0\n"
+            + "        }\n"
+            + "      }\n"
+            + "    ],\n"
             + "    \"must_not\" : [\n"
             + "      {\n"
             + "        \"term\" : {\n"
@@ -233,6 +247,432 @@ class FilterQueryBuilderTest {
                     ref("age", INTEGER), literal(30)))));
   }
 
+  @Test
+  void should_build_same_query_for_not_equal_and_negated_equality() {
+    assertEquals(
+        buildQuery(dsl.notequal(ref("age", INTEGER), literal(30))),
+        buildQuery(dsl.not(dsl.equal(ref("age", INTEGER), literal(30)))));
+    assertEquals(
+        buildQuery(dsl.equal(ref("age", INTEGER), literal(30))),
+        buildQuery(dsl.not(dsl.notequal(ref("age", INTEGER), literal(30)))));
+    assertEquals(
+        buildQuery(dsl.equal(ref("age", INTEGER), literal(30))),
+        buildQuery(dsl.not(dsl.not(dsl.equal(ref("age", INTEGER), literal(30))))));
+  }
+
+  @Test
+  void should_push_not_down_to_complement_of_comparison_expression() {
+    Expression[] params = {ref("age", INTEGER), literal(30)};
+    assertEquals(buildQuery(dsl.gte(params)), buildQuery(dsl.not(dsl.less(params))));
+    assertEquals(buildQuery(dsl.less(params)), buildQuery(dsl.not(dsl.gte(params))));
+    assertEquals(buildQuery(dsl.lte(params)), buildQuery(dsl.not(dsl.greater(params))));
+    assertEquals(buildQuery(dsl.greater(params)), buildQuery(dsl.not(dsl.lte(params))));
+  }
+
+  @Test
+  void should_commute_comparison_with_literal_on_left() {
+    assertEquals(
+        buildQuery(dsl.greater(ref("age", INTEGER), literal(30))),
+        buildQuery(dsl.less(literal(30), ref("age", INTEGER))));
+    assertEquals(
+        buildQuery(dsl.less(ref("age", INTEGER), literal(30))),
+        buildQuery(dsl.greater(literal(30), ref("age", INTEGER))));
+    assertEquals(
+        buildQuery(dsl.gte(ref("age", INTEGER), literal(30))),
+        buildQuery(dsl.lte(literal(30), ref("age", INTEGER))));
+    assertEquals(
+        buildQuery(dsl.lte(ref("age", INTEGER), literal(30))),
+        buildQuery(dsl.gte(literal(30), ref("age", INTEGER))));
+    assertEquals(
+        buildQuery(dsl.equal(ref("age", INTEGER), literal(30))),
+        buildQuery(dsl.equal(literal(30), ref("age", INTEGER))));
+    assertEquals(
+        buildQuery(dsl.notequal(ref("age", INTEGER), literal(30))),
+        buildQuery(dsl.notequal(literal(30), ref("age", INTEGER))));
+  }
+
+  @Test
+  void should_build_script_query_for_like_expression_with_literal_on_left() {
+    mockToStringSerializer();
+    assertJsonEquals(
+        "{\n"
+            + "  \"script\" : {\n"
+            + "    \"script\" : {\n"
+            + "      \"source\" : \"like(\\\"John\\\", name)\",\n"
+            + "      \"lang\" : \"opendistro_expression\"\n"
+            + "    },\n"
+            + "    \"boost\" : 1.0\n"
+            + "  }\n"
+            + "}",
+        buildQuery(
+            dsl.like(literal("John"), ref("name", STRING))));
+  }
+
+  @Test
+  void should_build_exists_query_for_null_predicate() {
+    assertJsonEquals(
+        "{\n"
+            + "  \"exists\" : {\n"
+            + "    \"field\" : \"age\",\n"
+            + "    \"boost\" : 1.0\n"
+            + "  }\n"
+            + "}",
+        buildQuery(
+            dsl.isnotnull(ref("age", INTEGER))));
+    assertJsonEquals(
+        "{\n"
+            + "  \"bool\" : {\n"
+            + "    \"must_not\" : [\n"
+            + "      {\n"
+            + "        \"exists\" : {\n"
+            + "          \"field\" : \"age\",\n"
+            + "          \"boost\" : 1.0\n"
+            + "        }\n"
+            + "      }\n"
+            + "    ],\n"
+            + "    \"adjust_pure_negative\" : true,\n"
+            + "    \"boost\" : 1.0\n"
+            + "  }\n"
+            + "}",
+        buildQuery(
+            dsl.isnull(ref("age", INTEGER))));
+    assertEquals(
+        buildQuery(dsl.isnotnull(ref("age", INTEGER))),
+        buildQuery(dsl.not(dsl.isnull(ref("age", INTEGER)))));
+    assertEquals(
+        buildQuery(dsl.isnull(ref("age", INTEGER))),
+        buildQuery(dsl.not(dsl.isnotnull(ref("age", INTEGER)))));
+  }
+
+  @Test
+  void should_build_script_query_for_null_predicate_on_function() {
+    mockToStringSerializer();
+    assertTrue(filterQueryBuilder.build(dsl.isnull(dsl.abs(ref("age", INTEGER))))
+        instanceof ScriptQueryBuilder);
+  }
+
+  @Test
+  void should_build_bool_query_for_not_like_expression() {
+    assertJsonEquals(
+        "{\n"
+            + "  \"bool\" : {\n"
+            + "    \"filter\" : [\n"
+            + "      {\n"
+            + "        \"exists\" : {\n"
+            + "          \"field\" : \"name\",\n"
+            + "          \"boost\" : 1.0\n"
+            + "        }\n"
+            + "      }\n"
+            + "    ],\n"
+            + "    \"must_not\" : [\n"
+            + "      {\n"
+            + "        \"wildcard\" : {\n"
+            + "          \"name\" : {\n"
+            + "            \"wildcard\" : \"John*\",\n"
+            + "            \"boost\" : 1.0\n"
+            + "          }\n"
+            + "        }\n"
+            + "      }\n"
+            + "    ],\n"
+            + "    \"adjust_pure_negative\" : true,\n"
+            + "    \"boost\" : 1.0\n"
+            + "  }\n"
+            + "}",
+        buildQuery(
+            dsl.notLike(ref("name", STRING), literal("John%"))));
+    assertEquals(
+        buildQuery(dsl.like(ref("name", STRING), literal("John%"))),
+        buildQuery(dsl.not(dsl.notLike(ref("name", STRING), literal("John%")))));
+  }
+
+  @Test
+  void should_push_not_down_through_and_or_expression() {
+    FunctionExpression expr1 = dsl.equal(ref("name", STRING), literal("John"));
+    FunctionExpression expr2 = dsl.less(ref("age", INTEGER), literal(30));
+    assertEquals(
+        buildQuery(dsl.or(dsl.notequal(ref("name", STRING), literal("John")),
+            dsl.gte(ref("age", INTEGER), literal(30)))),
+        buildQuery(dsl.not(dsl.and(expr1, expr2))));
+    assertEquals(
+        buildQuery(dsl.and(dsl.notequal(ref("name", STRING), literal("John")),
+            dsl.gte(ref("age", INTEGER), literal(30)))),
+        buildQuery(dsl.not(dsl.or(expr1, expr2))));
+  }
+
+  @Test
+  void should_build_must_not_script_query_for_negated_unsupported_expression() {
+    mockToStringSerializer();
+    assertJsonEquals(
+        "{\n"
+            + "  \"bool\" : {\n"
+            + "    \"must_not\" : [\n"
+            + "      {\n"
+            + "        \"script\" : {\n"
+            + "          \"script\" : {\n"
+            + "            \"source\" : \"=(abs(age), 30)\",\n"
+            + "            \"lang\" : \"opendistro_expression\"\n"
+            + "          },\n"
+            + "          \"boost\" : 1.0\n"
+            + "        }\n"
+            + "      }\n"
+            + "    ],\n"
+            + "    \"adjust_pure_negative\" : true,\n"
+            + "    \"boost\" : 1.0\n"
+            + "  }\n"
+            + "}",
+        buildQuery(
+            dsl.not(
+                dsl.equal(
+                    dsl.abs(ref("age", INTEGER)), literal(30)))));
+  }
+
+  @Test
+  void should_build_script_query_for_boolean_field() {
+    mockToStringSerializer();
+    assertJsonEquals(
+        "{\n"
+            + "  \"script\" : {\n"
+            + "    \"script\" : {\n"
+            + "      \"source\" : \"married\",\n"
+            + "      \"lang\" : \"opendistro_expression\"\n"
+            + "    },\n"
+            + "    \"boost\" : 1.0\n"
+            + "  }\n"
+            + "}",
+        buildQuery(ref("married", BOOLEAN)));
+    assertJsonEquals(
+        "{\n"
+            + "  \"bool\" : {\n"
+            + "    \"must_not\" : [\n"
+            + "      {\n"
+            + "        \"script\" : {\n"
+            + "          \"script\" : {\n"
+            + "            \"source\" : \"married\",\n"
+            + "            \"lang\" : \"opendistro_expression\"\n"
+            + "          },\n"
+            + "          \"boost\" : 1.0\n"
+            + "        }\n"
+            + "      }\n"
+            + "    ],\n"
+            + "    \"adjust_pure_negative\" : true,\n"
+            + "    \"boost\" : 1.0\n"
+            + "  }\n"
+            + "}",
+        buildQuery(dsl.not(ref("married", BOOLEAN))));
+  }
+
+  @Test
+  void should_merge_range_queries_on_same_field_in_and_expression() {
+    String expected =
+        "{\n"
+            + "  \"range\" : {\n"
+            + "    \"age\" : {\n"
+            + "      \"from\" : 20,\n"
+            + "      \"to\" : 30,\n"
+            + "      \"include_lower\" : false,\n"
+            + "      \"include_upper\" : true,\n"
+            + "      \"boost\" : 1.0\n"
+            + "    }\n"
+            + "  }\n"
+            + "}";
+    assertJsonEquals(expected,
+        buildQuery(
+            dsl.and(
+                dsl.greater(ref("age", INTEGER), literal(20)),
+                dsl.lte(ref("age", INTEGER), literal(30)))));
+    assertJsonEquals(expected,
+        buildQuery(
+            dsl.and(
+                dsl.lte(ref("age", INTEGER), literal(30)),
+                dsl.less(literal(20), ref("age", INTEGER)))));
+  }
+
+  @Test
+  void should_merge_range_queries_in_flattened_and_expression() {
+    assertEquals(
+        buildQuery(
+            dsl.and(
+                dsl.and(
+                    dsl.greater(ref("age", INTEGER), literal(20)),
+                    dsl.lte(ref("age", INTEGER), literal(30))),
+                dsl.equal(ref("name", STRING), literal("John")))),
+        buildQuery(
+            dsl.and(
+                dsl.and(
+                    dsl.greater(ref("age", INTEGER), literal(20)),
+                    dsl.equal(ref("name", STRING), literal("John"))),
+                dsl.lte(ref("age", INTEGER), literal(30)))));
+  }
+
+  @Test
+  void should_not_merge_range_queries_with_bound_on_same_side() {
+    assertJsonEquals(
+        "{\n"
+            + "  \"bool\" : {\n"
+            + "    \"filter\" : [\n"
+            + "      {\n"
+            + "        \"range\" : {\n"
+            + "          \"age\" : {\n"
+            + "            \"from\" : 20,\n"
+            + "            \"to\" : null,\n"
+            + "            \"include_lower\" : false,\n"
+            + "            \"include_upper\" : true,\n"
+            + "            \"boost\" : 1.0\n"
+            + "          }\n"
+            + "        }\n"
+            + "      },\n"
+            + "      {\n"
+            + "        \"range\" : {\n"
+            + "          \"age\" : {\n"
+            + "            \"from\" : 25,\n"
+            + "            \"to\" : null,\n"
+            + "            \"include_lower\" : true,\n"
+            + "            \"include_upper\" : true,\n"
+            + "            \"boost\" : 1.0\n"
+            + "          }\n"
+            + "        }\n"
+            + "      }\n"
+            + "    ],\n"
+            + "    \"adjust_pure_negative\" : true,\n"
+            + "    \"boost\" : 1.0\n"
+            + "  }\n"
+            + "}",
+        buildQuery(
+            dsl.and(
+                dsl.greater(ref("age", INTEGER), literal(20)),
+                dsl.gte(ref("age", INTEGER), literal(25)))));
+    assertJsonEquals(
+        "{\n"
+            + "  \"bool\" : {\n"
+            + "    \"filter\" : [\n"
+            + "      {\n"
+            + "        \"range\" : {\n"
+            + "          \"age\" : {\n"
+            + "            \"from\" : null,\n"
+            + "            \"to\" : 30,\n"
+            + "            \"include_lower\" : true,\n"
+            + "            \"include_upper\" : false,\n"
+            + "            \"boost\" : 1.0\n"
+            + "          }\n"
+            + "        }\n"
+            + "      },\n"
+            + "      {\n"
+            + "        \"range\" : {\n"
+            + "          \"age\" : {\n"
+            + "            \"from\" : null,\n"
+            + "            \"to\" : 25,\n"
+            + "            \"include_lower\" : true,\n"
+            + "            \"include_upper\" : true,\n"
+            + "            \"boost\" : 1.0\n"
+            + "          }\n"
+            + "        }\n"
+            + "      }\n"
+            + "    ],\n"
+            + "    \"adjust_pure_negative\" : true,\n"
+            + "    \"boost\" : 1.0\n"
+            + "  }\n"
+            + "}",
+        buildQuery(
+            dsl.and(
+                dsl.less(ref("age", INTEGER), literal(30)),
+                dsl.lte(ref("age", INTEGER), literal(25)))));
+  }
+
+  @Test
+  void should_build_terms_query_for_equalities_on_same_field_in_or_expression() {
+    assertJsonEquals(
+        "{\n"
+            + "  \"terms\" : {\n"
+            + "    \"name.keyword\" : [\"John\", \"Jane\", \"Jack\"],\n"
+            + "    \"boost\" : 1.0\n"
+            + "  }\n"
+            + "}",
+        buildQuery(
+            dsl.or(
+                dsl.or(
+                    dsl.equal(ref("name", ES_TEXT_KEYWORD), literal("John")),
+                    dsl.equal(ref("name", ES_TEXT_KEYWORD), literal("Jane"))),
+                dsl.equal(literal("Jack"), ref("name", ES_TEXT_KEYWORD)))));
+    assertJsonEquals(
+        "{\n"
+            + "  \"bool\" : {\n"
+            + "    \"should\" : [\n"
+            + "      {\n"
+            + "        \"terms\" : {\n"
+            + "          \"age\" : [20, 30],\n"
+            + "          \"boost\" : 1.0\n"
+            + "        }\n"
+            + "      },\n"
+            + "      {\n"
+            + "        \"term\" : {\n"
+            + "          \"name\" : {\n"
+            + "            \"value\" : \"John\",\n"
+            + "            \"boost\" : 1.0\n"
+            + "          }\n"
+            + "        }\n"
+            + "      },\n"
+            + "      {\n"
+            + "        \"range\" : {\n"
+            + "          \"age\" : {\n"
+            + "            \"from\" : 50,\n"
+            + "            \"to\" : null,\n"
+            + "            \"include_lower\" : false,\n"
+            + "            \"include_upper\" : true,\n"
+            + "            \"boost\" : 1.0\n"
+            + "          }\n"
+            + "        }\n"
+            + "      }\n"
+            + "    ],\n"
+            + "    \"adjust_pure_negative\" : true,\n"
+            + "    \"boost\" : 1.0\n"
+            + "  }\n"
+            + "}",
+        buildQuery(
+            dsl.or(
+                dsl.or(
+                    dsl.equal(ref("age", INTEGER), literal(20)),
+                    dsl.equal(ref("name", STRING), literal("John"))),
+                dsl.or(
+                    dsl.equal(ref("age", INTEGER), literal(30)),
+                    dsl.greater(ref("age", INTEGER), literal(50))))));
+  }
+
+  @Test
+  void should_build_regexp_query_for_regexp_expression() {
+    QueryBuilder query = filterQueryBuilder.build(
+        dsl.equal(
+            dsl.regexp(ref("name", ES_TEXT_KEYWORD), literal("J[a-z]+n")), literal(1)));
+    assertTrue(query instanceof RegexpQueryBuilder);
+    assertEquals("name.keyword", ((RegexpQueryBuilder) query).fieldName());
+    assertEquals("J[a-z]+n", ((RegexpQueryBuilder) query).value());
+    assertEquals(RegexpFlag.NONE.value(), ((RegexpQueryBuilder) query).flags());
+
+    assertEquals(
+        buildQuery(dsl.not(dsl.equal(
+            dsl.regexp(ref("name", STRING), literal("J.*")), literal(1)))),
+        buildQuery(dsl.equal(
+            dsl.regexp(ref("name", STRING), literal("J.*")), literal(0))));
+    assertTrue(buildQuery(dsl.equal(
+        dsl.regexp(ref("name", STRING), literal("J.*")), literal(0))).contains("must_not"));
+  }
+
+  @Test
+  void should_build_script_query_for_regexp_unsupported_by_lucene() {
+    mockToStringSerializer();
+    Expression[] exprs = {
+        dsl.equal(dsl.regexp(ref("name", STRING), literal("^J.*")), literal(1)),
+        dsl.equal(dsl.regexp(ref("name", STRING), literal("J\\w+")), literal(1)),
+        dsl.equal(dsl.regexp(ref("name", STRING), literal("J.*+")), literal(1)),
+        dsl.equal(dsl.regexp(ref("name", STRING), literal("J.*")), literal(2)),
+        dsl.equal(dsl.regexp(ref("name", STRING), literal("J.*")), ref("age", INTEGER)),
+        dsl.equal(dsl.regexp(ref("name", STRING), ref("pattern", STRING)), literal(1))
+    };
+
+    for (Expression expr : exprs) {
+      assertTrue(filterQueryBuilder.build(expr) instanceof ScriptQueryBuilder);
+    }
+  }
+
   @Test
   void should_use_keyword_for_multi_field_in_equality_expression() {
     assertJsonEquals(
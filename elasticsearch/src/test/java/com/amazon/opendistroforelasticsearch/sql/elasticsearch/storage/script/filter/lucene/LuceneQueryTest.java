@@ -35,6 +35,13 @@ class LuceneQueryTest {
     assertFalse(new LuceneQuery(){}.canSupport(dsl.abs(DSL.ref("age", INTEGER))));
   }
 
+  @Test
+  void should_not_support_comparison_between_literals() {
+    DSL dsl = new ExpressionConfig().dsl(new ExpressionConfig().functionRepository());
+    assertFalse(new LuceneQuery(){}.canSupport(
+        dsl.equal(DSL.literal(30), DSL.literal(30))));
+  }
+
   @Test
   void should_throw_exception_if_not_implemented() {
     assertThrows(UnsupportedOperationException.class, () ->
@@ -31,6 +31,7 @@ import com.google.common.collect.ImmutableSet;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import lombok.experimental.UtilityClass;
 import org.apache.commons.lang3.tuple.Pair;
@@ -134,6 +135,19 @@ public class Utils {
         .build();
   }
 
+  /**
+   * Build ElasticsearchLogicalIndexScan.
+   */
+  public static LogicalPlan indexScan(String tableName,
+                                      Map<ReferenceExpression, Expression> scriptFields,
+                                      Set<ReferenceExpression> projects) {
+    return ElasticsearchLogicalIndexScan.builder()
+        .relationName(tableName)
+        .scriptFields(scriptFields)
+        .projectList(projects)
+        .build();
+  }
+
   /**
    * Build ElasticsearchLogicalIndexAgg.
    */
@@ -15,6 +15,7 @@
 
 package com.amazon.opendistroforelasticsearch.sql.legacy.antlr;
 
+import com.amazon.opendistroforelasticsearch.sql.common.antlr.TwoStageParser;
 import com.amazon.opendistroforelasticsearch.sql.legacy.antlr.parser.OpenDistroSqlLexer;
 import com.amazon.opendistroforelasticsearch.sql.legacy.antlr.parser.OpenDistroSqlParser;
 import com.amazon.opendistroforelasticsearch.sql.legacy.antlr.semantic.scope.SemanticContext;
@@ -75,8 +76,7 @@ public class OpenDistroSqlAnalyzer {
      */
     public ParseTree analyzeSyntax(String sql) {
         OpenDistroSqlParser parser = createParser(createLexer(sql));
-        parser.addErrorListener(new SyntaxAnalysisErrorListener());
-        return parser.root();
+        return TwoStageParser.parse(parser, new SyntaxAnalysisErrorListener(), OpenDistroSqlParser::root);
     }
 
     /**
@@ -97,7 +97,7 @@ public class DefaultCursor implements Cursor {
         json.put(ROWS_LEFT, rowsLeft);
         json.put(INDEX_PATTERN, indexPattern);
         json.put(SCROLL_ID, scrollId);
-        json.put(SCHEMA_COLUMNS, getSchemaAsJson());
+        json.put(SCHEMA_COLUMNS, getSchemaAsJson(columns));
         json.put(FIELD_ALIAS_MAP, fieldAliasMap);
         return String.format("%s:%s", type.getId(), encodeCursor(json));
     }
@@ -119,7 +119,7 @@ public class DefaultCursor implements Cursor {
          return cursor;
     }
 
-    private JSONArray getSchemaAsJson() {
+    static JSONArray getSchemaAsJson(List<Schema.Column> columns) {
         JSONArray schemaJson = new JSONArray();
 
         for (Schema.Column column : columns) {
@@ -129,7 +129,7 @@ public class DefaultCursor implements Cursor {
         return schemaJson;
     }
 
-    private JSONObject schemaEntry(String name, String alias, String type) {
+    private static JSONObject schemaEntry(String name, String alias, String type) {
         JSONObject entry = new JSONObject();
         entry.put("name", name);
         if (alias != null) {
@@ -139,21 +139,21 @@ public class DefaultCursor implements Cursor {
         return entry;
     }
 
-    private static String encodeCursor(JSONObject cursorJson) {
+    static String encodeCursor(JSONObject cursorJson) {
         return Base64.getEncoder().encodeToString(cursorJson.toString().getBytes());
     }
 
-    private static JSONObject decodeCursor(String cursorId) {
+    static JSONObject decodeCursor(String cursorId) {
         return new JSONObject(new String(Base64.getDecoder().decode(cursorId)));
     }
 
-    private static Map<String, String> fieldAliasMap(JSONObject json) {
+    static Map<String, String> fieldAliasMap(JSONObject json) {
         Map<String, String> fieldToAliasMap = new HashMap<>();
         json.keySet().forEach(key -> fieldToAliasMap.put(key, json.get(key).toString()));
         return fieldToAliasMap;
     }
 
-    private static List<Schema.Column> getColumnsFromSchema(JSONArray schema) {
+    static List<Schema.Column> getColumnsFromSchema(JSONArray schema) {
         List<Schema.Column> columns = IntStream.
                 range(0, schema.length()).
                 mapToObj(i -> {
@@ -0,0 +1,111 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.cursor;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.format.Schema;
+import com.google.common.base.Strings;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+import org.json.JSONObject;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.amazon.opendistroforelasticsearch.sql.legacy.cursor.DefaultCursor.decodeCursor;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.cursor.DefaultCursor.encodeCursor;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.cursor.DefaultCursor.fieldAliasMap;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.cursor.DefaultCursor.getColumnsFromSchema;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.cursor.DefaultCursor.getSchemaAsJson;
+
+/**
+ * Minimum metadata that will be serialized for generating cursorId for JOIN queries.
+ * Unlike default cursor, join state including current block of left table and scroll of both tables
+ * cannot be encoded compactly. So it stays on the node which serves the first page and cursor only
+ * refers to it by context id. Union result paged by cursor is kept in the same way.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class JoinCursor implements Cursor {
+
+    /** Make sure all keys are unique to prevent overriding
+     * and as small as possible to make cursor compact
+     */
+    private static final String FETCH_SIZE = "f";
+    private static final String INDEX_PATTERN = "i";
+    private static final String CONTEXT_ID = "x";
+    private static final String SCHEMA_COLUMNS = "c";
+    private static final String FIELD_ALIAS_MAP = "a";
+
+    /** To get mappings for index to check if type is date needed for
+     * @see com.amazon.opendistroforelasticsearch.sql.legacy.executor.format.DateFieldFormatter */
+    @NonNull
+    private String indexPattern;
+
+    /** List of Schema.Column for maintaining field order */
+    @NonNull
+    private List<Schema.Column> columns;
+
+    /** To delegate to correct cursor handler to get next page*/
+    private final CursorType type = CursorType.JOIN;
+
+    /** @see com.amazon.opendistroforelasticsearch.sql.legacy.executor.format.SelectResultSet */
+    @NonNull
+    private Map<String, String> fieldAliasMap;
+
+    /** Id of join result stream kept open on the node, null if no more rows */
+    private String contextId;
+
+    /** Number of rows in each page */
+    @NonNull
+    private Integer fetchSize;
+
+    @Override
+    public CursorType getType() {
+        return type;
+    }
+
+    @Override
+    public String generateCursorId() {
+        if (Strings.isNullOrEmpty(contextId)) {
+            return null;
+        }
+        JSONObject json = new JSONObject();
+        json.put(FETCH_SIZE, fetchSize);
+        json.put(INDEX_PATTERN, indexPattern);
+        json.put(CONTEXT_ID, contextId);
+        json.put(SCHEMA_COLUMNS, getSchemaAsJson(columns));
+        json.put(FIELD_ALIAS_MAP, fieldAliasMap);
+        return String.format("%s:%s", type.getId(), encodeCursor(json));
+    }
+
+    /**
+     * It is assumed that cursorId here is the second part of the original cursor passed
+     * by the client after removing first part which identifies cursor type
+     */
+    public static JoinCursor from(String cursorId) {
+        JSONObject json = decodeCursor(cursorId);
+        JoinCursor cursor = new JoinCursor();
+        cursor.setFetchSize(json.getInt(FETCH_SIZE));
+        cursor.setIndexPattern(json.getString(INDEX_PATTERN));
+        cursor.setContextId(json.getString(CONTEXT_ID));
+        cursor.setColumns(getColumnsFromSchema(json.getJSONArray(SCHEMA_COLUMNS)));
+        cursor.setFieldAliasMap(fieldAliasMap(json.getJSONObject(FIELD_ALIAS_MAP)));
+        return cursor;
+    }
+}
@@ -75,6 +75,10 @@ public class HintFactory {
             String[] number = getParamsFromHint(hintAsString, "! NL_MULTISEARCH_SIZE");
             //todo: check if numbers etc..
             int multiSearchSize = Integer.parseInt(number[0]);
+            if (number.length > 1) {
+                int multiSearchesInFlight = Integer.parseInt(number[1]);
+                return new Hint(HintType.NL_MULTISEARCH_SIZE, new Object[]{multiSearchSize, multiSearchesInFlight});
+            }
             return new Hint(HintType.NL_MULTISEARCH_SIZE, new Object[]{multiSearchSize});
         }
         if (hintAsString.startsWith("! USE_SCROLL")) {
@@ -192,6 +196,9 @@ public class HintFactory {
                         || hintStr.startsWith("! JOIN_CIRCUIT_BREAK_LIMIT")
                         || hintStr.startsWith("! JOIN_BACK_OFF_RETRY_INTERVALS")
                         || hintStr.startsWith("! JOIN_TIME_OUT")
+                        || hintStr.startsWith("! JOIN_SPILL_MEMORY_LIMIT")
+                        || hintStr.startsWith("! JOIN_PROBE_PARALLELISM")
+                        || hintStr.startsWith("! JOIN_TERMS_FILTER_BATCH_SIZE")
                 )) { // Note that Trie tree is needed here if many hint options
 
             String hintName = hintStr.substring(PREFIX.length(), hintStr.indexOf('(')).trim();
@@ -204,6 +211,8 @@ public class HintFactory {
             }
         } else if (hintStr.startsWith("! JOIN_ALGORITHM_USE_LEGACY")) {
             return new Hint(HintType.JOIN_ALGORITHM_USE_LEGACY, new Object[0]);
+        } else if (hintStr.startsWith("! JOIN_ALGORITHM_USE_SORT_MERGE")) {
+            return new Hint(HintType.JOIN_ALGORITHM_USE_SORT_MERGE, new Object[0]);
         }
         return null;
     }
@@ -35,8 +35,12 @@ public enum HintType {
     POST_FILTER,
     JOIN_ALGORITHM_BLOCK_SIZE,
     JOIN_ALGORITHM_USE_LEGACY,
+    JOIN_ALGORITHM_USE_SORT_MERGE,
     JOIN_SCROLL_PAGE_SIZE,
     JOIN_CIRCUIT_BREAK_LIMIT,
     JOIN_BACK_OFF_RETRY_INTERVALS,
-    JOIN_TIME_OUT
+    JOIN_TIME_OUT,
+    JOIN_SPILL_MEMORY_LIMIT,
+    JOIN_PROBE_PARALLELISM,
+    JOIN_TERMS_FILTER_BATCH_SIZE
 }
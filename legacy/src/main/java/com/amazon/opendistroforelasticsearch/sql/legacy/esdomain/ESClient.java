@@ -18,12 +18,14 @@ package com.amazon.opendistroforelasticsearch.sql.legacy.esdomain;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.BackOffRetryStrategy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.ActionFuture;
 import org.elasticsearch.action.search.MultiSearchRequest;
 import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.client.Client;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -45,6 +47,24 @@ public class ESClient {
         return responses;
     }
 
+    /**
+     * Send multi-search request without waiting for the response. Failed items are retried
+     * the same way as {@link #multiSearch(MultiSearchRequest)} once the responses are retrieved.
+     *
+     * @param multiSearchRequest multi-search request
+     * @return supplier that waits for and returns the responses
+     */
+    public Supplier<MultiSearchResponse.Item[]> multiSearchAsync(MultiSearchRequest multiSearchRequest) {
+        ActionFuture<MultiSearchResponse> future = client.multiSearch(multiSearchRequest);
+        return () -> {
+            MultiSearchResponse.Item[] responses = new MultiSearchResponse.Item[multiSearchRequest.requests().size()];
+            handleResponses(responses, multiSearchRequest,
+                    IntStream.range(0, multiSearchRequest.requests().size()).boxed().collect(Collectors.toList()),
+                    future.actionGet().getResponses(), 0);
+            return responses;
+        };
+    }
+
     private void multiSearchRetry(MultiSearchResponse.Item[] responses, MultiSearchRequest multiSearchRequest,
                                   List<Integer> indices, int retry) {
         MultiSearchRequest multiSearchRequestRetry = new MultiSearchRequest();
@@ -52,6 +72,11 @@ public class ESClient {
             multiSearchRequestRetry.add(multiSearchRequest.requests().get(i));
         }
         MultiSearchResponse.Item[] res = client.multiSearch(multiSearchRequestRetry).actionGet().getResponses();
+        handleResponses(responses, multiSearchRequest, indices, res, retry);
+    }
+
+    private void handleResponses(MultiSearchResponse.Item[] responses, MultiSearchRequest multiSearchRequest,
+                                 List<Integer> indices, MultiSearchResponse.Item[] res, int retry) {
         List<Integer> indicesFailure = new ArrayList<>();
         //Could get EsRejectedExecutionException and ElasticsearchException as getCause
         for (int i = 0; i < res.length; i++) {
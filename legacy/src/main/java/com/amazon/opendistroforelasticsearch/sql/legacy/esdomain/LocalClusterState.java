@@ -28,6 +28,7 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -80,6 +81,11 @@ public class LocalClusterState {
      */
     private IndexNameExpressionResolver resolver;
 
+    /**
+     * Circuit breaker service to account memory used by query execution. Null if not injected yet.
+     */
+    private CircuitBreakerService circuitBreakerService;
+
     /**
      * Thread-safe mapping cache to save the computation of sourceAsMap() which is not lightweight as thought
      * Array cannot be used as key because hashCode() always return reference address, so either use wrapper or List.
@@ -138,6 +144,14 @@ public class LocalClusterState {
         this.resolver = resolver;
     }
 
+    public void setCircuitBreakerService(CircuitBreakerService circuitBreakerService) {
+        this.circuitBreakerService = circuitBreakerService;
+    }
+
+    public CircuitBreakerService getCircuitBreakerService() {
+        return circuitBreakerService;
+    }
+
     private LocalClusterState() {
         cache = CacheBuilder.newBuilder().maximumSize(100).build();
     }
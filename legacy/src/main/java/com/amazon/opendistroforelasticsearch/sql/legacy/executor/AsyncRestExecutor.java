@@ -17,6 +17,7 @@ package com.amazon.opendistroforelasticsearch.sql.legacy.executor;
 
 import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
 import com.amazon.opendistroforelasticsearch.sql.legacy.exception.SqlParseException;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyMetric.Stage;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.QueryAction;
@@ -50,6 +51,11 @@ public class AsyncRestExecutor implements RestExecutor {
      */
     public static final String SQL_WORKER_THREAD_POOL_NAME = "sql-worker";
 
+    /**
+     * Custom thread pool name for join to probe right side in parallel
+     */
+    public static final String SQL_JOIN_WORKER_THREAD_POOL_NAME = "sql-join-worker";
+
     private static final Logger LOG = LogManager.getLogger(AsyncRestExecutor.class);
 
     /**
@@ -161,6 +167,7 @@ public class AsyncRestExecutor implements RestExecutor {
             executor.execute(client, params, action, channel);
         } finally {
             Duration elapsed = Duration.ofNanos(System.nanoTime() - startTime);
+            Metrics.getInstance().recordLatency(MetricName.LEGACY_SQL_LATENCY, Stage.EXECUTE, elapsed.toNanos());
             int slowLogThreshold = LocalClusterState.state().getSettingValue(QUERY_SLOWLOG);
             if (elapsed.getSeconds() >= slowLogThreshold) {
                 LOG.warn("[{}] Slow query: elapsed={} (ms)", LogUtils.getRequestId(), elapsed.toMillis());
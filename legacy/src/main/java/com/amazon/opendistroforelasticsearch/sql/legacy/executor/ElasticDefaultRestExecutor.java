@@ -20,6 +20,7 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.ElasticJoi
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.ElasticUtils;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.MetaSearchResult;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.multi.MultiRequestExecutorFactory;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.multi.UnionExecutor;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.QueryAction;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.SqlElasticRequestBuilder;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.JoinRequestBuilder;
@@ -74,13 +75,16 @@ public class ElasticDefaultRestExecutor implements RestExecutor {
 
         if (requestBuilder instanceof JoinRequestBuilder) {
             ElasticJoinExecutor executor = ElasticJoinExecutor.createJoinExecutor(client, requestBuilder);
-            executor.run();
             executor.sendResponse(channel);
         } else if (requestBuilder instanceof MultiQueryRequestBuilder) {
             ElasticHitsExecutor executor = MultiRequestExecutorFactory.createExecutor(client,
                     (MultiQueryRequestBuilder) requestBuilder);
-            executor.run();
-            sendDefaultResponse(executor.getHits(), channel);
+            if (executor instanceof UnionExecutor) {
+                ((UnionExecutor) executor).sendResponse(channel);
+            } else {
+                executor.run();
+                sendDefaultResponse(executor.getHits(), channel);
+            }
         } else if (request instanceof SearchRequest) {
             client.search((SearchRequest) request, new RestStatusToXContentListener<>(channel));
         } else if (request instanceof DeleteByQueryRequest) {
@@ -17,6 +17,8 @@ package com.amazon.opendistroforelasticsearch.sql.legacy.executor.cursor;
 
 import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.CursorType;
 import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.DefaultCursor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.JoinCursor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.JoinResultStream;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
 import com.amazon.opendistroforelasticsearch.sql.legacy.rewriter.matchtoterm.VerificationException;
@@ -80,8 +82,10 @@ public class CursorCloseExecutor implements CursorRestExecutor {
             case DEFAULT:
                 DefaultCursor defaultCursor = DefaultCursor.from(splittedCursor[1]);
                 return handleDefaultCursorCloseRequest(client, defaultCursor);
-            case AGGREGATION:
             case JOIN:
+                JoinCursor joinCursor = JoinCursor.from(splittedCursor[1]);
+                return handleJoinCursorCloseRequest(client, joinCursor);
+            case AGGREGATION:
             default: throw new VerificationException("Unsupported cursor type [" + type + "]");
         }
 
@@ -97,4 +101,14 @@ public class CursorCloseExecutor implements CursorRestExecutor {
             return SUCCEEDED_FALSE;
         }
     }
-}
\ No newline at end of file
+
+    private String handleJoinCursorCloseRequest(Client client, JoinCursor cursor) {
+        JoinResultStream stream = JoinCursorContexts.take(cursor.getContextId(),
+                JoinCursorContexts.owner(client.threadPool().getThreadContext()));
+        if (stream == null) {
+            return SUCCEEDED_FALSE;
+        }
+        stream.close();
+        return SUCCEEDED_TRUE;
+    }
+}
@@ -17,9 +17,11 @@ package com.amazon.opendistroforelasticsearch.sql.legacy.executor.cursor;
 
 import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.CursorType;
 import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.DefaultCursor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.JoinCursor;
 import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.Format;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.format.Protocol;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.JoinResultStream;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
 import com.amazon.opendistroforelasticsearch.sql.legacy.rewriter.matchtoterm.VerificationException;
@@ -92,8 +94,10 @@ public class CursorResultExecutor implements CursorRestExecutor {
             case DEFAULT:
                 DefaultCursor defaultCursor = DefaultCursor.from(splittedCursor[1]);
                 return handleDefaultCursorRequest(client, defaultCursor);
-            case AGGREGATION:
             case JOIN:
+                JoinCursor joinCursor = JoinCursor.from(splittedCursor[1]);
+                return handleJoinCursorRequest(client, joinCursor);
+            case AGGREGATION:
             default: throw new VerificationException("Unsupported cursor type [" + type + "]");
         }
     }
@@ -139,4 +143,34 @@ public class CursorResultExecutor implements CursorRestExecutor {
         Protocol protocol = new Protocol(client, searchHits, format.name().toLowerCase(), cursor);
         return protocol.cursorFormat();
     }
-}
\ No newline at end of file
+
+    private String handleJoinCursorRequest(Client client, JoinCursor cursor) {
+        String contextId = cursor.getContextId();
+        String owner = JoinCursorContexts.owner(client.threadPool().getThreadContext());
+        JoinResultStream stream = JoinCursorContexts.take(contextId, owner);
+        if (stream == null) {
+            throw new IllegalArgumentException("Join cursor context [" + contextId
+                    + "] is not found. It may have expired or been opened on another node or by another user");
+        }
+
+        SearchHits searchHits;
+        try {
+            searchHits = stream.nextPage(cursor.getFetchSize());
+        } catch (RuntimeException e) {
+            stream.close();
+            throw e;
+        }
+
+        if (stream.hasNext()) {
+            TimeValue keepAlive = LocalClusterState.state().getSettingValue(CURSOR_KEEPALIVE);
+            JoinCursorContexts.put(contextId, stream, keepAlive, owner);
+        } else {
+            /** Close the join result stream on last page */
+            stream.close();
+            cursor.setContextId(null);
+        }
+
+        Protocol protocol = new Protocol(client, searchHits, format.name().toLowerCase(), cursor);
+        return protocol.cursorFormat();
+    }
+}
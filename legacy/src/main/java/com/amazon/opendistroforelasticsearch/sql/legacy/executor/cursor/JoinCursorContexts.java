@@ -0,0 +1,153 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.executor.cursor;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.JoinResultStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.threadpool.Scheduler;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Join result streams kept open on this node between cursor requests. A stream is removed when a request
+ * takes it and put back by the request if there are more rows, so that at most one request pulls from it
+ * at a time. Because the stream lives in memory of the node that served the first page, cursor requests
+ * must be sent to the same node.
+ * <p>
+ * Each stream is bound to the user who opened it and can only be taken by the same user. The number of
+ * streams open on a node is capped, and stream not taken within keep alive is closed by a periodic task
+ * or whichever request comes first.
+ */
+public class JoinCursorContexts {
+
+    private static final Logger LOG = LogManager.getLogger(JoinCursorContexts.class);
+
+    /**
+     * Max number of join result streams open on a node, which is the same as default of max scroll contexts.
+     */
+    public static final int MAX_OPEN_CONTEXTS = 500;
+
+    /**
+     * Interval of the periodic task that closes expired join result streams.
+     */
+    public static final TimeValue REAPER_INTERVAL = TimeValue.timeValueMinutes(1);
+
+    /**
+     * Thread context transients of authenticated user set by Open Distro security plugin.
+     */
+    private static final String SECURITY_USER_INFO = "_opendistro_security_user_info";
+    private static final String SECURITY_USER = "_opendistro_security_user";
+
+    private static final Map<String, Context> CONTEXTS = new ConcurrentHashMap<>();
+
+    /**
+     * Keep a new join result stream open.
+     *
+     * @return context id referring to the stream
+     */
+    public static String put(JoinResultStream stream, TimeValue keepAlive, String owner) {
+        closeExpired();
+        if (CONTEXTS.size() >= MAX_OPEN_CONTEXTS) {
+            throw new IllegalStateException("Trying to open too many join cursor contexts. Must be less than or "
+                    + "equal to [" + MAX_OPEN_CONTEXTS + "]. Close cursors not needed any more and try again");
+        }
+
+        String contextId = UUIDs.randomBase64UUID();
+        put(contextId, stream, keepAlive, owner);
+        return contextId;
+    }
+
+    /**
+     * Put back join result stream taken with its keep alive renewed.
+     */
+    public static void put(String contextId, JoinResultStream stream, TimeValue keepAlive, String owner) {
+        closeExpired();
+        CONTEXTS.put(contextId, new Context(stream, owner, System.nanoTime() + keepAlive.nanos()));
+    }
+
+    /**
+     * Take join result stream out of the contexts.
+     *
+     * @return join result stream or null if not found, expired or opened by another user
+     */
+    public static JoinResultStream take(String contextId, String owner) {
+        closeExpired();
+        Context context = CONTEXTS.get(contextId);
+        if (context == null || !context.owner.equals(owner) || !CONTEXTS.remove(contextId, context)) {
+            return null;
+        }
+        return context.stream;
+    }
+
+    /**
+     * Identity of the user who sends current request. Empty string if security plugin not installed.
+     *
+     * @param threadContext thread context of current request
+     * @return user identity
+     */
+    public static String owner(ThreadContext threadContext) {
+        Object user = threadContext.getTransient(SECURITY_USER_INFO);
+        if (user == null) {
+            user = threadContext.getTransient(SECURITY_USER);
+        }
+        return (user == null) ? "" : user.toString();
+    }
+
+    /**
+     * Schedule periodic task on the thread pool to close expired join result streams.
+     *
+     * @return cancellable of the task scheduled
+     */
+    public static Scheduler.Cancellable scheduleReaper(ThreadPool threadPool) {
+        return threadPool.scheduleWithFixedDelay(JoinCursorContexts::closeExpired, REAPER_INTERVAL,
+                ThreadPool.Names.GENERIC);
+    }
+
+    /**
+     * Close join result streams not taken within keep alive.
+     */
+    public static void closeExpired() {
+        long now = System.nanoTime();
+        CONTEXTS.forEach((contextId, context) -> {
+            if (now - context.deadline > 0 && CONTEXTS.remove(contextId, context)) {
+                LOG.debug("Closing expired join cursor context {}", contextId);
+                try {
+                    context.stream.close();
+                } catch (RuntimeException e) {
+                    LOG.warn("Error closing expired join cursor context {}", contextId, e);
+                }
+            }
+        });
+    }
+
+    private static class Context {
+        private final JoinResultStream stream;
+        private final String owner;
+        private final long deadline;
+
+        Context(JoinResultStream stream, String owner, long deadline) {
+            this.stream = stream;
+            this.owner = owner;
+            this.deadline = deadline;
+        }
+    }
+}
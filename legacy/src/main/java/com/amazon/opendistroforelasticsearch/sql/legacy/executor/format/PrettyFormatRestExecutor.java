@@ -16,25 +16,44 @@
 package com.amazon.opendistroforelasticsearch.sql.legacy.executor.format;
 
 import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.Cursor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.JoinCursor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
 import com.amazon.opendistroforelasticsearch.sql.legacy.exception.SqlParseException;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.Format;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.QueryActionElasticExecutor;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.RestExecutor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.cursor.JoinCursorContexts;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.ElasticJoinExecutor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.JoinResultStream;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.multi.UnionExecutor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyMetric.Stage;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
 import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.DefaultCursor;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.DefaultQueryAction;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.QueryAction;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.ESJoinQueryAction;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.BackOffRetryStrategy;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.multi.MultiQueryAction;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.multi.MultiQueryRequestBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.rest.BytesRestResponse;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.SearchHits;
 
+import java.io.IOException;
 import java.util.Map;
 
+import static com.amazon.opendistroforelasticsearch.sql.legacy.plugin.SqlSettings.CURSOR_ENABLED;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.plugin.SqlSettings.CURSOR_KEEPALIVE;
+
 public class PrettyFormatRestExecutor implements RestExecutor {
 
     private static final Logger LOG = LogManager.getLogger();
@@ -75,6 +94,10 @@ public class PrettyFormatRestExecutor implements RestExecutor {
         try {
             if (queryAction instanceof DefaultQueryAction) {
                 protocol = buildProtocolForDefaultQuery(client, (DefaultQueryAction) queryAction);
+            } else if (queryAction instanceof ESJoinQueryAction && isCursorRequested(queryAction)) {
+                protocol = buildProtocolForJoinQuery(client, (ESJoinQueryAction) queryAction);
+            } else if (queryAction instanceof MultiQueryAction && ((MultiQueryAction) queryAction).isUnion()) {
+                protocol = buildProtocolForUnionQuery(client, (MultiQueryAction) queryAction);
             } else {
                 Object queryResult = QueryActionElasticExecutor.executeAnyAction(client, queryAction);
                 protocol = new Protocol(client, queryAction, queryResult, format, Cursor.NULL_CURSOR);
@@ -89,7 +112,10 @@ public class PrettyFormatRestExecutor implements RestExecutor {
             protocol = new Protocol(e);
         }
 
-        return protocol.format();
+        long startTime = System.nanoTime();
+        String formattedResponse = protocol.format();
+        recordLatency(Stage.FORMAT, startTime);
+        return formattedResponse;
     }
 
     /**
@@ -99,7 +125,9 @@ public class PrettyFormatRestExecutor implements RestExecutor {
     private Protocol buildProtocolForDefaultQuery(Client client, DefaultQueryAction queryAction)
             throws SqlParseException {
 
+        long startTime = System.nanoTime();
         SearchResponse response = (SearchResponse) queryAction.explain().get();
+        recordLatency(Stage.SEARCH, startTime);
         String scrollId = response.getScrollId();
 
         Protocol protocol;
@@ -115,4 +143,88 @@ public class PrettyFormatRestExecutor implements RestExecutor {
 
         return protocol;
     }
+
+    /**
+     * Join result is streamed and only first page is pulled. The stream is kept open on this node
+     * for cursor requests to pull the rest if any.
+     */
+    private Protocol buildProtocolForJoinQuery(Client client, ESJoinQueryAction queryAction)
+            throws SqlParseException, IOException {
+
+        long startTime = System.nanoTime();
+        ElasticJoinExecutor executor = ElasticJoinExecutor.createJoinExecutor(client, queryAction.explain());
+        JoinResultStream stream = executor.stream();
+        JoinCursor joinCursor = new JoinCursor();
+        SearchHits hits = pullFirstPage(client, queryAction, stream, joinCursor);
+        recordLatency(Stage.SEARCH, startTime);
+        return new Protocol(client, queryAction, hits, format, joinCursor);
+    }
+
+    /**
+     * Union result is streamed as well. If cursor is requested, the rest of hits are pulled by cursor requests
+     * in the same way as join. Otherwise all hits are pulled for the response.
+     */
+    private Protocol buildProtocolForUnionQuery(Client client, MultiQueryAction queryAction)
+            throws SqlParseException {
+
+        long startTime = System.nanoTime();
+        UnionExecutor executor = new UnionExecutor(client, (MultiQueryRequestBuilder) queryAction.explain());
+        JoinResultStream stream = executor.stream();
+        Cursor cursor;
+        SearchHits hits;
+        if (isCursorRequested(queryAction)) {
+            JoinCursor joinCursor = new JoinCursor();
+            hits = pullFirstPage(client, queryAction, stream, joinCursor);
+            cursor = joinCursor;
+        } else {
+            try (JoinResultStream allHits = stream) {
+                hits = allHits.nextPage(Integer.MAX_VALUE);
+            }
+            cursor = Cursor.NULL_CURSOR;
+        }
+        recordLatency(Stage.SEARCH, startTime);
+        return new Protocol(client, queryAction, hits, format, cursor);
+    }
+
+    /**
+     * Pull first page from the stream and keep it open on this node for cursor requests to pull the rest if any.
+     */
+    private SearchHits pullFirstPage(Client client, QueryAction queryAction, JoinResultStream stream,
+                                     JoinCursor joinCursor) {
+        Integer fetchSize = queryAction.getSqlRequest().fetchSize();
+        SearchHits hits;
+        try {
+            hits = stream.nextPage(fetchSize);
+        } catch (RuntimeException e) {
+            stream.close();
+            throw e;
+        }
+
+        joinCursor.setFetchSize(fetchSize);
+        if (stream.hasNext()) {
+            TimeValue keepAlive = LocalClusterState.state().getSettingValue(CURSOR_KEEPALIVE);
+            try {
+                joinCursor.setContextId(JoinCursorContexts.put(stream, keepAlive,
+                        JoinCursorContexts.owner(client.threadPool().getThreadContext())));
+            } catch (RuntimeException e) {
+                stream.close();
+                throw e;
+            }
+        } else {
+            stream.close();
+        }
+        return hits;
+    }
+
+    private boolean isCursorRequested(QueryAction queryAction) {
+        Boolean cursorEnabled = LocalClusterState.state().getSettingValue(CURSOR_ENABLED);
+        Integer fetchSize = queryAction.getSqlRequest().fetchSize();
+        return Boolean.TRUE.equals(cursorEnabled)
+                && format.equals(Format.JDBC.getFormatName())
+                && fetchSize != null && fetchSize > 0;
+    }
+
+    private static void recordLatency(Stage stage, long startTime) {
+        Metrics.getInstance().recordLatency(MetricName.LEGACY_SQL_LATENCY, stage, System.nanoTime() - startTime);
+    }
 }
@@ -30,7 +30,9 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.mapping.FieldMa
 import com.amazon.opendistroforelasticsearch.sql.legacy.exception.SqlFeatureNotImplementedException;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.Format;
 import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.Cursor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.CursorType;
 import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.DefaultCursor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.JoinCursor;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
 import com.amazon.opendistroforelasticsearch.sql.legacy.utils.SQLFunctions;
@@ -145,19 +147,32 @@ public class SelectResultSet extends ResultSet {
         switch (cursor.getType()) {
             case DEFAULT:
                 populateResultSetFromDefaultCursor((DefaultCursor) cursor);
+                return;
+            case JOIN:
+                populateResultSetFromJoinCursor((JoinCursor) cursor);
+                return;
             default:
                 return;
         }
     }
 
     private void populateResultSetFromDefaultCursor(DefaultCursor cursor) {
-        this.columns = cursor.getColumns();
+        populateResultSetFromCursor(cursor.getColumns(), cursor.getIndexPattern(), cursor.getFieldAliasMap());
+    }
+
+    private void populateResultSetFromJoinCursor(JoinCursor cursor) {
+        populateResultSetFromCursor(cursor.getColumns(), cursor.getIndexPattern(), cursor.getFieldAliasMap());
+    }
+
+    private void populateResultSetFromCursor(List<Schema.Column> columns, String indexPattern,
+                                             Map<String, String> fieldAliasMap) {
+        this.columns = columns;
         this.schema = new Schema(null, null, columns);
         this.head = schema.getHeaders();
         this.dateFieldFormatter = new DateFieldFormatter(
-                cursor.getIndexPattern(),
+                indexPattern,
                 columns,
-                cursor.getFieldAliasMap()
+                fieldAliasMap
         );
         extractData();
         this.dataRows = new DataRows(size, totalHits, rows);
@@ -599,11 +614,25 @@ public class SelectResultSet extends ResultSet {
         switch(cursor.getType()) {
             case DEFAULT:
                 populateDefaultCursor((DefaultCursor) cursor);
+                return;
+            case JOIN:
+                populateJoinCursor((JoinCursor) cursor);
+                return;
             default:
                 return;
         }
     }
 
+    private void populateJoinCursor(JoinCursor cursor) {
+        /**
+         * Assumption: contextId and fetchSize already being set in
+         * @see PrettyFormatRestExecutor.buildProtocolForJoinQuery()
+         */
+        cursor.setIndexPattern(indexName);
+        cursor.setFieldAliasMap(fieldAliasMap());
+        cursor.setColumns(columns);
+    }
+
     private void populateDefaultCursor(DefaultCursor cursor) {
         /**
          * Assumption: scrollId, fetchSize, limit already being set in
@@ -648,7 +677,7 @@ public class SelectResultSet extends ResultSet {
             Map<String, Object> rowSource = hit.getSourceAsMap();
             List<DataRows.Row> result;
 
-            if (!isJoinQuery()) {
+            if (!isRowFlattened()) {
                 // Row already flatten in source in join. And join doesn't support nested fields for now.
                 rowSource = flatRow(head, rowSource);
                 rowSource.put(SCORE, hit.getScore());
@@ -913,4 +942,12 @@ public class SelectResultSet extends ResultSet {
     private boolean isJoinQuery() {
         return query instanceof JoinSelect;
     }
+
+    /**
+     * Rows pulled from a stream kept on the node, ex. join or union result paged by cursor,
+     * are flattened in source already because query is not available for cursor request.
+     */
+    private boolean isRowFlattened() {
+        return isJoinQuery() || cursor.getType() == CursorType.JOIN;
+    }
 }
@@ -33,7 +33,6 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.common.text.Text;
-import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.rest.BytesRestResponse;
@@ -73,11 +72,11 @@ public abstract class ElasticJoinExecutor implements ElasticHitsExecutor {
                 && (secondTableReturnedField == null || secondTableReturnedField.size() == 0);
     }
 
-    public void sendResponse(RestChannel channel) throws IOException {
+    public void sendResponse(RestChannel channel) throws IOException, SqlParseException {
         XContentBuilder builder = null;
         long len;
         try {
-            builder = ElasticUtils.hitsAsStringResultZeroCopy(results, metaResults, this);
+            builder = ElasticUtils.hitsAsStringResultZeroCopy(stream(), metaResults, this);
             BytesRestResponse bytesRestResponse = new BytesRestResponse(RestStatus.OK, builder);
             len = bytesRestResponse.content().length();
             channel.sendResponse(bytesRestResponse);
@@ -103,6 +102,16 @@ public abstract class ElasticJoinExecutor implements ElasticHitsExecutor {
     }
 
 
+    /**
+     * Open join for rows to be pulled lazily. By default all rows are joined in memory before the first pull.
+     * Executor capable of producing rows on demand overrides this to avoid holding all of them at once.
+     * Meta result is complete only after the stream is closed.
+     */
+    public JoinResultStream stream() throws IOException, SqlParseException {
+        run();
+        return JoinResultStream.of(results);
+    }
+
     protected abstract List<SearchHit> innerRun() throws IOException, SqlParseException;
 
     public SearchHits getHits() {
@@ -253,7 +262,7 @@ public abstract class ElasticJoinExecutor implements ElasticHitsExecutor {
 
     protected SearchResponse scrollOneTimeWithMax(Client client, TableInJoinRequestBuilder tableRequest) {
         SearchRequestBuilder scrollRequest = tableRequest.getRequestBuilder()
-                .setScroll(new TimeValue(60000)).setSize(MAX_RESULTS_ON_ONE_FETCH);
+                .setScroll(ElasticUtils.scrollKeepAlive()).setSize(MAX_RESULTS_ON_ONE_FETCH);
         boolean ordered = tableRequest.getOriginalSelect().isOrderdSelect();
         if (!ordered) {
             scrollRequest.addSort(FieldSortBuilder.DOC_FIELD_NAME, SortOrder.ASC);
@@ -16,6 +16,7 @@
 package com.amazon.opendistroforelasticsearch.sql.legacy.executor.join;
 
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Select;
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.BackOffRetryStrategy;
 import com.google.common.collect.ImmutableMap;
 import org.apache.lucene.search.TotalHits.Relation;
@@ -36,9 +37,10 @@ import org.elasticsearch.search.sort.SortOrder;
 
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Optional;
 
+import static com.amazon.opendistroforelasticsearch.sql.legacy.plugin.SqlSettings.CURSOR_KEEPALIVE;
 import static org.elasticsearch.common.xcontent.ToXContent.EMPTY_PARAMS;
 
 /**
@@ -46,10 +48,18 @@ import static org.elasticsearch.common.xcontent.ToXContent.EMPTY_PARAMS;
  */
 public class ElasticUtils {
 
+    /**
+     * Keep alive of scroll context opened by join and multi-query executors. Scroll context must survive
+     * between two fetches which may be far apart when join result is paged through by cursor.
+     */
+    public static TimeValue scrollKeepAlive() {
+        return LocalClusterState.state().getSettingValue(CURSOR_KEEPALIVE);
+    }
+
     public static SearchResponse scrollOneTimeWithHits(Client client, SearchRequestBuilder requestBuilder,
                                                        Select originalSelect, int resultSize) {
         SearchRequestBuilder scrollRequest = requestBuilder
-                .setScroll(new TimeValue(60000)).setSize(resultSize);
+                .setScroll(scrollKeepAlive()).setSize(resultSize);
         boolean ordered = originalSelect.isOrderdSelect();
         if (!ordered) {
             scrollRequest.addSort(FieldSortBuilder.DOC_FIELD_NAME, SortOrder.ASC);
@@ -102,14 +112,19 @@ public class ElasticUtils {
     }
 
     /**
-     * Generate string by serializing SearchHits in place without any new HashMap copy
+     * Generate string by serializing SearchHits in place without any new HashMap copy.
+     * Hits are pulled from the stream and written one by one, so total and meta results which are known
+     * only once the stream is exhausted and closed are written after hits.
      */
-    public static XContentBuilder hitsAsStringResultZeroCopy(List<SearchHit> results, MetaSearchResult metaResults,
+    public static XContentBuilder hitsAsStringResultZeroCopy(JoinResultStream results, MetaSearchResult metaResults,
                                                              ElasticJoinExecutor executor) throws IOException {
         BytesStreamOutput outputStream = new BytesStreamOutput();
 
         XContentBuilder builder = XContentFactory.contentBuilder(XContentType.JSON, outputStream).prettyPrint();
         builder.startObject();
+        try (JoinResultStream hits = results) {
+            toXContent(builder, EMPTY_PARAMS, hits, executor);
+        }
         builder.field("took", metaResults.getTookImMilli());
         builder.field("timed_out", metaResults.isTimedOut());
         builder.field("_shards", ImmutableMap.of(
@@ -117,7 +132,6 @@ public class ElasticUtils {
                 "successful", metaResults.getSuccessfulShards(),
                 "failed", metaResults.getFailedShards()
         ));
-        toXContent(builder, EMPTY_PARAMS, results, executor);
         builder.endObject();
 
         if (!BackOffRetryStrategy.isHealthy(2 * outputStream.size(), executor)) {
@@ -130,32 +144,34 @@ public class ElasticUtils {
     /**
      * Code copy from SearchHits
      */
-    private static void toXContent(XContentBuilder builder, Params params, List<SearchHit> hits,
+    private static void toXContent(XContentBuilder builder, Params params, Iterator<SearchHit> hits,
                                    ElasticJoinExecutor executor) throws IOException {
         builder.startObject(SearchHits.Fields.HITS);
-        builder.field(SearchHits.Fields.TOTAL, ImmutableMap.of(
-                "value", hits.size(),
-                "relation", Relation.EQUAL_TO
-        ));
-        builder.field(SearchHits.Fields.MAX_SCORE, 1.0f);
         builder.field(SearchHits.Fields.HITS);
         builder.startArray();
 
-        for (int i = 0; i < hits.size(); i++) {
-            if (i % 10000 == 0 && !BackOffRetryStrategy.isHealthy()) {
+        int total = 0;
+        while (hits.hasNext()) {
+            if (total % 10000 == 0 && !BackOffRetryStrategy.isHealthy()) {
                 throw new IllegalStateException("Memory circuit break when generating json builder");
             }
-            toXContent(builder, params, hits.get(i));
+            toXContent(builder, params, hits.next());
+            total++;
         }
 
         builder.endArray();
+        builder.field(SearchHits.Fields.TOTAL, ImmutableMap.of(
+                "value", total,
+                "relation", Relation.EQUAL_TO
+        ));
+        builder.field(SearchHits.Fields.MAX_SCORE, 1.0f);
         builder.endObject();
     }
 
     /**
      * Code copy from SearchHit but only keep fields interested and replace source by sourceMap
      */
-    private static void toXContent(XContentBuilder builder, Params params, SearchHit hit) throws IOException {
+    public static void toXContent(XContentBuilder builder, Params params, SearchHit hit) throws IOException {
         builder.startObject();
         if (hit.getType() != null) {
             builder.field("_type", hit.getType());
@@ -28,7 +28,6 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.common.text.Text;
-import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -137,7 +136,7 @@ public class HashJoinElasticExecutor extends ElasticJoinExecutor {
             finishedScrolling = true;
         } else {
             searchResponse = secondTableRequest.getRequestBuilder()
-                    .setScroll(new TimeValue(60000))
+                    .setScroll(ElasticUtils.scrollKeepAlive())
                     .setSize(MAX_RESULTS_ON_ONE_FETCH).get();
             //es5.0 no need to scroll again!
 //            searchResponse = client.prepareSearchScroll(searchResponse.getScrollId())
@@ -211,7 +210,7 @@ public class HashJoinElasticExecutor extends ElasticJoinExecutor {
             if (!finishedScrolling) {
                 if (secondTableHits.length > 0 && (hintLimit == null || fetchedSoFarFromSecondTable >= hintLimit)) {
                     searchResponse = client.prepareSearchScroll(searchResponse.getScrollId())
-                            .setScroll(new TimeValue(600000)).execute().actionGet();
+                            .setScroll(ElasticUtils.scrollKeepAlive()).execute().actionGet();
                 } else {
                     break;
                 }
@@ -293,7 +292,7 @@ public class HashJoinElasticExecutor extends ElasticJoinExecutor {
                 System.out.println("too many results for first table, stoping at:" + curentNumOfResults);
                 break;
             }
-            scrollResp = client.prepareSearchScroll(scrollResp.getScrollId()).setScroll(new TimeValue(600000))
+            scrollResp = client.prepareSearchScroll(scrollResp.getScrollId()).setScroll(ElasticUtils.scrollKeepAlive())
                     .execute().actionGet();
             hits = scrollResp.getHits().getHits();
         }
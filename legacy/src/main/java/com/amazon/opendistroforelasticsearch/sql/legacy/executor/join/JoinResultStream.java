@@ -0,0 +1,74 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.executor.join;
+
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.TotalHits.Relation;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Rows of join pulled lazily. Rows are only produced when requested so that the caller can serialize
+ * or page through join result without all of them held in memory at the same time.
+ */
+public interface JoinResultStream extends Iterator<SearchHit>, AutoCloseable {
+
+    /**
+     * Pull next page of rows.
+     *
+     * @param size max number of rows in the page
+     * @return rows pulled which is less than size only if the stream is exhausted
+     */
+    default SearchHits nextPage(int size) {
+        List<SearchHit> hits = new ArrayList<>();
+        while (hits.size() < size && hasNext()) {
+            hits.add(next());
+        }
+        return new SearchHits(hits.toArray(new SearchHit[0]), new TotalHits(hits.size(), Relation.EQUAL_TO), 1.0f);
+    }
+
+    /**
+     * Release resources held, ex. scroll context. Stream can be closed before exhausted.
+     */
+    @Override
+    void close();
+
+    /**
+     * Stream over rows that are already joined in memory.
+     */
+    static JoinResultStream of(List<SearchHit> hits) {
+        Iterator<SearchHit> iterator = hits.iterator();
+        return new JoinResultStream() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public SearchHit next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -28,6 +28,7 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.TableInJoinRe
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.maker.Maker;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.ActionFuture;
 import org.elasticsearch.action.search.MultiSearchRequest;
 import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
@@ -35,15 +36,18 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.common.text.Text;
-import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Created by Eliran on 15/9/2015.
@@ -61,13 +65,20 @@ public class NestedLoopsElasticExecutor extends ElasticJoinExecutor {
         this.nestedLoopsRequest = nestedLoops;
     }
 
+    /**
+     * Multi-searches for hits of the first table are pipelined: up to the configured number of them are
+     * in flight while the earliest one is combined, and next page of first table is fetched meanwhile.
+     * Responses are still combined in the order sent so the result is the same as running them one by one.
+     */
     @Override
     protected List<SearchHit> innerRun() throws SqlParseException {
         List<SearchHit> combinedResults = new ArrayList<>();
         int totalLimit = nestedLoopsRequest.getTotalLimit();
         int multiSearchMaxSize = nestedLoopsRequest.getMultiSearchMaxSize();
+        int multiSearchesInFlight = Math.max(1, nestedLoopsRequest.getMultiSearchesInFlight());
         Select secondTableSelect = nestedLoopsRequest.getSecondTable().getOriginalSelect();
         Where originalSecondTableWhere = secondTableSelect.getWhere();
+        ESClient esClient = new ESClient(client);
 
         orderConditions(nestedLoopsRequest.getFirstTable().getAlias(), nestedLoopsRequest.getSecondTable().getAlias());
 
@@ -77,54 +88,69 @@ public class NestedLoopsElasticExecutor extends ElasticJoinExecutor {
         FetchWithScrollResponse fetchWithScrollResponse = firstFetch(this.nestedLoopsRequest.getFirstTable());
         SearchResponse firstTableResponse = fetchWithScrollResponse.getResponse();
         boolean needScrollForFirstTable = fetchWithScrollResponse.isNeedScrollForFirstTable();
+        Integer firstTableHintLimit = nestedLoopsRequest.getFirstTable().getHintLimit();
+        int firstTableHitsLeft = (firstTableHintLimit == null) ? Integer.MAX_VALUE : firstTableHintLimit;
 
+        Deque<PendingMultiSearch> pendingMultiSearches = new ArrayDeque<>();
         int currentCombinedResults = 0;
-        boolean finishedWithFirstTable = false;
-
-        while (totalLimit > currentCombinedResults && !finishedWithFirstTable) {
 
+        while (firstTableResponse != null && totalLimit > currentCombinedResults) {
             SearchHit[] hits = firstTableResponse.getHits().getHits();
-            boolean finishedMultiSearches = hits.length == 0;
-            int currentHitsIndex = 0;
+            if (hits.length < MAX_RESULTS_ON_ONE_FETCH) {
+                needScrollForFirstTable = false;
+            }
 
-            while (!finishedMultiSearches) {
-                MultiSearchRequest multiSearchRequest = createMultiSearchRequest(multiSearchMaxSize,
-                        nestedLoopsRequest.getConnectedWhere(), hits, secondTableSelect,
-                        originalSecondTableWhere, currentHitsIndex);
-                int multiSearchSize = multiSearchRequest.requests().size();
+            // Hits of first table beyond the limit in hint are dropped and no more is scrolled
+            if (hits.length >= firstTableHitsLeft) {
+                hits = Arrays.copyOf(hits, firstTableHitsLeft);
+                needScrollForFirstTable = false;
+            }
+            firstTableHitsLeft -= hits.length;
+
+            ActionFuture<SearchResponse> nextFirstTablePage = null;
+            if (needScrollForFirstTable) {
                 if (!BackOffRetryStrategy.isHealthy()) {
                     throw new IllegalStateException("Memory circuit is broken");
                 }
-                currentCombinedResults = combineResultsFromMultiResponses(combinedResults, totalLimit,
-                        currentCombinedResults, hits, currentHitsIndex, multiSearchRequest);
-                currentHitsIndex += multiSearchSize;
-                finishedMultiSearches = currentHitsIndex >= hits.length - 1 || currentCombinedResults >= totalLimit;
+                nextFirstTablePage = client.prepareSearchScroll(firstTableResponse.getScrollId())
+                        .setScroll(ElasticUtils.scrollKeepAlive()).execute();
             }
 
-            if (hits.length < MAX_RESULTS_ON_ONE_FETCH) {
-                needScrollForFirstTable = false;
-            }
-
-            if (!finishedWithFirstTable) {
-                if (needScrollForFirstTable) {
-                    if (!BackOffRetryStrategy.isHealthy()) {
-                        throw new IllegalStateException("Memory circuit is broken");
+            for (int currentHitsIndex = 0; currentHitsIndex < hits.length && currentCombinedResults < totalLimit;
+                 currentHitsIndex += multiSearchMaxSize) {
+                if (pendingMultiSearches.size() >= multiSearchesInFlight) {
+                    currentCombinedResults = combineResultsFromMultiResponses(combinedResults, totalLimit,
+                            currentCombinedResults, pendingMultiSearches.poll());
+                    if (currentCombinedResults >= totalLimit) {
+                        break;
                     }
-                    firstTableResponse = client.prepareSearchScroll(firstTableResponse.getScrollId())
-                            .setScroll(new TimeValue(600000)).get();
-                } else {
-                    finishedWithFirstTable = true;
                 }
+
+                MultiSearchRequest multiSearchRequest = createMultiSearchRequest(multiSearchMaxSize,
+                        nestedLoopsRequest.getConnectedWhere(), hits, secondTableSelect,
+                        originalSecondTableWhere, currentHitsIndex);
+                if (!BackOffRetryStrategy.isHealthy()) {
+                    throw new IllegalStateException("Memory circuit is broken");
+                }
+                pendingMultiSearches.add(new PendingMultiSearch(hits, currentHitsIndex,
+                        esClient.multiSearchAsync(multiSearchRequest)));
             }
 
+            firstTableResponse = (nextFirstTablePage == null) ? null : nextFirstTablePage.actionGet();
+        }
+
+        while (!pendingMultiSearches.isEmpty() && totalLimit > currentCombinedResults) {
+            currentCombinedResults = combineResultsFromMultiResponses(combinedResults, totalLimit,
+                    currentCombinedResults, pendingMultiSearches.poll());
         }
         return combinedResults;
     }
 
     private int combineResultsFromMultiResponses(List<SearchHit> combinedResults, int totalLimit,
-                                                 int currentCombinedResults, SearchHit[] hits, int currentIndex,
-                                                 MultiSearchRequest multiSearchRequest) {
-        MultiSearchResponse.Item[] responses = new ESClient(client).multiSearch(multiSearchRequest);
+                                                 int currentCombinedResults, PendingMultiSearch multiSearch) {
+        MultiSearchResponse.Item[] responses = multiSearch.getResponses();
+        SearchHit[] hits = multiSearch.hits;
+        int currentIndex = multiSearch.currentIndex;
         String t1Alias = nestedLoopsRequest.getFirstTable().getAlias();
         String t2Alias = nestedLoopsRequest.getSecondTable().getAlias();
 
@@ -260,7 +286,7 @@ public class NestedLoopsElasticExecutor extends ElasticJoinExecutor {
             //scroll request with max.
             responseWithHits = scrollOneTimeWithMax(client, tableRequest);
             if (responseWithHits.getHits().getTotalHits() != null
-                    && responseWithHits.getHits().getTotalHits().value < MAX_RESULTS_ON_ONE_FETCH) {
+                    && responseWithHits.getHits().getTotalHits().value > MAX_RESULTS_ON_ONE_FETCH) {
                 needScrollForFirstTable = true;
             }
         }
@@ -325,6 +351,25 @@ public class NestedLoopsElasticExecutor extends ElasticJoinExecutor {
     }
 
 
+    /**
+     * Multi-search sent for hits of the first table starting from the index.
+     */
+    private static class PendingMultiSearch {
+        private final SearchHit[] hits;
+        private final int currentIndex;
+        private final Supplier<MultiSearchResponse.Item[]> responses;
+
+        private PendingMultiSearch(SearchHit[] hits, int currentIndex, Supplier<MultiSearchResponse.Item[]> responses) {
+            this.hits = hits;
+            this.currentIndex = currentIndex;
+            this.responses = responses;
+        }
+
+        private MultiSearchResponse.Item[] getResponses() {
+            return responses.get();
+        }
+    }
+
     private class FetchWithScrollResponse {
         private SearchResponse response;
         private boolean needScrollForFirstTable;
@@ -18,7 +18,9 @@ package com.amazon.opendistroforelasticsearch.sql.legacy.executor.join;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.HashJoinQueryPlanRequestBuilder;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.QueryPlanner;
 import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
 
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -42,6 +44,41 @@ class QueryPlanElasticExecutor extends ElasticJoinExecutor {
         return result;
     }
 
+    /**
+     * Open query plan so that rows are pulled from physical operators on demand rather than collected
+     * in a list first. Time out of the plan is restarted for each page because pages could be pulled
+     * by cursor requests far apart, in which case scroll context is kept alive for that long as well.
+     */
+    @Override
+    public JoinResultStream stream() {
+        long timeBefore = System.currentTimeMillis();
+        Iterator<SearchHit> rows = queryPlanner.open(ElasticUtils.scrollKeepAlive());
+        return new JoinResultStream() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public SearchHit next() {
+                return rows.next();
+            }
+
+            @Override
+            public SearchHits nextPage(int size) {
+                queryPlanner.restartTimer();
+                return JoinResultStream.super.nextPage(size);
+            }
+
+            @Override
+            public void close() {
+                queryPlanner.close();
+                populateMetaResult();
+                metaResults.setTookImMilli(System.currentTimeMillis() - timeBefore);
+            }
+        };
+    }
+
     private void populateMetaResult() {
         metaResults.addTotalNumOfShards(queryPlanner.getMetaResult().getTotalNumOfShards());
         metaResults.addSuccessfulShards(queryPlanner.getMetaResult().getSuccessfulShards());
@@ -0,0 +1,118 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.executor.multi;
+
+import java.io.IOException;
+
+/**
+ * Set of 128-bit fingerprints stored in a primitive array by open addressing with linear probing.
+ * Each entry takes 16 bytes regardless of how many fields and how long the values are in the row
+ * it's computed from, which is far smaller than keeping the row itself on heap.
+ */
+class FingerprintSet {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * High and low half of each fingerprint are stored in adjacent slots.
+     * All zero fingerprint is used as empty slot so it's tracked separately.
+     */
+    private long[] table = new long[INITIAL_CAPACITY * 2];
+    private boolean containsZero;
+    private int size;
+
+    /**
+     * @return true if fingerprint was not present
+     */
+    boolean add(long high, long low) {
+        if (high == 0 && low == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            size += added ? 1 : 0;
+            return added;
+        }
+
+        int slot = find(table, high, low);
+        if (table[slot] != 0 || table[slot + 1] != 0) {
+            return false;
+        }
+        table[slot] = high;
+        table[slot + 1] = low;
+        if (++size * 4 > table.length) { // Keep load factor under 0.5
+            resize();
+        }
+        return true;
+    }
+
+    boolean contains(long high, long low) {
+        if (high == 0 && low == 0) {
+            return containsZero;
+        }
+        int slot = find(table, high, low);
+        return table[slot] != 0 || table[slot + 1] != 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Call consumer on each fingerprint in the set.
+     */
+    void forEach(FingerprintConsumer consumer) throws IOException {
+        if (containsZero) {
+            consumer.accept(0, 0);
+        }
+        for (int i = 0; i < table.length; i += 2) {
+            if (table[i] != 0 || table[i + 1] != 0) {
+                consumer.accept(table[i], table[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Find the slot of the fingerprint or the empty slot where it should be inserted.
+     */
+    private static int find(long[] table, long high, long low) {
+        int mask = table.length / 2 - 1;
+        int index = (int) (low ^ (low >>> 32)) & mask;
+        while (true) {
+            int slot = index * 2;
+            if ((table[slot] == 0 && table[slot + 1] == 0)
+                    || (table[slot] == high && table[slot + 1] == low)) {
+                return slot;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        long[] newTable = new long[table.length * 2];
+        for (int i = 0; i < table.length; i += 2) {
+            if (table[i] != 0 || table[i + 1] != 0) {
+                int slot = find(newTable, table[i], table[i + 1]);
+                newTable[slot] = table[i];
+                newTable[slot + 1] = table[i + 1];
+            }
+        }
+        table = newTable;
+    }
+
+    @FunctionalInterface
+    interface FingerprintConsumer {
+        void accept(long high, long low) throws IOException;
+    }
+}
@@ -21,23 +21,38 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Select;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Where;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.hints.Hint;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.hints.HintType;
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
 import com.amazon.opendistroforelasticsearch.sql.legacy.exception.SqlParseException;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.ElasticHitsExecutor;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.ElasticUtils;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.DefaultQueryAction;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.BackOffRetryStrategy;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.multi.MultiQueryRequestBuilder;
 import com.amazon.opendistroforelasticsearch.sql.legacy.utils.Util;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.TotalHits.Relation;
+import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -47,11 +62,24 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
+import static com.amazon.opendistroforelasticsearch.sql.legacy.plugin.SqlSettings.CURSOR_KEEPALIVE;
+
 
 /**
  * Created by Eliran on 26/8/2016.
  */
 public class MinusExecutor implements ElasticHitsExecutor {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final HashFunction FINGERPRINT_FUNCTION = Hashing.murmur3_128();
+
+    /**
+     * Max number of fingerprints of second table kept in memory (16 bytes each) before spilling to disk.
+     */
+    static final int MAX_FINGERPRINTS_IN_MEMORY = 1 << 20;
+
+    private final int maxFingerprintsInMemory;
     private Client client;
     private MultiQueryRequestBuilder builder;
     private SearchHits minusHits;
@@ -66,6 +94,12 @@ public class MinusExecutor implements ElasticHitsExecutor {
     private String seperator;
 
     public MinusExecutor(Client client, MultiQueryRequestBuilder builder) {
+        this(client, builder, MAX_FINGERPRINTS_IN_MEMORY);
+    }
+
+    @VisibleForTesting
+    MinusExecutor(Client client, MultiQueryRequestBuilder builder, int maxFingerprintsInMemory) {
+        this.maxFingerprintsInMemory = maxFingerprintsInMemory;
         this.client = client;
         this.builder = builder;
         this.useTermsOptimization = false;
@@ -77,7 +111,7 @@ public class MinusExecutor implements ElasticHitsExecutor {
     }
 
     @Override
-    public void run() throws SqlParseException {
+    public void run() throws IOException, SqlParseException {
         if (this.useTermsOptimization && this.fieldsOrderFirstTable.length != 1) {
             throw new SqlParseException(
                     "Terms optimization failed: terms optimization for minus execution is supported with one field");
@@ -87,20 +121,10 @@ public class MinusExecutor implements ElasticHitsExecutor {
                     "Terms optimization failed: using scrolling is required for terms optimization");
         }
         if (!this.useScrolling || !this.useTermsOptimization) {
-            Set<ComperableHitResult> comperableHitResults;
-            if (!this.useScrolling) {
-                //1. get results from first search , put in set
-                //2. get reults from second search
-                //2.1 for each result remove from set
-                comperableHitResults = simpleOneTimeQueryEach();
-            } else {
-                //if scrolling
-                //1. get all results in scrolls (till some limit) . put on set
-                //2. scroll on second table
-                //3. on each scroll result remove items from set
-                comperableHitResults = runWithScrollings();
-            }
-            fillMinusHitsFromResults(comperableHitResults);
+            //1. search second table, scroll if required (till some limit)
+            //2. put fingerprint of each result of second table on set, spill to disk if too many
+            //3. then search first table and keep each result if its fingerprint is absent in set
+            fillMinusHitsFromResults(runWithFingerprints());
             return;
         } else {
             //if scrolling and optimization
@@ -154,7 +178,7 @@ public class MinusExecutor implements ElasticHitsExecutor {
         this.minusHits = new SearchHits(unionHitsArr, new TotalHits(totalSize, Relation.EQUAL_TO), 1.0f);
     }
 
-    private void fillMinusHitsFromResults(Set<ComperableHitResult> comperableHitResults) {
+    private void fillMinusHitsFromResults(List<ComperableHitResult> comperableHitResults) {
         int currentId = 1;
         List<SearchHit> minusHitsList = new ArrayList<>();
         for (ComperableHitResult result : comperableHitResults) {
@@ -187,86 +211,107 @@ public class MinusExecutor implements ElasticHitsExecutor {
         this.minusHits = new SearchHits(unionHitsArr, new TotalHits(totalSize, Relation.EQUAL_TO), 1.0f);
     }
 
-    private Set<ComperableHitResult> runWithScrollings() {
-
-        SearchResponse scrollResp = ElasticUtils.scrollOneTimeWithHits(this.client,
-                this.builder.getFirstSearchRequest(),
-                builder.getOriginalSelect(true), this.maxDocsToFetchOnEachScrollShard);
-        Set<ComperableHitResult> results = new HashSet<>();
-
-        SearchHit[] hits = scrollResp.getHits().getHits();
-        if (hits == null || hits.length == 0) {
-            return new HashSet<>();
-        }
-        int totalDocsFetchedFromFirstTable = 0;
-
-        //fetch from first table . fill set.
-        while (hits != null && hits.length != 0) {
-            totalDocsFetchedFromFirstTable += hits.length;
-            fillComperableSetFromHits(this.fieldsOrderFirstTable, hits, results);
-            if (totalDocsFetchedFromFirstTable > this.maxDocsToFetchOnFirstTable) {
-                break;
+    /**
+     * Second table is scrolled through first and only 128-bit fingerprints of its compared fields are kept
+     * on heap. First table is searched only after that so its scroll context can't expire while waiting, and
+     * is then streamed against the fingerprints with only the distinct rows remaining collected as result.
+     * Once fingerprints of both tables exceed the memory budget, all of them are spilled to disk partitions.
+     */
+    private List<ComperableHitResult> runWithFingerprints() throws IOException {
+        ScrolledTable firstTable = new ScrolledTable(this.builder.getFirstSearchRequest(),
+                this.builder.getOriginalSelect(true), this.maxDocsToFetchOnFirstTable);
+        ScrolledTable secondTable = new ScrolledTable(this.builder.getSecondSearchRequest(),
+                this.builder.getOriginalSelect(false), this.maxDocsToFetchOnSecondTable);
+        List<ComperableHitResult> results = new ArrayList<>();
+        FingerprintSet secondTableFingerprints = new FingerprintSet();
+        FingerprintSet firstTableFingerprints = new FingerprintSet();
+        SpilledPartitions partitions = null;
+        try {
+            secondTable.start();
+            while (secondTable.hasNextPage()) {
+                for (SearchHit hit : secondTable.nextPage()) {
+                    ComperableHitResult comperableHitResult =
+                            new ComperableHitResult(hit, this.fieldsOrderSecondTable, this.seperator);
+                    if (comperableHitResult.isAllNull()) {
+                        continue;
+                    }
+                    long[] fingerprint = fingerprintOf(comperableHitResult);
+                    if (partitions != null) {
+                        partitions.addSecondTableRow(fingerprint[0], fingerprint[1]);
+                    } else if (secondTableFingerprints.add(fingerprint[0], fingerprint[1])
+                            && secondTableFingerprints.size() > this.maxFingerprintsInMemory) {
+                        partitions = spill(secondTableFingerprints, results);
+                        secondTableFingerprints = null;
+                    }
+                }
             }
-            scrollResp = client.prepareSearchScroll(scrollResp.getScrollId())
-                    .setScroll(new TimeValue(600000)).execute().actionGet();
-            hits = scrollResp.getHits().getHits();
-        }
-        scrollResp = ElasticUtils.scrollOneTimeWithHits(this.client, this.builder.getSecondSearchRequest(),
-                builder.getOriginalSelect(false), this.maxDocsToFetchOnEachScrollShard);
 
+            firstTable.start();
+            while (firstTable.hasNextPage()) {
+                if (!BackOffRetryStrategy.isHealthy()) {
+                    throw new IllegalStateException("Memory circuit break when executing minus");
+                }
+                for (SearchHit hit : firstTable.nextPage()) {
+                    ComperableHitResult comperableHitResult =
+                            new ComperableHitResult(hit, this.fieldsOrderFirstTable, this.seperator);
+                    if (comperableHitResult.isAllNull()) {
+                        continue;
+                    }
+                    long[] fingerprint = fingerprintOf(comperableHitResult);
+                    if (partitions != null) {
+                        partitions.addFirstTableRow(fingerprint[0], fingerprint[1], hit);
+                    } else if (!secondTableFingerprints.contains(fingerprint[0], fingerprint[1])
+                            && firstTableFingerprints.add(fingerprint[0], fingerprint[1])) {
+                        results.add(comperableHitResult);
+                        if (secondTableFingerprints.size() + firstTableFingerprints.size()
+                                > this.maxFingerprintsInMemory) {
+                            partitions = spill(secondTableFingerprints, results);
+                            secondTableFingerprints = null;
+                            firstTableFingerprints = null;
+                        }
+                    }
+                }
+            }
 
-        hits = scrollResp.getHits().getHits();
-        if (hits == null || hits.length == 0) {
-            return results;
-        }
-        int totalDocsFetchedFromSecondTable = 0;
-        while (hits != null && hits.length != 0) {
-            totalDocsFetchedFromSecondTable += hits.length;
-            removeValuesFromSetAccordingToHits(this.fieldsOrderSecondTable, results, hits);
-            if (totalDocsFetchedFromSecondTable > this.maxDocsToFetchOnSecondTable) {
-                break;
+            if (partitions != null) {
+                partitions.forEachRemaining(hit ->
+                        results.add(new ComperableHitResult(hit, this.fieldsOrderFirstTable, this.seperator)));
+            }
+        } finally {
+            firstTable.close();
+            secondTable.close();
+            if (partitions != null) {
+                partitions.close();
             }
-            scrollResp = client.prepareSearchScroll(scrollResp.getScrollId())
-                    .setScroll(new TimeValue(600000)).execute().actionGet();
-            hits = scrollResp.getHits().getHits();
         }
-
         return results;
     }
 
-    private Set<ComperableHitResult> simpleOneTimeQueryEach() {
-        SearchHit[] firstTableHits = this.builder.getFirstSearchRequest().get().getHits().getHits();
-        if (firstTableHits == null || firstTableHits.length == 0) {
-            return new HashSet<>();
-        }
-
-        Set<ComperableHitResult> result = new HashSet<>();
-        fillComperableSetFromHits(this.fieldsOrderFirstTable, firstTableHits, result);
-        SearchHit[] secondTableHits = this.builder.getSecondSearchRequest().get().getHits().getHits();
-        if (secondTableHits == null || secondTableHits.length == 0) {
-            return result;
-        }
-        removeValuesFromSetAccordingToHits(this.fieldsOrderSecondTable, result, secondTableHits);
-        return result;
-    }
-
-    private void removeValuesFromSetAccordingToHits(String[] fieldsOrder,
-                                                    Set<ComperableHitResult> set, SearchHit[] hits) {
-        for (SearchHit hit : hits) {
-            ComperableHitResult comperableHitResult = new ComperableHitResult(hit, fieldsOrder, this.seperator);
-            if (!comperableHitResult.isAllNull()) {
-                set.remove(comperableHitResult);
+    /**
+     * Move fingerprints of second table and distinct rows of first table collected so far to disk partitions.
+     * Rows collected are cleared so only the final result read back from partitions is held on heap.
+     */
+    private SpilledPartitions spill(FingerprintSet secondTableFingerprints,
+                                    List<ComperableHitResult> results) throws IOException {
+        SpilledPartitions partitions = new SpilledPartitions();
+        try {
+            secondTableFingerprints.forEach(partitions::addSecondTableRow);
+            for (ComperableHitResult result : results) {
+                long[] fingerprint = fingerprintOf(result);
+                partitions.addFirstTableRow(fingerprint[0], fingerprint[1], result.getOriginalHit());
             }
+        } catch (IOException e) {
+            IOUtils.closeWhileHandlingException(partitions);
+            throw e;
         }
+        results.clear();
+        return partitions;
     }
 
-    private void fillComperableSetFromHits(String[] fieldsOrder, SearchHit[] hits, Set<ComperableHitResult> setToFill) {
-        for (SearchHit hit : hits) {
-            ComperableHitResult comperableHitResult = new ComperableHitResult(hit, fieldsOrder, this.seperator);
-            if (!comperableHitResult.isAllNull()) {
-                setToFill.add(comperableHitResult);
-            }
-        }
+    private static long[] fingerprintOf(ComperableHitResult comperableHitResult) {
+        ByteBuffer hash = ByteBuffer.wrap(
+                FINGERPRINT_FUNCTION.hashString(comperableHitResult.getComperator(), StandardCharsets.UTF_8).asBytes());
+        return new long[]{hash.getLong(), hash.getLong()};
     }
 
     private String getFieldName(Field field) {
@@ -330,7 +375,7 @@ public class MinusExecutor implements ElasticHitsExecutor {
                     break;
                 }
                 responseForSecondTable = client.prepareSearchScroll(responseForSecondTable.getScrollId())
-                        .setScroll(new TimeValue(600000)).execute().actionGet();
+                        .setScroll(ElasticUtils.scrollKeepAlive()).execute().actionGet();
                 secondQueryHits = responseForSecondTable.getHits().getHits();
             }
             results.addAll(currentSetFromResults);
@@ -340,7 +385,7 @@ public class MinusExecutor implements ElasticHitsExecutor {
             }
 
             scrollResp = client.prepareSearchScroll(scrollResp.getScrollId())
-                    .setScroll(new TimeValue(600000)).execute().actionGet();
+                    .setScroll(ElasticUtils.scrollKeepAlive()).execute().actionGet();
             hits = scrollResp.getHits().getHits();
         }
         return new MinusOneFieldAndOptimizationResult(results, someHit);
@@ -452,4 +497,78 @@ public class MinusExecutor implements ElasticHitsExecutor {
         }
     }
 
+    /**
+     * One table of minus which is searched asynchronously. If scrolling is required by hint, next page is
+     * requested as soon as current one arrives until the fetch limit is reached.
+     */
+    private class ScrolledTable {
+
+        private final SearchRequestBuilder request;
+        private final Select select;
+        private final int maxDocsToFetch;
+
+        private TimeValue keepAlive;
+        private int docsFetched;
+        private String scrollId;
+        private ActionFuture<SearchResponse> pendingPage;
+
+        ScrolledTable(SearchRequestBuilder request, Select select, int maxDocsToFetch) {
+            this.request = request;
+            this.select = select;
+            this.maxDocsToFetch = maxDocsToFetch;
+        }
+
+        void start() {
+            if (useScrolling) {
+                keepAlive = LocalClusterState.state().getSettingValue(CURSOR_KEEPALIVE);
+                request.setScroll(keepAlive).setSize(maxDocsToFetchOnEachScrollShard);
+                if (!select.isOrderdSelect()) {
+                    request.addSort(FieldSortBuilder.DOC_FIELD_NAME, SortOrder.ASC);
+                }
+            }
+            pendingPage = request.execute();
+        }
+
+        boolean hasNextPage() {
+            return pendingPage != null;
+        }
+
+        SearchHit[] nextPage() {
+            SearchResponse response = pendingPage.actionGet();
+            pendingPage = null;
+
+            SearchHit[] hits = response.getHits().getHits();
+            if (useScrolling) {
+                scrollId = response.getScrollId();
+                docsFetched += hits.length;
+                if (scrollId != null && hits.length > 0 && docsFetched <= maxDocsToFetch) {
+                    pendingPage = client.prepareSearchScroll(scrollId).setScroll(keepAlive).execute();
+                }
+            }
+            return hits;
+        }
+
+        void close() {
+            if (pendingPage != null) {
+                // Wait for the page in flight so the scroll id returned is the latest one to clear
+                try {
+                    scrollId = pendingPage.actionGet().getScrollId();
+                } catch (RuntimeException e) {
+                    LOG.warn("Failed to get page in flight of minus query", e);
+                }
+                pendingPage = null;
+            }
+            if (scrollId == null) {
+                return;
+            }
+
+            try {
+                if (!client.prepareClearScroll().addScrollId(scrollId).get().isSucceeded()) {
+                    LOG.warn("Failed to clear scroll context {} of minus query", scrollId);
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to clear scroll context {} of minus query", scrollId, e);
+            }
+        }
+    }
 }
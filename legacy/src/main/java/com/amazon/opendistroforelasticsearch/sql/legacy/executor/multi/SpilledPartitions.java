@@ -0,0 +1,148 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.executor.multi;
+
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.search.SearchHit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Rows of both tables of minus hash partitioned by fingerprint into temporary files. This is used once
+ * fingerprints of second table exceed the memory budget. Because same row always goes to same partition,
+ * each partition is processed independently with only fingerprints of second table in it loaded into memory.
+ */
+class SpilledPartitions implements Closeable {
+
+    static final int PARTITION_COUNT = 16;
+
+    private final Path directory;
+
+    /**
+     * Fingerprints of second table and fingerprint followed by hit of first table in each partition.
+     */
+    private final StreamOutput[] secondTableOutputs = new StreamOutput[PARTITION_COUNT];
+    private final StreamOutput[] firstTableOutputs = new StreamOutput[PARTITION_COUNT];
+    private final long[] secondTableCounts = new long[PARTITION_COUNT];
+    private final long[] firstTableCounts = new long[PARTITION_COUNT];
+
+    SpilledPartitions() throws IOException {
+        directory = Files.createTempDirectory("minus");
+        try {
+            for (int i = 0; i < PARTITION_COUNT; i++) {
+                secondTableOutputs[i] = open(secondTableFile(i));
+                firstTableOutputs[i] = open(firstTableFile(i));
+            }
+        } catch (IOException e) {
+            IOUtils.closeWhileHandlingException(this);
+            throw e;
+        }
+    }
+
+    void addSecondTableRow(long high, long low) throws IOException {
+        int partition = partitionOf(high);
+        StreamOutput out = secondTableOutputs[partition];
+        out.writeLong(high);
+        out.writeLong(low);
+        secondTableCounts[partition]++;
+    }
+
+    void addFirstTableRow(long high, long low, SearchHit hit) throws IOException {
+        int partition = partitionOf(high);
+        StreamOutput out = firstTableOutputs[partition];
+        out.writeLong(high);
+        out.writeLong(low);
+        hit.writeTo(out);
+        firstTableCounts[partition]++;
+    }
+
+    /**
+     * Call consumer on hit of each distinct row of first table whose fingerprint is absent in second table.
+     */
+    void forEachRemaining(Consumer<SearchHit> consumer) throws IOException {
+        IOUtils.close(secondTableOutputs);
+        IOUtils.close(firstTableOutputs);
+
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            FingerprintSet secondTable = new FingerprintSet();
+            try (StreamInput in = openInput(secondTableFile(i))) {
+                for (long n = 0; n < secondTableCounts[i]; n++) {
+                    secondTable.add(in.readLong(), in.readLong());
+                }
+            }
+
+            FingerprintSet firstTable = new FingerprintSet();
+            try (StreamInput in = openInput(firstTableFile(i))) {
+                for (long n = 0; n < firstTableCounts[i]; n++) {
+                    long high = in.readLong();
+                    long low = in.readLong();
+                    SearchHit hit = new SearchHit(in);
+                    if (!secondTable.contains(high, low) && firstTable.add(high, low)) {
+                        consumer.accept(hit);
+                    }
+                }
+            }
+            Files.delete(secondTableFile(i));
+            Files.delete(firstTableFile(i));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        List<Closeable> outputs = new ArrayList<>();
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            outputs.add(secondTableOutputs[i]);
+            outputs.add(firstTableOutputs[i]);
+        }
+        IOUtils.closeWhileHandlingException(outputs);
+        IOUtils.rm(directory);
+    }
+
+    /**
+     * Partition by the top bits which are independent of the low bits used by fingerprint set for probing.
+     */
+    private static int partitionOf(long high) {
+        return (int) (high >>> (Long.SIZE - Integer.numberOfTrailingZeros(PARTITION_COUNT)));
+    }
+
+    private Path secondTableFile(int partition) {
+        return directory.resolve("second-" + partition);
+    }
+
+    private Path firstTableFile(int partition) {
+        return directory.resolve("first-" + partition);
+    }
+
+    private static StreamOutput open(Path file) throws IOException {
+        return new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+
+    private static StreamInput openInput(Path file) throws IOException {
+        return new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(file)));
+    }
+}
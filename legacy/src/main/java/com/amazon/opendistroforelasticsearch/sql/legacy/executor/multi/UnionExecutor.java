@@ -15,77 +15,383 @@
 
 package com.amazon.opendistroforelasticsearch.sql.legacy.executor.multi;
 
+import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Field;
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.ElasticHitsExecutor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.ElasticUtils;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.JoinResultStream;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.MetaSearchResult;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.BackOffRetryStrategy;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.multi.MultiQueryRequestBuilder;
 import com.amazon.opendistroforelasticsearch.sql.legacy.utils.Util;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.TotalHits.Relation;
+import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.document.DocumentField;
-import org.elasticsearch.common.text.Text;
-import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static com.amazon.opendistroforelasticsearch.sql.legacy.plugin.SqlSettings.CURSOR_KEEPALIVE;
+import static org.elasticsearch.common.xcontent.ToXContent.EMPTY_PARAMS;
 
 /**
  * Created by Eliran on 21/8/2016.
+ * <p>
+ * Both queries are searched concurrently so the latency is the slower one of the two rather than the sum.
+ * Query that requires more rows than a single page is scrolled through page by page. Hits are renamed
+ * in place and either collected or written to response directly with at most one page in flight per query.
+ * Because scroll context of the second query may expire while the first one is consumed, the second query
+ * is searched only after the first one is done if it requires scroll.
+ * <p>
+ * For JDBC format, hits are pulled from {@link #stream()} so that the result can be paged through by cursor
+ * in the same way as join result.
  */
 public class UnionExecutor implements ElasticHitsExecutor {
 
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * Page size of scroll which is the default max result window of index.
+     */
+    static final int SCROLL_PAGE_SIZE = 10000;
+
     private MultiQueryRequestBuilder multiQueryBuilder;
     private SearchHits results;
     private Client client;
-    private int currentId;
+    private final MetaSearchResult metaResults = new MetaSearchResult();
 
     public UnionExecutor(Client client, MultiQueryRequestBuilder builder) {
         multiQueryBuilder = builder;
         this.client = client;
-        currentId = 0;
     }
 
     @Override
-    public void run() {
-        SearchResponse firstResponse = this.multiQueryBuilder.getFirstSearchRequest().get();
-        SearchHit[] hits = firstResponse.getHits().getHits();
-        List<SearchHit> unionHits = new ArrayList<>(hits.length);
-        fillInternalSearchHits(unionHits, hits, this.multiQueryBuilder.getFirstTableFieldToAlias());
-        SearchResponse secondResponse = this.multiQueryBuilder.getSecondSearchRequest().get();
-        fillInternalSearchHits(unionHits, secondResponse.getHits().getHits(),
-                this.multiQueryBuilder.getSecondTableFieldToAlias());
+    public void run() throws IOException {
+        List<SearchHit> unionHits = new ArrayList<>();
+        forEachHit(unionHits::add);
         int totalSize = unionHits.size();
         SearchHit[] unionHitsArr = unionHits.toArray(new SearchHit[totalSize]);
         this.results = new SearchHits(unionHitsArr, new TotalHits(totalSize, Relation.EQUAL_TO), 1.0f);
     }
 
-    private void fillInternalSearchHits(List<SearchHit> unionHits, SearchHit[] hits,
-                                        Map<String, String> fieldNameToAlias) {
-        for (SearchHit hit : hits) {
-            Map<String, DocumentField> documentFields = new HashMap<>();
-            Map<String, DocumentField> metaFields = new HashMap<>();
-            hit.getFields().forEach((fieldName, docField) ->
-                (MapperService.META_FIELDS_BEFORE_7DOT8.contains(fieldName) ? metaFields : documentFields).put(fieldName, docField));
-            SearchHit searchHit = new SearchHit(currentId, hit.getId(), new Text(hit.getType()), documentFields, metaFields);
-            searchHit.sourceRef(hit.getSourceRef());
-            searchHit.getSourceAsMap().clear();
-            Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-            if (!fieldNameToAlias.isEmpty()) {
-                updateFieldNamesToAlias(sourceAsMap, fieldNameToAlias);
-            }
-            searchHit.getSourceAsMap().putAll(sourceAsMap);
-            currentId++;
-            unionHits.add(searchHit);
+    /**
+     * Write hits to response as they arrive page by page without collecting them first.
+     * Total count is written after the hits because it's unknown until all pages are consumed.
+     */
+    public void sendResponse(RestChannel channel) throws IOException {
+        XContentBuilder builder = XContentFactory.contentBuilder(XContentType.JSON).prettyPrint();
+        try {
+            builder.startObject();
+            builder.startObject(SearchHits.Fields.HITS);
+            builder.field(SearchHits.Fields.HITS);
+            builder.startArray();
+            long total = forEachHit(hit -> ElasticUtils.toXContent(builder, EMPTY_PARAMS, hit));
+            builder.endArray();
+            builder.field(SearchHits.Fields.TOTAL, ImmutableMap.of("value", total, "relation", Relation.EQUAL_TO));
+            builder.field(SearchHits.Fields.MAX_SCORE, 1.0f);
+            builder.endObject();
+            builder.field("took", metaResults.getTookImMilli());
+            builder.field("timed_out", metaResults.isTimedOut());
+            builder.field("_shards", ImmutableMap.of(
+                    "total", metaResults.getTotalNumOfShards(),
+                    "successful", metaResults.getSuccessfulShards(),
+                    "failed", metaResults.getFailedShards()
+            ));
+            builder.endObject();
+        } catch (IOException | RuntimeException e) {
+            builder.close();
+            throw e;
+        }
+        channel.sendResponse(new BytesRestResponse(RestStatus.OK, builder));
+    }
+
+    /**
+     * Consume hits of first query followed by second query with fields renamed to alias.
+     *
+     * @return number of hits consumed
+     */
+    private long forEachHit(HitConsumer consumer) throws IOException {
+        long timeBefore = System.currentTimeMillis();
+        long count = 0;
+        try (JoinResultStream hits = stream(multiQueryBuilder.getFirstTableFieldToAlias(),
+                multiQueryBuilder.getSecondTableFieldToAlias(), false)) {
+            while (hits.hasNext()) {
+                consumer.accept(hits.next());
+                count++;
+            }
+        }
+        metaResults.setTookImMilli(System.currentTimeMillis() - timeBefore);
+        return count;
+    }
+
+    /**
+     * Stream hits of first query followed by second query for JDBC format. Result is described by schema of
+     * the first query, so fields of second query are renamed to the fields of first query with same name or
+     * alias. Source of each hit is flattened beforehand because rows are pulled by cursor request later in
+     * which the query is not available any more, ex. {"a":{"b":1}} to {"a":{"b":1},"a.b":1}.
+     *
+     * @return hits of union pulled page by page
+     */
+    public JoinResultStream stream() {
+        return stream(Collections.emptyMap(), secondTableFieldToFirstTableField(), true);
+    }
+
+    /**
+     * Search both queries concurrently unless second query requires scroll, in which case it is deferred
+     * until first query is consumed in case its scroll context expires in between.
+     */
+    private JoinResultStream stream(Map<String, String> firstFieldRenames, Map<String, String> secondFieldRenames,
+                                    boolean flatten) {
+        List<ScrolledQuery> queries = Arrays.asList(
+                new ScrolledQuery(client, multiQueryBuilder.getFirstSearchRequest(), firstFieldRenames, flatten),
+                new ScrolledQuery(client, multiQueryBuilder.getSecondSearchRequest(), secondFieldRenames, flatten));
+        try {
+            queries.get(0).start();
+            if (!queries.get(1).isScrolled()) {
+                queries.get(1).start();
+            }
+        } catch (RuntimeException e) {
+            queries.forEach(ScrolledQuery::close);
+            throw e;
+        }
+
+        return new JoinResultStream() {
+            private int current = 0;
+            private Iterator<SearchHit> page = Collections.emptyIterator();
+            private long count = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && current < queries.size()) {
+                    ScrolledQuery query = queries.get(current);
+                    if (!query.isStarted()) {
+                        query.start();
+                    }
+                    if (query.hasNextPage()) {
+                        page = Arrays.asList(query.nextPage()).iterator();
+                    } else {
+                        current++;
+                    }
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public SearchHit next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No more hits in union result");
+                }
+                if (++count % SCROLL_PAGE_SIZE == 0 && !BackOffRetryStrategy.isHealthy()) {
+                    throw new IllegalStateException("Memory circuit break when consuming union results");
+                }
+                return page.next();
+            }
+
+            @Override
+            public void close() {
+                queries.forEach(ScrolledQuery::close);
+            }
+        };
+    }
+
+    /**
+     * Map field of second query to field of first query which has the same name or alias in the result.
+     */
+    private Map<String, String> secondTableFieldToFirstTableField() {
+        Map<String, String> firstFieldByResultName = new HashMap<>();
+        for (Field field : multiQueryBuilder.getOriginalSelect(true).getFields()) {
+            firstFieldByResultName.put(resultName(field), field.getName());
+        }
+
+        Map<String, String> renames = new HashMap<>();
+        for (Field field : multiQueryBuilder.getOriginalSelect(false).getFields()) {
+            String firstField = firstFieldByResultName.get(resultName(field));
+            if (firstField != null && !firstField.equals(field.getName())) {
+                renames.put(field.getName(), firstField);
+            }
+        }
+        return renames;
+    }
+
+    private static String resultName(Field field) {
+        return Strings.isNullOrEmpty(field.getAlias()) ? field.getName() : field.getAlias();
+    }
+
+    @Override
+    public SearchHits getHits() {
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface HitConsumer {
+        void accept(SearchHit hit) throws IOException;
+    }
+
+    /**
+     * One query of union which is scrolled only if it requires more rows than a page.
+     * Next page is requested as soon as current one arrives so fetching overlaps with consuming.
+     */
+    private static class ScrolledQuery {
+
+        private final Client client;
+        private final SearchRequestBuilder request;
+        private final Map<String, String> fieldNameToAlias;
+        private final boolean flatten;
+        private final boolean scrolled;
+
+        private TimeValue keepAlive;
+        private long rowsLeft;
+        private boolean started;
+        private String scrollId;
+        private ActionFuture<SearchResponse> pendingPage;
+
+        ScrolledQuery(Client client, SearchRequestBuilder request, Map<String, String> fieldNameToAlias,
+                      boolean flatten) {
+            this.client = client;
+            this.request = request;
+            this.fieldNameToAlias = fieldNameToAlias;
+            this.flatten = flatten;
+
+            SearchSourceBuilder source = request.request().source();
+            rowsLeft = (source.size() < 0) ? SearchService.DEFAULT_SIZE : source.size();
+
+            // Scroll doesn't work with from (offset) which should be small anyway
+            scrolled = source.from() <= 0 && rowsLeft > SCROLL_PAGE_SIZE;
+        }
+
+        boolean isScrolled() {
+            return scrolled;
+        }
+
+        boolean isStarted() {
+            return started;
+        }
+
+        void start() {
+            if (scrolled) {
+                keepAlive = LocalClusterState.state().getSettingValue(CURSOR_KEEPALIVE);
+                request.setSize(SCROLL_PAGE_SIZE).setScroll(keepAlive);
+            }
+            pendingPage = request.execute();
+            started = true;
+        }
+
+        boolean hasNextPage() {
+            return pendingPage != null;
+        }
+
+        SearchHit[] nextPage() {
+            SearchResponse response = pendingPage.actionGet();
+            pendingPage = null;
+            scrollId = response.getScrollId();
+
+            SearchHit[] hits = response.getHits().getHits();
+            if (hits.length > rowsLeft) {
+                hits = Arrays.copyOf(hits, (int) rowsLeft);
+            }
+            rowsLeft -= hits.length;
+
+            if (scrollId != null && rowsLeft > 0 && hits.length > 0) {
+                pendingPage = client.prepareSearchScroll(scrollId).setScroll(keepAlive).execute();
+            }
+
+            for (SearchHit hit : hits) {
+                if (!fieldNameToAlias.isEmpty() && hit.getSourceAsMap() != null) {
+                    updateFieldNamesToAlias(hit.getSourceAsMap(), fieldNameToAlias);
+                }
+                if (flatten) {
+                    flattenSource(hit);
+                }
+            }
+            return hits;
+        }
+
+        void close() {
+            if (scrollId == null) {
+                return;
+            }
+
+            try {
+                if (!client.prepareClearScroll().addScrollId(scrollId).get().isSucceeded()) {
+                    LOG.warn("Failed to clear scroll context {} of union query", scrollId);
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to clear scroll context {} of union query", scrollId, e);
+            }
+        }
+    }
+
+    /**
+     * Flatten source of hit along with fields fetched separately, ex. script fields, into one level.
+     * Object is kept as well in case it's selected as a whole.
+     */
+    private static void flattenSource(SearchHit hit) {
+        Map<String, Object> flattened = new HashMap<>();
+        Map<String, Object> sourceAsMap = hit.getSourceAsMap();
+        if (sourceAsMap != null) {
+            flattenInto(flattened, "", sourceAsMap);
+        }
+        for (Map.Entry<String, DocumentField> field : hit.getFields().entrySet()) {
+            flattened.put(field.getKey(), field.getValue().getValue());
+        }
+
+        if (sourceAsMap != null) {
+            sourceAsMap.clear();
+            sourceAsMap.putAll(flattened);
+        } else {
+            try {
+                hit.sourceRef(BytesReference.bytes(XContentFactory.jsonBuilder().map(flattened)));
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to build source of union hit", e);
+            }
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private static void flattenInto(Map<String, Object> flattened, String prefix, Map<String, Object> object) {
+        for (Map.Entry<String, Object> entry : object.entrySet()) {
+            String path = prefix + entry.getKey();
+            flattened.put(path, entry.getValue());
+            if (entry.getValue() instanceof Map) {
+                flattenInto(flattened, path + ".", (Map<String, Object>) entry.getValue());
+            }
+        }
+    }
 
-    private void updateFieldNamesToAlias(Map<String, Object> sourceAsMap, Map<String, String> fieldNameToAlias) {
+    /**
+     * Rename fields in source map of hit which is parsed once and cached by SearchHit.
+     * Values are taken out before any is put back, so fields swapped by renaming are not overwritten.
+     */
+    private static void updateFieldNamesToAlias(Map<String, Object> sourceAsMap,
+                                                Map<String, String> fieldNameToAlias) {
+        Map<String, Object> renamed = new HashMap<>();
         for (Map.Entry<String, String> fieldToAlias : fieldNameToAlias.entrySet()) {
             String fieldName = fieldToAlias.getKey();
             Object value = null;
@@ -106,15 +412,11 @@ public class UnionExecutor implements ElasticHitsExecutor {
                 deleteFrom = sourceAsMap;
             }
             if (value != null) {
-                sourceAsMap.put(fieldToAlias.getValue(), value);
+                renamed.put(fieldToAlias.getValue(), value);
                 deleteFrom.remove(fieldName);
             }
         }
+        sourceAsMap.putAll(renamed);
         Util.clearEmptyPaths(sourceAsMap);
     }
-
-    @Override
-    public SearchHits getHits() {
-        return results;
-    }
 }
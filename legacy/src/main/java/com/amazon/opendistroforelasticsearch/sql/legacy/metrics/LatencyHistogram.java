@@ -0,0 +1,189 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.metrics;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
+import com.amazon.opendistroforelasticsearch.sql.legacy.plugin.SqlSettings;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with log scale buckets. Each power of 2 in microseconds is split into 4 sub buckets
+ * so the relative error of percentile is at most 25%. Recording only increments a bucket counter without
+ * lock or allocation.
+ * <p>
+ * Similar as {@link RollingCounter}, percentiles are calculated on the latency recorded in last interval.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Latency above 2^36 microseconds (about 19 hours) all falls into the last bucket
+     */
+    private static final int MAX_EXPONENT = 36;
+
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final int[] PERCENTILES = {50, 90, 99};
+
+    private final long interval;
+    private final Clock clock;
+
+    /**
+     * Cumulative count of each bucket since created
+     */
+    private final AtomicLongArray counts;
+
+    private volatile long intervalKey;
+    private long[] intervalStart;
+    private long[] lastInterval;
+
+    public LatencyHistogram() {
+        this(LocalClusterState.state().getSettingValue(SqlSettings.METRICS_ROLLING_INTERVAL));
+    }
+
+    public LatencyHistogram(long interval) {
+        this(interval, Clock.systemDefaultZone());
+    }
+
+    public LatencyHistogram(long interval, Clock clock) {
+        this.interval = interval;
+        this.clock = clock;
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.intervalKey = getKey(clock.millis());
+        this.intervalStart = new long[BUCKETS];
+        this.lastInterval = new long[BUCKETS];
+    }
+
+    /**
+     * Record a latency.
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+        rotate();
+        counts.incrementAndGet(bucket(Math.max(nanos, 0L) / 1000));
+    }
+
+    /**
+     * @return count and percentiles in milliseconds of latency recorded in last interval
+     */
+    public Map<String, Object> getValue() {
+        rotate();
+        long[] last;
+        synchronized (this) {
+            last = lastInterval;
+        }
+
+        long total = 0;
+        for (long count : last) {
+            total += count;
+        }
+
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("count", total);
+        for (int percentile : PERCENTILES) {
+            value.put("p" + percentile, percentile(last, total, percentile));
+        }
+        return value;
+    }
+
+    private double percentile(long[] buckets, long total, int percentile) {
+        if (total == 0) {
+            return 0.0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        int bucket = 0;
+        for (; bucket < BUCKETS - 1; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank) {
+                break;
+            }
+        }
+        return upperBound(bucket) / 1000.0;
+    }
+
+    /**
+     * Start a new interval if current interval passed. Only the thread that first sees the new interval
+     * takes the snapshot.
+     */
+    private void rotate() {
+        long key = getKey(clock.millis());
+        if (key == intervalKey) {
+            return;
+        }
+
+        synchronized (this) {
+            if (key == intervalKey) {
+                return;
+            }
+
+            long[] snapshot = new long[BUCKETS];
+            long[] last = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.get(i);
+                // Nothing recorded in last interval if more than one interval passed
+                if (key == intervalKey + 1) {
+                    last[i] = snapshot[i] - intervalStart[i];
+                }
+            }
+            intervalStart = snapshot;
+            lastInterval = last;
+            intervalKey = key;
+        }
+    }
+
+    private long getKey(long millis) {
+        return millis / 1000 / this.interval;
+    }
+
+    private static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return exclusive upper bound of the bucket in microseconds
+     */
+    private static long upperBound(int bucket) {
+        return lowerBound(bucket + 1);
+    }
+
+    private static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.metrics;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Latency metric which keeps a latency histogram for each stage of query processing.
+ */
+public class LatencyMetric extends Metric<Map<String, Object>> {
+
+    public enum Stage {
+        PARSE,
+        PLAN,
+        EXECUTE,
+        SEARCH,
+        FORMAT;
+
+        public String getName() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+
+    public LatencyMetric(String name) {
+        this(name, LatencyHistogram::new);
+    }
+
+    public LatencyMetric(String name, Supplier<LatencyHistogram> histogramSupplier) {
+        super(name);
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, histogramSupplier.get());
+        }
+    }
+
+    /**
+     * Record latency of the stage.
+     * @param stage stage of query processing
+     * @param nanos latency in nanoseconds
+     */
+    public void record(Stage stage, long nanos) {
+        histograms.get(stage).record(nanos);
+    }
+
+    @Override
+    public Map<String, Object> getValue() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        histograms.forEach((stage, histogram) -> value.put(stage.getName(), histogram.getValue()));
+        return value;
+    }
+
+}
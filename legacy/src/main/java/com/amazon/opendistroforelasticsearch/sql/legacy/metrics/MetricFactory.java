@@ -15,6 +15,7 @@
 
 package com.amazon.opendistroforelasticsearch.sql.legacy.metrics;
 
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.AggregationResultCache;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.BackOffRetryStrategy;
 
 public class MetricFactory {
@@ -29,6 +30,19 @@ public class MetricFactory {
                 return new NumericMetric<>(name.getName(), new BasicCounter());
             case CIRCUIT_BREAKER:
                 return new GaugeMetric<>(name.getName(), BackOffRetryStrategy.GET_CB_STATE);
+            case AGGREGATION_CACHE_HIT_COUNT:
+                return new GaugeMetric<>(name.getName(),
+                    () -> AggregationResultCache.getInstance().stats().hitCount());
+            case AGGREGATION_CACHE_MISS_COUNT:
+                return new GaugeMetric<>(name.getName(),
+                    () -> AggregationResultCache.getInstance().stats().missCount());
+            case AGGREGATION_CACHE_EVICTION_COUNT:
+                return new GaugeMetric<>(name.getName(),
+                    () -> AggregationResultCache.getInstance().stats().evictionCount());
+            case LEGACY_SQL_LATENCY:
+            case SQL_LATENCY:
+            case PPL_LATENCY:
+                return new LatencyMetric(name.getName());
             case REQ_COUNT_TOTAL:
             case DEFAULT_CURSOR_REQUEST_COUNT_TOTAL:
             case FAILED_REQ_COUNT_CUS:
@@ -37,6 +51,11 @@ public class MetricFactory {
             case PPL_REQ_COUNT_TOTAL:
             case PPL_FAILED_REQ_COUNT_CUS:
             case PPL_FAILED_REQ_COUNT_SYS:
+            case REJECTED_REQ_COUNT:
+            case FALLBACK_REQ_COUNT:
+            case FALLBACK_PARSE_TIME:
+            case FALLBACK_CACHE_HIT_COUNT:
+            case SCRIPT_COMPILATION_COUNT:
                 return new NumericMetric<>(name.getName(), new RollingCounter());
             default:
                 return new NumericMetric<>(name.getName(), new BasicCounter());
@@ -28,9 +28,20 @@ public enum MetricName {
     FAILED_REQ_COUNT_SYS("failed_request_count_syserr"),
     FAILED_REQ_COUNT_CUS("failed_request_count_cuserr"),
     FAILED_REQ_COUNT_CB("failed_request_count_cb"),
+    REJECTED_REQ_COUNT("rejected_request_count"),
     DEFAULT_CURSOR_REQUEST_TOTAL("default_cursor_request_total"),
     DEFAULT_CURSOR_REQUEST_COUNT_TOTAL("default_cursor_request_count"),
     CIRCUIT_BREAKER("circuit_breaker"),
+    FALLBACK_REQ_COUNT("fallback_request_count"),
+    FALLBACK_PARSE_TIME("fallback_parse_time_millis"),
+    FALLBACK_CACHE_HIT_COUNT("fallback_cache_hit_count"),
+    SCRIPT_COMPILATION_COUNT("script_compilation_count"),
+    AGGREGATION_CACHE_HIT_COUNT("aggregation_cache_hit_count"),
+    AGGREGATION_CACHE_MISS_COUNT("aggregation_cache_miss_count"),
+    AGGREGATION_CACHE_EVICTION_COUNT("aggregation_cache_evictions"),
+    LEGACY_SQL_LATENCY("legacy_sql_latency"),
+    SQL_LATENCY("sql_latency"),
+    PPL_LATENCY("ppl_latency"),
     DEFAULT("default"),
 
     PPL_REQ_TOTAL("ppl_request_total"),
@@ -58,6 +69,11 @@ public enum MetricName {
         .add(PPL_REQ_COUNT_TOTAL)
         .add(PPL_FAILED_REQ_COUNT_SYS)
         .add(PPL_FAILED_REQ_COUNT_CUS)
+        .add(REJECTED_REQ_COUNT)
+        .add(FALLBACK_REQ_COUNT)
+        .add(FALLBACK_PARSE_TIME)
+        .add(FALLBACK_CACHE_HIT_COUNT)
+        .add(SCRIPT_COMPILATION_COUNT)
         .build();
 
     public boolean isNumerical() {
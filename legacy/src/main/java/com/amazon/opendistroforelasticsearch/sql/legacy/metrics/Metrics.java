@@ -68,6 +68,16 @@ public class Metrics {
         return (NumericMetric) registeredMetricsByName.get(name);
     }
 
+    /**
+     * Record latency in nanoseconds of the stage. Ignored if the latency metric is not registered yet.
+     */
+    public void recordLatency(MetricName metricName, LatencyMetric.Stage stage, long nanos) {
+        Metric metric = registeredMetricsByName.get(metricName.getName());
+        if (metric instanceof LatencyMetric) {
+            ((LatencyMetric) metric).record(stage, nanos);
+        }
+    }
+
     public List<Metric> getAllMetrics() {
         return new ArrayList<>(registeredMetricsByName.values());
     }
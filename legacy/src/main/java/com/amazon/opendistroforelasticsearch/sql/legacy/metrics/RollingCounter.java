@@ -19,19 +19,31 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterSta
 import com.amazon.opendistroforelasticsearch.sql.legacy.plugin.SqlSettings;
 
 import java.time.Clock;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Rolling counter. The count is refreshed every interval. In every interval the count is cumulative.
+ * <p>
+ * Counts are kept in a fixed size ring buffer of intervals. Each slot packs the interval key and the count
+ * into a single long which is updated by CAS, so add() is lock free and allocates nothing. The ring buffer
+ * is striped by thread to avoid contention on the same slot from all request threads.
  */
 public class RollingCounter implements Counter<Long> {
 
-    private final long capacity;
-    private final long window;
+    /**
+     * Low bits for count in the interval and high bits for the interval key relative to the first interval
+     */
+    private static final int COUNT_BITS = 33;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+    private final int capacity;
     private final long interval;
     private final Clock clock;
-    private final ConcurrentSkipListMap<Long, Long> time2CountWin;
+    private final long baseKey;
+    private final AtomicLongArray slots;
     private final LongAdder count;
 
     public RollingCounter() {
@@ -40,12 +52,12 @@ public class RollingCounter implements Counter<Long> {
     }
 
     public RollingCounter(long window, long interval, Clock clock) {
-        this.window = window;
         this.interval = interval;
         this.clock = clock;
-        time2CountWin = new ConcurrentSkipListMap<>();
-        count = new LongAdder();
-        capacity = window / interval * 2;
+        this.capacity = (int) (window / interval * 2);
+        this.baseKey = getKey(clock.millis());
+        this.slots = new AtomicLongArray(capacity * STRIPES);
+        this.count = new LongAdder();
     }
 
     public RollingCounter(long window, long interval) {
@@ -59,8 +71,16 @@ public class RollingCounter implements Counter<Long> {
 
     @Override
     public void add(long n) {
-        trim();
-        time2CountWin.compute(getKey(clock.millis()), (k, v) -> (v == null) ? n : v + n);
+        long key = getKey(clock.millis());
+        int index = stripe() * capacity + slot(key);
+        long current;
+        long next;
+        do {
+            current = slots.get(index);
+            // Count in current slot is either for current interval or an expired one to overwrite
+            next = (current != 0 && keyOf(current) >= key) ? current + n : pack(key, n);
+        } while (!slots.compareAndSet(index, current, next));
+        count.add(n);
     }
 
     @Override
@@ -69,11 +89,13 @@ public class RollingCounter implements Counter<Long> {
     }
 
     public long getValue(long key) {
-        Long res = time2CountWin.get(key);
-        if (res == null) {
-            return 0;
+        long res = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            long value = slots.get(stripe * capacity + slot(key));
+            if (value != 0 && keyOf(value) == key) {
+                res += value & COUNT_MASK;
+            }
         }
-
         return res;
     }
 
@@ -81,12 +103,6 @@ public class RollingCounter implements Counter<Long> {
         return count.longValue();
     }
 
-    private void trim() {
-        if (time2CountWin.size() > capacity) {
-            time2CountWin.headMap(getKey(clock.millis() - window * 1000)).clear();
-        }
-    }
-
     private long getKey(long millis) {
         return millis / 1000 / this.interval;
     }
@@ -95,12 +111,46 @@ public class RollingCounter implements Counter<Long> {
         return getKey(millis) - 1;
     }
 
+    /**
+     * @return number of intervals retained in the ring buffer which is at most twice of the window
+     */
     public int size() {
-        return time2CountWin.size();
+        int size = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                if (slots.get(stripe * capacity + slot) != 0) {
+                    size++;
+                    break;
+                }
+            }
+        }
+        return size;
     }
 
     public void reset() {
-        time2CountWin.clear();
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0L);
+        }
+    }
+
+    private long pack(long key, long n) {
+        return ((key - baseKey + 1) << COUNT_BITS) | n;
+    }
+
+    private long keyOf(long value) {
+        return (value >>> COUNT_BITS) + baseKey - 1;
+    }
+
+    private int slot(long key) {
+        return (int) Math.floorMod(key, (long) capacity);
+    }
+
+    private static int stripe() {
+        return (int) Thread.currentThread().getId() & (STRIPES - 1);
+    }
+
+    private static int stripes(int processors) {
+        return Integer.highestOneBit(Math.max(1, Math.min(processors, 16)) * 2 - 1);
     }
 
 }
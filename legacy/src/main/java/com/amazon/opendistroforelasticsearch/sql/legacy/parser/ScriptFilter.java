@@ -19,7 +19,9 @@ import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
 import com.alibaba.druid.sql.ast.expr.SQLMethodInvokeExpr;
 import com.amazon.opendistroforelasticsearch.sql.legacy.exception.SqlParseException;
+import com.amazon.opendistroforelasticsearch.sql.legacy.utils.ScriptParameterizer;
 import com.amazon.opendistroforelasticsearch.sql.legacy.utils.Util;
+import org.elasticsearch.script.Script;
 import org.elasticsearch.script.ScriptType;
 
 import java.util.HashMap;
@@ -98,6 +100,15 @@ public class ScriptFilter {
         }
     }
 
+    /**
+     * Hoist literals into params for script generated for SQL functions rather than written by user.
+     */
+    public void parameterize() {
+        Script parameterized = ScriptParameterizer.parameterize(script);
+        this.script = parameterized.getIdOrCode();
+        this.args = new HashMap<>(parameterized.getParams());
+    }
+
     public boolean containsParameters() {
         return args != null && args.size() > 0;
     }
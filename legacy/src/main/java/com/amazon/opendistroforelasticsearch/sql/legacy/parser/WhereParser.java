@@ -301,6 +301,7 @@ public class WhereParser {
                         if (!scriptFilter.tryParseFromMethodExpr(sqlMethodInvokeExpr)) {
                             throw new SqlParseException("could not parse script filter");
                         }
+                        scriptFilter.parameterize();
                         condition = new Condition(Where.CONN.valueOf(opear), null, soExpr.getLeft(),
                                 "SCRIPT", scriptFilter, soExpr.getRight());
 
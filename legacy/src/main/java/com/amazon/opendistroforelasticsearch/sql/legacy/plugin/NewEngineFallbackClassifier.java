@@ -0,0 +1,136 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.plugin;
+
+import com.amazon.opendistroforelasticsearch.sql.common.antlr.CaseInsensitiveCharStream;
+import com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLLexer;
+import com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.NotSetTransition;
+import org.antlr.v4.runtime.atn.Transition;
+import org.antlr.v4.runtime.atn.WildcardTransition;
+import org.antlr.v4.runtime.misc.IntervalSet;
+
+/**
+ * Classify if a query falls back to legacy engine by the token stream of new engine lexer, which
+ * avoids parsing, analyzing and planning by new engine only to fall back.
+ * <ol>
+ *   <li>Query with any token never matched by new engine parser, ex. JOIN, UNION or MINUS, is
+ *   unsupported for sure.</li>
+ *   <li>Otherwise query of the same shape as one failed to parse before is unsupported. The shape
+ *   is the sequence of token types with text stripped. Because there is no semantic predicate in
+ *   the grammar, parser decision depends on token types only. So queries differing in literals,
+ *   ex. from dashboard with changing time range, are routed at once after the first fallback.</li>
+ * </ol>
+ * Query that falls back in analyzer is not added because the result depends on index mapping and
+ * name which may change later.
+ */
+public class NewEngineFallbackClassifier {
+
+  /**
+   * Max total length of query shapes cached, in number of tokens.
+   */
+  static final long MAX_TOTAL_SHAPE_LENGTH = 10_000_000;
+
+  /**
+   * Token types that new engine parser can match.
+   */
+  private static final IntervalSet PARSER_TOKEN_TYPES = parserTokenTypes(OpenDistroSQLParser._ATN);
+
+  private final Cache<String, Boolean> fallbackShapes;
+
+  public NewEngineFallbackClassifier() {
+    this(MAX_TOTAL_SHAPE_LENGTH);
+  }
+
+  NewEngineFallbackClassifier(long maxTotalShapeLength) {
+    this.fallbackShapes = CacheBuilder.newBuilder()
+        .concurrencyLevel(1) // Write happens only on fallback so no need to split weight by segment
+        .maximumWeight(maxTotalShapeLength)
+        .<String, Boolean>weigher((shape, value) -> shape.length())
+        .build();
+  }
+
+  /**
+   * Tokenize the query by new engine lexer and build its shape, one char per token type on
+   * default channel. Comment, space and unrecognized char on other channels are ignored in the
+   * same way as parser.
+   * @param query SQL query
+   * @return      query shape
+   */
+  public static String shape(String query) {
+    Lexer lexer = new OpenDistroSQLLexer(new CaseInsensitiveCharStream(query));
+    lexer.removeErrorListeners();
+
+    StringBuilder shape = new StringBuilder();
+    for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+      if (token.getChannel() == Token.DEFAULT_CHANNEL) {
+        shape.append((char) token.getType());
+      }
+    }
+    return shape.toString();
+  }
+
+  /**
+   * Is the query known to be unsupported by new engine.
+   * @param shape query shape
+   * @return      true if it has token unknown to parser or the same shape failed to parse before
+   */
+  public boolean isFallback(String shape) {
+    for (int i = 0; i < shape.length(); i++) {
+      if (!PARSER_TOKEN_TYPES.contains(shape.charAt(i))) {
+        return true;
+      }
+    }
+    return fallbackShapes.getIfPresent(shape) != null;
+  }
+
+  /**
+   * Remember the query shape is unsupported by grammar of new engine.
+   * @param shape query shape
+   */
+  public void addFallback(String shape) {
+    fallbackShapes.put(shape, Boolean.TRUE);
+  }
+
+  /**
+   * Collect token types on all transitions in the ATN of parser.
+   */
+  static IntervalSet parserTokenTypes(ATN atn) {
+    IntervalSet tokenTypes = new IntervalSet();
+    for (ATNState state : atn.states) {
+      if (state == null) { // Placeholder for state removed from serialized ATN
+        continue;
+      }
+      for (Transition transition : state.getTransitions()) {
+        if (transition instanceof WildcardTransition || transition instanceof NotSetTransition) {
+          return IntervalSet.of(Token.MIN_USER_TOKEN_TYPE, atn.maxTokenType);
+        }
+        if (transition.label() != null) {
+          tokenTypes.addAll(transition.label());
+        }
+      }
+    }
+    return tokenTypes;
+  }
+
+}
@@ -17,17 +17,21 @@
 package com.amazon.opendistroforelasticsearch.sql.legacy.plugin;
 
 import static com.amazon.opendistroforelasticsearch.sql.executor.ExecutionEngine.QueryResponse;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.executor.AsyncRestExecutor.SQL_WORKER_THREAD_POOL_NAME;
 import static com.amazon.opendistroforelasticsearch.sql.protocol.response.format.JsonResponseFormatter.Style.PRETTY;
 import static org.elasticsearch.rest.RestStatus.BAD_REQUEST;
 import static org.elasticsearch.rest.RestStatus.INTERNAL_SERVER_ERROR;
 import static org.elasticsearch.rest.RestStatus.OK;
 import static org.elasticsearch.rest.RestStatus.SERVICE_UNAVAILABLE;
+import static org.elasticsearch.rest.RestStatus.TOO_MANY_REQUESTS;
 
 
 import com.alibaba.druid.sql.parser.ParserException;
+import com.amazon.opendistroforelasticsearch.sql.ast.tree.UnresolvedPlan;
 import com.amazon.opendistroforelasticsearch.sql.common.antlr.SyntaxCheckException;
 import com.amazon.opendistroforelasticsearch.sql.common.response.ResponseListener;
 import com.amazon.opendistroforelasticsearch.sql.common.setting.Settings;
+import com.amazon.opendistroforelasticsearch.sql.elasticsearch.client.ElasticsearchNodeClient;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.security.SecurityAccess;
 import com.amazon.opendistroforelasticsearch.sql.exception.QueryEngineException;
 import com.amazon.opendistroforelasticsearch.sql.exception.SemanticCheckException;
@@ -36,8 +40,10 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.antlr.SqlAnalysisExcepti
 import com.amazon.opendistroforelasticsearch.sql.legacy.exception.SQLFeatureDisabledException;
 import com.amazon.opendistroforelasticsearch.sql.legacy.exception.SqlParseException;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.format.ErrorMessageFactory;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyMetric.Stage;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.NumericMetric;
 import com.amazon.opendistroforelasticsearch.sql.legacy.rewriter.matchtoterm.VerificationException;
 import com.amazon.opendistroforelasticsearch.sql.legacy.utils.LogUtils;
 import com.amazon.opendistroforelasticsearch.sql.planner.physical.PhysicalPlan;
@@ -54,10 +60,14 @@ import java.io.IOException;
 import java.security.PrivilegedExceptionAction;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.CheckedRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.rest.BaseRestHandler;
 import org.elasticsearch.rest.BytesRestResponse;
@@ -84,6 +94,11 @@ public class RestSQLQueryAction extends BaseRestHandler {
    */
   private final Settings pluginSettings;
 
+  /**
+   * Classifier of queries known to fall back to legacy engine.
+   */
+  private final NewEngineFallbackClassifier fallbackClassifier = new NewEngineFallbackClassifier();
+
   /**
    * Constructor of RestSQLQueryAction.
    */
@@ -109,36 +124,105 @@ public class RestSQLQueryAction extends BaseRestHandler {
   }
 
   /**
-   * Prepare REST channel consumer for a SQL query request.
-   * @param request     SQL request
-   * @param nodeClient  node client
-   * @return            channel consumer
+   * Prepare REST channel consumer for a SQL query request. The entire pipeline including parsing,
+   * analyzing, planning and execution runs as a single task in SQL worker thread pool rather than
+   * on transport thread. If the query turns out to be unsupported, fallback handler is called
+   * within the task.
+   * @param request         SQL request
+   * @param nodeClient      node client
+   * @param fallbackHandler handler to run the request by legacy engine
+   * @param errorHandler    handler to report error thrown by new engine
+   * @return                channel consumer
    */
-  public RestChannelConsumer prepareRequest(SQLQueryRequest request, NodeClient nodeClient) {
+  public RestChannelConsumer prepareRequest(SQLQueryRequest request,
+                                            NodeClient nodeClient,
+                                            RestChannelConsumer fallbackHandler,
+                                            BiConsumer<RestChannel, Exception> errorHandler) {
     if (!request.isSupported()) {
       return NOT_SUPPORTED_YET;
     }
 
-    SQLService sqlService = createSQLService(nodeClient);
-    PhysicalPlan plan;
-    try {
-      // For now analyzing and planning stage may throw syntax exception as well
-      // which hints the fallback to legacy code is necessary here.
-      plan = sqlService.plan(
-                sqlService.analyze(
-                    sqlService.parse(request.getQuery())));
-    } catch (SyntaxCheckException e) {
-      // When explain, print info log for what unsupported syntax is causing fallback to old engine
-      if (request.isExplainRequest()) {
-        LOG.info("Request is falling back to old SQL engine due to: " + e.getMessage());
-      }
+    // Always go through new engine for explain to log the reason of fallback below
+    String shape = NewEngineFallbackClassifier.shape(request.getQuery());
+    if (!request.isExplainRequest() && fallbackClassifier.isFallback(shape)) {
+      incrementMetric(MetricName.FALLBACK_CACHE_HIT_COUNT, 1);
       return NOT_SUPPORTED_YET;
     }
 
+    return channel -> schedule(nodeClient, channel, errorHandler, () -> {
+      SQLService sqlService = createSQLService(nodeClient);
+      long startTime = System.nanoTime();
+      UnresolvedPlan ast;
+      try {
+        ast = sqlService.parse(request.getQuery());
+      } catch (SyntaxCheckException e) {
+        // Grammar is fixed, so query of the same shape always falls back and can be cached
+        fallbackClassifier.addFallback(shape);
+        fallback(request, channel, fallbackHandler, e, startTime);
+        return;
+      }
+      recordLatency(Stage.PARSE, startTime);
+
+      PhysicalPlan plan;
+      long planStartTime = System.nanoTime();
+      try {
+        // For now analyzing and planning stage may throw syntax exception as well
+        // which hints the fallback to legacy code is necessary here. This depends on
+        // index mapping and name which may change later, so it's not cached.
+        plan = sqlService.plan(sqlService.analyze(ast));
+      } catch (SyntaxCheckException e) {
+        fallback(request, channel, fallbackHandler, e, startTime);
+        return;
+      }
+      recordLatency(Stage.PLAN, planStartTime);
+
+      if (request.isExplainRequest()) {
+        sqlService.explain(plan, createExplainResponseListener(channel));
+      } else {
+        sqlService.execute(plan, createQueryResponseListener(channel, request, System.nanoTime()));
+      }
+    });
+  }
+
+  private void fallback(SQLQueryRequest request,
+                        RestChannel channel,
+                        RestChannelConsumer fallbackHandler,
+                        SyntaxCheckException e,
+                        long startTime) throws Exception {
+    // When explain, print info log for what unsupported syntax is causing fallback to old engine
     if (request.isExplainRequest()) {
-      return channel -> sqlService.explain(plan, createExplainResponseListener(channel));
+      LOG.info("Request is falling back to old SQL engine due to: " + e.getMessage());
+    }
+    incrementMetric(MetricName.FALLBACK_REQ_COUNT, 1);
+    incrementMetric(MetricName.FALLBACK_PARSE_TIME,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    fallbackHandler.accept(channel);
+  }
+
+  /**
+   * Run the task in SQL worker thread pool. Reject the request if the queue of thread pool is full
+   * rather than blocking transport thread.
+   */
+  private void schedule(NodeClient client,
+                        RestChannel channel,
+                        BiConsumer<RestChannel, Exception> errorHandler,
+                        CheckedRunnable<Exception> task) {
+    try {
+      client.threadPool().executor(SQL_WORKER_THREAD_POOL_NAME).execute(
+          LogUtils.withCurrentContext(ElasticsearchNodeClient.asSqlWorkerTask(() -> {
+            try {
+              task.run();
+            } catch (Exception e) {
+              errorHandler.accept(channel, e);
+            }
+          })));
+    } catch (EsRejectedExecutionException e) {
+      LOG.warn("[{}] SQL worker thread pool is busy, rejecting request: {}",
+          LogUtils.getRequestId(), e.getMessage());
+      incrementMetric(MetricName.REJECTED_REQ_COUNT, 1);
+      sendResponse(channel, TOO_MANY_REQUESTS,
+          "Too many SQL requests being processed. Please retry later.");
     }
-    return channel -> sqlService.execute(plan, createQueryResponseListener(channel, request));
   }
 
   private SQLService createSQLService(NodeClient client) {
@@ -176,7 +260,9 @@ public class RestSQLQueryAction extends BaseRestHandler {
     };
   }
 
-  private ResponseListener<QueryResponse> createQueryResponseListener(RestChannel channel, SQLQueryRequest request) {
+  private ResponseListener<QueryResponse> createQueryResponseListener(RestChannel channel,
+                                                                     SQLQueryRequest request,
+                                                                     long executeStartTime) {
     Format format = request.format();
     ResponseFormatter<QueryResult> formatter;
     if (format.equals(Format.CSV)) {
@@ -187,8 +273,12 @@ public class RestSQLQueryAction extends BaseRestHandler {
     return new ResponseListener<QueryResponse>() {
       @Override
       public void onResponse(QueryResponse response) {
-        sendResponse(channel, OK,
-            formatter.format(new QueryResult(response.getSchema(), response.getResults())));
+        recordLatency(Stage.EXECUTE, executeStartTime);
+        long formatStartTime = System.nanoTime();
+        String content =
+            formatter.format(new QueryResult(response.getSchema(), response.getResults()));
+        recordLatency(Stage.FORMAT, formatStartTime);
+        sendResponse(channel, OK, content);
       }
 
       @Override
@@ -213,6 +303,18 @@ public class RestSQLQueryAction extends BaseRestHandler {
         status, "application/json; charset=UTF-8", content));
   }
 
+  private static void incrementMetric(MetricName name, long n) {
+    NumericMetric metric = Metrics.getInstance().getNumericalMetric(name);
+    if (metric != null) { // Metrics may not be registered yet, ex. in unit test
+      metric.increment(n);
+    }
+  }
+
+  private static void recordLatency(Stage stage, long startTime) {
+    Metrics.getInstance().recordLatency(
+        MetricName.SQL_LATENCY, stage, System.nanoTime() - startTime);
+  }
+
   private static void logAndPublishMetrics(Exception e) {
     LOG.error(LogUtils.getRequestId() + " Server side error during query execution", e);
     Metrics.getInstance().getNumericalMetric(MetricName.FAILED_REQ_COUNT_SYS).increment();
@@ -43,6 +43,7 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.executor.RestExecutor;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.cursor.CursorActionRequestRestExecutorFactory;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.cursor.CursorAsyncRestExecutor;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.format.ErrorMessageFactory;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyMetric.Stage;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.QueryAction;
@@ -152,15 +153,33 @@ public class RestSqlAction extends BaseRestHandler {
                 // Route request to new query engine if it's supported already
                 SQLQueryRequest newSqlRequest = new SQLQueryRequest(sqlRequest.getJsonContent(),
                     sqlRequest.getSql(), request.path(), request.params());
-                RestChannelConsumer result = newSqlQueryHandler.prepareRequest(newSqlRequest, client);
+                RestChannelConsumer result = newSqlQueryHandler.prepareRequest(newSqlRequest, client,
+                    channel -> prepareLegacyRequest(request, sqlRequest, format, client).accept(channel),
+                    (channel, e) -> {
+                        logAndPublishMetrics(e);
+                        reportError(channel, e, isClientError(e) ? BAD_REQUEST : SERVICE_UNAVAILABLE);
+                    });
                 if (result != RestSQLQueryAction.NOT_SUPPORTED_YET) {
-                    LOG.info("[{}] Request is handled by new SQL query engine", LogUtils.getRequestId());
+                    LOG.info("[{}] Request is dispatched to new SQL query engine", LogUtils.getRequestId());
                     return result;
                 }
                 LOG.debug("[{}] Request {} is not supported and falling back to old SQL engine",
                     LogUtils.getRequestId(), newSqlRequest);
             }
 
+            return prepareLegacyRequest(request, sqlRequest, format, client);
+        } catch (Exception e) {
+            logAndPublishMetrics(e);
+            return channel -> reportError(channel, e, isClientError(e) ? BAD_REQUEST : SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Prepare request for legacy engine, which may happen in SQL worker thread when falling back from new engine.
+     */
+    private RestChannelConsumer prepareLegacyRequest(RestRequest request, SqlRequest sqlRequest,
+                                                     Format format, NodeClient client) {
+        try {
             final QueryAction queryAction = explainRequest(client, sqlRequest, format);
             return channel -> executeSqlRequest(request, queryAction, client, channel);
         } catch (Exception e) {
@@ -196,10 +215,14 @@ public class RestSqlAction extends BaseRestHandler {
     private static QueryAction explainRequest(final NodeClient client, final SqlRequest sqlRequest, Format format)
             throws SQLFeatureNotSupportedException, SqlParseException {
 
+        long startTime = System.nanoTime();
         ColumnTypeProvider typeProvider = performAnalysis(sqlRequest.getSql());
+        recordLatency(Stage.PARSE, startTime);
 
+        long planStartTime = System.nanoTime();
         final QueryAction queryAction = new SearchDao(client)
                 .explain(new QueryActionRequest(sqlRequest.getSql(), typeProvider, format));
+        recordLatency(Stage.PLAN, planStartTime);
         queryAction.setSqlRequest(sqlRequest);
         queryAction.setFormat(format);
         queryAction.setColumnTypeProvider(typeProvider);
@@ -273,6 +296,10 @@ public class RestSqlAction extends BaseRestHandler {
         return Boolean.FALSE.equals(isEnabled);
     }
 
+    private static void recordLatency(Stage stage, long startTime) {
+        Metrics.getInstance().recordLatency(MetricName.LEGACY_SQL_LATENCY, stage, System.nanoTime() - startTime);
+    }
+
     private static ColumnTypeProvider performAnalysis(String sql) {
         LocalClusterState clusterState = LocalClusterState.state();
         SqlAnalysisConfig config = new SqlAnalysisConfig(
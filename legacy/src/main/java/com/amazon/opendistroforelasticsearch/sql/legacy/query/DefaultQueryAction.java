@@ -23,6 +23,7 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Field;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.KVValue;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.MethodField;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Order;
+import com.amazon.opendistroforelasticsearch.sql.legacy.domain.ScriptMethodField;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Select;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Where;
 import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
@@ -34,6 +35,7 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.maker.QueryMaker;
 import com.amazon.opendistroforelasticsearch.sql.legacy.rewriter.nestedfield.NestedFieldProjection;
 import com.amazon.opendistroforelasticsearch.sql.legacy.utils.SQLFunctions;
+import com.amazon.opendistroforelasticsearch.sql.legacy.utils.ScriptParameterizer;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.elasticsearch.action.search.SearchAction;
@@ -206,8 +208,13 @@ public class DefaultQueryAction extends QueryAction {
         fieldNames.add(fieldName);
 
         final String secondParam = params.get(1).value.toString();
-        final Script script = (2 == numOfParams) ? new Script(secondParam) :
+        final Script script;
+        if (method instanceof ScriptMethodField) {
+            script = ScriptParameterizer.parameterize(secondParam);
+        } else {
+            script = (2 == numOfParams) ? new Script(secondParam) :
                 new Script(ScriptType.INLINE, secondParam, params.get(2).value.toString(), Collections.emptyMap());
+        }
         request.addScriptField(fieldName, script);
     }
 
@@ -251,7 +258,7 @@ public class DefaultQueryAction extends QueryAction {
                 // As of now this shouldn't be a problem, because the support is for date_format function
                 request.addSort(
                     SortBuilders
-                        .scriptSort(new Script(orderByName), getScriptSortType(order))
+                        .scriptSort(scriptOf(order), getScriptSortType(order))
                         .order(sortOrder));
             } else if (orderByName.equals(ScoreSortBuilder.NAME)) {
                 request.addSort(orderByName, sortOrder);
@@ -282,6 +289,12 @@ public class DefaultQueryAction extends QueryAction {
         return operator == SQLBinaryOperator.IsNot ? "_first" : "_last";
     }
 
+    private Script scriptOf(Order order) {
+        String code = order.getName();
+        return (order.getSortField() instanceof ScriptMethodField)
+                ? ScriptParameterizer.parameterize(code) : new Script(code);
+    }
+
     private ScriptSortType getScriptSortType(Order order) {
         ScriptSortType scriptSortType;
         Schema.Type scriptFunctionReturnType = SQLFunctions.getOrderByFieldType(order.getSortField());
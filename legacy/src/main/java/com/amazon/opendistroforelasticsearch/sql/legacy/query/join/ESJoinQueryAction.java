@@ -102,6 +102,26 @@ public abstract class ESJoinQueryAction extends QueryAction {
                         queryPlannerConfig(requestBuilder).configureTimeOut(hint.getParams());
                     }
                     break;
+                case JOIN_ALGORITHM_USE_SORT_MERGE:
+                    if (requestBuilder instanceof HashJoinQueryPlanRequestBuilder) {
+                        queryPlannerConfig(requestBuilder).configureSortMergeJoin(true);
+                    }
+                    break;
+                case JOIN_SPILL_MEMORY_LIMIT:
+                    if (requestBuilder instanceof HashJoinQueryPlanRequestBuilder) {
+                        queryPlannerConfig(requestBuilder).configureSpillMemoryLimit(hint.getParams());
+                    }
+                    break;
+                case JOIN_PROBE_PARALLELISM:
+                    if (requestBuilder instanceof HashJoinQueryPlanRequestBuilder) {
+                        queryPlannerConfig(requestBuilder).configureProbeParallelism(hint.getParams());
+                    }
+                    break;
+                case JOIN_TERMS_FILTER_BATCH_SIZE:
+                    if (requestBuilder instanceof HashJoinQueryPlanRequestBuilder) {
+                        queryPlannerConfig(requestBuilder).configureTermsFilterBatchSize(hint.getParams());
+                    }
+                    break;
             }
         }
     }
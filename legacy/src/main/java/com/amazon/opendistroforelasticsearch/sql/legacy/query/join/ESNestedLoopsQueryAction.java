@@ -49,8 +49,12 @@ public class ESNestedLoopsQueryAction extends ESJoinQueryAction {
         super.updateRequestWithHints(requestBuilder);
         for (Hint hint : this.joinSelect.getHints()) {
             if (hint.getType() == HintType.NL_MULTISEARCH_SIZE) {
-                Integer multiSearchMaxSize = (Integer) hint.getParams()[0];
-                ((NestedLoopsElasticRequestBuilder) requestBuilder).setMultiSearchMaxSize(multiSearchMaxSize);
+                Object[] params = hint.getParams();
+                NestedLoopsElasticRequestBuilder nestedLoopsRequest = (NestedLoopsElasticRequestBuilder) requestBuilder;
+                nestedLoopsRequest.setMultiSearchMaxSize((Integer) params[0]);
+                if (params.length > 1) {
+                    nestedLoopsRequest.setMultiSearchesInFlight((Integer) params[1]);
+                }
             }
         }
     }
@@ -38,9 +38,15 @@ public class NestedLoopsElasticRequestBuilder extends JoinRequestBuilder {
     private Where connectedWhere;
     private int multiSearchMaxSize;
 
+    /**
+     * Max number of multi-search requests sent and not yet combined at the same time.
+     */
+    private int multiSearchesInFlight;
+
     public NestedLoopsElasticRequestBuilder() {
 
         multiSearchMaxSize = 100;
+        multiSearchesInFlight = 2;
     }
 
     @Override
@@ -76,6 +82,14 @@ public class NestedLoopsElasticRequestBuilder extends JoinRequestBuilder {
         this.multiSearchMaxSize = multiSearchMaxSize;
     }
 
+    public int getMultiSearchesInFlight() {
+        return multiSearchesInFlight;
+    }
+
+    public void setMultiSearchesInFlight(int multiSearchesInFlight) {
+        this.multiSearchesInFlight = multiSearchesInFlight;
+    }
+
     public Where getConnectedWhere() {
         return connectedWhere;
     }
@@ -20,12 +20,14 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Condition;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Field;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.KVValue;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.MethodField;
+import com.amazon.opendistroforelasticsearch.sql.legacy.domain.ScriptMethodField;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Where;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Where.CONN;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.bucketpath.Path;
 import com.amazon.opendistroforelasticsearch.sql.legacy.exception.SqlParseException;
 import com.amazon.opendistroforelasticsearch.sql.legacy.parser.ChildrenType;
 import com.amazon.opendistroforelasticsearch.sql.legacy.parser.NestedType;
+import com.amazon.opendistroforelasticsearch.sql.legacy.utils.ScriptParameterizer;
 import com.amazon.opendistroforelasticsearch.sql.legacy.utils.Util;
 import com.fasterxml.jackson.core.JsonFactory;
 import org.apache.commons.lang3.StringUtils;
@@ -91,8 +93,10 @@ public class AggMaker {
 
         if (field instanceof MethodField && field.getName().equals("script")) {
             MethodField methodField = (MethodField) field;
+            String code = methodField.getParams().get(1).value.toString();
             TermsAggregationBuilder termsBuilder = AggregationBuilders.terms(methodField.getAlias())
-                    .script(new Script(methodField.getParams().get(1).value.toString()));
+                    .script(field instanceof ScriptMethodField
+                            ? ScriptParameterizer.parameterize(code) : new Script(code));
             extendGroupMap(methodField, new KVValue("KEY", termsBuilder));
             return termsBuilder;
         }
@@ -207,7 +211,10 @@ public class AggMaker {
             throws SqlParseException {
         KVValue kvValue = field.getParams().get(0);
         if (kvValue.key != null && kvValue.key.equals("script")) {
-            if (kvValue.value instanceof MethodField) {
+            if (kvValue.value instanceof ScriptMethodField) {
+                return builder.script(ScriptParameterizer.parameterize(
+                        ((MethodField) kvValue.value).getParams().get(1).toString()));
+            } else if (kvValue.value instanceof MethodField) {
                 return builder.script(new Script(((MethodField) kvValue.value).getParams().get(1).toString()));
             } else {
                 return builder.script(new Script(kvValue.value.toString()));
@@ -15,7 +15,9 @@
 
 package com.amazon.opendistroforelasticsearch.sql.legacy.query.multi;
 
+import com.alibaba.druid.sql.ast.statement.SQLUnionOperator;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Field;
+import com.amazon.opendistroforelasticsearch.sql.legacy.domain.QueryStatement;
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Select;
 import com.amazon.opendistroforelasticsearch.sql.legacy.exception.SqlParseException;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.DefaultQueryAction;
@@ -53,6 +55,19 @@ public class MultiQueryAction extends QueryAction {
         return requestBuilder;
     }
 
+    /**
+     * Result of multi query is described by the first query, ex. schema in JDBC format.
+     */
+    @Override
+    public QueryStatement getQueryStatement() {
+        return multiQuerySelect.getFirstSelect();
+    }
+
+    public boolean isUnion() {
+        SQLUnionOperator operation = multiQuerySelect.getOperation();
+        return operation == SQLUnionOperator.UNION || operation == SQLUnionOperator.UNION_ALL;
+    }
+
     private boolean isValidMultiSelectReturnFields() {
         List<Field> firstQueryFields = multiQuerySelect.getFirstSelect().getFields();
         List<Field> secondQueryFields = multiQuerySelect.getSecondSelect().getFields();
@@ -52,6 +52,7 @@ public class HashJoinQueryPlanRequestBuilder extends HashJoinElasticRequestBuild
 
     @Override
     public String explain() {
+        config.configureExplain(true);
         return plan().explain();
     }
 
@@ -19,6 +19,9 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.b
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.blocksize.BlockSize;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.blocksize.BlockSize.FixedBlockSize;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * Query planner configuration
  */
@@ -29,6 +32,12 @@ public class Config {
     public static final int DEFAULT_CIRCUIT_BREAK_LIMIT = 85;
     public static final double[] DEFAULT_BACK_OFF_RETRY_INTERVALS = {4, 8 + 4, 16 + 4};
     public static final int DEFAULT_TIME_OUT = 60;
+    public static final int DEFAULT_SPILL_PARTITIONS = 16;
+    public static final int DEFAULT_ADAPTIVE_BLOCK_SIZE_LIMIT = 100000;
+    public static final int DEFAULT_PROBE_PARALLELISM = 1;
+    public static final int DEFAULT_PROBE_CHUNK_SIZE = 1000;
+    public static final int DEFAULT_TERMS_FILTER_BATCH_SIZE = 65536; // Default of index.max_terms_count
+    public static final int DEFAULT_TERMS_FILTER_PARALLELISM = 2;
 
     /**
      * Block size for join algorithm
@@ -66,11 +75,55 @@ public class Config {
      */
     private boolean isUseTermsFilterOptimization = false;
 
+    /**
+     * Max number of values in each terms query pushed down. Terms filter is split into batches if more values.
+     */
+    private int termsFilterBatchSize = DEFAULT_TERMS_FILTER_BATCH_SIZE;
+
+    /**
+     * Number of batches of terms filter queried concurrently
+     */
+    private int termsFilterParallelism = DEFAULT_TERMS_FILTER_PARALLELISM;
+
+    /**
+     * Join fields of second table on integral type which terms filter can be replaced by range filter for
+     */
+    private Set<String> termsFilterRangeFields = Collections.emptySet();
+
     /**
      * Total time out (seconds) for the execution
      */
     private int timeout = DEFAULT_TIME_OUT;
 
+    /**
+     * Memory limit (bytes) of each join block above which the block is spilled to disk. 0 means disabled.
+     */
+    private long spillMemoryLimit = 0;
+
+    /**
+     * Number of partitions on disk for spilled join block
+     */
+    private int spillPartitions = DEFAULT_SPILL_PARTITIONS;
+
+    /**
+     * Number of threads probing right side against hash table in parallel. 1 means probing on join thread.
+     */
+    private int probeParallelism = DEFAULT_PROBE_PARALLELISM;
+
+    /**
+     * Max number of rows from right probed by one task in parallel probing
+     */
+    private int probeChunkSize = DEFAULT_PROBE_CHUNK_SIZE;
+
+    /**
+     * Use sort-merge join on sorted scrolls rather than block hash join
+     */
+    private boolean isUseSortMergeJoin = false;
+
+    /**
+     * Plan is only explained without execution so no statistics is collected for planning
+     */
+    private boolean isExplain = false;
 
     public BlockSize blockSize() {
         return blockSize;
@@ -82,7 +135,12 @@ public class Config {
             if (size > 0) {
                 blockSize = new FixedBlockSize(size);
             } else {
-                blockSize = new AdaptiveBlockSize(0);
+                // Non-positive size turns on adaptive block size with optional memory budget (KB) and latency (ms)
+                long memoryBudget = (params.length > 1)
+                        ? ((Integer) params[1]) * 1024L : AdaptiveBlockSize.DEFAULT_MEMORY_BUDGET;
+                long targetLatency = (params.length > 2)
+                        ? (Integer) params[2] : AdaptiveBlockSize.DEFAULT_TARGET_LATENCY_MILLIS;
+                blockSize = new AdaptiveBlockSize(DEFAULT_ADAPTIVE_BLOCK_SIZE_LIMIT, memoryBudget, targetLatency);
             }
         }
     }
@@ -155,6 +213,31 @@ public class Config {
         return isUseTermsFilterOptimization;
     }
 
+    public void configureTermsFilterBatchSize(Object[] params) {
+        if (params.length > 0) {
+            termsFilterBatchSize = Math.max(1, (Integer) params[0]);
+        }
+        if (params.length > 1) {
+            termsFilterParallelism = Math.max(1, (Integer) params[1]);
+        }
+    }
+
+    public int termsFilterBatchSize() {
+        return termsFilterBatchSize;
+    }
+
+    public int termsFilterParallelism() {
+        return termsFilterParallelism;
+    }
+
+    public void configureTermsFilterRangeFields(Set<String> termsFilterRangeFields) {
+        this.termsFilterRangeFields = termsFilterRangeFields;
+    }
+
+    public Set<String> termsFilterRangeFields() {
+        return termsFilterRangeFields;
+    }
+
     public void configureTimeOut(Object[] params) {
         if (params.length > 0) {
             timeout = (Integer) params[0];
@@ -164,4 +247,54 @@ public class Config {
     public int timeout() {
         return timeout;
     }
+
+    public void configureSpillMemoryLimit(Object[] params) {
+        if (params.length > 0) {
+            spillMemoryLimit = ((Integer) params[0]) * 1024L; // Memory limit is specified in KB
+        }
+        if (params.length > 1) {
+            spillPartitions = Math.max(1, (Integer) params[1]);
+        }
+    }
+
+    public long spillMemoryLimit() {
+        return spillMemoryLimit;
+    }
+
+    public int spillPartitions() {
+        return spillPartitions;
+    }
+
+    public void configureProbeParallelism(Object[] params) {
+        if (params.length > 0) {
+            probeParallelism = Math.max(1, (Integer) params[0]);
+        }
+        if (params.length > 1) {
+            probeChunkSize = Math.max(1, (Integer) params[1]);
+        }
+    }
+
+    public int probeParallelism() {
+        return probeParallelism;
+    }
+
+    public int probeChunkSize() {
+        return probeChunkSize;
+    }
+
+    public void configureSortMergeJoin(boolean isUseSortMergeJoin) {
+        this.isUseSortMergeJoin = isUseSortMergeJoin;
+    }
+
+    public boolean isUseSortMergeJoin() {
+        return isUseSortMergeJoin;
+    }
+
+    public void configureExplain(boolean isExplain) {
+        this.isExplain = isExplain;
+    }
+
+    public boolean isExplain() {
+        return isExplain;
+    }
 }
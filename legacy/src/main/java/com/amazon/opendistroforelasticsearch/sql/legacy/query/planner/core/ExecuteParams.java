@@ -36,8 +36,17 @@ public class ExecuteParams {
         return (T) params.get(type);
     }
 
+    /**
+     * Copy parameters so that operator can pass different parameters to its children
+     */
+    public ExecuteParams copy() {
+        ExecuteParams copy = new ExecuteParams();
+        copy.params.putAll(params);
+        return copy;
+    }
+
     public enum ExecuteParamType {
-        CLIENT, RESOURCE_MANAGER, EXTRA_QUERY_FILTER, TIMEOUT
+        CLIENT, RESOURCE_MANAGER, EXTRA_QUERY_FILTER, EXTRA_QUERY_FILTER_PARALLELISM, TIMEOUT, SORT_FIELDS
     }
 
 }
@@ -15,17 +15,29 @@
 
 package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core;
 
+import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Field;
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.mapping.FieldMappings;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.MetaSearchResult;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.TableInJoinRequestBuilder;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.explain.Explanation;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.explain.JsonExplanationFormat;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.LogicalPlan;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.PhysicalPlan;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.ResourceManager;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.Stats;
+import com.google.common.collect.ImmutableSet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.search.SearchHit;
 
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.ExecuteParams.ExecuteParamType.CLIENT;
 import static com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.ExecuteParams.ExecuteParamType.RESOURCE_MANAGER;
@@ -36,6 +48,25 @@ import static com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.cor
  */
 public class QueryPlanner {
 
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * Numeric and date field types sorted by numeric doc values
+     */
+    private static final Set<String> NUMERIC_SORT_TYPES = ImmutableSet.of(
+            "long", "integer", "short", "byte", "double", "float", "half_float", "scaled_float", "date"
+    );
+
+    /**
+     * Integral field types which range query on integral values matches exactly the same as terms query
+     */
+    private static final Set<String> INTEGRAL_TYPES = ImmutableSet.of("long", "integer", "short", "byte");
+
+    /**
+     * Keyword field type sorted by doc values in UTF-8 byte order
+     */
+    private static final String KEYWORD_SORT_TYPE = "keyword";
+
     /**
      * Connection to ElasticSearch
      */
@@ -73,6 +104,9 @@ public class QueryPlanner {
         this.stats = new Stats(client);
         this.resourceMgr = new ResourceManager(stats, config);
 
+        chooseJoinAlgorithm(params);
+        chooseTermsFilterRangeFields(params);
+
         logicalPlan = new LogicalPlan(config, params);
         logicalPlan.optimize();
 
@@ -86,11 +120,40 @@ public class QueryPlanner {
      * @return response of the execution
      */
     public List<SearchHit> execute() {
+        return physicalPlan.execute(executeParams(config.timeout()));
+    }
+
+    /**
+     * Open query plan for rows to be pulled lazily. The plan must be closed once done.
+     *
+     * @param minScrollKeepAlive scroll context is kept alive for at least this long between two pulls
+     * @return rows of the execution
+     */
+    public Iterator<SearchHit> open(TimeValue minScrollKeepAlive) {
+        int scrollTimeout = (int) Math.max(config.timeout(), minScrollKeepAlive.getSeconds());
+        return physicalPlan.open(executeParams(scrollTimeout));
+    }
+
+    /**
+     * Close query plan opened
+     */
+    public void close() {
+        physicalPlan.close();
+    }
+
+    /**
+     * Restart time out of the execution, ex. when rows are pulled again after a pause.
+     */
+    public void restartTimer() {
+        resourceMgr.restartTimer();
+    }
+
+    private ExecuteParams executeParams(int scrollTimeout) {
         ExecuteParams params = new ExecuteParams();
         params.add(CLIENT, client);
-        params.add(TIMEOUT, config.timeout());
+        params.add(TIMEOUT, scrollTimeout);
         params.add(RESOURCE_MANAGER, resourceMgr);
-        return physicalPlan.execute(params);
+        return params;
     }
 
     /**
@@ -109,6 +172,143 @@ public class QueryPlanner {
         return resourceMgr.getMetaResult();
     }
 
+    /**
+     * Choose sort-merge join if it's forced by hint or it's better than block hash join.
+     * Otherwise block hash join is used by default. Because the latter requires index statistics,
+     * it's skipped for explain and thus only sort-merge join forced by hint is explained.
+     */
+    private void chooseJoinAlgorithm(QueryParams params) {
+        boolean isSortMergeJoin = isSortMergeJoinSupported(params)
+                && (config.isUseSortMergeJoin() || (!config.isExplain() && isSortMergeJoinBeneficial(params)));
+        config.configureSortMergeJoin(isSortMergeJoin);
+    }
+
+    /**
+     * Sort-merge join only supports ON conditions without OR.
+     * Terms filter optimization applies to block hash join only.
+     * ORDER BY on either table is not supported because its sort goes before the sort on join keys
+     * in request, so rows from scroll are not ordered by join keys which merge relies on.
+     */
+    private boolean isSortMergeJoinSupported(QueryParams params) {
+        return !config.isUseTermsFilterOptimization()
+                && params.joinConditions().size() == 1
+                && !params.joinConditions().get(0).isEmpty()
+                && !params.firstRequest().getOriginalSelect().isOrderdSelect()
+                && !params.secondRequest().getOriginalSelect().isOrderdSelect();
+    }
+
+    /**
+     * Sort-merge join is better when both sides are too large to fit in a single block
+     * (which means right side will be scrolled multiple times by block hash join)
+     * and join keys are sortable doc value fields of the same kind.
+     */
+    private boolean isSortMergeJoinBeneficial(QueryParams params) {
+        try {
+            String leftIndex = indexName(params.firstRequest());
+            String rightIndex = indexName(params.secondRequest());
+            FieldMappings leftMappings = fieldMappings(leftIndex);
+            FieldMappings rightMappings = fieldMappings(rightIndex);
+
+            for (Map.Entry<Field, Field> cond : params.joinConditions().get(0)) {
+                String leftSortType = sortType(leftMappings, cond.getKey().getName());
+                String rightSortType = sortType(rightMappings, cond.getValue().getName());
+                if (leftSortType == null || !leftSortType.equals(rightSortType)) {
+                    return false;
+                }
+            }
+
+            long threshold = config.blockSize().size();
+            return stats.cachedIndexStats(leftIndex).getDocNum() > threshold
+                    && stats.cachedIndexStats(rightIndex).getDocNum() > threshold;
+        } catch (Exception e) {
+            LOG.warn("Failed to collect mappings or stats for join algorithm selection. "
+                    + "Fall back to block hash join.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Find join fields of second table on integral type for which range filter is used instead
+     * of terms filter if values from first table are dense.
+     */
+    private void chooseTermsFilterRangeFields(QueryParams params) {
+        if (!config.isUseTermsFilterOptimization()) {
+            return;
+        }
+
+        try {
+            FieldMappings rightMappings = fieldMappings(indexName(params.secondRequest()));
+            Set<String> rangeFields = new HashSet<>();
+            for (List<Map.Entry<Field, Field>> andCond : params.joinConditions()) {
+                for (Map.Entry<Field, Field> cond : andCond) {
+                    String rightName = cond.getValue().getName();
+                    Map<String, Object> mapping = rightMappings.mapping(rightName);
+                    if (mapping != null && INTEGRAL_TYPES.contains(mapping.get("type"))
+                            && !isNestedField(rightMappings, rightName)) {
+                        rangeFields.add(rightName);
+                    }
+                }
+            }
+            config.configureTermsFilterRangeFields(rangeFields);
+        } catch (Exception e) {
+            LOG.warn("Failed to collect mappings for terms filter optimization. Fall back to terms filter only.", e);
+        }
+    }
+
+    private String indexName(TableInJoinRequestBuilder request) {
+        return request.getOriginalSelect().getFrom().get(0).getIndex();
+    }
+
+    private FieldMappings fieldMappings(String index) {
+        return LocalClusterState.state().getFieldMappings(new String[]{index}).firstMapping().firstMapping();
+    }
+
+    /**
+     * Find the kind of sort values for the field, ex. "number" for numeric and date field.
+     *
+     * @return sort type or null if the field is not sortable by doc values
+     */
+    @SuppressWarnings("unchecked")
+    private String sortType(FieldMappings mappings, String fieldName) {
+        Map<String, Object> mapping = mappings.mapping(fieldName);
+        if (mapping == null && fieldName.contains(".")) { // Multi-field, ex. name.keyword
+            int lastDot = fieldName.lastIndexOf('.');
+            Map<String, Object> parent = mappings.mapping(fieldName.substring(0, lastDot));
+            if (parent != null && parent.get("fields") instanceof Map) {
+                mapping = (Map<String, Object>) ((Map<String, Object>) parent.get("fields")).
+                        get(fieldName.substring(lastDot + 1));
+            }
+        }
+
+        if (mapping == null || isNestedField(mappings, fieldName)
+                || "false".equals(String.valueOf(mapping.get("doc_values")))) {
+            return null;
+        }
+
+        Object type = mapping.get("type");
+        if (KEYWORD_SORT_TYPE.equals(type)) {
+            return "string";
+        } else if (NUMERIC_SORT_TYPES.contains(type)) {
+            return "number";
+        }
+        return null;
+    }
+
+    /**
+     * Sort on field inside nested object requires nested sort which is not supported
+     */
+    private boolean isNestedField(FieldMappings mappings, String fieldName) {
+        String path = "";
+        for (String name : fieldName.split("\\.")) {
+            path = path.isEmpty() ? name : path + "." + name;
+            Map<String, Object> mapping = mappings.mapping(path);
+            if (mapping != null && "nested".equals(mapping.get("type"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Setter for unit test
      */
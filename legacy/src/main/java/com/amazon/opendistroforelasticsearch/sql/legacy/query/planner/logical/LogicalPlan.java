@@ -31,6 +31,7 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.no
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.node.Top;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.rule.ProjectionPushDown;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.rule.SelectionPushDown;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.join.TermsFilterPartitioner;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -168,7 +169,18 @@ public class LogicalPlan implements Plan {
                 params.joinType(),
                 groupJoinConditionByOr(),
                 config.blockSize(),
-                config.isUseTermsFilterOptimization()
+                config.isUseTermsFilterOptimization(),
+                new TermsFilterPartitioner(
+                        config.termsFilterBatchSize(),
+                        config.termsFilterParallelism(),
+                        config.termsFilterRangeFields()
+                ),
+                config.termsFilterParallelism(),
+                config.spillMemoryLimit(),
+                config.spillPartitions(),
+                config.probeParallelism(),
+                config.probeChunkSize(),
+                config.isUseSortMergeJoin()
         );
     }
 
@@ -18,7 +18,11 @@ package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.n
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.PlanNode;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.LogicalOperator;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.PhysicalOperator;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.RowSerializer;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.join.BlockHashJoin;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.join.SortMergeJoin;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.join.TermsFilterPartitioner;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.scroll.SearchHitRowSerializer;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.blocksize.BlockSize;
 
 import java.util.Map;
@@ -53,19 +57,68 @@ public class Join implements LogicalOperator {
      */
     private final boolean isUseTermsFilterOptimization;
 
+    /**
+     * Partitioner of terms filter pushed down
+     */
+    private final TermsFilterPartitioner termsFilterPartitioner;
+
+    /**
+     * Number of partitions of terms filter queried concurrently
+     */
+    private final int termsFilterParallelism;
+
+    /**
+     * Memory limit (bytes) of each block above which the block is spilled to disk
+     */
+    private final long spillMemoryLimit;
+
+    /**
+     * Number of partitions for spilled block
+     */
+    private final int spillPartitions;
+
+    /**
+     * Number of threads probing right side in parallel
+     */
+    private final int probeParallelism;
+
+    /**
+     * Max number of rows from right probed by one task
+     */
+    private final int probeChunkSize;
+
+    /**
+     * Use sort-merge join rather than block hash join
+     */
+    private final boolean isUseSortMergeJoin;
+
 
     public Join(LogicalOperator left,
                 LogicalOperator right,
                 JoinType joinType,
                 JoinCondition condition,
                 BlockSize blockSize,
-                boolean isUseTermsFilterOptimization) {
+                boolean isUseTermsFilterOptimization,
+                TermsFilterPartitioner termsFilterPartitioner,
+                int termsFilterParallelism,
+                long spillMemoryLimit,
+                int spillPartitions,
+                int probeParallelism,
+                int probeChunkSize,
+                boolean isUseSortMergeJoin) {
         this.left = left;
         this.right = right;
         this.type = joinType;
         this.condition = condition;
         this.blockSize = blockSize;
         this.isUseTermsFilterOptimization = isUseTermsFilterOptimization;
+        this.termsFilterPartitioner = termsFilterPartitioner;
+        this.termsFilterParallelism = termsFilterParallelism;
+        this.spillMemoryLimit = spillMemoryLimit;
+        this.spillPartitions = spillPartitions;
+        this.probeParallelism = probeParallelism;
+        this.probeChunkSize = probeChunkSize;
+        this.isUseSortMergeJoin = isUseSortMergeJoin;
     }
 
     @Override
@@ -73,14 +126,24 @@ public class Join implements LogicalOperator {
         return new PlanNode[]{left, right};
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public <T> PhysicalOperator[] toPhysical(Map<LogicalOperator, PhysicalOperator<T>> optimalOps) {
         PhysicalOperator<T> optimalLeft = optimalOps.get(left);
         PhysicalOperator<T> optimalRight = optimalOps.get(right);
+        if (isUseSortMergeJoin) {
+            return new PhysicalOperator[]{
+                    new SortMergeJoin<>(optimalLeft, optimalRight, type, condition, blockSize)
+            };
+        }
         return new PhysicalOperator[]{
                 new BlockHashJoin<>(
                         optimalLeft, optimalRight, type, condition,
-                        blockSize, isUseTermsFilterOptimization
+                        blockSize, isUseTermsFilterOptimization,
+                        termsFilterPartitioner, termsFilterParallelism,
+                        spillMemoryLimit, spillPartitions,
+                        (RowSerializer<T>) (RowSerializer<?>) SearchHitRowSerializer.INSTANCE,
+                        probeParallelism, probeChunkSize
                 )
         };
     }
@@ -21,11 +21,13 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.PlanN
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.LogicalPlan;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.estimation.Estimation;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.ResourceManager;
+import com.google.common.collect.Iterators;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.search.SearchHit;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -80,6 +82,32 @@ public class PhysicalPlan implements Plan {
         }
     }
 
+    /**
+     * Open physical plan for rows to be pulled lazily. Each pull fetches next batch from the plan
+     * only if current one is exhausted. Caller is responsible for closing the plan once done.
+     */
+    public Iterator<SearchHit> open(ExecuteParams params) {
+        if (shouldReject(params)) {
+            throw new IllegalStateException("Query request rejected due to insufficient resource");
+        }
+
+        try {
+            root.open(params);
+        } catch (Exception e) {
+            LOG.error("Error happened during execution", e);
+            close();
+            throw new IllegalStateException("Error happened during execution", e);
+        }
+        return Iterators.transform(root, Row::data);
+    }
+
+    /**
+     * Close physical plan opened and release resources, ex. scroll context.
+     */
+    public void close() {
+        root.close();
+    }
+
     /**
      * Reject physical plan execution of new query request if unhealthy
      */
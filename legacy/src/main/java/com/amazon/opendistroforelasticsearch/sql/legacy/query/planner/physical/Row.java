@@ -60,6 +60,23 @@ public interface Row<T> {
     T data();
 
 
+    /**
+     * Estimate memory held by the row which helps decide if a block of rows fits in memory.
+     *
+     * @return estimated size in bytes
+     */
+    long sizeInBytes();
+
+
+    /**
+     * Generate key by values that the row was sorted by in data source, ex. sort values of SearchHit.
+     *
+     * @param size number of leading sort values as keys
+     * @return row key or NULL if the row was not sorted by data source
+     */
+    RowKey sortKey(int size);
+
+
     /**
      * Key that help Row be sorted or hashed.
      */
@@ -0,0 +1,47 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+/**
+ * Serialize and deserialize row, ex. to spill rows to local disk when they don't fit in memory.
+ *
+ * @param <T> data object underlying, ex. SearchHit
+ */
+public interface RowSerializer<T> {
+
+    /**
+     * Write row to the output stream.
+     *
+     * @param row row
+     * @param out output stream
+     */
+    void write(Row<T> row, StreamOutput out) throws IOException;
+
+
+    /**
+     * Read next row from the input stream.
+     *
+     * @param in input stream
+     * @return row
+     */
+    Row<T> read(StreamInput in) throws IOException;
+
+}
@@ -15,27 +15,43 @@
 
 package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.join;
 
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.AsyncRestExecutor;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.ExecuteParams;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.PhysicalOperator;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.Row;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.RowSerializer;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.estimation.Cost;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.blocksize.BlockSize;
+import org.elasticsearch.client.Client;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import static com.alibaba.druid.sql.ast.statement.SQLJoinTableSource.JoinType;
 import static com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.node.Join.JoinCondition;
 import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
-import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
 
 /**
- * Block-based Hash Join implementation
+ * Block-based Hash Join implementation.
+ * <p>
+ * If probe parallelism is greater than 1, rows from right are sliced into chunks and probed against the hash table
+ * on join worker threads. Because hash table is read-only once built for a block, no synchronization is required.
+ * Meanwhile join thread keeps pulling rows (and thus fetching next scroll pages from ES) ahead for the next chunk.
+ * The number of chunks in flight is bounded by the parallelism and results are merged in the order of chunks.
  */
 public class BlockHashJoin<T> extends JoinAlgorithm<T> {
 
@@ -44,15 +60,66 @@ public class BlockHashJoin<T> extends JoinAlgorithm<T> {
      */
     private final boolean isUseTermsFilterOptimization;
 
+    /**
+     * Partitioner of terms filter pushed down to right
+     */
+    private final TermsFilterPartitioner termsFilterPartitioner;
+
+    /**
+     * Number of partitions of terms filter queried against right concurrently
+     */
+    private final int termsFilterParallelism;
+
+    /**
+     * Number of chunks from right probed in parallel
+     */
+    private final int probeParallelism;
+
+    /**
+     * Max number of rows from right in a chunk probed by one task
+     */
+    private final int probeChunkSize;
+
+    /**
+     * Executor of join worker thread pool for parallel probing. Null if probing on join thread.
+     */
+    private ExecutorService probeExecutor;
+
+    /**
+     * Chunks submitted for probing in the order of fetched from right
+     */
+    private final Deque<Future<List<CombinedRow<T>>>> probingChunks = new ArrayDeque<>();
+
     public BlockHashJoin(PhysicalOperator<T> left,
                          PhysicalOperator<T> right,
                          JoinType type,
                          JoinCondition condition,
                          BlockSize blockSize,
                          boolean isUseTermsFilterOptimization) {
-        super(left, right, type, condition, blockSize);
+        this(left, right, type, condition, blockSize, isUseTermsFilterOptimization, null, 1, 0, 0, null, 1, 1);
+    }
+
+    public BlockHashJoin(PhysicalOperator<T> left,
+                         PhysicalOperator<T> right,
+                         JoinType type,
+                         JoinCondition condition,
+                         BlockSize blockSize,
+                         boolean isUseTermsFilterOptimization,
+                         TermsFilterPartitioner termsFilterPartitioner,
+                         int termsFilterParallelism,
+                         long spillMemoryLimit,
+                         int spillPartitions,
+                         RowSerializer<T> serializer,
+                         int probeParallelism,
+                         int probeChunkSize) {
+        super(left, right, type, condition, blockSize, spillMemoryLimit, spillPartitions, serializer);
 
         this.isUseTermsFilterOptimization = isUseTermsFilterOptimization;
+        this.termsFilterPartitioner = (termsFilterPartitioner != null) ? termsFilterPartitioner
+                : new TermsFilterPartitioner(Integer.MAX_VALUE, 1, Collections.emptySet());
+        this.termsFilterParallelism = termsFilterParallelism;
+        this.probeParallelism = probeParallelism;
+        this.probeChunkSize = probeChunkSize;
     }
 
     @Override
@@ -60,18 +127,50 @@ public class BlockHashJoin<T> extends JoinAlgorithm<T> {
         return new Cost();
     }
 
+    @Override
+    public void open(ExecuteParams params) throws Exception {
+        super.open(params);
+        if (probeParallelism > 1) {
+            probeExecutor = joinWorkerExecutor(params.get(ExecuteParams.ExecuteParamType.CLIENT));
+        }
+    }
+
+    @Override
+    public void close() {
+        probingChunks.forEach(chunk -> chunk.cancel(true));
+        probingChunks.clear();
+        super.close();
+    }
+
     @Override
     protected void reopenRight() throws Exception {
         Objects.requireNonNull(params, "Execute params is not set so unable to add extra filter");
 
         if (isUseTermsFilterOptimization) {
-            params.add(ExecuteParams.ExecuteParamType.EXTRA_QUERY_FILTER, queryForPushedDownOnConds());
+            /* Spilled block is not in hash table, so reset filter pushed down for previous block if any */
+            List<BoolQueryBuilder> filters = isSpilled() ? Collections.emptyList() : queryForPushedDownOnConds();
+            if (filters.size() > 1) {
+                params.add(ExecuteParams.ExecuteParamType.EXTRA_QUERY_FILTER, filters);
+                params.add(ExecuteParams.ExecuteParamType.EXTRA_QUERY_FILTER_PARALLELISM, termsFilterParallelism);
+            } else {
+                params.add(ExecuteParams.ExecuteParamType.EXTRA_QUERY_FILTER,
+                        filters.isEmpty() ? boolQuery() : filters.get(0));
+            }
         }
         right.open(params);
     }
 
+    @Override
+    protected boolean isAnyMoreDataFromRight() {
+        return !probingChunks.isEmpty() || super.isAnyMoreDataFromRight();
+    }
+
     @Override
     protected List<CombinedRow<T>> probe() {
+        if (probeExecutor != null) {
+            return probeInParallel();
+        }
+
         List<CombinedRow<T>> combinedRows = new ArrayList<>();
         int totalSize = 0;
 
@@ -89,29 +188,91 @@ public class BlockHashJoin<T> extends JoinAlgorithm<T> {
     }
 
     /**
-     * Build query for pushed down conditions in ON
+     * Keep chunks in flight up to the parallelism and return result of the earliest chunk.
+     * Return empty only if all chunks probed have no match.
      */
-    private BoolQueryBuilder queryForPushedDownOnConds() {
-        BoolQueryBuilder orQuery = boolQuery();
-        Map<String, Collection<Object>>[] rightNameToLeftValuesGroup = hashTable.rightFieldWithLeftValues();
+    private List<CombinedRow<T>> probeInParallel() {
+        while (!probingChunks.isEmpty() || right.hasNext()) {
+            while (probingChunks.size() < probeParallelism && right.hasNext()) {
+                probingChunks.add(submitProbe(nextChunkFromRight()));
+            }
 
-        for (Map<String, Collection<Object>> rightNameToLeftValues : rightNameToLeftValuesGroup) {
-            if (LOG.isTraceEnabled()) {
-                rightNameToLeftValues.forEach((rightName, leftValues) ->
-                        LOG.trace("Right name to left values mapping: {} => {}", rightName, leftValues));
+            List<CombinedRow<T>> combinedRows = waitForProbe(probingChunks.poll());
+            if (!combinedRows.isEmpty()) {
+                return combinedRows;
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private List<Row<T>> nextChunkFromRight() {
+        List<Row<T>> chunk = new ArrayList<>();
+        while (chunk.size() < probeChunkSize && right.hasNext()) {
+            chunk.add(right.next());
+        }
+        return chunk;
+    }
+
+    private Future<List<CombinedRow<T>>> submitProbe(List<Row<T>> chunk) {
+        try {
+            return probeExecutor.submit(() -> probeChunk(chunk));
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Join worker thread pool is busy, probe chunk on join thread instead");
+            return CompletableFuture.completedFuture(probeChunk(chunk));
+        }
+    }
+
+    private List<CombinedRow<T>> probeChunk(List<Row<T>> chunk) {
+        List<CombinedRow<T>> combinedRows = new ArrayList<>();
+        for (Row<T> rightRow : chunk) {
+            Collection<Row<T>> matchedLeftRows = hashTable.match(rightRow);
+            if (!matchedLeftRows.isEmpty()) {
+                combinedRows.add(new CombinedRow<>(rightRow, matchedLeftRows));
             }
+        }
+        return combinedRows;
+    }
 
-            BoolQueryBuilder andQuery = boolQuery();
-            rightNameToLeftValues.forEach(
-                    (rightName, leftValues) -> andQuery.must(termsQuery(rightName, leftValues))
-            );
+    private List<CombinedRow<T>> waitForProbe(Future<List<CombinedRow<T>>> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for probing right rows", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to probe right rows", e.getCause());
+        }
+    }
+
+    /**
+     * Find executor of join worker thread pool or fall back to probe on join thread if unavailable
+     */
+    private ExecutorService joinWorkerExecutor(Client client) {
+        ThreadPool threadPool = (client == null) ? null : client.threadPool();
+        if (threadPool == null) {
+            LOG.warn("Thread pool is unavailable, probe right rows on join thread");
+            return null;
+        }
+        return threadPool.executor(AsyncRestExecutor.SQL_JOIN_WORKER_THREAD_POOL_NAME);
+    }
 
-            if (LOG.isTraceEnabled()) {
-                LOG.trace("Terms filter optimization: {}", Strings.toString(andQuery));
+    /**
+     * Build queries for pushed down conditions in ON, each of which is scrolled separately on right
+     */
+    private List<BoolQueryBuilder> queryForPushedDownOnConds() {
+        Map<String, Collection<Object>>[] rightNameToLeftValuesGroup = hashTable.rightFieldWithLeftValues();
+        if (LOG.isTraceEnabled()) {
+            for (Map<String, Collection<Object>> rightNameToLeftValues : rightNameToLeftValuesGroup) {
+                rightNameToLeftValues.forEach((rightName, leftValues) ->
+                        LOG.trace("Right name to left values mapping: {} => {}", rightName, leftValues));
             }
-            orQuery.should(andQuery);
         }
-        return orQuery;
+
+        List<BoolQueryBuilder> filters = termsFilterPartitioner.partition(rightNameToLeftValuesGroup);
+        if (LOG.isTraceEnabled()) {
+            filters.forEach(filter -> LOG.trace("Terms filter optimization: {}", Strings.toString(filter)));
+        }
+        return filters;
     }
 
     /*********************************************
@@ -21,17 +21,22 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.PlanN
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.node.Join.JoinCondition;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.PhysicalOperator;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.Row;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.RowSerializer;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.BatchPhysicalOperator;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.QueryMemoryTracker;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.ResourceManager;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.blocksize.BlockSize;
 import com.google.common.collect.Sets;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
+import static com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.ExecuteParams.ExecuteParamType.RESOURCE_MANAGER;
 import static java.util.Collections.emptyList;
 
 /**
@@ -83,11 +88,64 @@ public abstract class JoinAlgorithm<T> extends BatchPhysicalOperator<T> {
      */
     protected ExecuteParams params;
 
+    /**
+     * Estimated size (bytes) of a left block above which the block is spilled to disk. 0 means never spill.
+     */
+    private final long spillMemoryLimit;
+
+    /**
+     * Number of partitions on disk for spilled block
+     */
+    private final int spillPartitions;
+
+    /**
+     * Serializer to write rows to disk when spilling
+     */
+    private final RowSerializer<T> serializer;
+
+    /**
+     * Grace hash join for current block if it's spilled to disk
+     */
+    private SpilledHashJoin<T> spilledJoin;
+
+    /**
+     * Memory accounting of the query which left blocks held in memory are charged to.
+     * It only accounts without circuit breaker until replaced by the tracker of the query on open.
+     */
+    private QueryMemoryTracker memoryTracker = new QueryMemoryTracker(null);
+
+    /**
+     * Number of rows and estimated size (bytes) of current block loaded from left
+     */
+    private int blockRows;
+    private long blockSizeInBytes;
+
+    /**
+     * Estimated size (bytes) of current block charged to memory tracker which is 0 once spilled
+     */
+    private long chargedBytes;
+
+    /**
+     * Start time of current run (left block + all right) to measure latency for block size feedback
+     */
+    private long runStartMillis;
+
     JoinAlgorithm(PhysicalOperator<T> left,
                   PhysicalOperator<T> right,
                   JoinType type,
                   JoinCondition condition,
                   BlockSize blockSize) {
+        this(left, right, type, condition, blockSize, 0, 0, null);
+    }
+
+    JoinAlgorithm(PhysicalOperator<T> left,
+                  PhysicalOperator<T> right,
+                  JoinType type,
+                  JoinCondition condition,
+                  BlockSize blockSize,
+                  long spillMemoryLimit,
+                  int spillPartitions,
+                  RowSerializer<T> serializer) {
         this.left = left;
         this.right = right;
         this.type = type;
@@ -95,6 +153,9 @@ public abstract class JoinAlgorithm<T> extends BatchPhysicalOperator<T> {
         this.blockSize = blockSize;
         this.hashTable = new HashTableGroup<>(condition);
         this.leftMismatch = Sets.newIdentityHashSet();
+        this.spillMemoryLimit = spillMemoryLimit;
+        this.spillPartitions = spillPartitions;
+        this.serializer = serializer;
     }
 
     @Override
@@ -107,6 +168,9 @@ public abstract class JoinAlgorithm<T> extends BatchPhysicalOperator<T> {
         super.open(params);
         left.open(params);
         this.params = params;
+
+        ResourceManager resourceMgr = params.get(RESOURCE_MANAGER);
+        this.memoryTracker = resourceMgr.getMemoryTracker();
     }
 
     @Override
@@ -114,6 +178,14 @@ public abstract class JoinAlgorithm<T> extends BatchPhysicalOperator<T> {
         super.close();
         hashTable.clear();
         leftMismatch.clear();
+        if (spilledJoin != null) {
+            spilledJoin.close();
+            spilledJoin = null;
+        }
+        releaseBlockMemory();
+
+        /* Release whatever is left in case any charge failed halfway, so nothing leaks in request breaker */
+        memoryTracker.releaseAll();
         LOG.debug("Cleared all resources used by join");
     }
 
@@ -125,6 +197,9 @@ public abstract class JoinAlgorithm<T> extends BatchPhysicalOperator<T> {
      * 3) Check if any row in mismatched set to return in the case of outer join.
      * 4) Nothing remained now, move on to next block of left. Go back to step 1.
      * <p>
+     * If block is too large to fit in memory, it is spilled to disk in step 1 along with all rows from right
+     * and then joined partition by partition instead of step 2 and 3.
+     * <p>
      * This is a new run AND no block from left means algorithm should stop and return empty.
      */
     @Override
@@ -135,6 +210,20 @@ public abstract class JoinAlgorithm<T> extends BatchPhysicalOperator<T> {
             if (isNewRun()) {
                 buildHashTableByNextBlock();
                 reopenRight();
+
+                if (isSpilled()) {
+                    spilledJoin.addAllRight(right);
+                }
+            }
+
+            // 2'.Join spilled partitions of left block and right one by one
+            if (isSpilled()) {
+                Collection<Row<T>> matched = spilledJoin.nextBatch();
+                if (!matched.isEmpty()) {
+                    return matched;
+                }
+                cleanUpSpillAndCloseRight();
+                continue;
             }
 
             // 2.Keep probing right by the hash table and bookkeeping mismatch
@@ -192,14 +281,31 @@ public abstract class JoinAlgorithm<T> extends BatchPhysicalOperator<T> {
     }
 
     private boolean isNewRun() {
-        return hashTable.isEmpty();
+        return hashTable.isEmpty() && !isSpilled();
+    }
+
+    /**
+     * Is current block spilled to disk rather than in hash table
+     */
+    protected boolean isSpilled() {
+        return spilledJoin != null;
+    }
+
+    /**
+     * Spilling only works for equi-join without OR because rows are partitioned by single join key
+     */
+    private boolean isSpillEnabled() {
+        return spillMemoryLimit > 0 && serializer != null && condition.groupSize() == 1;
     }
 
     private boolean isAnyMoreBlockFromLeft() {
         return left.hasNext();
     }
 
-    private boolean isAnyMoreDataFromRight() {
+    /**
+     * Is any more data from right to probe which may include rows fetched but not probed yet by subclass
+     */
+    protected boolean isAnyMoreDataFromRight() {
         return right.hasNext();
     }
 
@@ -232,8 +338,14 @@ public abstract class JoinAlgorithm<T> extends BatchPhysicalOperator<T> {
      * Building phase:
      * Build hash table from data block.
      */
-    private void buildHashTableByNextBlock() {
+    private void buildHashTableByNextBlock() throws IOException {
+        runStartMillis = System.currentTimeMillis();
         List<Row<T>> block = loadNextBlockFromLeft(blockSize.size());
+        if (isSpilled()) {
+            LOG.debug("Block exceeded spill memory limit {} bytes and was spilled to disk", spillMemoryLimit);
+            return;
+        }
+
         if (LOG.isTraceEnabled()) {
             LOG.trace("Build hash table on conditions with block: {}, {}", condition, block);
         }
@@ -252,16 +364,70 @@ public abstract class JoinAlgorithm<T> extends BatchPhysicalOperator<T> {
         hashTable.clear();
         leftMismatch.clear();
         right.close();
+        finishRun();
     }
 
-    private List<Row<T>> loadNextBlockFromLeft(int blockSize) {
+    private void cleanUpSpillAndCloseRight() {
+        LOG.debug("All spilled partitions joined. Clean up and close right.");
+        spilledJoin.close();
+        spilledJoin = null;
+        right.close();
+        finishRun();
+    }
+
+    /**
+     * Give feedback on the block just joined to block size calculator and release memory held by the block.
+     */
+    private void finishRun() {
+        long elapsedMillis = System.currentTimeMillis() - runStartMillis;
+        blockSize.feedback(blockRows, blockSizeInBytes, elapsedMillis, memoryTracker.available());
+        releaseBlockMemory();
+    }
+
+    private void releaseBlockMemory() {
+        memoryTracker.release(chargedBytes);
+        chargedBytes = 0;
+    }
+
+    /**
+     * Load next block from left. Once estimated size of the block exceeds the spill memory limit,
+     * rows loaded so far and all the remaining rows in the block are spilled to disk instead.
+     * Rows held in memory are charged to memory tracker which may trip the circuit breaker.
+     */
+    private List<Row<T>> loadNextBlockFromLeft(int blockSize) throws IOException {
         List<Row<T>> block = new ArrayList<>();
+        blockRows = 0;
+        blockSizeInBytes = 0;
         for (int i = 0; i < blockSize && left.hasNext(); i++) {
-            block.add(left.next());
+            Row<T> row = left.next();
+            long rowSizeInBytes = row.sizeInBytes();
+            blockRows++;
+            blockSizeInBytes += rowSizeInBytes;
+
+            if (isSpilled()) {
+                spilledJoin.addLeft(row);
+                continue;
+            }
+
+            block.add(row);
+            memoryTracker.charge(rowSizeInBytes);
+            chargedBytes += rowSizeInBytes;
+            if (isSpillEnabled() && blockSizeInBytes > spillMemoryLimit) {
+                spillBlock(block);
+            }
         }
         return block;
     }
 
+    private void spillBlock(List<Row<T>> block) throws IOException {
+        spilledJoin = new SpilledHashJoin<>(type, condition, serializer, spillPartitions);
+        for (Row<T> row : block) {
+            spilledJoin.addLeft(row);
+        }
+        block.clear();
+        releaseBlockMemory();
+    }
+
     private void bookkeepMismatchedRows(List<CombinedRow<T>> combinedRows) {
         if (type == JoinType.LEFT_OUTER_JOIN) {
             for (CombinedRow<T> row : combinedRows) {
@@ -287,7 +453,8 @@ public abstract class JoinAlgorithm<T> extends BatchPhysicalOperator<T> {
     @Override
     public String toString() {
         return getClass().getSimpleName() + "[ conditions=" + condition
-                + ", type=" + type + ", blockSize=[" + blockSize + "] ]";
+                + ", type=" + type + ", blockSize=[" + blockSize + "]"
+                + (spillMemoryLimit > 0 ? ", spillMemoryLimit=" + spillMemoryLimit : "") + " ]";
     }
 
 }
@@ -0,0 +1,316 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.join;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.ExecuteParams;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.PlanNode;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.PhysicalOperator;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.Row;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.Row.RowKey;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.estimation.Cost;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.BatchPhysicalOperator;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.blocksize.BlockSize;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.alibaba.druid.sql.ast.statement.SQLJoinTableSource.JoinType;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.ExecuteParams.ExecuteParamType.SORT_FIELDS;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.node.Join.JoinCondition;
+
+/**
+ * Sort-merge join implementation.
+ * <p>
+ * Both sides are scrolled in ascending order of join keys and merged in a streaming fashion. So neither side
+ * is scanned more than once and only rows from right with the same key are held in memory.
+ * <p>
+ * Note that rows are ordered and matched by sort values returned from ES rather than values in _source
+ * to make sure the order is exactly the same as what ES sorted by. Rows with NULL key never match.
+ *
+ * @param <T> data object underlying, ex. SearchHit
+ */
+public class SortMergeJoin<T> extends BatchPhysicalOperator<T> {
+
+    /**
+     * Left child operator
+     */
+    private final PhysicalOperator<T> left;
+
+    /**
+     * Right child operator
+     */
+    private final PhysicalOperator<T> right;
+
+    /**
+     * Join type ex. inner join, left join
+     */
+    private final JoinType type;
+
+    /**
+     * Joined columns in ON conditions which must have single group only (no OR)
+     */
+    private final JoinCondition condition;
+
+    /**
+     * Block size calculator which limits number of rows returned in each batch
+     */
+    private final BlockSize blockSize;
+
+    /**
+     * Rows from right with the same key that matches current left row(s)
+     */
+    private final List<Row<T>> rightGroup = new ArrayList<>();
+    private RowKey rightGroupKey;
+
+    /**
+     * Next row with non-NULL key read ahead from right but not grouped yet
+     */
+    private Row<T> rightPeek;
+    private RowKey rightPeekKey;
+
+    /**
+     * Last key seen on each side to verify if rows are really sorted
+     */
+    private RowKey lastLeftKey;
+    private RowKey lastRightKey;
+
+    public SortMergeJoin(PhysicalOperator<T> left,
+                         PhysicalOperator<T> right,
+                         JoinType type,
+                         JoinCondition condition,
+                         BlockSize blockSize) {
+        if (condition.groupSize() != 1) {
+            throw new IllegalArgumentException("Sort-merge join only supports conditions without OR: " + condition);
+        }
+
+        this.left = left;
+        this.right = right;
+        this.type = type;
+        this.condition = condition;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public PlanNode[] children() {
+        return new PlanNode[]{left, right};
+    }
+
+    @Override
+    public Cost estimate() {
+        return new Cost();
+    }
+
+    /**
+     * Open both sides with its own join keys as sort fields
+     */
+    @Override
+    public void open(ExecuteParams params) throws Exception {
+        super.open(params);
+        left.open(sortedBy(params, condition.leftColumnNames(0)));
+        right.open(sortedBy(params, condition.rightColumnNames(0)));
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        rightGroup.clear();
+        rightPeek = null;
+        LOG.debug("Cleared all resources used by join");
+    }
+
+    /**
+     * Merge rows from left with the group of rows from right with the same key.
+     * For outer join, left row is returned as mismatch if no right group found for it.
+     */
+    @Override
+    protected Collection<Row<T>> prefetch() {
+        List<Row<T>> result = new ArrayList<>();
+        int batchSize = Math.max(1, blockSize.size());
+
+        while (result.size() < batchSize && left.hasNext() && !isNoMoreMatchForInnerJoin()) {
+            Row<T> leftRow = left.next();
+            RowKey leftKey = sortKeyOf(leftRow, condition.leftColumnNames(0));
+
+            if (leftKey != RowKey.NULL) {
+                lastLeftKey = verifySorted(lastLeftKey, leftKey);
+            }
+
+            if (leftKey != RowKey.NULL && seekRightGroup(leftKey)) {
+                for (Row<T> rightRow : rightGroup) {
+                    result.add(leftRow.combine(rightRow));
+                }
+            } else if (type == JoinType.LEFT_OUTER_JOIN) {
+                result.add(leftRow.combine(Row.NULL));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Move right forward to the group of rows with the same key as left key. Because left is sorted too,
+     * right group is reused for subsequent left rows with the same key and right rows with smaller key
+     * can be skipped safely.
+     *
+     * @return true if right group found for the left key
+     */
+    private boolean seekRightGroup(RowKey leftKey) {
+        if (rightGroupKey != null) {
+            int result = compare(rightGroupKey, leftKey);
+            if (result == 0) {
+                return true;
+            }
+            if (result > 0) {
+                return false;
+            }
+        }
+        rightGroup.clear();
+        rightGroupKey = null;
+
+        while (peekRight() && compare(rightPeekKey, leftKey) < 0) {
+            rightPeek = null;
+        }
+
+        if (peekRight() && compare(rightPeekKey, leftKey) == 0) {
+            rightGroupKey = rightPeekKey;
+            while (peekRight() && compare(rightPeekKey, rightGroupKey) == 0) {
+                rightGroup.add(rightPeek);
+                rightPeek = null;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Read ahead next row with non-NULL key from right if not yet
+     */
+    private boolean peekRight() {
+        while (rightPeek == null && right.hasNext()) {
+            Row<T> row = right.next();
+            RowKey key = sortKeyOf(row, condition.rightColumnNames(0));
+            if (key != RowKey.NULL) {
+                lastRightKey = verifySorted(lastRightKey, key);
+                rightPeek = row;
+                rightPeekKey = key;
+            }
+        }
+        return rightPeek != null;
+    }
+
+    /**
+     * No need to read left any more if it's inner join and nothing left in right
+     */
+    private boolean isNoMoreMatchForInnerJoin() {
+        return type != JoinType.LEFT_OUTER_JOIN && rightGroup.isEmpty() && !peekRight();
+    }
+
+    /**
+     * Sort values of the row as key, or NULL if any join column value is NULL
+     */
+    private RowKey sortKeyOf(Row<T> row, String[] colNames) {
+        if (row.key(colNames) == RowKey.NULL) {
+            return RowKey.NULL;
+        }
+
+        RowKey key = row.sortKey(colNames.length);
+        if (key == RowKey.NULL) {
+            throw new IllegalStateException("Row is not sorted by join keys: " + row);
+        }
+        return key;
+    }
+
+    private RowKey verifySorted(RowKey lastKey, RowKey key) {
+        if (lastKey != null && compare(lastKey, key) > 0) {
+            throw new IllegalStateException(String.format(
+                "Rows are not sorted by join keys as expected: %s is after %s", key, lastKey));
+        }
+        return key;
+    }
+
+    private ExecuteParams sortedBy(ExecuteParams params, String[] sortFields) {
+        ExecuteParams sortedParams = params.copy();
+        sortedParams.add(SORT_FIELDS, sortFields);
+        return sortedParams;
+    }
+
+    /**
+     * Compare keys in the same way as ES sorted them. Numbers are compared by value regardless of its type
+     * and strings are compared by code point which is consistent with UTF-8 byte order of keyword doc values.
+     */
+    static int compare(RowKey key1, RowKey key2) {
+        Object[] values1 = key1.keys();
+        Object[] values2 = key2.keys();
+        for (int i = 0; i < values1.length; i++) {
+            int result = compareValue(values1[i], values2[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValue(Object value1, Object value2) {
+        if (value1 == null || value2 == null) { // Missing value comes last in ascending order
+            if (value1 == value2) {
+                return 0;
+            }
+            return value1 == null ? 1 : -1;
+        }
+
+        if (value1 instanceof Number && value2 instanceof Number) {
+            if (isIntegral(value1) && isIntegral(value2)) {
+                return Long.compare(((Number) value1).longValue(), ((Number) value2).longValue());
+            }
+            return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+        }
+
+        if (value1 instanceof String && value2 instanceof String) {
+            return compareByCodePoint((String) value1, (String) value2);
+        }
+
+        if (value1 instanceof Comparable && value1.getClass() == value2.getClass()) {
+            return ((Comparable) value1).compareTo(value2);
+        }
+        throw new IllegalStateException(String.format(
+            "Unable to compare join keys of different types: %s and %s", value1, value2));
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static int compareByCodePoint(String str1, String str2) {
+        int i = 0;
+        int j = 0;
+        while (i < str1.length() && j < str2.length()) {
+            int codePoint1 = str1.codePointAt(i);
+            int codePoint2 = str2.codePointAt(j);
+            if (codePoint1 != codePoint2) {
+                return Integer.compare(codePoint1, codePoint2);
+            }
+            i += Character.charCount(codePoint1);
+            j += Character.charCount(codePoint2);
+        }
+        return Integer.compare(str1.length() - i, str2.length() - j);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[ conditions=" + condition
+                + ", type=" + type + ", blockSize=[" + blockSize + "] ]";
+    }
+}
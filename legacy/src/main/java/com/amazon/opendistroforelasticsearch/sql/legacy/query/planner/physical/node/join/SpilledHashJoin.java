@@ -0,0 +1,362 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.join;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.PhysicalOperator;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.Row;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.Row.RowKey;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.RowSerializer;
+import com.google.common.collect.Sets;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static com.alibaba.druid.sql.ast.statement.SQLJoinTableSource.JoinType;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.logical.node.Join.JoinCondition;
+
+/**
+ * Grace hash join for a left block whose estimated size exceeds the memory limit.
+ * <p>
+ * 1) Partition rows in the block by hash of left join key into local temp files.
+ * 2) Partition all rows from right by hash of right join key in the same way.
+ * 3) Join partition by partition: build hash table by left partition and probe it by right partition.
+ * <p>
+ * Because matched rows must have the same hash, each left partition only needs to be joined with the right
+ * partition with the same number, and only one left partition is held in memory at a time.
+ *
+ * @param <T> data object underlying, ex. SearchHit
+ */
+class SpilledHashJoin<T> implements AutoCloseable {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final String SPILL_FILE_PREFIX = "opendistro-sql-join-";
+    private static final String SPILL_FILE_SUFFIX = ".spill";
+
+    /**
+     * Join type ex. inner join, left join
+     */
+    private final JoinType type;
+
+    /**
+     * Joined columns in ON conditions which must have single group only (no OR)
+     */
+    private final JoinCondition condition;
+
+    /**
+     * Serializer to write and read rows to and from local disk
+     */
+    private final RowSerializer<T> serializer;
+
+    /**
+     * Partitions of left block and right side
+     */
+    private final Partition[] partitions;
+
+    /**
+     * Partition being joined currently
+     */
+    private int current;
+
+    /**
+     * Hash table built by current left partition
+     */
+    private HashTable<T> hashTable;
+
+    /**
+     * Bookkeeping unmatched rows in current left partition
+     */
+    private Set<Row<T>> leftMismatch;
+
+    /**
+     * Reader of current right partition and number of rows remaining to read
+     */
+    private StreamInput rightInput;
+    private int rightRemaining;
+
+    SpilledHashJoin(JoinType type,
+                    JoinCondition condition,
+                    RowSerializer<T> serializer,
+                    int numOfPartitions) {
+        this.type = type;
+        this.condition = condition;
+        this.serializer = serializer;
+        this.partitions = new Partition[numOfPartitions];
+        for (int i = 0; i < numOfPartitions; i++) {
+            partitions[i] = new Partition();
+        }
+    }
+
+    /**
+     * Spill row in left block to the partition by hash of left join key.
+     * Rows with NULL key never match but are still kept for outer join.
+     */
+    void addLeft(Row<T> row) throws IOException {
+        Partition partition = partitionOf(row.key(condition.leftColumnNames(0)));
+        serializer.write(row, partition.leftOutput());
+        partition.leftCount++;
+    }
+
+    /**
+     * Drain right side and spill each row to the partition by hash of right join key.
+     * Rows with NULL key are skipped because they never match.
+     */
+    void addAllRight(PhysicalOperator<T> right) throws IOException {
+        int total = 0;
+        while (right.hasNext()) {
+            Row<T> row = right.next();
+            RowKey key = row.key(condition.rightColumnNames(0));
+            if (key == RowKey.NULL) {
+                continue;
+            }
+
+            Partition partition = partitionOf(key);
+            if (partition.leftCount > 0) { // No need to spill if nothing to match in left partition
+                serializer.write(row, partition.rightOutput());
+                partition.rightCount++;
+                total++;
+            }
+        }
+
+        for (Partition partition : partitions) {
+            partition.closeOutputs();
+        }
+        LOG.debug("Spilled {} rows from right to {} partitions", total, partitions.length);
+    }
+
+    /**
+     * Join next batch of rows partition by partition.
+     *
+     * @return matched rows (and mismatched rows if outer join), or empty if all partitions joined
+     */
+    Collection<Row<T>> nextBatch() throws IOException {
+        List<Row<T>> result = new ArrayList<>();
+        while (result.isEmpty() && current < partitions.length) {
+            Partition partition = partitions[current];
+            if (isNothingToJoin(partition)) {
+                partition.delete();
+                current++;
+                continue;
+            }
+
+            if (hashTable == null) {
+                buildHashTable(partition);
+            }
+
+            probe(result);
+
+            if (rightRemaining == 0) {
+                returnMismatch(result);
+                cleanUpPartition(partition);
+                current++;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(rightInput);
+        rightInput = null;
+        for (Partition partition : partitions) {
+            partition.delete();
+        }
+        hashTable = null;
+        leftMismatch = null;
+    }
+
+    private void buildHashTable(Partition partition) throws IOException {
+        LOG.debug("Join spilled partition {} with {} left rows and {} right rows",
+                current, partition.leftCount, partition.rightCount);
+
+        hashTable = new HashTableGroup<>(condition);
+        leftMismatch = Sets.newIdentityHashSet();
+        try (StreamInput leftInput = partition.leftInput()) {
+            for (int i = 0; i < partition.leftCount; i++) {
+                Row<T> row = serializer.read(leftInput);
+                hashTable.add(row);
+                if (type == JoinType.LEFT_OUTER_JOIN) {
+                    leftMismatch.add(row);
+                }
+            }
+        }
+
+        rightRemaining = partition.rightCount;
+        if (rightRemaining > 0) {
+            rightInput = partition.rightInput();
+        }
+    }
+
+    /**
+     * Probe until found enough matched rows to limit the size of each batch returned
+     */
+    private void probe(List<Row<T>> result) throws IOException {
+        if (hashTable.isEmpty()) { // All left rows have NULL key so nothing to match
+            rightRemaining = 0;
+            return;
+        }
+
+        int totalSize = 0;
+        while (rightRemaining > 0 && totalSize < hashTable.size()) {
+            Row<T> rightRow = serializer.read(rightInput);
+            rightRemaining--;
+
+            Collection<Row<T>> matchedLeftRows = hashTable.match(rightRow);
+            if (!matchedLeftRows.isEmpty()) {
+                CombinedRow<T> combinedRow = new CombinedRow<>(rightRow, matchedLeftRows);
+                result.addAll(combinedRow.combine());
+                totalSize += matchedLeftRows.size();
+
+                if (type == JoinType.LEFT_OUTER_JOIN) {
+                    leftMismatch.removeAll(matchedLeftRows);
+                }
+            }
+        }
+    }
+
+    /**
+     * You know it's a mismatch only after current left partition is probed by all rows in right partition
+     */
+    @SuppressWarnings("unchecked")
+    private void returnMismatch(List<Row<T>> result) {
+        for (Row<T> row : leftMismatch) {
+            result.add(row.combine(Row.NULL));
+        }
+    }
+
+    private void cleanUpPartition(Partition partition) {
+        closeQuietly(rightInput);
+        rightInput = null;
+        hashTable.clear();
+        hashTable = null;
+        leftMismatch = null;
+        partition.delete();
+    }
+
+    private boolean isNothingToJoin(Partition partition) {
+        return partition.leftCount == 0
+                || (partition.rightCount == 0 && type != JoinType.LEFT_OUTER_JOIN);
+    }
+
+    private Partition partitionOf(RowKey key) {
+        int hash = (key == RowKey.NULL) ? 0 : key.hashCode();
+        return partitions[Math.floorMod(hash ^ (hash >>> 16), partitions.length)];
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                LOG.warn("Failed to close spill file stream", e);
+            }
+        }
+    }
+
+    /**
+     * One partition of both left block and right side on local disk. Files are created lazily.
+     */
+    private static class Partition {
+        private Path leftFile;
+        private Path rightFile;
+        private StreamOutput leftOutput;
+        private StreamOutput rightOutput;
+        private int leftCount;
+        private int rightCount;
+
+        StreamOutput leftOutput() throws IOException {
+            if (leftOutput == null) {
+                leftFile = createSpillFile();
+                leftOutput = openOutput(leftFile);
+            }
+            return leftOutput;
+        }
+
+        StreamOutput rightOutput() throws IOException {
+            if (rightOutput == null) {
+                rightFile = createSpillFile();
+                rightOutput = openOutput(rightFile);
+            }
+            return rightOutput;
+        }
+
+        StreamInput leftInput() throws IOException {
+            return openInput(leftFile);
+        }
+
+        StreamInput rightInput() throws IOException {
+            return openInput(rightFile);
+        }
+
+        void closeOutputs() throws IOException {
+            if (leftOutput != null) {
+                leftOutput.close();
+                leftOutput = null;
+            }
+            if (rightOutput != null) {
+                rightOutput.close();
+                rightOutput = null;
+            }
+        }
+
+        void delete() {
+            closeQuietly(leftOutput);
+            closeQuietly(rightOutput);
+            leftOutput = null;
+            rightOutput = null;
+            deleteQuietly(leftFile);
+            deleteQuietly(rightFile);
+            leftFile = null;
+            rightFile = null;
+        }
+
+        private static Path createSpillFile() throws IOException {
+            return Files.createTempFile(SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX);
+        }
+
+        private static StreamOutput openOutput(Path file) throws IOException {
+            return new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(file)));
+        }
+
+        private static StreamInput openInput(Path file) throws IOException {
+            return new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(file)));
+        }
+
+        private static void deleteQuietly(Path file) {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    LOG.warn("Failed to delete spill file: " + file, e);
+                }
+            }
+        }
+    }
+
+}
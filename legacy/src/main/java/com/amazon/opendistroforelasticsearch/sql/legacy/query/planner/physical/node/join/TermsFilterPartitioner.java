@@ -0,0 +1,201 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.join;
+
+import com.google.common.collect.Lists;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
+
+/**
+ * Partition filter pushed down from values of join keys in a block of left table into filters against right table.
+ * <p>
+ * Values of each join key are deduplicated and sorted first. Then values of the join key with most distinct values
+ * are split into batches so that each terms query stays under index.max_terms_count of Elasticsearch. For dense
+ * integral values of a join key on integral field, contiguous ranges are used instead because range query doesn't
+ * grow with number of values. Partitions are disjoint so each row from right table is matched by one of them only.
+ */
+public class TermsFilterPartitioner {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * Integral values are dense if they fill at least 1 / DENSE_RANGE_FACTOR of the range between min and max
+     */
+    private static final int DENSE_RANGE_FACTOR = 2;
+
+    /**
+     * Max number of values in one terms query
+     */
+    private final int batchSize;
+
+    /**
+     * Number of range partitions for dense join key
+     */
+    private final int rangePartitions;
+
+    /**
+     * Join keys of right table on integral field which range query applies to
+     */
+    private final Set<String> rangeFields;
+
+    public TermsFilterPartitioner(int batchSize, int rangePartitions, Set<String> rangeFields) {
+        this.batchSize = batchSize;
+        this.rangePartitions = rangePartitions;
+        this.rangeFields = rangeFields;
+    }
+
+    /**
+     * Partition filter built from values of join keys in left table.
+     *
+     * @param rightNameToLeftValuesGroup join key of right table to values in left table for each group OR-ed in ON
+     * @return disjoint filters each for a separate query against right table, or empty if nothing to push down
+     */
+    public List<BoolQueryBuilder> partition(Map<String, Collection<Object>>[] rightNameToLeftValuesGroup) {
+        if (rightNameToLeftValuesGroup.length == 1) {
+            return partition(rightNameToLeftValuesGroup[0]);
+        }
+
+        /* Partitions are not disjoint if split by different join keys in each group, so no split for OR */
+        BoolQueryBuilder orQuery = boolQuery();
+        for (Map<String, Collection<Object>> rightNameToLeftValues : rightNameToLeftValuesGroup) {
+            BoolQueryBuilder andQuery = boolQuery();
+            rightNameToLeftValues.forEach((rightName, leftValues) ->
+                    filterWithoutPartition(rightName, sortedDistinct(leftValues)).ifPresent(andQuery::must));
+
+            if (andQuery.must().isEmpty()) {
+                LOG.debug("Too many values of join keys in ON to push down for conditions OR-ed");
+                return Collections.emptyList();
+            }
+            orQuery.should(andQuery);
+        }
+        return Collections.singletonList(orQuery);
+    }
+
+    private List<BoolQueryBuilder> partition(Map<String, Collection<Object>> rightNameToLeftValues) {
+        String partitionKey = null;
+        List<Object> partitionKeyValues = Collections.emptyList();
+        List<QueryBuilder> otherKeyFilters = new ArrayList<>();
+        for (Map.Entry<String, Collection<Object>> entry : rightNameToLeftValues.entrySet()) {
+            List<Object> values = sortedDistinct(entry.getValue());
+            if (partitionKey == null || values.size() > partitionKeyValues.size()) {
+                if (partitionKey != null) {
+                    filterWithoutPartition(partitionKey, partitionKeyValues).ifPresent(otherKeyFilters::add);
+                }
+                partitionKey = entry.getKey();
+                partitionKeyValues = values;
+            } else {
+                filterWithoutPartition(entry.getKey(), values).ifPresent(otherKeyFilters::add);
+            }
+        }
+
+        if (partitionKey == null) {
+            return Collections.emptyList();
+        }
+
+        List<BoolQueryBuilder> partitions = new ArrayList<>();
+        for (QueryBuilder partitionFilter : partitionFilters(partitionKey, partitionKeyValues)) {
+            BoolQueryBuilder andQuery = boolQuery().must(partitionFilter);
+            otherKeyFilters.forEach(andQuery::must);
+            partitions.add(andQuery);
+        }
+        return partitions;
+    }
+
+    private List<QueryBuilder> partitionFilters(String rightName, List<Object> values) {
+        List<QueryBuilder> filters = new ArrayList<>();
+        if (isDenseRange(rightName, values)) {
+            int partitionSize = (values.size() + rangePartitions - 1) / rangePartitions;
+            for (List<Object> partition : Lists.partition(values, partitionSize)) {
+                filters.add(rangeQuery(rightName).gte(partition.get(0)).lte(partition.get(partition.size() - 1)));
+            }
+        } else if (values.isEmpty()) {
+            /* Keep empty terms query which matches nothing rather than no filter at all */
+            filters.add(termsQuery(rightName, values));
+        } else {
+            for (List<Object> batch : Lists.partition(values, batchSize)) {
+                filters.add(termsQuery(rightName, new ArrayList<>(batch)));
+            }
+        }
+        return filters;
+    }
+
+    /**
+     * Filter on all values of a join key, or empty if too many values to fit in a terms query.
+     * It's safe to skip filter on a join key because rows from right table are matched against hash table anyway.
+     */
+    private Optional<QueryBuilder> filterWithoutPartition(String rightName, List<Object> values) {
+        if (isDenseRange(rightName, values)) {
+            return Optional.of(rangeQuery(rightName).gte(values.get(0)).lte(values.get(values.size() - 1)));
+        }
+        if (values.size() <= batchSize) {
+            return Optional.of(termsQuery(rightName, values));
+        }
+        return Optional.empty();
+    }
+
+    private boolean isDenseRange(String rightName, List<Object> values) {
+        if (!rangeFields.contains(rightName) || values.size() < 2
+                || !values.stream().allMatch(TermsFilterPartitioner::isIntegral)) {
+            return false;
+        }
+        double range = (double) ((Number) values.get(values.size() - 1)).longValue()
+                - ((Number) values.get(0)).longValue() + 1;
+        return range <= (double) values.size() * DENSE_RANGE_FACTOR;
+    }
+
+    /**
+     * Deduplicate and sort values. Null is skipped because it never matches any term.
+     */
+    private static List<Object> sortedDistinct(Collection<Object> values) {
+        Set<Object> sorted = new TreeSet<>(TermsFilterPartitioner::compareValues);
+        values.stream().filter(Objects::nonNull).forEach(sorted::add);
+        return new ArrayList<>(sorted);
+    }
+
+    private static int compareValues(Object value1, Object value2) {
+        if (isIntegral(value1) && isIntegral(value2)) {
+            return Long.compare(((Number) value1).longValue(), ((Number) value2).longValue());
+        }
+        if (value1 instanceof Number && value2 instanceof Number) {
+            return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+        }
+        if (value1 instanceof String && value2 instanceof String) {
+            return ((String) value1).compareTo((String) value2);
+        }
+        int result = value1.getClass().getName().compareTo(value2.getClass().getName());
+        return (result != 0) ? result : String.valueOf(value1).compareTo(String.valueOf(value2));
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+}
@@ -44,4 +44,14 @@ public class BindingTupleRow implements Row<BindingTuple> {
     public BindingTuple data() {
         return bindingTuple;
     }
+
+    @Override
+    public long sizeInBytes() {
+        return 0; // Not accounted because binding tuple row is never buffered by join
+    }
+
+    @Override
+    public RowKey sortKey(int size) {
+        return RowKey.NULL;
+    }
 }
@@ -17,6 +17,7 @@ package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.
 
 import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Where;
 import com.amazon.opendistroforelasticsearch.sql.legacy.exception.SqlParseException;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.DefaultQueryAction;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.TableInJoinRequestBuilder;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.maker.QueryMaker;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.ExecuteParams;
@@ -25,7 +26,9 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.R
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.estimation.Cost;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.BatchPhysicalOperator;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.ResourceManager;
+import org.elasticsearch.action.ActionFuture;
 import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.Strings;
@@ -36,8 +39,12 @@ import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.SortOrder;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -75,6 +82,31 @@ public class Scroll extends BatchPhysicalOperator<SearchHit> {
      */
     private ResourceManager resourceMgr;
 
+    /**
+     * Fields to sort on in ascending order before _doc if requested by upstream
+     */
+    private String[] sortFields;
+
+    /**
+     * Disjoint extra filters each scrolled by a separate sub-query in turn. Null if scrolling by single query.
+     */
+    private List<BoolQueryBuilder> subQueryFilters;
+
+    /**
+     * Number of sub-queries searched ahead concurrently
+     */
+    private int subQueryParallelism;
+
+    /**
+     * Index of next sub-query to search
+     */
+    private int nextSubQuery;
+
+    /**
+     * First page of sub-queries searched ahead in order
+     */
+    private final Deque<ActionFuture<SearchResponse>> pendingSubQueries = new ArrayDeque<>();
+
 
     public Scroll(TableInJoinRequestBuilder request, int pageSize) {
         this.request = request;
@@ -91,15 +123,25 @@ public class Scroll extends BatchPhysicalOperator<SearchHit> {
         return new Cost();
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public void open(ExecuteParams params) throws Exception {
         super.open(params);
         client = params.get(ExecuteParams.ExecuteParamType.CLIENT);
         timeout = params.get(ExecuteParams.ExecuteParamType.TIMEOUT);
         resourceMgr = params.get(ExecuteParams.ExecuteParamType.RESOURCE_MANAGER);
+        sortFields = params.get(ExecuteParams.ExecuteParamType.SORT_FIELDS);
+
+        subQueryFilters = null;
+        nextSubQuery = 0;
 
         Object filter = params.get(ExecuteParams.ExecuteParamType.EXTRA_QUERY_FILTER);
-        if (filter instanceof BoolQueryBuilder) {
+        if (filter instanceof List) {
+            subQueryFilters = (List<BoolQueryBuilder>) filter;
+            Integer parallelism = params.get(ExecuteParams.ExecuteParamType.EXTRA_QUERY_FILTER_PARALLELISM);
+            subQueryParallelism = (parallelism == null) ? 1 : parallelism;
+            LOG.debug("Received {} extra query filters, scroll by sub-query for each", subQueryFilters.size());
+        } else if (filter instanceof BoolQueryBuilder) {
             request.getRequestBuilder().setQuery(
                     generateNewQueryWithExtraFilter((BoolQueryBuilder) filter));
 
@@ -113,26 +155,42 @@ public class Scroll extends BatchPhysicalOperator<SearchHit> {
 
     @Override
     public void close() {
+        while (!pendingSubQueries.isEmpty()) {
+            try {
+                clearScroll(pendingSubQueries.poll().actionGet());
+            } catch (Exception e) {
+                LOG.warn("Failed to search sub-query being closed", e);
+            }
+        }
+
         if (scrollResponse != null) {
             LOG.debug("Closing all scroll resources");
-            ClearScrollResponse clearScrollResponse = client.prepareClearScroll().
-                    addScrollId(scrollResponse.getScrollId()).
-                    get();
-            if (!clearScrollResponse.isSucceeded()) {
-                LOG.warn("Failed to close scroll: {}", clearScrollResponse.status());
-            }
+            clearScroll(scrollResponse);
             scrollResponse = null;
         } else {
             LOG.debug("Scroll already be closed");
         }
     }
 
+    private void clearScroll(SearchResponse response) {
+        ClearScrollResponse clearScrollResponse = client.prepareClearScroll().
+                addScrollId(response.getScrollId()).
+                get();
+        if (!clearScrollResponse.isSucceeded()) {
+            LOG.warn("Failed to close scroll: {}", clearScrollResponse.status());
+        }
+    }
+
     @Override
     protected Collection<Row<SearchHit>> prefetch() {
         Objects.requireNonNull(client, "Client connection is not ready");
         Objects.requireNonNull(resourceMgr, "ResourceManager is not set");
         Objects.requireNonNull(timeout, "Time out is not set");
 
+        if (subQueryFilters != null) {
+            return prefetchBySubQueries();
+        }
+
         if (scrollResponse == null) {
             loadFirstBatch();
             updateMetaResult();
@@ -142,6 +200,58 @@ public class Scroll extends BatchPhysicalOperator<SearchHit> {
         return wrapRowForCurrentBatch();
     }
 
+    /**
+     * Scroll over sub-queries in order. First page of next sub-queries is searched ahead
+     * concurrently while scrolling current one. Scroll of sub-query is cleared once exhausted.
+     */
+    private Collection<Row<SearchHit>> prefetchBySubQueries() throws SqlParseException {
+        if (scrollResponse != null) {
+            loadNextBatchByScrollId();
+            if (scrollResponse.getHits().getHits().length > 0) {
+                return wrapRowForCurrentBatch();
+            }
+            clearScroll(scrollResponse);
+            scrollResponse = null;
+        }
+
+        while (true) {
+            while (pendingSubQueries.size() < subQueryParallelism && nextSubQuery < subQueryFilters.size()) {
+                pendingSubQueries.add(subQueryRequest(subQueryFilters.get(nextSubQuery++)).execute());
+            }
+            if (pendingSubQueries.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            scrollResponse = pendingSubQueries.poll().actionGet();
+            updateMetaResult();
+            if (scrollResponse.getHits().getHits().length > 0) {
+                return wrapRowForCurrentBatch();
+            }
+            clearScroll(scrollResponse);
+            scrollResponse = null;
+        }
+    }
+
+    /**
+     * Build a separate request for sub-query from original select because request builder
+     * is not allowed to be shared by requests in flight.
+     */
+    private SearchRequestBuilder subQueryRequest(BoolQueryBuilder filter) throws SqlParseException {
+        DefaultQueryAction queryAction = new DefaultQueryAction(client, request.getOriginalSelect());
+        queryAction.explain();
+        SearchRequestBuilder subQuery = queryAction.getRequestBuilder();
+        subQuery.setQuery(generateNewQueryWithExtraFilter(filter));
+        if (sortFields != null) {
+            for (String sortField : sortFields) {
+                subQuery.addSort(sortField, SortOrder.ASC);
+            }
+        }
+        return subQuery.
+                addSort(FieldSortBuilder.DOC_FIELD_NAME, SortOrder.ASC).
+                setSize(pageSize).
+                setScroll(TimeValue.timeValueSeconds(timeout));
+    }
+
     /**
      * Extra filter pushed down from upstream. Re-parse WHERE clause with extra filter
      * because ES RequestBuilder doesn't allow QueryBuilder inside be changed after added.
@@ -159,6 +269,12 @@ public class Scroll extends BatchPhysicalOperator<SearchHit> {
     }
 
     private void loadFirstBatch() {
+        if (sortFields != null) {
+            for (String sortField : sortFields) {
+                request.getRequestBuilder().addSort(sortField, SortOrder.ASC);
+            }
+        }
+
         scrollResponse = request.getRequestBuilder().
                 addSort(FieldSortBuilder.DOC_FIELD_NAME, SortOrder.ASC).
                 setSize(pageSize).
@@ -17,11 +17,13 @@ package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.
 
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.Row;
 import com.google.common.base.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.search.SearchHit;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -46,6 +48,16 @@ import java.util.Map;
  */
 class SearchHitRow implements Row<SearchHit> {
 
+    /**
+     * Rough estimate of fixed memory held by a row and its hit regardless of source size
+     */
+    private static final long ROW_OVERHEAD_IN_BYTES = 256;
+
+    /**
+     * Rough ratio between memory held by parsed source map and the length of raw source
+     */
+    private static final int SOURCE_MAP_EXPANSION_RATIO = 3;
+
     /**
      * Native ES data object for each row
      */
@@ -119,6 +131,29 @@ class SearchHitRow implements Row<SearchHit> {
         return hit;
     }
 
+    /**
+     * Both raw source in hit and source map parsed from it are held in memory.
+     */
+    @Override
+    public long sizeInBytes() {
+        BytesReference sourceRef = hit.getSourceRef();
+        long sourceSize = (sourceRef == null) ? 0 : sourceRef.length();
+        return ROW_OVERHEAD_IN_BYTES + sourceSize * (1 + SOURCE_MAP_EXPANSION_RATIO);
+    }
+
+    @Override
+    public RowKey sortKey(int size) {
+        Object[] sortValues = hit.getSortValues();
+        if (sortValues.length < size) {
+            return RowKey.NULL;
+        }
+        return new RowKey(Arrays.copyOf(sortValues, size));
+    }
+
+    String getTableAlias() {
+        return tableAlias;
+    }
+
     @Override
     public String toString() {
         return "SearchHitRow{" + "hit=" + source + '}';
@@ -0,0 +1,48 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.scroll;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.Row;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.RowSerializer;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.search.SearchHit;
+
+import java.io.IOException;
+
+/**
+ * Serializer for search hit row by ES wire format of SearchHit along with table alias of the row.
+ */
+public class SearchHitRowSerializer implements RowSerializer<SearchHit> {
+
+    public static final SearchHitRowSerializer INSTANCE = new SearchHitRowSerializer();
+
+    private SearchHitRowSerializer() {
+    }
+
+    @Override
+    public void write(Row<SearchHit> row, StreamOutput out) throws IOException {
+        out.writeString(((SearchHitRow) row).getTableAlias());
+        row.data().writeTo(out);
+    }
+
+    @Override
+    public Row<SearchHit> read(StreamInput in) throws IOException {
+        String tableAlias = in.readString();
+        return new SearchHitRow(new SearchHit(in), tableAlias);
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+
+/**
+ * Per-query memory accounting backed by ES request circuit breaker.
+ * <p>
+ * Different from TotalMemoryMonitor which measures memory usage of whole JVM, only memory estimated
+ * to be held by current query is charged and released. Charges are accumulated and flushed to circuit
+ * breaker in batch to avoid checking circuit breaker (and its parent) for every single row.
+ * <p>
+ * Note that this class is not thread safe and supposed to be used by single query execution thread.
+ */
+public class QueryMemoryTracker {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * Label shown in circuit breaking exception
+     */
+    private static final String LABEL = "<opendistro_sql_join>";
+
+    /**
+     * Size of charges accumulated before flushing to circuit breaker
+     */
+    static final long FLUSH_THRESHOLD_IN_BYTES = 1024 * 1024;
+
+    /**
+     * Request circuit breaker. Null if unavailable in which case memory is accounted only.
+     */
+    private final CircuitBreaker breaker;
+
+    /**
+     * Bytes charged to circuit breaker already
+     */
+    private long charged;
+
+    /**
+     * Bytes accounted but not charged to circuit breaker yet
+     */
+    private long pending;
+
+    public QueryMemoryTracker() {
+        this(requestCircuitBreaker());
+    }
+
+    public QueryMemoryTracker(CircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+    /**
+     * Account memory to be held by the query.
+     *
+     * @param bytes estimated size in bytes
+     * @throws org.elasticsearch.common.breaker.CircuitBreakingException if circuit breaker tripped
+     *          in which case the bytes are not accounted because caller won't hold the memory
+     */
+    public void charge(long bytes) {
+        pending += bytes;
+        if (pending >= FLUSH_THRESHOLD_IN_BYTES) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                pending -= bytes;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Release memory no longer held by the query.
+     *
+     * @param bytes estimated size in bytes charged before
+     */
+    public void release(long bytes) {
+        long fromPending = Math.min(bytes, pending);
+        pending -= fromPending;
+
+        long fromCharged = Math.min(bytes - fromPending, charged);
+        if (fromCharged > 0) {
+            charged -= fromCharged;
+            if (breaker != null) {
+                breaker.addWithoutBreaking(-fromCharged);
+            }
+        }
+    }
+
+    /**
+     * Release all memory charged by the query
+     */
+    public void releaseAll() {
+        release(pending + charged);
+    }
+
+    /**
+     * @return total bytes accounted for the query
+     */
+    public long used() {
+        return charged + pending;
+    }
+
+    /**
+     * Memory remaining before circuit breaker trips, which is shared with other requests on the node.
+     *
+     * @return remaining bytes or Long.MAX_VALUE if circuit breaker is unavailable or unlimited
+     */
+    public long available() {
+        if (breaker == null || breaker.getLimit() < 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, breaker.getLimit() - breaker.getUsed() - pending);
+    }
+
+    private void flush() {
+        if (breaker != null) {
+            breaker.addEstimateBytesAndMaybeBreak(pending, LABEL);
+        }
+        charged += pending;
+        pending = 0;
+    }
+
+    private static CircuitBreaker requestCircuitBreaker() {
+        CircuitBreakerService service = LocalClusterState.state().getCircuitBreakerService();
+        if (service == null) {
+            LOG.debug("Circuit breaker service is unavailable. Query memory is accounted without breaker.");
+            return null;
+        }
+        return service.getBreaker(CircuitBreaker.REQUEST);
+    }
+}
@@ -44,18 +44,24 @@ public class ResourceManager {
      * Time out for the execution
      */
     private final int timeout;
-    private final Instant startTime;
+    private Instant startTime;
 
     /**
      * Meta result of the execution
      */
     private final MetaSearchResult metaResult;
 
+    /**
+     * Memory accounting for the execution
+     */
+    private final QueryMemoryTracker memoryTracker;
+
     public ResourceManager(Stats stats, Config config) {
         this.monitors.add(new TotalMemoryMonitor(stats, config));
         this.timeout = config.timeout();
         this.startTime = Instant.now();
         this.metaResult = new MetaSearchResult();
+        this.memoryTracker = new QueryMemoryTracker();
     }
 
     /**
@@ -76,7 +82,18 @@ public class ResourceManager {
         return Duration.between(startTime, Instant.now()).getSeconds() >= timeout;
     }
 
+    /**
+     * Restart measuring execution time for time out.
+     */
+    public void restartTimer() {
+        startTime = Instant.now();
+    }
+
     public MetaSearchResult getMetaResult() {
         return metaResult;
     }
+
+    public QueryMemoryTracker getMemoryTracker() {
+        return memoryTracker;
+    }
 }
@@ -15,8 +15,16 @@
 
 package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.elasticsearch.action.admin.indices.stats.CommonStats;
 import org.elasticsearch.client.Client;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Statistics collector collects from ES stats, JVM etc for other components:
  * <p>
@@ -27,7 +35,16 @@ import org.elasticsearch.client.Client;
 public class Stats {
 
     /**
-     * Client connection to ES cluster (unused now)
+     * Index statistics shared by all queries on the node for a short while. This avoids stats request
+     * to every shard for each query planned, given that approximate document count is good enough.
+     */
+    private static final Cache<String, IndexStats> INDEX_STATS_CACHE = CacheBuilder.newBuilder()
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .maximumSize(1000)
+            .build();
+
+    /**
+     * Client connection to ES cluster
      */
     private Client client;
 
@@ -42,6 +59,45 @@ public class Stats {
         );
     }
 
+    /**
+     * Collect document count and store size of primary shards of the index
+     *
+     * @param index index name
+     * @return index statistics
+     */
+    public IndexStats collectIndexStats(String index) {
+        CommonStats primaries = client.admin().indices().
+                prepareStats(index).
+                clear().
+                setDocs(true).
+                setStore(true).
+                get().
+                getPrimaries();
+        return new IndexStats(
+                primaries.getStore().getSizeInBytes(),
+                primaries.getDocs().getCount()
+        );
+    }
+
+    /**
+     * Collect index statistics or get it from the cache if collected within the last minute
+     *
+     * @param index index name
+     * @return index statistics
+     */
+    public IndexStats cachedIndexStats(String index) {
+        try {
+            return INDEX_STATS_CACHE.get(index, () -> collectIndexStats(index));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException("Failed to collect statistics of index " + index, e.getCause());
+        }
+    }
+
+    @VisibleForTesting
+    public static void clearIndexStatsCache() {
+        INDEX_STATS_CACHE.invalidateAll();
+    }
+
     /**
      * Statistics data class for memory usage
      */
@@ -63,8 +119,10 @@ public class Stats {
         }
     }
 
-    /*
-    public class IndexStats {
+    /**
+     * Statistics data class for index
+     */
+    public static class IndexStats {
         private long size;
         private long docNum;
 
@@ -72,7 +130,14 @@ public class Stats {
             this.size = size;
             this.docNum = docNum;
         }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getDocNum() {
+            return docNum;
+        }
     }
-    */
 
 }
@@ -17,23 +17,110 @@ package com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.
 
 /**
  * Adaptive block size calculator based on resource usage dynamically.
+ * <p>
+ * Block size starts small and is adjusted after each block joined by feedback of actual memory held
+ * and time elapsed, toward the size that fits in memory budget and finishes a block within target latency:
+ * <p>
+ * 1) Memory: budget (capped by half of memory available in circuit breaker) / average row size in bytes.
+ * 2) Latency: rows joined in last block * target latency / actual latency.
+ * <p>
+ * To avoid oscillation, block size grows at most twice each time and never exceeds the upper limit.
  */
 public class AdaptiveBlockSize implements BlockSize {
 
+    /**
+     * Default memory budget for a block which is 5% of max heap
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = Runtime.getRuntime().maxMemory() / 20;
+
+    /**
+     * Default target time in milliseconds to join a block with right side
+     */
+    public static final long DEFAULT_TARGET_LATENCY_MILLIS = 5000;
+
+    /**
+     * Initial size for the first block before any feedback
+     */
+    static final int INITIAL_SIZE = 1000;
+
+    /**
+     * Lower limit of block size to make progress anyway
+     */
+    static final int MIN_SIZE = 1;
+
+    /**
+     * Max ratio of growth between blocks
+     */
+    private static final int MAX_GROWTH = 2;
+
+    /**
+     * Weight of latest row size in its moving average
+     */
+    private static final double ROW_SIZE_SMOOTHING = 0.5;
+
     private int upperLimit;
 
+    /**
+     * Memory budget in bytes for rows in a block
+     */
+    private final long memoryBudget;
+
+    /**
+     * Target time in milliseconds to join a block with right side
+     */
+    private final long targetLatencyMillis;
+
+    /**
+     * Current block size
+     */
+    private int size;
+
+    /**
+     * Moving average of row size in bytes. 0 if no feedback yet.
+     */
+    private double avgRowSizeInBytes;
+
     public AdaptiveBlockSize(int upperLimit) {
+        this(upperLimit, DEFAULT_MEMORY_BUDGET, DEFAULT_TARGET_LATENCY_MILLIS);
+    }
+
+    public AdaptiveBlockSize(int upperLimit, long memoryBudget, long targetLatencyMillis) {
         this.upperLimit = upperLimit;
+        this.memoryBudget = memoryBudget;
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.size = clamp(INITIAL_SIZE);
     }
 
     @Override
     public int size() {
-        //TODO: calculate dynamically on each call
-        return upperLimit;
+        return size;
+    }
+
+    @Override
+    public void feedback(int numOfRows, long sizeInBytes, long elapsedMillis, long availableBytes) {
+        if (numOfRows <= 0) {
+            return;
+        }
+
+        double rowSize = Math.max(1.0, (double) sizeInBytes / numOfRows);
+        avgRowSizeInBytes = (avgRowSizeInBytes == 0) ? rowSize
+                : ROW_SIZE_SMOOTHING * rowSize + (1 - ROW_SIZE_SMOOTHING) * avgRowSizeInBytes;
+
+        long budget = Math.min(memoryBudget, availableBytes / 2);
+        long sizeByMemory = (long) (budget / avgRowSizeInBytes);
+        long sizeByLatency = (elapsedMillis <= 0) ? Long.MAX_VALUE : numOfRows * targetLatencyMillis / elapsedMillis;
+        long sizeByGrowth = (long) size * MAX_GROWTH;
+
+        size = clamp(Math.min(sizeByMemory, Math.min(sizeByLatency, sizeByGrowth)));
+    }
+
+    private int clamp(long newSize) {
+        return (int) Math.max(MIN_SIZE, Math.min(upperLimit, newSize));
     }
 
     @Override
     public String toString() {
-        return "AdaptiveBlockSize with " + "upperLimit=" + upperLimit;
+        return "AdaptiveBlockSize with " + "upperLimit=" + upperLimit
+                + ", memoryBudget=" + memoryBudget + ", targetLatency=" + targetLatencyMillis + "ms";
     }
 }
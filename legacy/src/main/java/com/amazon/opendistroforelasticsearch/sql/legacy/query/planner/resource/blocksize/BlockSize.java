@@ -28,6 +28,18 @@ public interface BlockSize {
     int size();
 
 
+    /**
+     * Feedback on the block just joined which helps calculate block size dynamically. Ignored by default.
+     *
+     * @param numOfRows      number of rows in the block
+     * @param sizeInBytes    estimated memory held by rows in the block
+     * @param elapsedMillis  time elapsed to join the block with all rows from right side
+     * @param availableBytes memory available before circuit breaker trips
+     */
+    default void feedback(int numOfRows, long sizeInBytes, long elapsedMillis, long availableBytes) {
+    }
+
+
     /**
      * Default implementation with fixed block size
      */
@@ -0,0 +1,207 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.utils;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.NumericMetric;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hoist literals out of painless script generated for SQL functions into script params.
+ * <p>
+ * Elasticsearch caches compiled script by its source. Because SQL functions splice literal
+ * values into the script, such as substring(name, 1, 3) or date_format(birthday, 'yyyy'),
+ * every distinct literal results in a new compilation which may hit the compilation rate limit
+ * easily. After the literals replaced by params.p0, params.p1 ... in the order they appear,
+ * queries of the same shape generate identical script source and share the compiled script.
+ * <p>
+ * String literal used as key of doc value, for example doc['name'], is kept in the script
+ * because field name is part of the query shape.
+ */
+public class ScriptParameterizer {
+
+    /**
+     * Prefix of the param name for hoisted literal.
+     */
+    static final String PARAM_PREFIX = "p";
+
+    /**
+     * Same as default max size of Elasticsearch script cache which is the best estimate we can have.
+     */
+    static final long MAX_RECENT_SCRIPTS = 100L;
+
+    /**
+     * Script source generated recently to estimate how many compilations triggered by SQL.
+     */
+    private static final Cache<String, Boolean> RECENT_SCRIPTS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_RECENT_SCRIPTS)
+            .build();
+
+    private final String script;
+
+    private final StringBuilder source = new StringBuilder();
+
+    private final Map<String, Object> params = new LinkedHashMap<>();
+
+    private int pos = 0;
+
+    private ScriptParameterizer(String script) {
+        this.script = script;
+    }
+
+    /**
+     * Build inline painless script with literals in the script code hoisted into params.
+     *
+     * @param code painless script code generated
+     * @return     script with the same semantics
+     */
+    public static Script parameterize(String code) {
+        ScriptParameterizer parameterizer = new ScriptParameterizer(code);
+        parameterizer.parse();
+
+        String source = parameterizer.source.toString();
+        recordCompilation(source);
+        return new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, source, parameterizer.params);
+    }
+
+    /**
+     * Count the script as a compilation if the same source was not generated recently.
+     */
+    private static void recordCompilation(String source) {
+        if (RECENT_SCRIPTS.asMap().putIfAbsent(source, Boolean.TRUE) != null) {
+            return;
+        }
+
+        NumericMetric metric = Metrics.getInstance().getNumericalMetric(MetricName.SCRIPT_COMPILATION_COUNT);
+        if (metric != null) { // Metrics may not be registered yet, ex. in unit test
+            metric.increment();
+        }
+    }
+
+    private void parse() {
+        while (pos < script.length()) {
+            char c = script.charAt(pos);
+            if (c == '\'' || c == '"') {
+                parseString(c);
+            } else if (Character.isDigit(c) && !isPartOfIdentifier()) {
+                parseNumber();
+            } else if (Character.isJavaIdentifierPart(c)) {
+                parseIdentifier();
+            } else {
+                source.append(c);
+                pos++;
+            }
+        }
+    }
+
+    private void parseString(char quote) {
+        int start = pos++;
+        StringBuilder value = new StringBuilder();
+        while (pos < script.length() && script.charAt(pos) != quote) {
+            if (script.charAt(pos) == '\\' && pos + 1 < script.length()) {
+                pos++;
+            }
+            value.append(script.charAt(pos++));
+        }
+        pos++; // Skip closing quote
+
+        if (isDocValueKey(start)) {
+            source.append(script, start, Math.min(pos, script.length()));
+        } else {
+            hoist(value.toString());
+        }
+    }
+
+    private void parseNumber() {
+        int start = pos;
+        consumeDigits();
+        boolean isDecimal = false;
+        if (pos + 1 < script.length() && script.charAt(pos) == '.' && Character.isDigit(script.charAt(pos + 1))) {
+            isDecimal = true;
+            pos++;
+            consumeDigits();
+        }
+
+        String number = script.substring(start, pos);
+        char suffix = (pos < script.length()) ? Character.toLowerCase(script.charAt(pos)) : ' ';
+        if (suffix == 'l' || suffix == 'f' || suffix == 'd') {
+            pos++;
+        }
+
+        if (pos < script.length() && Character.isJavaIdentifierPart(script.charAt(pos))) {
+            // Not a number literal, ex. hex or exponent notation which is never generated
+            source.append(script, start, pos);
+            return;
+        }
+
+        if (suffix == 'l') {
+            hoist(Long.parseLong(number));
+        } else if (suffix == 'f') {
+            hoist(Float.parseFloat(number));
+        } else if (isDecimal || suffix == 'd') {
+            hoist(Double.parseDouble(number));
+        } else {
+            long value = Long.parseLong(number);
+            hoist((value == (int) value) ? (Object) (int) value : (Object) value);
+        }
+    }
+
+    private void parseIdentifier() {
+        int start = pos;
+        while (pos < script.length() && Character.isJavaIdentifierPart(script.charAt(pos))) {
+            pos++;
+        }
+        source.append(script, start, pos);
+    }
+
+    private void consumeDigits() {
+        while (pos < script.length() && Character.isDigit(script.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    /**
+     * Digit following identifier or member access, ex. log10 or doc['a'].values.0, is not number literal.
+     */
+    private boolean isPartOfIdentifier() {
+        return pos > 0 && (Character.isJavaIdentifierPart(script.charAt(pos - 1)) || script.charAt(pos - 1) == '.');
+    }
+
+    /**
+     * Is the string literal starting at the position a key in brackets, ex. doc['name'].
+     */
+    private boolean isDocValueKey(int start) {
+        int i = start - 1;
+        while (i >= 0 && Character.isWhitespace(script.charAt(i))) {
+            i--;
+        }
+        return i >= 0 && script.charAt(i) == '[';
+    }
+
+    private void hoist(Object value) {
+        String name = PARAM_PREFIX + params.size();
+        params.put(name, value);
+        source.append("params.").append(name);
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.executor.multi;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Field;
+import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Select;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.multi.MultiQueryRequestBuilder;
+import com.google.common.collect.ImmutableMap;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.TotalHits.Relation;
+import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MinusExecutorTest {
+
+    private Client client;
+
+    private MultiQueryRequestBuilder multiQueryBuilder;
+
+    @Before
+    public void setUp() {
+        client = mock(Client.class);
+        multiQueryBuilder = mock(MultiQueryRequestBuilder.class);
+        when(multiQueryBuilder.getOriginalSelect(true)).thenReturn(select("name"));
+        when(multiQueryBuilder.getOriginalSelect(false)).thenReturn(select("dog_name"));
+        when(multiQueryBuilder.getFirstTableFieldToAlias()).thenReturn(Collections.emptyMap());
+        when(multiQueryBuilder.getSecondTableFieldToAlias()).thenReturn(ImmutableMap.of("dog_name", "name"));
+    }
+
+    @Test
+    public void firstTableShouldBeSearchedAfterSecondTableConsumed() throws Exception {
+        ActionFuture<SearchResponse> firstFuture = searchFuture(
+                hit("{\"name\":\"a\"}"), hit("{\"name\":\"b\"}"), hit("{\"name\":\"a\"}"), hit("{\"name\":\"c\"}"));
+        ActionFuture<SearchResponse> secondFuture = searchFuture(hit("{\"dog_name\":\"b\"}"));
+        SearchRequestBuilder first = searchRequest(firstFuture);
+        SearchRequestBuilder second = searchRequest(secondFuture);
+        when(multiQueryBuilder.getFirstSearchRequest()).thenReturn(first);
+        when(multiQueryBuilder.getSecondSearchRequest()).thenReturn(second);
+
+        MinusExecutor executor = new MinusExecutor(client, multiQueryBuilder);
+        executor.run();
+
+        InOrder inOrder = inOrder(first, second, firstFuture, secondFuture);
+        inOrder.verify(second).execute();
+        inOrder.verify(secondFuture).actionGet();
+        inOrder.verify(first).execute();
+        inOrder.verify(firstFuture).actionGet();
+        assertThat(names(executor.getHits()), contains("a", "c"));
+    }
+
+    @Test
+    public void resultShouldBeSameWhenFingerprintsSpilledToDisk() throws Exception {
+        when(multiQueryBuilder.getFirstSearchRequest()).thenReturn(searchRequest(searchFuture(
+                hit("{\"name\":\"a\"}"), hit("{\"name\":\"b\"}"), hit("{\"name\":\"c\"}"),
+                hit("{\"name\":\"a\"}"), hit("{\"name\":\"d\"}"), hit("{\"other\":\"e\"}"))));
+        when(multiQueryBuilder.getSecondSearchRequest()).thenReturn(searchRequest(searchFuture(
+                hit("{\"dog_name\":\"b\"}"), hit("{\"dog_name\":\"c\"}"), hit("{\"dog_name\":\"x\"}"))));
+
+        MinusExecutor executor = new MinusExecutor(client, multiQueryBuilder, 1);
+        executor.run();
+
+        assertThat(names(executor.getHits()), containsInAnyOrder("a", "d"));
+    }
+
+    @Test
+    public void resultShouldBeSameWhenFirstTableRowsSpilledToDisk() throws Exception {
+        when(multiQueryBuilder.getFirstSearchRequest()).thenReturn(searchRequest(searchFuture(
+                hit("{\"name\":\"a\"}"), hit("{\"name\":\"b\"}"), hit("{\"name\":\"c\"}"),
+                hit("{\"name\":\"a\"}"), hit("{\"name\":\"d\"}"), hit("{\"name\":\"c\"}"))));
+        when(multiQueryBuilder.getSecondSearchRequest()).thenReturn(searchRequest(searchFuture(
+                hit("{\"dog_name\":\"b\"}"))));
+
+        MinusExecutor executor = new MinusExecutor(client, multiQueryBuilder, 2);
+        executor.run();
+
+        assertThat(names(executor.getHits()), containsInAnyOrder("a", "c", "d"));
+    }
+
+    private Select select(String fieldName) {
+        Select select = new Select();
+        select.addField(new Field(fieldName, null));
+        return select;
+    }
+
+    private SearchRequestBuilder searchRequest(ActionFuture<SearchResponse> future) {
+        SearchRequestBuilder request = mock(SearchRequestBuilder.class);
+        when(request.execute()).thenReturn(future);
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ActionFuture<SearchResponse> searchFuture(SearchHit... hits) {
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getHits()).thenReturn(
+                new SearchHits(hits, new TotalHits(hits.length, Relation.EQUAL_TO), 1.0f));
+
+        ActionFuture<SearchResponse> future = mock(ActionFuture.class);
+        when(future.actionGet()).thenReturn(response);
+        return future;
+    }
+
+    private SearchHit hit(String source) {
+        SearchHit hit = new SearchHit(1, "1", new Text("_doc"), Collections.emptyMap(), Collections.emptyMap());
+        hit.sourceRef(new BytesArray(source));
+        return hit;
+    }
+
+    private List<Object> names(SearchHits hits) {
+        return Arrays.stream(hits.getHits())
+                .map(SearchHit::getSourceAsMap)
+                .map(source -> source.get("name"))
+                .collect(Collectors.toList());
+    }
+}
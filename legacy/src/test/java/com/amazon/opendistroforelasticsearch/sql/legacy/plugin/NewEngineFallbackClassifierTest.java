@@ -0,0 +1,86 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLLexer;
+import com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser;
+import org.antlr.v4.runtime.misc.IntervalSet;
+import org.junit.Test;
+
+public class NewEngineFallbackClassifierTest {
+
+  private static final String SHAPE = NewEngineFallbackClassifier.shape(
+      "SELECT name FROM test1 WHERE age = 30 30");
+
+  @Test
+  public void unknownQueryShouldNotBeFallback() {
+    NewEngineFallbackClassifier classifier = new NewEngineFallbackClassifier();
+    assertFalse(classifier.isFallback(NewEngineFallbackClassifier.shape("SELECT 1")));
+  }
+
+  @Test
+  public void queryWithTokenUnknownToParserShouldBeFallback() {
+    NewEngineFallbackClassifier classifier = new NewEngineFallbackClassifier();
+    assertTrue(classifier.isFallback(NewEngineFallbackClassifier.shape(
+        "SELECT * FROM a JOIN b ON a.id = b.id")));
+    assertTrue(classifier.isFallback(NewEngineFallbackClassifier.shape(
+        "SELECT * FROM a UNION SELECT * FROM b")));
+  }
+
+  @Test
+  public void queryOfSameShapeAddedShouldBeFallback() {
+    NewEngineFallbackClassifier classifier = new NewEngineFallbackClassifier();
+    classifier.addFallback(SHAPE);
+
+    assertTrue(classifier.isFallback(NewEngineFallbackClassifier.shape(
+        "select city from test2 /* comment */ where id = 50   60")));
+    assertFalse(classifier.isFallback(NewEngineFallbackClassifier.shape(
+        "SELECT name FROM test1 WHERE age = 30")));
+  }
+
+  @Test
+  public void shapeShouldDependOnTokenTypeOnly() {
+    assertEquals(SHAPE, NewEngineFallbackClassifier.shape("SELECT city FROM test2 WHERE id = 5 6"));
+    assertNotEquals(SHAPE, NewEngineFallbackClassifier.shape(
+        "SELECT name FROM test1 WHERE age = 'a' 30"));
+  }
+
+  @Test
+  public void shapeShouldBeEvictedIfTotalLengthExceedsLimit() {
+    NewEngineFallbackClassifier classifier = new NewEngineFallbackClassifier(SHAPE.length());
+    String otherShape = NewEngineFallbackClassifier.shape("SELECT name FROM test1 WHERE 30 30");
+    classifier.addFallback(SHAPE);
+    classifier.addFallback(otherShape);
+
+    assertFalse(classifier.isFallback(SHAPE));
+    assertTrue(classifier.isFallback(otherShape));
+  }
+
+  @Test
+  public void parserTokenTypesShouldIncludeKeywordInGrammarOnly() {
+    IntervalSet tokenTypes = NewEngineFallbackClassifier.parserTokenTypes(OpenDistroSQLParser._ATN);
+    assertTrue(tokenTypes.contains(OpenDistroSQLLexer.SELECT));
+    assertTrue(tokenTypes.contains(OpenDistroSQLLexer.STRING_LITERAL));
+    assertFalse(tokenTypes.contains(OpenDistroSQLLexer.JOIN));
+  }
+
+}
@@ -16,23 +16,39 @@
 
 package com.amazon.opendistroforelasticsearch.sql.legacy.plugin;
 
+import static com.amazon.opendistroforelasticsearch.sql.legacy.executor.AsyncRestExecutor.SQL_WORKER_THREAD_POOL_NAME;
 import static com.amazon.opendistroforelasticsearch.sql.legacy.plugin.RestSQLQueryAction.NOT_SUPPORTED_YET;
 import static com.amazon.opendistroforelasticsearch.sql.legacy.plugin.RestSqlAction.EXPLAIN_API_ENDPOINT;
 import static com.amazon.opendistroforelasticsearch.sql.legacy.plugin.RestSqlAction.QUERY_API_ENDPOINT;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.amazon.opendistroforelasticsearch.sql.common.setting.Settings;
 import com.amazon.opendistroforelasticsearch.sql.sql.domain.SQLQueryRequest;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.rest.BaseRestHandler.RestChannelConsumer;
+import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -50,10 +66,19 @@ public class RestSQLQueryActionTest {
   @Mock
   private Settings settings;
 
+  @Mock
+  private RestChannel channel;
+
+  @Mock
+  private RestChannelConsumer fallbackHandler;
+
+  @Mock
+  private BiConsumer<RestChannel, Exception> errorHandler;
+
   @Before
   public void setup() {
     nodeClient = new NodeClient(org.elasticsearch.common.settings.Settings.EMPTY, threadPool);
-    when(threadPool.getThreadContext())
+    lenient().when(threadPool.getThreadContext())
         .thenReturn(new ThreadContext(org.elasticsearch.common.settings.Settings.EMPTY));
   }
 
@@ -66,7 +91,8 @@ public class RestSQLQueryActionTest {
         "");
 
     RestSQLQueryAction queryAction = new RestSQLQueryAction(clusterService, settings);
-    assertNotSame(NOT_SUPPORTED_YET, queryAction.prepareRequest(request, nodeClient));
+    assertNotSame(NOT_SUPPORTED_YET,
+        queryAction.prepareRequest(request, nodeClient, fallbackHandler, errorHandler));
   }
 
   @Test
@@ -78,11 +104,27 @@ public class RestSQLQueryActionTest {
         "");
 
     RestSQLQueryAction queryAction = new RestSQLQueryAction(clusterService, settings);
-    assertNotSame(NOT_SUPPORTED_YET, queryAction.prepareRequest(request, nodeClient));
+    assertNotSame(NOT_SUPPORTED_YET,
+        queryAction.prepareRequest(request, nodeClient, fallbackHandler, errorHandler));
   }
 
   @Test
   public void skipQueryThatNotSupport() {
+    SQLQueryRequest request = new SQLQueryRequest(
+        new JSONObject("{\"query\": \"SELECT name FROM test1 WHERE age = 30 30\"}"),
+        "SELECT name FROM test1 WHERE age = 30 30",
+        QUERY_API_ENDPOINT,
+        "");
+
+    RestSQLQueryAction queryAction = new RestSQLQueryAction(clusterService, settings);
+    runInCurrentThread(
+        queryAction.prepareRequest(request, nodeClient, fallbackHandler, errorHandler));
+
+    verifyFallback();
+  }
+
+  @Test
+  public void skipQueryWithTokenUnknownToParserWithoutParsing() {
     SQLQueryRequest request = new SQLQueryRequest(
         new JSONObject(
             "{\"query\": \"SELECT name FROM test1 JOIN test2 ON test1.name = test2.name\"}"),
@@ -91,7 +133,69 @@ public class RestSQLQueryActionTest {
         "");
 
     RestSQLQueryAction queryAction = new RestSQLQueryAction(clusterService, settings);
-    assertSame(NOT_SUPPORTED_YET, queryAction.prepareRequest(request, nodeClient));
+    assertSame(NOT_SUPPORTED_YET,
+        queryAction.prepareRequest(request, nodeClient, fallbackHandler, errorHandler));
+  }
+
+  @Test
+  public void skipQueryOfSameShapeAgainWithoutParsing() {
+    SQLQueryRequest request = new SQLQueryRequest(
+        new JSONObject("{\"query\": \"SELECT name FROM test1 WHERE age = 30 30\"}"),
+        "SELECT name FROM test1 WHERE age = 30 30",
+        QUERY_API_ENDPOINT,
+        "");
+
+    RestSQLQueryAction queryAction = new RestSQLQueryAction(clusterService, settings);
+    runInCurrentThread(
+        queryAction.prepareRequest(request, nodeClient, fallbackHandler, errorHandler));
+    verifyFallback();
+
+    SQLQueryRequest requestWithOtherLiterals = new SQLQueryRequest(
+        new JSONObject("{\"query\": \"SELECT city FROM test2 WHERE id = 50 60\"}"),
+        "SELECT city FROM test2 WHERE id = 50 60",
+        QUERY_API_ENDPOINT,
+        "");
+    assertSame(NOT_SUPPORTED_YET, queryAction.prepareRequest(
+        requestWithOtherLiterals, nodeClient, fallbackHandler, errorHandler));
+  }
+
+  @Test
+  public void rejectQueryIfThreadPoolIsBusy() throws Exception {
+    SQLQueryRequest request = new SQLQueryRequest(
+        new JSONObject("{\"query\": \"SELECT -123\"}"),
+        "SELECT -123",
+        QUERY_API_ENDPOINT,
+        "");
+    ExecutorService executor = org.mockito.Mockito.mock(ExecutorService.class);
+    when(threadPool.executor(SQL_WORKER_THREAD_POOL_NAME)).thenReturn(executor);
+    doThrow(new EsRejectedExecutionException("queue is full")).when(executor).execute(any());
+
+    RestSQLQueryAction queryAction = new RestSQLQueryAction(clusterService, settings);
+    queryAction.prepareRequest(request, nodeClient, fallbackHandler, errorHandler).accept(channel);
+
+    ArgumentCaptor<BytesRestResponse> response = ArgumentCaptor.forClass(BytesRestResponse.class);
+    verify(channel).sendResponse(response.capture());
+    assertEquals(RestStatus.TOO_MANY_REQUESTS, response.getValue().status());
+    verify(fallbackHandler, never()).accept(any());
+  }
+
+  private void runInCurrentThread(RestChannelConsumer consumer) {
+    when(threadPool.executor(SQL_WORKER_THREAD_POOL_NAME))
+        .thenReturn(EsExecutors.newDirectExecutorService());
+    try {
+      consumer.accept(channel);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void verifyFallback() {
+    try {
+      verify(fallbackHandler).accept(channel);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+    verify(errorHandler, never()).accept(any(), any());
   }
 
-}
\ No newline at end of file
+}
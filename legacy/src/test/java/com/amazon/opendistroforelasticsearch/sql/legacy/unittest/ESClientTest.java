@@ -30,8 +30,12 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.function.Supplier;
+
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ESClientTest {
@@ -71,4 +75,18 @@ public class ESClientTest {
         Assert.assertFalse(res[1].isFailure());
     }
 
+    @Test
+    public void multiSearchAsyncRetryOneTimeOnGet() {
+        ESClient esClient = new ESClient(client);
+        Supplier<MultiSearchResponse.Item[]> supplier =
+                esClient.multiSearchAsync(new MultiSearchRequest().add(new SearchRequest()).add(new SearchRequest()));
+        verify(client, times(1)).multiSearch(any());
+
+        MultiSearchResponse.Item[] res = supplier.get();
+        verify(client, times(2)).multiSearch(any());
+        Assert.assertEquals(res.length, 2);
+        Assert.assertFalse(res[0].isFailure());
+        Assert.assertFalse(res[1].isFailure());
+    }
+
 }
@@ -22,6 +22,8 @@ import org.elasticsearch.search.builder.SearchSourceBuilder.ScriptField;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 public class StringOperatorsTest {
@@ -63,6 +65,17 @@ public class StringOperatorsTest {
         );
     }
 
+    @Test
+    public void substringOfDifferentLiteralsShouldGenerateSameScript() {
+        ScriptField scriptField1 = CheckScriptContents.getScriptFieldFromQuery(
+                "SELECT substring(lastname, 2, 1) FROM accounts");
+        ScriptField scriptField2 = CheckScriptContents.getScriptFieldFromQuery(
+                "SELECT substring(lastname, 3, 5) FROM accounts");
+
+        assertEquals(scriptField1.script().getIdOrCode(), scriptField2.script().getIdOrCode());
+        assertNotEquals(scriptField1.script().getParams(), scriptField2.script().getParams());
+    }
+
     @Test
     public void lengthTest() {
         String query = "SELECT length(lastname) FROM accounts WHERE length(lastname) = 5 " +
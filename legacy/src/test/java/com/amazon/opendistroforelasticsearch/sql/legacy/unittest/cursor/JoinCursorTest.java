@@ -0,0 +1,77 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.cursor;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.CursorType;
+import com.amazon.opendistroforelasticsearch.sql.legacy.cursor.JoinCursor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.format.Schema;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.emptyOrNullString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class JoinCursorTest {
+
+    @Test
+    public void checkCursorType() {
+        JoinCursor cursor = new JoinCursor();
+        assertEquals(CursorType.JOIN, cursor.getType());
+    }
+
+    @Test
+    public void cursorShouldStartWithCursorTypeID() {
+        JoinCursor cursor = newCursor("contextId");
+        assertThat(cursor.generateCursorId(), startsWith(cursor.getType().getId() + ":"));
+    }
+
+    @Test
+    public void nullCursorWhenContextIdIsNullOrEmpty() {
+        JoinCursor cursor = newCursor(null);
+        assertThat(cursor.generateCursorId(), emptyOrNullString());
+
+        cursor.setContextId("");
+        assertThat(cursor.generateCursorId(), emptyOrNullString());
+    }
+
+    @Test
+    public void cursorShouldBeParsedFromCursorId() {
+        String cursorId = newCursor("contextId").generateCursorId();
+        JoinCursor cursor = JoinCursor.from(cursorId.split(":", 2)[1]);
+
+        assertEquals("contextId", cursor.getContextId());
+        assertEquals(Integer.valueOf(5), cursor.getFetchSize());
+        assertEquals("employee", cursor.getIndexPattern());
+        assertEquals(ImmutableMap.of("n", "name"), cursor.getFieldAliasMap());
+        assertEquals(1, cursor.getColumns().size());
+        assertEquals("e.name", cursor.getColumns().get(0).getName());
+        assertEquals("n", cursor.getColumns().get(0).getAlias());
+    }
+
+    private JoinCursor newCursor(String contextId) {
+        JoinCursor cursor = new JoinCursor();
+        cursor.setContextId(contextId);
+        cursor.setFetchSize(5);
+        cursor.setIndexPattern("employee");
+        cursor.setFieldAliasMap(ImmutableMap.of("n", "name"));
+        cursor.setColumns(Collections.singletonList(new Schema.Column("e.name", "n", Schema.Type.TEXT)));
+        return cursor;
+    }
+}
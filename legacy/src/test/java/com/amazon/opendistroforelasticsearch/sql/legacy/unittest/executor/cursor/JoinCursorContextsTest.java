@@ -0,0 +1,133 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.executor.cursor;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.cursor.JoinCursorContexts;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.JoinResultStream;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class JoinCursorContextsTest {
+
+    private static final TimeValue KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    @Test
+    public void streamPutShouldBeTakenOnlyOnce() {
+        JoinResultStream stream = mock(JoinResultStream.class);
+        String contextId = JoinCursorContexts.put(stream, KEEP_ALIVE, "alice");
+
+        assertSame(stream, JoinCursorContexts.take(contextId, "alice"));
+        assertNull(JoinCursorContexts.take(contextId, "alice"));
+        verify(stream, never()).close();
+    }
+
+    @Test
+    public void streamPutBackShouldBeTakenAgain() {
+        JoinResultStream stream = mock(JoinResultStream.class);
+        String contextId = JoinCursorContexts.put(stream, KEEP_ALIVE, "alice");
+        JoinCursorContexts.put(contextId, JoinCursorContexts.take(contextId, "alice"), KEEP_ALIVE, "alice");
+
+        assertSame(stream, JoinCursorContexts.take(contextId, "alice"));
+    }
+
+    @Test
+    public void streamShouldNotBeTakenByAnotherUser() {
+        JoinResultStream stream = mock(JoinResultStream.class);
+        String contextId = JoinCursorContexts.put(stream, KEEP_ALIVE, "alice");
+
+        assertNull(JoinCursorContexts.take(contextId, "bob"));
+        assertNull(JoinCursorContexts.take(contextId, ""));
+        assertSame(stream, JoinCursorContexts.take(contextId, "alice"));
+    }
+
+    @Test
+    public void expiredStreamShouldBeClosed() {
+        JoinResultStream stream = mock(JoinResultStream.class);
+        String contextId = JoinCursorContexts.put(stream, TimeValue.timeValueNanos(-1), "alice");
+
+        assertNull(JoinCursorContexts.take(contextId, "alice"));
+        verify(stream).close();
+    }
+
+    @Test
+    public void unknownContextIdShouldReturnNull() {
+        assertNull(JoinCursorContexts.take("unknown", "alice"));
+    }
+
+    @Test
+    public void openContextsShouldBeCapped() {
+        List<String> contextIds = new ArrayList<>();
+        try {
+            for (int i = 0; i < JoinCursorContexts.MAX_OPEN_CONTEXTS; i++) {
+                contextIds.add(JoinCursorContexts.put(mock(JoinResultStream.class), KEEP_ALIVE, "alice"));
+            }
+            JoinCursorContexts.put(mock(JoinResultStream.class), KEEP_ALIVE, "alice");
+            fail("Expected too many join cursor contexts error");
+        } catch (IllegalStateException e) {
+            assertEquals(JoinCursorContexts.MAX_OPEN_CONTEXTS, contextIds.size());
+        } finally {
+            contextIds.forEach(contextId -> JoinCursorContexts.take(contextId, "alice"));
+        }
+    }
+
+    @Test
+    public void ownerShouldBeUserInSecurityThreadContext() {
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        assertEquals("", JoinCursorContexts.owner(threadContext));
+
+        threadContext.putTransient("_opendistro_security_user", "User [name=alice]");
+        assertEquals("User [name=alice]", JoinCursorContexts.owner(threadContext));
+
+        threadContext.putTransient("_opendistro_security_user_info", "alice|admin|all_access");
+        assertEquals("alice|admin|all_access", JoinCursorContexts.owner(threadContext));
+    }
+
+    @Test
+    public void reaperShouldCloseExpiredStream() {
+        ThreadPool threadPool = mock(ThreadPool.class);
+        JoinCursorContexts.scheduleReaper(threadPool);
+        ArgumentCaptor<Runnable> reaper = ArgumentCaptor.forClass(Runnable.class);
+        verify(threadPool).scheduleWithFixedDelay(reaper.capture(), eq(JoinCursorContexts.REAPER_INTERVAL),
+                eq(ThreadPool.Names.GENERIC));
+
+        JoinResultStream expired = mock(JoinResultStream.class);
+        JoinResultStream alive = mock(JoinResultStream.class);
+        String contextId = JoinCursorContexts.put(alive, KEEP_ALIVE, "alice");
+        JoinCursorContexts.put(expired, TimeValue.timeValueNanos(-1), "alice");
+        verify(expired, never()).close();
+
+        reaper.getValue().run();
+        verify(expired).close();
+        verify(alive, never()).close();
+        assertSame(alive, JoinCursorContexts.take(contextId, "alice"));
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.executor.join;
+
+import com.alibaba.druid.sql.ast.expr.SQLQueryExpr;
+import com.amazon.opendistroforelasticsearch.sql.legacy.domain.JoinSelect;
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
+import com.amazon.opendistroforelasticsearch.sql.legacy.exception.SqlParseException;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.NestedLoopsElasticExecutor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.parser.ElasticSqlExprParser;
+import com.amazon.opendistroforelasticsearch.sql.legacy.parser.SqlParser;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.ESJoinQueryActionFactory;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.NestedLoopsElasticRequestBuilder;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.TotalHits.Relation;
+import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static com.amazon.opendistroforelasticsearch.sql.legacy.util.CheckScriptContents.mockSqlSettings;
+import static java.util.Collections.emptyMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Nested loops join executor test that checks how multi-searches for hits of first table are pipelined.
+ * Multi-search and scroll requests sent and responses read are recorded in order as events.
+ */
+public class NestedLoopsElasticExecutorTest {
+
+    private final List<String> events = new ArrayList<>();
+
+    private Client client;
+
+    private SearchResponse matchedResponse;
+
+    @Before
+    public void setUp() {
+        client = mock(Client.class);
+        LocalClusterState.state().setSqlSettings(mockSqlSettings());
+
+        // Each hit of first table matches the same dog in second table
+        matchedResponse = mock(SearchResponse.class);
+        when(matchedResponse.getHits()).thenAnswer(invocation -> hits(1, hit(0, "{\"dog_name\":\"rex\"}")));
+
+        when(client.multiSearch(any(MultiSearchRequest.class))).thenAnswer(invocation -> {
+            MultiSearchRequest request = invocation.getArgument(0);
+            MultiSearchResponse.Item[] items = new MultiSearchResponse.Item[request.requests().size()];
+            Arrays.fill(items, new MultiSearchResponse.Item(matchedResponse, null));
+            return future("multi-search " + recordMultiSearchSent(), new MultiSearchResponse(items, 1L));
+        });
+    }
+
+    @After
+    public void cleanUp() {
+        LocalClusterState.state(null);
+    }
+
+    @Test
+    public void multiSearchesInFlightShouldBeCombinedInOrderSent() throws Exception {
+        mockFirstTable(page(null, 3, people(0, 3)));
+
+        List<SearchHit> results = join("/*! NL_MULTISEARCH_SIZE(1, 2)*/", 10);
+
+        assertThat(events, contains(
+                "send multi-search 0",
+                "send multi-search 1",
+                "read multi-search 0",
+                "send multi-search 2",
+                "read multi-search 1",
+                "read multi-search 2"));
+        assertThat(firstNames(results), contains("p0", "p1", "p2"));
+        assertThat(results.get(0).getSourceAsMap().get("d.dog_name"), equalTo("rex"));
+    }
+
+    @Test
+    public void pendingMultiSearchesShouldNotBeReadOnceTotalLimitReached() throws Exception {
+        mockFirstTable(page(null, 3, people(0, 3)));
+
+        List<SearchHit> results = join("/*! NL_MULTISEARCH_SIZE(1, 2)*/", 1);
+
+        assertThat(events, contains(
+                "send multi-search 0",
+                "send multi-search 1",
+                "read multi-search 0"));
+        assertThat(firstNames(results), contains("p0"));
+    }
+
+    @Test
+    public void firstTableShouldBeScrolledWhileMultiSearchesInFlight() throws Exception {
+        mockFirstTable(page("scroll1", 10001, people(0, 10000)));
+        SearchScrollRequestBuilder scrollRequest = mock(SearchScrollRequestBuilder.class);
+        when(client.prepareSearchScroll("scroll1")).thenAnswer(invocation -> {
+            events.add("scroll scroll1");
+            return scrollRequest;
+        });
+        when(scrollRequest.setScroll(any(TimeValue.class))).thenReturn(scrollRequest);
+        ActionFuture<SearchResponse> nextPage = future("page 2", page("scroll2", 10001, people(10000, 10001)));
+        when(scrollRequest.execute()).thenReturn(nextPage);
+
+        List<SearchHit> results = join("/*! NL_MULTISEARCH_SIZE(5000, 2)*/", 20000);
+
+        assertThat(events, contains(
+                "scroll scroll1",
+                "send multi-search 0",
+                "send multi-search 1",
+                "read page 2",
+                "read multi-search 0",
+                "send multi-search 2",
+                "read multi-search 1",
+                "read multi-search 2"));
+        assertThat(results.size(), equalTo(10001));
+        assertThat(results.get(5000).getSourceAsMap().get("a.firstname"), equalTo("p5000"));
+        assertThat(results.get(10000).getSourceAsMap().get("a.firstname"), equalTo("p10000"));
+    }
+
+    @Test
+    public void firstTableShouldNotBeScrolledOnceHintLimitReached() throws Exception {
+        mockFirstTable(page("scroll1", 30000, people(0, 10000)));
+        SearchScrollRequestBuilder scrollRequest = mock(SearchScrollRequestBuilder.class);
+        when(client.prepareSearchScroll("scroll1")).thenAnswer(invocation -> {
+            events.add("scroll scroll1");
+            return scrollRequest;
+        });
+        when(scrollRequest.setScroll(any(TimeValue.class))).thenReturn(scrollRequest);
+        ActionFuture<SearchResponse> nextPage = future("page 2", page("scroll2", 30000, people(10000, 20000)));
+        when(scrollRequest.execute()).thenReturn(nextPage);
+
+        List<SearchHit> results = join(
+                "/*! JOIN_TABLES_LIMIT(15000,null)*/ /*! NL_MULTISEARCH_SIZE(5000, 2)*/", 20000);
+
+        assertThat(events.stream().filter(event -> event.startsWith("scroll")).count(), equalTo(1L));
+        assertThat(results.size(), equalTo(15000));
+        assertThat(results.get(14999).getSourceAsMap().get("a.firstname"), equalTo("p14999"));
+    }
+
+    private List<SearchHit> join(String hint, int limit) throws IOException, SqlParseException {
+        String sql = String.format(Locale.ROOT,
+                "SELECT /*! USE_NL*/ %s a.firstname, d.dog_name "
+                        + "FROM people a JOIN dogs d ON d.holdersName = a.firstname LIMIT %d", hint, limit);
+        JoinSelect joinSelect = new SqlParser().parseJoinSelect(
+                (SQLQueryExpr) new ElasticSqlExprParser(sql).expr());
+        NestedLoopsElasticRequestBuilder request = (NestedLoopsElasticRequestBuilder)
+                ESJoinQueryActionFactory.createJoinAction(client, joinSelect).explain();
+
+        NestedLoopsElasticExecutor executor = new NestedLoopsElasticExecutor(client, request);
+        executor.run();
+        return Arrays.asList(executor.getHits().getHits());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockFirstTable(SearchResponse firstPage) {
+        ActionFuture<SearchResponse> future = mock(ActionFuture.class);
+        when(future.actionGet()).thenReturn(firstPage);
+        when(client.execute(any(), any())).thenReturn((ActionFuture) future);
+    }
+
+    private int recordMultiSearchSent() {
+        int count = (int) events.stream().filter(event -> event.startsWith("send")).count();
+        events.add("send multi-search " + count);
+        return count;
+    }
+
+    /**
+     * Future that records event when its response is read.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ActionFuture<T> future(String name, T response) {
+        return mock(ActionFuture.class, invocation -> {
+            events.add("read " + name);
+            return response;
+        });
+    }
+
+    private SearchResponse page(String scrollId, long total, SearchHit... hits) {
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getScrollId()).thenReturn(scrollId);
+        when(response.getHits()).thenReturn(hits(total, hits));
+        return response;
+    }
+
+    private static SearchHits hits(long total, SearchHit... hits) {
+        return new SearchHits(hits, new TotalHits(total, Relation.EQUAL_TO), 1.0f);
+    }
+
+    private static SearchHit[] people(int from, int to) {
+        SearchHit[] hits = new SearchHit[to - from];
+        for (int i = from; i < to; i++) {
+            hits[i - from] = hit(i, "{\"firstname\":\"p" + i + "\"}");
+        }
+        return hits;
+    }
+
+    private static SearchHit hit(int docId, String source) {
+        SearchHit hit = new SearchHit(docId, String.valueOf(docId), new Text("_doc"), emptyMap(), emptyMap());
+        hit.sourceRef(new BytesArray(source));
+        return hit;
+    }
+
+    private static List<Object> firstNames(List<SearchHit> results) {
+        List<Object> names = new ArrayList<>();
+        results.forEach(hit -> names.add(hit.getSourceAsMap().get("a.firstname")));
+        return names;
+    }
+}
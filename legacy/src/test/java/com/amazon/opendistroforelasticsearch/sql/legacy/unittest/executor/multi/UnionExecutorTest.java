@@ -0,0 +1,240 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.executor.multi;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Field;
+import com.amazon.opendistroforelasticsearch.sql.legacy.domain.Select;
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.join.JoinResultStream;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.multi.UnionExecutor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.multi.MultiQueryRequestBuilder;
+import com.google.common.collect.ImmutableMap;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.TotalHits.Relation;
+import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.search.ClearScrollRequestBuilder;
+import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static com.amazon.opendistroforelasticsearch.sql.legacy.plugin.SqlSettings.CURSOR_KEEPALIVE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UnionExecutorTest {
+
+    private static final TimeValue KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    private Client client;
+
+    private MultiQueryRequestBuilder multiQueryBuilder;
+
+    private ClearScrollRequestBuilder clearScrollRequest;
+
+    @Before
+    public void setUp() {
+        client = mock(Client.class);
+        multiQueryBuilder = mock(MultiQueryRequestBuilder.class);
+
+        LocalClusterState clusterState = mock(LocalClusterState.class);
+        LocalClusterState.state(clusterState);
+        doReturn(KEEP_ALIVE).when(clusterState).getSettingValue(CURSOR_KEEPALIVE);
+
+        clearScrollRequest = mock(ClearScrollRequestBuilder.class);
+        ClearScrollResponse clearScrollResponse = mock(ClearScrollResponse.class);
+        when(client.prepareClearScroll()).thenReturn(clearScrollRequest);
+        when(clearScrollRequest.addScrollId(anyString())).thenReturn(clearScrollRequest);
+        when(clearScrollRequest.get()).thenReturn(clearScrollResponse);
+        when(clearScrollResponse.isSucceeded()).thenReturn(true);
+    }
+
+    @Test
+    public void bothQueriesShouldBeSearchedBeforeWaitingForEither() throws Exception {
+        ActionFuture<SearchResponse> firstFuture = searchFuture(null, hit("{\"name\":\"a\"}"));
+        ActionFuture<SearchResponse> secondFuture = searchFuture(null, hit("{\"dog_name\":\"b\"}"));
+        SearchRequestBuilder first = searchRequest(200, firstFuture);
+        SearchRequestBuilder second = searchRequest(200, secondFuture);
+        mockUnion(first, second, Collections.emptyMap(), ImmutableMap.of("dog_name", "name"));
+
+        UnionExecutor executor = new UnionExecutor(client, multiQueryBuilder);
+        executor.run();
+
+        InOrder inOrder = inOrder(first, second, firstFuture, secondFuture);
+        inOrder.verify(first).execute();
+        inOrder.verify(second).execute();
+        inOrder.verify(firstFuture).actionGet();
+        inOrder.verify(secondFuture).actionGet();
+
+        SearchHits hits = executor.getHits();
+        assertThat(hits.getTotalHits().value, equalTo(2L));
+        assertThat(hits.getAt(0).getSourceAsMap(), equalTo(ImmutableMap.of("name", "a")));
+        assertThat(hits.getAt(1).getSourceAsMap(), equalTo(ImmutableMap.of("name", "b")));
+        verify(first, never()).setScroll(any(TimeValue.class));
+        verify(client, never()).prepareClearScroll();
+    }
+
+    @Test
+    public void queryRequiringMoreRowsThanPageShouldBeScrolledUntilLimit() throws Exception {
+        ActionFuture<SearchResponse> firstFuture = searchFuture("scroll1", hit("{\"age\":1}"), hit("{\"age\":2}"));
+        SearchRequestBuilder first = searchRequest(10003, firstFuture);
+        when(first.setSize(anyInt())).thenReturn(first);
+        when(first.setScroll(any(TimeValue.class))).thenReturn(first);
+
+        SearchScrollRequestBuilder scrollRequest = mock(SearchScrollRequestBuilder.class);
+        when(client.prepareSearchScroll(anyString())).thenReturn(scrollRequest);
+        when(scrollRequest.setScroll(KEEP_ALIVE)).thenReturn(scrollRequest);
+        ActionFuture<SearchResponse> nextPage = searchFuture("scroll2", hit("{\"age\":3}"), hit("{\"age\":4}"));
+        ActionFuture<SearchResponse> lastPage = searchFuture("scroll3");
+        when(scrollRequest.execute()).thenReturn(nextPage, lastPage);
+
+        ActionFuture<SearchResponse> secondFuture = searchFuture(null);
+        SearchRequestBuilder second = searchRequest(200, secondFuture);
+        mockUnion(first, second, Collections.emptyMap(), Collections.emptyMap());
+
+        UnionExecutor executor = new UnionExecutor(client, multiQueryBuilder);
+        executor.run();
+
+        verify(first).setSize(10000);
+        verify(first).setScroll(KEEP_ALIVE);
+        verify(client).prepareSearchScroll("scroll1");
+        verify(client).prepareSearchScroll("scroll2");
+        verify(clearScrollRequest).addScrollId("scroll3");
+        assertThat(executor.getHits().getTotalHits().value, equalTo(4L));
+        assertThat(executor.getHits().getAt(3).getSourceAsMap(), equalTo(ImmutableMap.of("age", 4)));
+    }
+
+    @Test
+    public void secondQueryRequiringScrollShouldBeSearchedAfterFirstQueryConsumed() throws Exception {
+        ActionFuture<SearchResponse> firstFuture = searchFuture(null, hit("{\"name\":\"a\"}"));
+        SearchRequestBuilder first = searchRequest(200, firstFuture);
+
+        ActionFuture<SearchResponse> secondFuture = searchFuture("scroll1", hit("{\"name\":\"b\"}"));
+        SearchRequestBuilder second = searchRequest(10003, secondFuture);
+        when(second.setSize(anyInt())).thenReturn(second);
+        when(second.setScroll(any(TimeValue.class))).thenReturn(second);
+
+        SearchScrollRequestBuilder scrollRequest = mock(SearchScrollRequestBuilder.class);
+        when(client.prepareSearchScroll(anyString())).thenReturn(scrollRequest);
+        when(scrollRequest.setScroll(KEEP_ALIVE)).thenReturn(scrollRequest);
+        ActionFuture<SearchResponse> lastPage = searchFuture("scroll2");
+        when(scrollRequest.execute()).thenReturn(lastPage);
+        mockUnion(first, second, Collections.emptyMap(), Collections.emptyMap());
+
+        UnionExecutor executor = new UnionExecutor(client, multiQueryBuilder);
+        executor.run();
+
+        InOrder inOrder = inOrder(first, second, firstFuture, secondFuture);
+        inOrder.verify(first).execute();
+        inOrder.verify(firstFuture).actionGet();
+        inOrder.verify(second).setScroll(KEEP_ALIVE);
+        inOrder.verify(second).execute();
+        inOrder.verify(secondFuture).actionGet();
+
+        assertThat(executor.getHits().getTotalHits().value, equalTo(2L));
+        verify(clearScrollRequest).addScrollId("scroll2");
+    }
+
+    @Test
+    public void streamShouldRenameFieldsToFirstQueryAndFlattenSource() throws Exception {
+        ActionFuture<SearchResponse> firstFuture =
+                searchFuture(null, hit("{\"name\":\"a\",\"address\":{\"city\":\"x\"}}"));
+        ActionFuture<SearchResponse> secondFuture = searchFuture(null, hit("{\"dog_name\":\"b\"}"));
+        SearchRequestBuilder first = searchRequest(200, firstFuture);
+        SearchRequestBuilder second = searchRequest(200, secondFuture);
+        when(multiQueryBuilder.getFirstSearchRequest()).thenReturn(first);
+        when(multiQueryBuilder.getSecondSearchRequest()).thenReturn(second);
+        when(multiQueryBuilder.getOriginalSelect(true)).thenReturn(
+                select(new Field("name", "n"), new Field("address.city", null)));
+        when(multiQueryBuilder.getOriginalSelect(false)).thenReturn(select(new Field("dog_name", "n")));
+
+        UnionExecutor executor = new UnionExecutor(client, multiQueryBuilder);
+        try (JoinResultStream stream = executor.stream()) {
+            SearchHits page = stream.nextPage(1);
+            assertThat(page.getHits().length, equalTo(1));
+            assertThat(page.getAt(0).getSourceAsMap(), equalTo(ImmutableMap.of(
+                    "name", "a", "address", ImmutableMap.of("city", "x"), "address.city", "x")));
+
+            page = stream.nextPage(1);
+            assertThat(page.getAt(0).getSourceAsMap(), equalTo(ImmutableMap.of("name", "b")));
+            assertFalse(stream.hasNext());
+        }
+    }
+
+    private Select select(Field... fields) {
+        Select select = new Select();
+        for (Field field : fields) {
+            select.addField(field);
+        }
+        return select;
+    }
+
+    private void mockUnion(SearchRequestBuilder first, SearchRequestBuilder second,
+                           Map<String, String> firstFieldToAlias, Map<String, String> secondFieldToAlias) {
+        when(multiQueryBuilder.getFirstSearchRequest()).thenReturn(first);
+        when(multiQueryBuilder.getSecondSearchRequest()).thenReturn(second);
+        when(multiQueryBuilder.getFirstTableFieldToAlias()).thenReturn(firstFieldToAlias);
+        when(multiQueryBuilder.getSecondTableFieldToAlias()).thenReturn(secondFieldToAlias);
+    }
+
+    private SearchRequestBuilder searchRequest(int size, ActionFuture<SearchResponse> future) {
+        SearchRequestBuilder request = mock(SearchRequestBuilder.class);
+        when(request.request()).thenReturn(new SearchRequest().source(new SearchSourceBuilder().size(size)));
+        when(request.execute()).thenReturn(future);
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ActionFuture<SearchResponse> searchFuture(String scrollId, SearchHit... hits) {
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getScrollId()).thenReturn(scrollId);
+        when(response.getHits()).thenReturn(
+                new SearchHits(hits, new TotalHits(hits.length, Relation.EQUAL_TO), 1.0f));
+
+        ActionFuture<SearchResponse> future = mock(ActionFuture.class);
+        when(future.actionGet()).thenReturn(response);
+        return future;
+    }
+
+    private SearchHit hit(String source) {
+        SearchHit hit = new SearchHit(1);
+        hit.sourceRef(new BytesArray(source));
+        return hit;
+    }
+}
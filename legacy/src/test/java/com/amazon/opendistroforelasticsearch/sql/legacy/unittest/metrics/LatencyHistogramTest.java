@@ -0,0 +1,88 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.metrics;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyHistogram;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LatencyHistogramTest {
+    @Mock
+    Clock clock;
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram(1, clock);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        when(clock.millis()).thenReturn(1000L); // 1 second passed
+        Map<String, Object> value = histogram.getValue();
+        assertThat(value.get("count"), equalTo(100L));
+        assertThat((Double) value.get("p50"), allOf(greaterThanOrEqualTo(50.0), lessThanOrEqualTo(62.5)));
+        assertThat((Double) value.get("p90"), allOf(greaterThanOrEqualTo(90.0), lessThanOrEqualTo(112.5)));
+        assertThat((Double) value.get("p99"), allOf(greaterThanOrEqualTo(99.0), lessThanOrEqualTo(123.75)));
+    }
+
+    @Test
+    public void onlyLastIntervalReported() {
+        LatencyHistogram histogram = new LatencyHistogram(1, clock);
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(histogram.getValue().get("count"), equalTo(0L));
+
+        when(clock.millis()).thenReturn(1000L); // 1 second passed
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(20));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(histogram.getValue().get("count"), equalTo(1L));
+
+        when(clock.millis()).thenReturn(2000L); // 2 seconds passed
+        assertThat(histogram.getValue().get("count"), equalTo(2L));
+
+        when(clock.millis()).thenReturn(4000L); // 4 seconds passed
+        assertThat(histogram.getValue().get("count"), equalTo(0L));
+        assertThat(histogram.getValue().get("p99"), equalTo(0.0));
+    }
+
+    @Test
+    public void extremeLatency() {
+        LatencyHistogram histogram = new LatencyHistogram(1, clock);
+        histogram.record(0L);
+        histogram.record(-1L);
+        histogram.record(Long.MAX_VALUE);
+
+        when(clock.millis()).thenReturn(1000L); // 1 second passed
+        Map<String, Object> value = histogram.getValue();
+        assertThat(value.get("count"), equalTo(3L));
+        assertThat((Double) value.get("p50"), lessThanOrEqualTo(0.001));
+        assertThat((Double) value.get("p99"), greaterThanOrEqualTo((double) TimeUnit.HOURS.toMillis(19)));
+    }
+
+}
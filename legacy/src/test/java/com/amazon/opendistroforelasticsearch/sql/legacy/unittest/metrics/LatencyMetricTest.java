@@ -0,0 +1,61 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.metrics;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyHistogram;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyMetric;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyMetric.Stage;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Clock;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LatencyMetricTest {
+    @Mock
+    Clock clock;
+
+    @Test
+    public void getName() {
+        LatencyMetric metric = new LatencyMetric("sql_latency", () -> new LatencyHistogram(1, clock));
+        assertThat(metric.getName(), equalTo("sql_latency"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void recordByStage() {
+        LatencyMetric metric = new LatencyMetric("sql_latency", () -> new LatencyHistogram(1, clock));
+        metric.record(Stage.PARSE, 1_000_000L);
+        metric.record(Stage.SEARCH, 2_000_000L);
+        metric.record(Stage.SEARCH, 3_000_000L);
+
+        when(clock.millis()).thenReturn(1000L); // 1 second passed
+        Map<String, Object> value = metric.getValue();
+        assertThat(value.keySet(), contains("parse", "plan", "execute", "search", "format"));
+        assertThat(((Map<String, Object>) value.get("parse")).get("count"), equalTo(1L));
+        assertThat(((Map<String, Object>) value.get("plan")).get("count"), equalTo(0L));
+        assertThat(((Map<String, Object>) value.get("search")).get("count"), equalTo(2L));
+    }
+
+}
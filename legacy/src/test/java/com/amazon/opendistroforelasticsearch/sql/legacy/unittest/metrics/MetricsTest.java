@@ -16,7 +16,11 @@
 package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.metrics;
 
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.BasicCounter;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyHistogram;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyMetric;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyMetric.Stage;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metric;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.NumericMetric;
 
@@ -82,4 +86,14 @@ public class MetricsTest {
         assertThat(jsonObject.getInt("test2"), equalTo(0));
     }
 
+    @Test
+    public void recordLatency() {
+        Metrics.getInstance().clear();
+        Metrics.getInstance().recordLatency(MetricName.SQL_LATENCY, Stage.PARSE, 1_000_000L);
+
+        Metrics.getInstance().registerMetric(new LatencyMetric("sql_latency", () -> new LatencyHistogram(1)));
+        Metrics.getInstance().recordLatency(MetricName.SQL_LATENCY, Stage.PARSE, 1_000_000L);
+        JSONObject jsonObject = new JSONObject(Metrics.getInstance().collectToJSON());
+        assertThat(jsonObject.getJSONObject("sql_latency").getJSONObject("parse").has("p99"), equalTo(true));
+    }
 }
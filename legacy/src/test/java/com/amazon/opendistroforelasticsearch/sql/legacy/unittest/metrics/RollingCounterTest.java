@@ -78,13 +78,48 @@ public class RollingCounterTest {
     public void trim() {
         RollingCounter counter = new RollingCounter(2, 1, clock);
 
-        for (int i=1; i<6; ++i) {
+        for (int i=1; i<5; ++i) {
             counter.increment();
             assertThat(counter.size(), equalTo(i));
             when(clock.millis()).thenReturn(i * 1000L); // i seconds passed
         }
         counter.increment();
-        assertThat(counter.size(), lessThanOrEqualTo(3));
+        assertThat(counter.size(), equalTo(4));
+        assertThat(counter.getValue(0), equalTo(0L));
+        assertThat(counter.getValue(4), equalTo(1L));
+    }
+
+    @Test
+    public void addConcurrently() throws InterruptedException {
+        RollingCounter counter = new RollingCounter(3, 1, clock);
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    counter.increment();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        when(clock.millis()).thenReturn(1000L); // 1 second passed
+        assertThat(counter.getValue(), equalTo(8000L));
+        assertThat(counter.getSum(), equalTo(8000L));
+    }
+
+    @Test
+    public void reset() {
+        RollingCounter counter = new RollingCounter(3, 1, clock);
+        counter.add(5);
+        counter.reset();
+
+        when(clock.millis()).thenReturn(1000L); // 1 second passed
+        assertThat(counter.getValue(), equalTo(0L));
+        assertThat(counter.size(), equalTo(0));
     }
 
 }
@@ -92,7 +92,7 @@ public class SqlParserTest {
         Assert.assertTrue(((Condition) (where.getWheres().get(0))).getValue() instanceof ScriptFilter);
         ScriptFilter scriptFilter = (ScriptFilter) (((Condition) (where.getWheres().get(0))).getValue());
 
-        Assert.assertTrue(scriptFilter.getScript().contains("doc['address'].value.split(' ')[0]"));
+        Assert.assertTrue(scriptContainsString(scriptFilter, "doc['address'].value.split(' ')[0]"));
         Pattern pattern = Pattern.compile("floor_\\d+ > doc\\['b'].value");
         java.util.regex.Matcher matcher = pattern.matcher(scriptFilter.getScript());
         Assert.assertTrue(matcher.find());
@@ -176,7 +176,7 @@ public class SqlParserTest {
         Assert.assertTrue((where.getWheres().size() == 1));
         Assert.assertTrue(((Condition) (where.getWheres().get(0))).getValue() instanceof ScriptFilter);
         ScriptFilter scriptFilter = (ScriptFilter) (((Condition) (where.getWheres().get(0))).getValue());
-        Assert.assertTrue(scriptFilter.getScript().contains("doc['address'].value.split(' ')[0]"));
+        Assert.assertTrue(scriptContainsString(scriptFilter, "doc['address'].value.split(' ')[0]"));
         Pattern pattern = Pattern.compile("floor_\\d+ == floor_\\d+");
         java.util.regex.Matcher matcher = pattern.matcher(scriptFilter.getScript());
         Assert.assertTrue(matcher.find());
@@ -420,6 +420,21 @@ public class SqlParserTest {
         Assert.assertEquals(HintType.HASH_WITH_TERMS_FILTER, hint.getType());
     }
 
+    @Test
+    public void nestedLoopsMultiSearchHintWithMultiSearchesInFlight() throws SqlParseException {
+        String query = String.format(Locale.ROOT, "select /*! USE_NL*/ /*! NL_MULTISEARCH_SIZE(50, 4)*/ " +
+                "c.name.firstname, h.name from %s/gotCharacters c " +
+                "JOIN %s/gotCharacters h " +
+                "on c.name.lastname = h.name  " +
+                "where c.name.firstname='Daenerys'", TEST_INDEX_GAME_OF_THRONES, TEST_INDEX_GAME_OF_THRONES);
+        JoinSelect joinSelect = parser.parseJoinSelect((SQLQueryExpr) queryToExpr(query));
+        List<Hint> hints = joinSelect.getHints();
+        Assert.assertEquals("hints size was not 2", 2, hints.size());
+        Hint hint = hints.get(1);
+        Assert.assertEquals(HintType.NL_MULTISEARCH_SIZE, hint.getType());
+        Assert.assertArrayEquals(new Object[]{50, 4}, hint.getParams());
+    }
+
     @Test
     public void multipleHints() throws SqlParseException {
         String query = String.format(Locale.ROOT, "select /*! HASH_WITH_TERMS_FILTER*/ " +
@@ -127,6 +127,17 @@ public class QueryPlannerConfigTest extends QueryPlannerTest {
         );
     }
 
+    @Test
+    public void spillMemoryLimitHint() {
+        assertThat(
+            parseHint("! JOIN_SPILL_MEMORY_LIMIT(1024, 8)"),
+            hint(
+                hintType(HintType.JOIN_SPILL_MEMORY_LIMIT),
+                hintValues(1024, 8)
+            )
+        );
+    }
+
     @Test
     public void blockSizeConfig() {
         assertThat(queryPlannerConfig(
@@ -223,6 +234,119 @@ public class QueryPlannerConfigTest extends QueryPlannerTest {
         );
     }
 
+    @Test
+    public void spillMemoryLimitConfig() {
+        assertThat(queryPlannerConfig(
+            "SELECT /*! JOIN_SPILL_MEMORY_LIMIT(1024, 8) */ " +
+            "  d.name FROM employee e JOIN department d ON d.id = e.departmentId"),
+            allOf(
+                featureValueOf("Spill memory limit", is(1024 * 1024L), Config::spillMemoryLimit),
+                featureValueOf("Spill partitions", is(8), Config::spillPartitions)
+            )
+        );
+    }
+
+    @Test
+    public void spillPartitionsAtLeastOne() {
+        assertThat(queryPlannerConfig(
+            "SELECT /*! JOIN_SPILL_MEMORY_LIMIT(1024, 0) */ " +
+            "  d.name FROM employee e JOIN department d ON d.id = e.departmentId"),
+            featureValueOf("Spill partitions", is(1), Config::spillPartitions)
+        );
+    }
+
+    @Test
+    public void spillDisabledByDefault() {
+        assertThat(queryPlannerConfig(
+            "SELECT d.name FROM employee e JOIN department d ON d.id = e.departmentId"),
+            allOf(
+                featureValueOf("Spill memory limit", is(0L), Config::spillMemoryLimit),
+                featureValueOf("Spill partitions", is(Config.DEFAULT_SPILL_PARTITIONS), Config::spillPartitions)
+            )
+        );
+    }
+
+    @Test
+    public void probeParallelismHint() {
+        assertThat(
+            parseHint("! JOIN_PROBE_PARALLELISM(4, 500)"),
+            hint(
+                hintType(HintType.JOIN_PROBE_PARALLELISM),
+                hintValues(4, 500)
+            )
+        );
+    }
+
+    @Test
+    public void probeParallelismConfig() {
+        assertThat(queryPlannerConfig(
+            "SELECT /*! JOIN_PROBE_PARALLELISM(4, 500) */ " +
+            "  d.name FROM employee e JOIN department d ON d.id = e.departmentId"),
+            allOf(
+                featureValueOf("Probe parallelism", is(4), Config::probeParallelism),
+                featureValueOf("Probe chunk size", is(500), Config::probeChunkSize)
+            )
+        );
+    }
+
+    @Test
+    public void probeOnJoinThreadByDefault() {
+        assertThat(queryPlannerConfig(
+            "SELECT d.name FROM employee e JOIN department d ON d.id = e.departmentId"),
+            allOf(
+                featureValueOf("Probe parallelism", is(Config.DEFAULT_PROBE_PARALLELISM), Config::probeParallelism),
+                featureValueOf("Probe chunk size", is(Config.DEFAULT_PROBE_CHUNK_SIZE), Config::probeChunkSize)
+            )
+        );
+    }
+
+    @Test
+    public void termsFilterBatchSizeHint() {
+        assertThat(
+            parseHint("! JOIN_TERMS_FILTER_BATCH_SIZE(1000, 4)"),
+            hint(
+                hintType(HintType.JOIN_TERMS_FILTER_BATCH_SIZE),
+                hintValues(1000, 4)
+            )
+        );
+    }
+
+    @Test
+    public void termsFilterBatchSizeConfig() {
+        assertThat(queryPlannerConfig(
+            "SELECT /*! JOIN_TERMS_FILTER_BATCH_SIZE(1000, 4) */ " +
+            "  d.name FROM employee e JOIN department d ON d.id = e.departmentId"),
+            allOf(
+                featureValueOf("Terms filter batch size", is(1000), Config::termsFilterBatchSize),
+                featureValueOf("Terms filter parallelism", is(4), Config::termsFilterParallelism)
+            )
+        );
+    }
+
+    @Test
+    public void termsFilterBatchSizeByDefault() {
+        assertThat(queryPlannerConfig(
+            "SELECT d.name FROM employee e JOIN department d ON d.id = e.departmentId"),
+            allOf(
+                featureValueOf("Terms filter batch size",
+                    is(Config.DEFAULT_TERMS_FILTER_BATCH_SIZE), Config::termsFilterBatchSize),
+                featureValueOf("Terms filter parallelism",
+                    is(Config.DEFAULT_TERMS_FILTER_PARALLELISM), Config::termsFilterParallelism)
+            )
+        );
+    }
+
+    @Test
+    public void adaptiveBlockSizeConfig() {
+        assertThat(queryPlannerConfig(
+            "SELECT /*! JOIN_ALGORITHM_BLOCK_SIZE(0, 1024, 2000) */ " +
+            "  d.name FROM employee e JOIN department d ON d.id = e.departmentId"),
+            featureValueOf("Block size", is(
+                "AdaptiveBlockSize with upperLimit=" + Config.DEFAULT_ADAPTIVE_BLOCK_SIZE_LIMIT
+                    + ", memoryBudget=1048576, targetLatency=2000ms"), cfg -> cfg.blockSize().toString())
+        );
+    }
+
     @Test
     public void multipleConfigCombined() {
         assertThat(queryPlannerConfig(
@@ -0,0 +1,352 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.planner;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.admin.indices.stats.CommonStats;
+import org.elasticsearch.action.admin.indices.stats.IndicesStatsRequestBuilder;
+import org.elasticsearch.action.admin.indices.stats.IndicesStatsResponse;
+import org.elasticsearch.client.AdminClient;
+import org.elasticsearch.client.IndicesAdminClient;
+import org.elasticsearch.index.shard.DocsStats;
+import org.elasticsearch.index.store.StoreStats;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchHit;
+import org.junit.After;
+import org.junit.Test;
+
+import static com.amazon.opendistroforelasticsearch.sql.legacy.util.CheckScriptContents.mockLocalClusterState;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.util.MatcherUtils.hit;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.util.MatcherUtils.hits;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.util.MatcherUtils.kv;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sort-merge join and join algorithm selection test cases
+ */
+public class QueryPlannerSortMergeJoinTest extends QueryPlannerTest {
+
+    private static final String MAPPINGS = "{\n" +
+        "  \"employee\": {\n" +
+        "    \"mappings\": {\n" +
+        "      \"_doc\": {\n" +
+        "        \"properties\": {\n" +
+        "          \"id\": {\n" +
+        "            \"type\": \"keyword\"\n" +
+        "          },\n" +
+        "          \"name\": {\n" +
+        "            \"type\": \"text\"\n" +
+        "          },\n" +
+        "          \"lastname\": {\n" +
+        "            \"type\": \"keyword\"\n" +
+        "          },\n" +
+        "          \"departmentId\": {\n" +
+        "            \"type\": \"keyword\"\n" +
+        "          }\n" +
+        "        }\n" +
+        "      }\n" +
+        "    },\n" +
+        "    \"settings\": {\n" +
+        "      \"index\": {\n" +
+        "        \"number_of_shards\": 5,\n" +
+        "        \"number_of_replicas\": 0,\n" +
+        "        \"version\": {\n" +
+        "          \"created\": \"6050399\"\n" +
+        "        }\n" +
+        "      }\n" +
+        "    },\n" +
+        "    \"mapping_version\": \"1\",\n" +
+        "    \"settings_version\": \"1\"\n" +
+        "  }\n" +
+        "}";
+
+    @After
+    public void cleanUp() {
+        LocalClusterState.state(null);
+    }
+
+    @Test
+    public void sortMergeJoinHint() {
+        assertThat(
+            plan(
+                "SELECT /*! JOIN_ALGORITHM_USE_SORT_MERGE */ d.name, e.lastname " +
+                "  FROM employee e JOIN department d ON d.id = e.departmentId"
+            ).explain(),
+            containsString("SortMergeJoin")
+        );
+    }
+
+    @Test
+    public void sortMergeJoinHintIgnoredForOrConditions() {
+        assertThat(
+            plan(
+                "SELECT /*! JOIN_ALGORITHM_USE_SORT_MERGE */ d.name, e.lastname " +
+                "  FROM employee e JOIN department d ON d.id = e.departmentId OR d.name = e.lastname"
+            ).explain(),
+            not(containsString("SortMergeJoin"))
+        );
+    }
+
+    @Test
+    public void sortMergeJoinSelectedForLargeIndicesWithSortableKeys() {
+        mockMappingsAndDocCount(100000);
+        assertThat(
+            plan(
+                "SELECT d.name, e.lastname FROM employee e JOIN department d ON d.id = e.departmentId"
+            ).explain(),
+            containsString("SortMergeJoin")
+        );
+    }
+
+    @Test
+    public void sortMergeJoinNotSelectedForSmallIndices() {
+        mockMappingsAndDocCount(100);
+        assertThat(
+            plan(
+                "SELECT d.name, e.lastname FROM employee e JOIN department d ON d.id = e.departmentId"
+            ).explain(),
+            not(containsString("SortMergeJoin"))
+        );
+    }
+
+    @Test
+    public void sortMergeJoinNotSelectedForTextKeys() {
+        mockMappingsAndDocCount(100000);
+        assertThat(
+            plan(
+                "SELECT d.name, e.lastname FROM employee e JOIN department d ON d.name = e.lastname"
+            ).explain(),
+            not(containsString("SortMergeJoin"))
+        );
+    }
+
+    @Test
+    public void sortMergeJoinNotSelectedWithTermsFilterOptimization() {
+        mockMappingsAndDocCount(100000);
+        assertThat(
+            plan(
+                "SELECT /*! HASH_WITH_TERMS_FILTER*/ d.name, e.lastname " +
+                "  FROM employee e JOIN department d ON d.id = e.departmentId"
+            ).explain(),
+            not(containsString("SortMergeJoin"))
+        );
+    }
+
+    @Test
+    public void sortMergeJoinNotSelectedWithOrderBy() {
+        mockMappingsAndDocCount(100000);
+        assertThat(
+            plan(
+                "SELECT d.name, e.lastname FROM employee e JOIN department d ON d.id = e.departmentId " +
+                "  ORDER BY e.lastname"
+            ).explain(),
+            not(containsString("SortMergeJoin"))
+        );
+    }
+
+    @Test
+    public void sortMergeJoinHintIgnoredWithOrderBy() {
+        assertThat(
+            plan(
+                "SELECT /*! JOIN_ALGORITHM_USE_SORT_MERGE */ d.name, e.lastname " +
+                "  FROM employee e JOIN department d ON d.id = e.departmentId ORDER BY d.name DESC"
+            ).explain(),
+            not(containsString("SortMergeJoin"))
+        );
+    }
+
+    @Test
+    public void sortMergeJoinNotSelectedIfStatsUnavailable() {
+        mockLocalClusterState(MAPPINGS);
+        assertThat(
+            plan(
+                "SELECT d.name, e.lastname FROM employee e JOIN department d ON d.id = e.departmentId"
+            ).explain(),
+            not(containsString("SortMergeJoin"))
+        );
+    }
+
+    @Test
+    public void sortMergeJoinNotSelectedForExplainWithoutStats() {
+        mockMappingsAndDocCount(100000);
+        assertThat(
+            createRequestBuilder(
+                "SELECT d.name, e.lastname FROM employee e JOIN department d ON d.id = e.departmentId"
+            ).explain(),
+            not(containsString("SortMergeJoin"))
+        );
+        verify(client, never()).admin();
+    }
+
+    @Test
+    public void indexStatsCachedForJoinAlgorithmSelection() {
+        mockMappingsAndDocCount(100000);
+        for (int i = 0; i < 2; i++) {
+            assertThat(
+                plan(
+                    "SELECT d.name, e.lastname FROM employee e JOIN department d ON d.id = e.departmentId"
+                ).explain(),
+                containsString("SortMergeJoin")
+            );
+        }
+        verify(client, times(2)).admin();
+    }
+
+    @Test
+    public void departmentInnerJoinEmployee() {
+        assertThat(
+            query(
+                "SELECT /*! JOIN_ALGORITHM_USE_SORT_MERGE */ /*! JOIN_ALGORITHM_BLOCK_SIZE(2) */ " +
+                "  d.name AS dep, e.lastname AS name " +
+                "  FROM department d JOIN employee e ON d.id = e.departmentId",
+                departments(2,
+                    sortedDepartment(1, "A", "AWS"),
+                    sortedDepartment(2, "C", "Capital One"),
+                    sortedDepartment(3, "D", "Dell"),
+                    sortedDepartment(4, "G", "Google")
+                ),
+                employees(2,
+                    sortedEmployee(1, "Alice", "A"),
+                    sortedEmployee(2, "Bob", "A"),
+                    sortedEmployee(3, "Carol", "B"),
+                    sortedEmployee(4, "Dave", "D"),
+                    sortedEmployee(5, "Eve", "F"),
+                    sortedEmployee(6, "Frank", null)
+                )
+            ),
+            hits(
+                hit(
+                    kv("dep", "AWS"),
+                    kv("name", "Alice")
+                ),
+                hit(
+                    kv("dep", "AWS"),
+                    kv("name", "Bob")
+                ),
+                hit(
+                    kv("dep", "Dell"),
+                    kv("name", "Dave")
+                )
+            )
+        );
+    }
+
+    @Test
+    public void departmentLeftJoinEmployee() {
+        assertThat(
+            query(
+                "SELECT /*! JOIN_ALGORITHM_USE_SORT_MERGE */ " +
+                "  d.name AS dep, e.lastname AS name " +
+                "  FROM department d LEFT JOIN employee e ON d.id = e.departmentId",
+                departments(3,
+                    sortedDepartment(1, "A", "AWS"),
+                    sortedDepartment(2, "A", "Amazon"),
+                    sortedDepartment(3, "C", "Capital One"),
+                    sortedDepartment(4, "D", "Dell"),
+                    sortedDepartment(5, null, "Unknown")
+                ),
+                employees(3,
+                    sortedEmployee(1, "Alice", "A"),
+                    sortedEmployee(2, "Bob", "A"),
+                    sortedEmployee(3, "Dave", "D"),
+                    sortedEmployee(4, "Eve", "D")
+                )
+            ),
+            hits(
+                hit(
+                    kv("dep", "AWS"),
+                    kv("name", "Alice")
+                ),
+                hit(
+                    kv("dep", "AWS"),
+                    kv("name", "Bob")
+                ),
+                hit(
+                    kv("dep", "Amazon"),
+                    kv("name", "Alice")
+                ),
+                hit(
+                    kv("dep", "Amazon"),
+                    kv("name", "Bob")
+                ),
+                hit(
+                    kv("dep", "Capital One"),
+                    kv("name", null)
+                ),
+                hit(
+                    kv("dep", "Dell"),
+                    kv("name", "Dave")
+                ),
+                hit(
+                    kv("dep", "Dell"),
+                    kv("name", "Eve")
+                ),
+                hit(
+                    kv("dep", "Unknown"),
+                    kv("name", null)
+                )
+            )
+        );
+    }
+
+    private void mockMappingsAndDocCount(long docCount) {
+        mockLocalClusterState(MAPPINGS);
+
+        AdminClient adminClient = mock(AdminClient.class);
+        IndicesAdminClient indicesClient = mock(IndicesAdminClient.class);
+        IndicesStatsRequestBuilder statsRequest = mock(IndicesStatsRequestBuilder.class, RETURNS_SELF);
+        IndicesStatsResponse statsResponse = mock(IndicesStatsResponse.class);
+        CommonStats primaries = mock(CommonStats.class);
+        DocsStats docsStats = mock(DocsStats.class);
+
+        when(client.admin()).thenReturn(adminClient);
+        when(adminClient.indices()).thenReturn(indicesClient);
+        when(indicesClient.prepareStats(any())).thenReturn(statsRequest);
+        when(statsRequest.get()).thenReturn(statsResponse);
+        when(statsResponse.getPrimaries()).thenReturn(primaries);
+        when(primaries.getDocs()).thenReturn(docsStats);
+        when(primaries.getStore()).thenReturn(mock(StoreStats.class));
+        when(docsStats.getCount()).thenReturn(docCount);
+    }
+
+    /** Employee hit with sort value of departmentId as returned by scroll sorted on join key */
+    private SearchHit sortedEmployee(int docId, String lastname, String departmentId) {
+        return sorted(employee(docId, lastname, departmentId), departmentId);
+    }
+
+    /** Department hit with sort value of id as returned by scroll sorted on join key */
+    private SearchHit sortedDepartment(int docId, String id, String name) {
+        return sorted(department(docId, id, name), id);
+    }
+
+    private SearchHit sorted(SearchHit hit, String sortValue) {
+        hit.sortValues(
+            new Object[]{ sortValue == null ? null : new BytesRef(sortValue) },
+            new DocValueFormat[]{ DocValueFormat.RAW }
+        );
+        return hit;
+    }
+
+}
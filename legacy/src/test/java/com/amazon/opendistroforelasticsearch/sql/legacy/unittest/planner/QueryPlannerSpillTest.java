@@ -0,0 +1,159 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.planner;
+
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.runners.Parameterized.Parameters;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.util.MatcherUtils.hit;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.util.MatcherUtils.hits;
+import static com.amazon.opendistroforelasticsearch.sql.legacy.util.MatcherUtils.kv;
+
+/**
+ * Spill-to-disk testing. Memory limit 1KB is small enough to spill any block with more than 2 rows.
+ * Test against different combination of algorithm block size and number of partitions on disk.
+ */
+@SuppressWarnings("unchecked")
+@RunWith(Parameterized.class)
+public class QueryPlannerSpillTest extends QueryPlannerTest {
+
+    private static final String TEST_SQL =
+        "SELECT " +
+        "  /*! JOIN_CIRCUIT_BREAK_LIMIT(100) */ " +
+        "  /*! JOIN_ALGORITHM_BLOCK_SIZE(%d) */ " +
+        "  /*! JOIN_SCROLL_PAGE_SIZE(3) */ " +
+        "  /*! JOIN_SPILL_MEMORY_LIMIT(1, %d) */ " +
+        "  e.lastname AS name, d.id AS id, d.name AS dep " +
+        "FROM department d " +
+        "  %s employee e " +
+        "ON d.id = e.departmentId " +
+        "  WHERE e.age <= 50";
+
+    private SearchHit[] employees = {
+        employee(1, "People 1", "A"),
+        employee(2, "People 2", "A"),
+        employee(3, "People 3", "B"),
+        employee(4, "People 4", "C"),
+        employee(5, "People 5", "C"),
+        employee(6, "People 6", null),
+        employee(7, "People 7", "F")
+    };
+
+    private SearchHit[] departments = {
+        department(1, "A", "AWS"),
+        department(2, "C", "Capital One"),
+        department(3, "D", "Dell"),
+        department(4, "F", "Facebook"),
+        department(5, "G", "Google")
+    };
+
+    private Matcher[] matched = {
+        hit(
+            kv("name", "People 1"),
+            kv("id", "A"),
+            kv("dep", "AWS")
+        ),
+        hit(
+            kv("name", "People 2"),
+            kv("id", "A"),
+            kv("dep", "AWS")
+        ),
+        hit(
+            kv("name", "People 4"),
+            kv("id", "C"),
+            kv("dep", "Capital One")
+        ),
+        hit(
+            kv("name", "People 5"),
+            kv("id", "C"),
+            kv("dep", "Capital One")
+        ),
+        hit(
+            kv("name", "People 7"),
+            kv("id", "F"),
+            kv("dep", "Facebook")
+        )
+    };
+
+    private Matcher[] matchedAndMismatched = {
+        matched[0], matched[1], matched[2], matched[3], matched[4],
+        hit(
+            kv("name", null),
+            kv("id", "D"),
+            kv("dep", "Dell")
+        ),
+        hit(
+            kv("name", null),
+            kv("id", "G"),
+            kv("dep", "Google")
+        )
+    };
+
+    /** Parameterized test cases */
+    private final int blockSize;
+    private final int partitions;
+
+    public QueryPlannerSpillTest(int blockSize, int partitions) {
+        this.blockSize = blockSize;
+        this.partitions = partitions;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        List<Object[]> params = new ArrayList<>();
+        for (int blockSize = 1; blockSize <= 7; blockSize++) {
+            for (int partitions : new int[]{ 1, 2, 4, 16 }) {
+                params.add(new Object[]{ blockSize, partitions });
+            }
+        }
+        return params;
+    }
+
+    @Test
+    public void departmentInnerJoinEmployee() {
+        assertThat(
+            query(
+                String.format(TEST_SQL, blockSize, partitions, "INNER JOIN"),
+                departments(3, departments),
+                employees(3, employees)
+            ),
+            hits(matched)
+        );
+    }
+
+    @Test
+    public void departmentLeftJoinEmployee() {
+        assertThat(
+            query(
+                String.format(TEST_SQL, blockSize, partitions, "LEFT JOIN"),
+                departments(3, departments),
+                employees(3, employees)
+            ),
+            hits(matchedAndMismatched)
+        );
+    }
+
+}
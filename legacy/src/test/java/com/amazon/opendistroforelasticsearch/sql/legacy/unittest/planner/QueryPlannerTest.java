@@ -32,6 +32,7 @@ import com.amazon.opendistroforelasticsearch.sql.legacy.query.SqlElasticRequestB
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.join.ESJoinQueryActionFactory;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.HashJoinQueryPlanRequestBuilder;
 import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.core.QueryPlanner;
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.Stats;
 import com.amazon.opendistroforelasticsearch.sql.legacy.request.SqlRequest;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.TotalHits.Relation;
@@ -112,6 +113,7 @@ public abstract class QueryPlannerTest {
         // In this case, default value in Setting will be returned all the time.
         doReturn(emptyList()).when(settings).getSettings();
         LocalClusterState.state().setSqlSettings(settings);
+        Stats.clearIndexStatsCache();
 
         ActionFuture mockFuture = mock(ActionFuture.class);
         when(client.execute(any(), any())).thenReturn(mockFuture);
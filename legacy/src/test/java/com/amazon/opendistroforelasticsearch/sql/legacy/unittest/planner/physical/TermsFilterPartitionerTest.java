@@ -0,0 +1,138 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.planner.physical;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.physical.node.join.TermsFilterPartitioner;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TermsFilterPartitionerTest {
+
+    @Test
+    public void valuesShouldBeDeduplicatedAndSorted() {
+        TermsFilterPartitioner partitioner = new TermsFilterPartitioner(10, 1, Collections.emptySet());
+        assertEquals(
+            Collections.singletonList(boolQuery().must(termsQuery("d.id", Arrays.asList(1, 3, 5)))),
+            partitioner.partition(group(ImmutableMap.of("d.id", values(5, 1, 3, 1, null, 5))))
+        );
+    }
+
+    @Test
+    public void valuesShouldBeSplitIntoBatchesUnderBatchSize() {
+        TermsFilterPartitioner partitioner = new TermsFilterPartitioner(2, 1, Collections.emptySet());
+        assertEquals(
+            Arrays.asList(
+                boolQuery().must(termsQuery("d.name", Arrays.asList("a", "b"))),
+                boolQuery().must(termsQuery("d.name", Arrays.asList("c", "d"))),
+                boolQuery().must(termsQuery("d.name", Collections.singletonList("e")))
+            ),
+            partitioner.partition(group(ImmutableMap.of("d.name", values("e", "d", "c", "b", "a"))))
+        );
+    }
+
+    @Test
+    public void denseIntegralValuesOnRangeFieldShouldBeSplitIntoRanges() {
+        TermsFilterPartitioner partitioner = new TermsFilterPartitioner(2, 2, ImmutableSet.of("d.id"));
+        assertEquals(
+            Arrays.asList(
+                boolQuery().must(rangeQuery("d.id").gte(1).lte(4)),
+                boolQuery().must(rangeQuery("d.id").gte(5).lte(7))
+            ),
+            partitioner.partition(group(ImmutableMap.of("d.id", values(7, 6, 5, 4, 3, 2, 1))))
+        );
+    }
+
+    @Test
+    public void sparseIntegralValuesOnRangeFieldShouldStayAsTerms() {
+        TermsFilterPartitioner partitioner = new TermsFilterPartitioner(10, 2, ImmutableSet.of("d.id"));
+        assertEquals(
+            Collections.singletonList(boolQuery().must(termsQuery("d.id", Arrays.asList(1, 100, 1000)))),
+            partitioner.partition(group(ImmutableMap.of("d.id", values(1000, 100, 1))))
+        );
+    }
+
+    @Test
+    public void valuesOnNonRangeFieldShouldStayAsTerms() {
+        TermsFilterPartitioner partitioner = new TermsFilterPartitioner(10, 2, Collections.emptySet());
+        assertEquals(
+            Collections.singletonList(boolQuery().must(termsQuery("d.id", Arrays.asList(1, 2, 3)))),
+            partitioner.partition(group(ImmutableMap.of("d.id", values(3, 2, 1))))
+        );
+    }
+
+    @Test
+    public void joinKeyWithMostValuesShouldBePartitioned() {
+        TermsFilterPartitioner partitioner = new TermsFilterPartitioner(2, 1, Collections.emptySet());
+        assertEquals(
+            Arrays.asList(
+                boolQuery().must(termsQuery("d.name", Arrays.asList("a", "b")))
+                           .must(termsQuery("d.id", Collections.singletonList(1))),
+                boolQuery().must(termsQuery("d.name", Collections.singletonList("c")))
+                           .must(termsQuery("d.id", Collections.singletonList(1)))
+            ),
+            partitioner.partition(group(ImmutableMap.of("d.id", values(1, 1), "d.name", values("c", "b", "a"))))
+        );
+    }
+
+    @Test
+    public void conditionsOredShouldNotBePartitioned() {
+        TermsFilterPartitioner partitioner = new TermsFilterPartitioner(2, 1, Collections.emptySet());
+        assertEquals(
+            Collections.singletonList(
+                boolQuery().should(boolQuery().must(termsQuery("d.id", Arrays.asList(1, 2))))
+                           .should(boolQuery().must(termsQuery("d.name", Arrays.asList("a", "b"))))
+            ),
+            partitioner.partition(group(
+                ImmutableMap.of("d.id", values(2, 1)),
+                ImmutableMap.of("d.name", values("b", "a"))
+            ))
+        );
+    }
+
+    @Test
+    public void conditionsOredShouldNotBePushedDownIfTooManyValues() {
+        TermsFilterPartitioner partitioner = new TermsFilterPartitioner(2, 1, Collections.emptySet());
+        List<BoolQueryBuilder> filters = partitioner.partition(group(
+            ImmutableMap.of("d.id", values(3, 2, 1)),
+            ImmutableMap.of("d.name", values("b", "a"))
+        ));
+        assertTrue(filters.isEmpty());
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private static Map<String, Collection<Object>>[] group(Map<String, Collection<Object>>... rightNameToLeftValues) {
+        return rightNameToLeftValues;
+    }
+
+    private static Collection<Object> values(Object... values) {
+        return Arrays.asList(values);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *   Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.planner.resource;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.blocksize.AdaptiveBlockSize;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveBlockSizeTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    public void initialSizeShouldBeCappedByUpperLimit() {
+        assertEquals(1000, new AdaptiveBlockSize(100000).size());
+        assertEquals(10, new AdaptiveBlockSize(10).size());
+    }
+
+    @Test
+    public void sizeShouldNeverBeZero() {
+        assertEquals(1, new AdaptiveBlockSize(0).size());
+    }
+
+    @Test
+    public void sizeShouldGrowAtMostTwiceEachTime() {
+        AdaptiveBlockSize blockSize = new AdaptiveBlockSize(100000, 100 * MB, 5000);
+        blockSize.feedback(1000, 1000 * 100, 10, Long.MAX_VALUE);
+        assertEquals(2000, blockSize.size());
+        blockSize.feedback(2000, 2000 * 100, 10, Long.MAX_VALUE);
+        assertEquals(4000, blockSize.size());
+    }
+
+    @Test
+    public void sizeShouldNotExceedUpperLimit() {
+        AdaptiveBlockSize blockSize = new AdaptiveBlockSize(1500, 100 * MB, 5000);
+        blockSize.feedback(1000, 1000 * 100, 10, Long.MAX_VALUE);
+        assertEquals(1500, blockSize.size());
+    }
+
+    @Test
+    public void sizeShouldShrinkByMemoryBudget() {
+        AdaptiveBlockSize blockSize = new AdaptiveBlockSize(100000, MB, 5000);
+        blockSize.feedback(1000, 1000 * 2048, 10, Long.MAX_VALUE);
+        assertEquals(512, blockSize.size());
+    }
+
+    @Test
+    public void sizeShouldShrinkByMemoryAvailableInCircuitBreaker() {
+        AdaptiveBlockSize blockSize = new AdaptiveBlockSize(100000, 100 * MB, 5000);
+        blockSize.feedback(1000, 1000 * 1024, 10, MB);
+        assertEquals(512, blockSize.size());
+    }
+
+    @Test
+    public void sizeShouldShrinkByTargetLatency() {
+        AdaptiveBlockSize blockSize = new AdaptiveBlockSize(100000, 100 * MB, 5000);
+        blockSize.feedback(1000, 1000 * 100, 20000, Long.MAX_VALUE);
+        assertEquals(250, blockSize.size());
+    }
+
+    @Test
+    public void sizeShouldBeAtLeastOneIfNoMemoryAvailable() {
+        AdaptiveBlockSize blockSize = new AdaptiveBlockSize(100000, 100 * MB, 5000);
+        blockSize.feedback(1000, 1000 * 100, 10, 0);
+        assertEquals(1, blockSize.size());
+    }
+
+    @Test
+    public void emptyBlockFeedbackShouldBeIgnored() {
+        AdaptiveBlockSize blockSize = new AdaptiveBlockSize(100000, 100 * MB, 5000);
+        blockSize.feedback(0, 0, 10, 0);
+        assertEquals(1000, blockSize.size());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *   Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.planner.resource;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.query.planner.resource.QueryMemoryTracker;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QueryMemoryTrackerTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @Mock
+    private CircuitBreaker breaker;
+
+    @Test
+    public void smallChargeShouldNotHitCircuitBreaker() {
+        QueryMemoryTracker tracker = new QueryMemoryTracker(breaker);
+        tracker.charge(100);
+        tracker.charge(200);
+
+        assertEquals(300, tracker.used());
+        verify(breaker, never()).addEstimateBytesAndMaybeBreak(anyLong(), anyString());
+    }
+
+    @Test
+    public void chargesShouldBeFlushedToCircuitBreakerInBatch() {
+        QueryMemoryTracker tracker = new QueryMemoryTracker(breaker);
+        tracker.charge(MB - 1);
+        tracker.charge(2);
+
+        assertEquals(MB + 1, tracker.used());
+        verify(breaker).addEstimateBytesAndMaybeBreak(MB + 1, "<opendistro_sql_join>");
+    }
+
+    @Test
+    public void releaseShouldReturnChargedBytesToCircuitBreaker() {
+        QueryMemoryTracker tracker = new QueryMemoryTracker(breaker);
+        tracker.charge(2 * MB);
+        tracker.charge(100);
+        tracker.release(MB);
+
+        assertEquals(MB + 100, tracker.used());
+        verify(breaker).addWithoutBreaking(-(MB - 100));
+
+        tracker.releaseAll();
+        assertEquals(0, tracker.used());
+        verify(breaker).addWithoutBreaking(-(MB + 100));
+    }
+
+    @Test(expected = CircuitBreakingException.class)
+    public void chargeShouldFailIfCircuitBreakerTripped() {
+        doThrow(new CircuitBreakingException("tripped", CircuitBreaker.Durability.TRANSIENT))
+            .when(breaker).addEstimateBytesAndMaybeBreak(anyLong(), anyString());
+
+        new QueryMemoryTracker(breaker).charge(2 * MB);
+    }
+
+    @Test
+    public void failedChargeShouldNotBeAccounted() {
+        QueryMemoryTracker tracker = new QueryMemoryTracker(breaker);
+        tracker.charge(MB / 2);
+
+        doThrow(new CircuitBreakingException("tripped", CircuitBreaker.Durability.TRANSIENT))
+            .when(breaker).addEstimateBytesAndMaybeBreak(anyLong(), anyString());
+        try {
+            tracker.charge(MB);
+            fail("Expected circuit breaking exception");
+        } catch (CircuitBreakingException e) {
+            assertEquals(MB / 2, tracker.used());
+        }
+
+        tracker.release(MB / 2);
+        assertEquals(0, tracker.used());
+        verify(breaker, never()).addWithoutBreaking(anyLong());
+    }
+
+    @Test
+    public void availableShouldExcludePendingCharges() {
+        when(breaker.getLimit()).thenReturn(10 * MB);
+        when(breaker.getUsed()).thenReturn(4 * MB);
+
+        QueryMemoryTracker tracker = new QueryMemoryTracker(breaker);
+        tracker.charge(MB / 2);
+        assertEquals(6 * MB - MB / 2, tracker.available());
+    }
+
+    @Test
+    public void availableShouldBeUnlimitedWithoutCircuitBreaker() {
+        QueryMemoryTracker tracker = new QueryMemoryTracker(null);
+        tracker.charge(2 * MB);
+        tracker.release(MB);
+
+        assertEquals(MB, tracker.used());
+        assertEquals(Long.MAX_VALUE, tracker.available());
+    }
+}
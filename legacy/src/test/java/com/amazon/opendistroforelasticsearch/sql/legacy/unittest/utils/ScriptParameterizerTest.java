@@ -0,0 +1,109 @@
+/*
+ *   Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.legacy.unittest.utils;
+
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.BasicCounter;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.NumericMetric;
+import com.amazon.opendistroforelasticsearch.sql.legacy.utils.ScriptParameterizer;
+import com.google.common.collect.ImmutableMap;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ScriptParameterizerTest {
+
+    @After
+    public void clearMetrics() {
+        Metrics.getInstance().clear();
+    }
+
+    @Test
+    public void numberLiteralsShouldBeHoisted() {
+        Script script = ScriptParameterizer.parameterize(
+                "def end = (int) Math.min(1 + 3, doc['name'].value.length()); "
+                        + "def substring_1 = doc['name'].value.substring(1, end)");
+
+        assertThat(script.getType(), equalTo(ScriptType.INLINE));
+        assertThat(script.getLang(), equalTo(Script.DEFAULT_SCRIPT_LANG));
+        assertThat(script.getIdOrCode(), equalTo(
+                "def end = (int) Math.min(params.p0 + params.p1, doc['name'].value.length()); "
+                        + "def substring_1 = doc['name'].value.substring(params.p2, end)"));
+        assertThat(script.getParams(), equalTo(ImmutableMap.of("p0", 1, "p1", 3, "p2", 1)));
+    }
+
+    @Test
+    public void stringLiteralsShouldBeHoistedExceptDocValueKey() {
+        Script script = ScriptParameterizer.parameterize(
+                "doc['address'].value.split(' ')[0].toUpperCase(Locale.forLanguageTag(\"en\")) == 'it\\'s'");
+
+        assertThat(script.getIdOrCode(), equalTo(
+                "doc['address'].value.split(params.p0)[params.p1]"
+                        + ".toUpperCase(Locale.forLanguageTag(params.p2)) == params.p3"));
+        assertThat(script.getParams(), equalTo(ImmutableMap.of("p0", " ", "p1", 0, "p2", "en", "p3", "it's")));
+    }
+
+    @Test
+    public void numberLiteralsOfDifferentTypeShouldBeHoisted() {
+        Script script = ScriptParameterizer.parameterize("doc['age'].value * 1.5 + 10L + 3000000000 - 2f");
+
+        assertThat(script.getIdOrCode(),
+                equalTo("doc['age'].value * params.p0 + params.p1 + params.p2 - params.p3"));
+        assertThat(script.getParams(), equalTo(ImmutableMap.of("p0", 1.5, "p1", 10L, "p2", 3000000000L, "p3", 2f)));
+    }
+
+    @Test
+    public void digitsInIdentifierShouldNotBeHoisted() {
+        Script script = ScriptParameterizer.parameterize("def log10_1 = Math.log10(doc['age'].value); return log10_1");
+
+        assertThat(script.getIdOrCode(), equalTo("def log10_1 = Math.log10(doc['age'].value); return log10_1"));
+        assertThat(script.getParams(), equalTo(Collections.emptyMap()));
+    }
+
+    @Test
+    public void scriptsOfSameShapeShouldHaveSameSource() {
+        Script script1 = ScriptParameterizer.parameterize(
+                "DateTimeFormatter.ofPattern('yyyy-MM-dd').format(doc['birthday'].value)");
+        Script script2 = ScriptParameterizer.parameterize(
+                "DateTimeFormatter.ofPattern('HH:mm').format(doc['birthday'].value)");
+
+        assertThat(script1.getIdOrCode(), equalTo(script2.getIdOrCode()));
+        assertThat(script1.getParams(), equalTo(ImmutableMap.of("p0", "yyyy-MM-dd")));
+        assertThat(script2.getParams(), equalTo(ImmutableMap.of("p0", "HH:mm")));
+    }
+
+    @Test
+    public void compilationShouldBeCountedOnlyForNewScriptSource() {
+        NumericMetric<Long> metric = new NumericMetric<>(
+                MetricName.SCRIPT_COMPILATION_COUNT.getName(), new BasicCounter());
+        Metrics.getInstance().registerMetric(metric);
+
+        ScriptParameterizer.parameterize("doc['compilation_test'].value + 1");
+        ScriptParameterizer.parameterize("doc['compilation_test'].value + 2");
+        assertThat(metric.getValue(), equalTo(1L));
+
+        ScriptParameterizer.parameterize("doc['compilation_test'].value - 1");
+        assertThat(metric.getValue(), equalTo(2L));
+    }
+
+}
@@ -53,6 +53,7 @@ import org.mockito.stubbing.Answer;
 import java.io.IOException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -107,25 +108,45 @@ public class CheckScriptContents {
     }
 
     public static boolean scriptContainsString(ScriptField scriptField, String string) {
-        return scriptField.script().getIdOrCode().contains(string);
+        return inlineParams(scriptField.script().getIdOrCode(), scriptField.script().getParams()).contains(string);
     }
 
     public static boolean scriptContainsString(ScriptFilter scriptFilter, String string) {
-        return scriptFilter.getScript().contains(string);
+        return inlineParams(scriptFilter.getScript(), scriptFilter.getArgs()).contains(string);
     }
 
     public static boolean scriptHasPattern(ScriptField scriptField, String regex) {
         Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(scriptField.script().getIdOrCode());
+        Matcher matcher = pattern.matcher(
+                inlineParams(scriptField.script().getIdOrCode(), scriptField.script().getParams()));
         return matcher.find();
     }
 
     public static boolean scriptHasPattern(ScriptFilter scriptFilter, String regex) {
         Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(scriptFilter.getScript());
+        Matcher matcher = pattern.matcher(inlineParams(scriptFilter.getScript(), scriptFilter.getArgs()));
         return matcher.find();
     }
 
+    /**
+     * Put literals hoisted into params back to script so that script content generated can be verified.
+     */
+    private static String inlineParams(String script, Map<String, Object> params) {
+        if (params == null) {
+            return script;
+        }
+
+        Matcher matcher = Pattern.compile("params\\.(\\w+)").matcher(script);
+        StringBuffer inlined = new StringBuffer();
+        while (matcher.find()) {
+            Object value = params.get(matcher.group(1));
+            String literal = (value instanceof String) ? "'" + value + "'" : String.valueOf(value);
+            matcher.appendReplacement(inlined, Matcher.quoteReplacement(literal));
+        }
+        matcher.appendTail(inlined);
+        return inlined.toString();
+    }
+
     public static void stubMockClient(Client mockClient) {
         try {
             String mappings = "{\n" +
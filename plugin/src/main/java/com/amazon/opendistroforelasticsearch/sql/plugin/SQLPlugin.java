@@ -20,6 +20,7 @@ import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.script.Ex
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.serialization.DefaultExpressionSerializer;
 import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
 import com.amazon.opendistroforelasticsearch.sql.legacy.executor.AsyncRestExecutor;
+import com.amazon.opendistroforelasticsearch.sql.legacy.executor.cursor.JoinCursorContexts;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
 import com.amazon.opendistroforelasticsearch.sql.legacy.plugin.RestSqlAction;
 import com.amazon.opendistroforelasticsearch.sql.legacy.plugin.RestSqlSettingsAction;
@@ -38,6 +39,8 @@ import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Module;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.IndexScopedSettings;
@@ -48,6 +51,7 @@ import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.env.NodeEnvironment;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.plugins.ActionPlugin;
 import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.plugins.ScriptPlugin;
@@ -123,6 +127,7 @@ public class SQLPlugin extends Plugin implements ActionPlugin, ScriptPlugin {
 
     LocalClusterState.state().setClusterService(clusterService);
     LocalClusterState.state().setSqlSettings(sqlSettings);
+    JoinCursorContexts.scheduleReaper(threadPool);
 
     return super
         .createComponents(client, clusterService, threadPool, resourceWatcherService, scriptService,
@@ -130,15 +135,34 @@ public class SQLPlugin extends Plugin implements ActionPlugin, ScriptPlugin {
             indexNameResolver, repositoriesServiceSupplier);
   }
 
+  /**
+   * Circuit breaker service is not passed to createComponents() so bind a component which
+   * has it injected by Guice during node start.
+   */
   @Override
-  public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+  public Collection<Module> createGuiceModules() {
     return Collections.singletonList(
+        binder -> binder.bind(CircuitBreakerServiceRegistrar.class).asEagerSingleton());
+  }
+
+  /**
+   * Thread pool size and queue size are configurable by node settings
+   * thread_pool.[name].size and thread_pool.[name].queue_size.
+   */
+  @Override
+  public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+    return Arrays.asList(
         new FixedExecutorBuilder(
             settings,
             AsyncRestExecutor.SQL_WORKER_THREAD_POOL_NAME,
             EsExecutors.allocatedProcessors(settings),
-            1000,
-            null
+            1000
+        ),
+        new FixedExecutorBuilder(
+            settings,
+            AsyncRestExecutor.SQL_JOIN_WORKER_THREAD_POOL_NAME,
+            EsExecutors.allocatedProcessors(settings),
+            1000
         )
     );
   }
@@ -156,4 +180,15 @@ public class SQLPlugin extends Plugin implements ActionPlugin, ScriptPlugin {
     return new ExpressionScriptEngine(new DefaultExpressionSerializer());
   }
 
+  /**
+   * Register circuit breaker service injected to local cluster state for query memory accounting.
+   */
+  public static class CircuitBreakerServiceRegistrar {
+
+    @Inject
+    public CircuitBreakerServiceRegistrar(CircuitBreakerService circuitBreakerService) {
+      LocalClusterState.state().setCircuitBreakerService(circuitBreakerService);
+    }
+  }
+
 }
@@ -26,10 +26,16 @@ import com.amazon.opendistroforelasticsearch.sql.elasticsearch.monitor.Elasticse
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.monitor.ElasticsearchResourceMonitor;
 import com.amazon.opendistroforelasticsearch.sql.elasticsearch.storage.ElasticsearchStorageEngine;
 import com.amazon.opendistroforelasticsearch.sql.executor.ExecutionEngine;
+import com.amazon.opendistroforelasticsearch.sql.legacy.esdomain.LocalClusterState;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyMetric.Stage;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
 import com.amazon.opendistroforelasticsearch.sql.monitor.ResourceMonitor;
 import com.amazon.opendistroforelasticsearch.sql.storage.StorageEngine;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -52,7 +58,8 @@ public class ElasticsearchPluginConfig {
 
   @Bean
   public ElasticsearchClient client() {
-    return new ElasticsearchNodeClient(clusterService, nodeClient);
+    return new ElasticsearchNodeClient(clusterService, nodeClient, latency ->
+        Metrics.getInstance().recordLatency(MetricName.PPL_LATENCY, Stage.SEARCH, latency));
   }
 
   @Bean
@@ -67,11 +74,17 @@ public class ElasticsearchPluginConfig {
 
   @Bean
   public ResourceMonitor resourceMonitor() {
-    return new ElasticsearchResourceMonitor(settings, new ElasticsearchMemoryHealthy());
+    return new ElasticsearchResourceMonitor(
+        settings, new ElasticsearchMemoryHealthy(), requestCircuitBreaker());
   }
 
   @Bean
   public ExecutionProtector protector() {
     return new ElasticsearchExecutionProtector(resourceMonitor());
   }
+
+  private CircuitBreaker requestCircuitBreaker() {
+    CircuitBreakerService service = LocalClusterState.state().getCircuitBreakerService();
+    return (service == null) ? null : service.getBreaker(CircuitBreaker.REQUEST);
+  }
 }
@@ -21,6 +21,7 @@ import static org.elasticsearch.rest.RestStatus.INTERNAL_SERVER_ERROR;
 import static org.elasticsearch.rest.RestStatus.OK;
 import static org.elasticsearch.rest.RestStatus.SERVICE_UNAVAILABLE;
 
+import com.amazon.opendistroforelasticsearch.sql.ast.tree.UnresolvedPlan;
 import com.amazon.opendistroforelasticsearch.sql.common.antlr.SyntaxCheckException;
 import com.amazon.opendistroforelasticsearch.sql.common.response.ResponseListener;
 import com.amazon.opendistroforelasticsearch.sql.common.setting.Settings;
@@ -32,8 +33,10 @@ import com.amazon.opendistroforelasticsearch.sql.exception.QueryEngineException;
 import com.amazon.opendistroforelasticsearch.sql.exception.SemanticCheckException;
 import com.amazon.opendistroforelasticsearch.sql.executor.ExecutionEngine.ExplainResponse;
 import com.amazon.opendistroforelasticsearch.sql.executor.ExecutionEngine.QueryResponse;
+import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.LatencyMetric.Stage;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.MetricName;
 import com.amazon.opendistroforelasticsearch.sql.legacy.metrics.Metrics;
+import com.amazon.opendistroforelasticsearch.sql.planner.physical.PhysicalPlan;
 import com.amazon.opendistroforelasticsearch.sql.plugin.request.PPLQueryRequestFactory;
 import com.amazon.opendistroforelasticsearch.sql.ppl.PPLService;
 import com.amazon.opendistroforelasticsearch.sql.ppl.config.PPLServiceConfig;
@@ -137,7 +140,27 @@ public class RestPPLQueryAction extends BaseRestHandler {
     if (pplRequest.isExplainRequest()) {
       return channel -> pplService.explain(pplRequest, createExplainResponseListener(channel));
     }
-    return channel -> pplService.execute(pplRequest, createListener(channel));
+    return channel -> execute(pplService, channel);
+  }
+
+  /**
+   * Plan and execute the PPL query with latency of each stage recorded.
+   */
+  private void execute(PPLService pplService, RestChannel channel) {
+    PhysicalPlan plan;
+    try {
+      long startTime = System.nanoTime();
+      UnresolvedPlan ast = pplService.parse(pplRequest);
+      recordLatency(Stage.PARSE, startTime);
+
+      long planStartTime = System.nanoTime();
+      plan = pplService.plan(ast);
+      recordLatency(Stage.PLAN, planStartTime);
+    } catch (Exception e) {
+      createListener(channel, System.nanoTime()).onFailure(e);
+      return;
+    }
+    pplService.execute(plan, createListener(channel, System.nanoTime()));
   }
 
   /**
@@ -192,7 +215,8 @@ public class RestPPLQueryAction extends BaseRestHandler {
     };
   }
 
-  private ResponseListener<QueryResponse> createListener(RestChannel channel) {
+  private ResponseListener<QueryResponse> createListener(RestChannel channel,
+                                                        long executeStartTime) {
     Format format = pplRequest.format();
     ResponseFormatter<QueryResult> formatter;
     if (format.equals(Format.CSV)) {
@@ -203,8 +227,12 @@ public class RestPPLQueryAction extends BaseRestHandler {
     return new ResponseListener<QueryResponse>() {
       @Override
       public void onResponse(QueryResponse response) {
-        sendResponse(channel, OK, formatter.format(new QueryResult(response.getSchema(),
-            response.getResults())));
+        recordLatency(Stage.EXECUTE, executeStartTime);
+        long formatStartTime = System.nanoTime();
+        String content = formatter.format(new QueryResult(response.getSchema(),
+            response.getResults()));
+        recordLatency(Stage.FORMAT, formatStartTime);
+        sendResponse(channel, OK, content);
       }
 
       @Override
@@ -239,6 +267,11 @@ public class RestPPLQueryAction extends BaseRestHandler {
         ErrorMessageFactory.createErrorMessage(e, status.getStatus()).toString()));
   }
 
+  private static void recordLatency(Stage stage, long startTime) {
+    Metrics.getInstance().recordLatency(
+        MetricName.PPL_LATENCY, stage, System.nanoTime() - startTime);
+  }
+
   private static boolean isClientError(Exception e) {
     return e instanceof NullPointerException
         // NPE is hard to differentiate but more likely caused by bad query
@@ -66,7 +66,21 @@ public class PPLService {
    */
   public void execute(PPLQueryRequest request, ResponseListener<QueryResponse> listener) {
     try {
-      executionEngine.execute(plan(request), listener);
+      executionEngine.execute(plan(parse(request)), listener);
+    } catch (Exception e) {
+      listener.onFailure(e);
+    }
+  }
+
+  /**
+   * Given physical plan, execute it and listen on response.
+   *
+   * @param plan     physical plan
+   * @param listener {@link ResponseListener}
+   */
+  public void execute(PhysicalPlan plan, ResponseListener<QueryResponse> listener) {
+    try {
+      executionEngine.execute(plan, listener);
     } catch (Exception e) {
       listener.onFailure(e);
     }
@@ -81,25 +95,39 @@ public class PPLService {
    */
   public void explain(PPLQueryRequest request, ResponseListener<ExplainResponse> listener) {
     try {
-      executionEngine.explain(plan(request), listener);
+      executionEngine.explain(plan(parse(request)), listener);
     } catch (Exception e) {
       listener.onFailure(e);
     }
   }
 
-  private PhysicalPlan plan(PPLQueryRequest request) {
-    // 1.Parse query and convert parse tree (CST) to abstract syntax tree (AST)
+  /**
+   * Parse query and convert parse tree (CST) to abstract syntax tree (AST).
+   *
+   * @param request {@link PPLQueryRequest}
+   * @return abstract syntax tree
+   */
+  public UnresolvedPlan parse(PPLQueryRequest request) {
     ParseTree cst = parser.analyzeSyntax(request.getRequest());
     UnresolvedPlan ast = cst.accept(
         new AstBuilder(new AstExpressionBuilder(), request.getRequest()));
 
     LOG.info("[{}] Incoming request {}", LogUtils.getRequestId(), anonymizer.anonymizeData(ast));
+    return ast;
+  }
 
-    // 2.Analyze abstract syntax to generate logical plan
+  /**
+   * Analyze abstract syntax tree and generate optimal physical plan.
+   *
+   * @param ast abstract syntax tree
+   * @return physical plan
+   */
+  public PhysicalPlan plan(UnresolvedPlan ast) {
+    // 1.Analyze abstract syntax to generate logical plan
     LogicalPlan logicalPlan = analyzer.analyze(UnresolvedPlanHelper.addSelectAll(ast),
         new AnalysisContext());
 
-    // 3.Generate optimal physical plan from logical plan
+    // 2.Generate optimal physical plan from logical plan
     return new Planner(storageEngine, LogicalPlanOptimizer.create(new DSL(repository)))
         .plan(logicalPlan);
   }
@@ -17,6 +17,7 @@ package com.amazon.opendistroforelasticsearch.sql.ppl.antlr;
 
 import com.amazon.opendistroforelasticsearch.sql.common.antlr.CaseInsensitiveCharStream;
 import com.amazon.opendistroforelasticsearch.sql.common.antlr.SyntaxAnalysisErrorListener;
+import com.amazon.opendistroforelasticsearch.sql.common.antlr.TwoStageParser;
 import com.amazon.opendistroforelasticsearch.sql.ppl.antlr.parser.OpenDistroPPLLexer;
 import com.amazon.opendistroforelasticsearch.sql.ppl.antlr.parser.OpenDistroPPLParser;
 import org.antlr.v4.runtime.CommonTokenStream;
@@ -32,8 +33,8 @@ public class PPLSyntaxParser {
    */
   public ParseTree analyzeSyntax(String query) {
     OpenDistroPPLParser parser = createParser(createLexer(query));
-    parser.addErrorListener(new SyntaxAnalysisErrorListener());
-    return parser.root();
+    return TwoStageParser.parse(
+        parser, new SyntaxAnalysisErrorListener(), OpenDistroPPLParser::root);
   }
 
   private OpenDistroPPLParser createParser(Lexer lexer) {
@@ -15,8 +15,10 @@
 
 package com.amazon.opendistroforelasticsearch.sql.ppl;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
 import com.amazon.opendistroforelasticsearch.sql.common.response.ResponseListener;
@@ -188,4 +190,47 @@ public class PPLServiceTest {
           }
         });
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testExecutePhysicalPlanShouldPass() {
+    doAnswer(invocation -> {
+      ResponseListener<QueryResponse> listener = invocation.getArgument(1);
+      listener.onResponse(new QueryResponse(schema, Collections.emptyList()));
+      return null;
+    }).when(executionEngine).execute(any(), any());
+
+    PhysicalPlan physicalPlan =
+        pplService.plan(pplService.parse(new PPLQueryRequest("search source=t a=1", null, null)));
+    pplService.execute(physicalPlan,
+        new ResponseListener<QueryResponse>() {
+          @Override
+          public void onResponse(QueryResponse pplQueryResponse) {
+          }
+
+          @Override
+          public void onFailure(Exception e) {
+            Assert.fail();
+          }
+        });
+  }
+
+  @Test
+  public void testExecutePhysicalPlanFailureShouldBeCaughtByHandler() {
+    doThrow(new IllegalStateException("test")).when(executionEngine).execute(any(), any());
+
+    PhysicalPlan physicalPlan =
+        pplService.plan(pplService.parse(new PPLQueryRequest("search source=t a=1", null, null)));
+    pplService.execute(physicalPlan,
+        new ResponseListener<QueryResponse>() {
+          @Override
+          public void onResponse(QueryResponse pplQueryResponse) {
+            Assert.fail();
+          }
+
+          @Override
+          public void onFailure(Exception e) {
+            assertEquals("test", e.getMessage());
+          }
+        });
+  }
+}
@@ -57,6 +57,11 @@ public class ConnectionConfig {
     private boolean trustSelfSigned;
     private boolean hostnameVerification;
 
+    private boolean connectionPooling;
+    private int maxConnections;
+    private int idleConnectionTimeout;
+    private int validateAfterInactivity;
+
     private ConnectionConfig(Builder builder) {
         this.url = builder.getUrl();
         this.host = builder.getHostProperty().getValue();
@@ -90,6 +95,11 @@ public class ConnectionConfig {
         this.trustSelfSigned = builder.getTrustSelfSignedConnectionProperty().getValue();
 
         this.hostnameVerification = builder.getHostnameVerificationConnectionProperty().getValue();
+
+        this.connectionPooling = builder.getConnectionPoolingConnectionProperty().getValue();
+        this.maxConnections = builder.getMaxConnectionsConnectionProperty().getValue();
+        this.idleConnectionTimeout = builder.getIdleConnectionTimeoutConnectionProperty().getValue();
+        this.validateAfterInactivity = builder.getValidateAfterInactivityConnectionProperty().getValue();
     }
 
     public static Builder builder() {
@@ -192,6 +202,22 @@ public class ConnectionConfig {
         return hostnameVerification;
     }
 
+    public boolean connectionPooling() {
+        return connectionPooling;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getIdleConnectionTimeout() {
+        return idleConnectionTimeout;
+    }
+
+    public int getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
     @Override
     public String toString() {
         return "ConnectionConfig{" +
@@ -219,6 +245,10 @@ public class ConnectionConfig {
                 ", trustStoreType='" + trustStoreType + '\'' +
                 ", trustSelfSigned='" + trustSelfSigned + '\'' +
                 ", hostnameVerification='" + hostnameVerification + '\'' +
+                ", connectionPooling=" + connectionPooling +
+                ", maxConnections=" + maxConnections +
+                ", idleConnectionTimeout=" + idleConnectionTimeout +
+                ", validateAfterInactivity=" + validateAfterInactivity +
                 '}';
     }
 
@@ -266,6 +296,15 @@ public class ConnectionConfig {
         private HostnameVerificationConnectionProperty hostnameVerificationConnectionProperty
                 = new HostnameVerificationConnectionProperty();
 
+        private ConnectionPoolingConnectionProperty connectionPoolingConnectionProperty
+                = new ConnectionPoolingConnectionProperty();
+        private MaxConnectionsConnectionProperty maxConnectionsConnectionProperty
+                = new MaxConnectionsConnectionProperty();
+        private IdleConnectionTimeoutConnectionProperty idleConnectionTimeoutConnectionProperty
+                = new IdleConnectionTimeoutConnectionProperty();
+        private ValidateAfterInactivityConnectionProperty validateAfterInactivityConnectionProperty
+                = new ValidateAfterInactivityConnectionProperty();
+
         ConnectionProperty[] connectionProperties = new ConnectionProperty[]{
                 hostProperty,
                 portProperty,
@@ -288,7 +327,11 @@ public class ConnectionConfig {
                 trustStorePasswordConnectionProperty,
                 trustStoreTypeConnectionProperty,
                 trustSelfSignedConnectionProperty,
-                hostnameVerificationConnectionProperty
+                hostnameVerificationConnectionProperty,
+                connectionPoolingConnectionProperty,
+                maxConnectionsConnectionProperty,
+                idleConnectionTimeoutConnectionProperty,
+                validateAfterInactivityConnectionProperty
         };
 
         private String url = null;
@@ -395,6 +438,22 @@ public class ConnectionConfig {
             return hostnameVerificationConnectionProperty;
         }
 
+        public ConnectionPoolingConnectionProperty getConnectionPoolingConnectionProperty() {
+            return connectionPoolingConnectionProperty;
+        }
+
+        public MaxConnectionsConnectionProperty getMaxConnectionsConnectionProperty() {
+            return maxConnectionsConnectionProperty;
+        }
+
+        public IdleConnectionTimeoutConnectionProperty getIdleConnectionTimeoutConnectionProperty() {
+            return idleConnectionTimeoutConnectionProperty;
+        }
+
+        public ValidateAfterInactivityConnectionProperty getValidateAfterInactivityConnectionProperty() {
+            return validateAfterInactivityConnectionProperty;
+        }
+
         public Builder setLogWriter(PrintWriter printWriter) {
             this.logWriter = printWriter;
             return this;
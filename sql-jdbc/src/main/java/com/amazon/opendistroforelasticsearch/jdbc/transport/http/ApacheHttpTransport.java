@@ -37,6 +37,7 @@ import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
@@ -49,6 +50,7 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.http.ssl.TrustStrategy;
@@ -64,6 +66,7 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
+import java.util.concurrent.TimeUnit;
 
 public class ApacheHttpTransport implements HttpTransport, LoggingSource {
     String scheme;
@@ -101,11 +104,18 @@ public class ApacheHttpTransport implements HttpTransport, LoggingSource {
 
         HttpClientBuilder httpClientBuilder = HttpClients.custom()
                 .setConnectionManager(
-                        new BasicHttpClientConnectionManager(socketFactoryRegistry, connectionFactory))
+                        buildConnectionManager(connectionConfig, socketFactoryRegistry, connectionFactory))
                 .setDefaultSocketConfig(buildDefaultSocketConfig())
                 .setDefaultRequestConfig(getRequestConfig())
                 .setUserAgent(userAgent);
 
+        // idle connection eviction only applies to a pooled connection manager
+        if (connectionConfig.connectionPooling() && connectionConfig.getIdleConnectionTimeout() > 0) {
+            httpClientBuilder
+                    .evictExpiredConnections()
+                    .evictIdleConnections(connectionConfig.getIdleConnectionTimeout(), TimeUnit.SECONDS);
+        }
+
         // request compression
         if (!connectionConfig.requestCompression())
             httpClientBuilder.disableContentCompression();
@@ -155,6 +165,34 @@ public class ApacheHttpTransport implements HttpTransport, LoggingSource {
         }
     }
 
+    /**
+     * Builds the connection manager backing the http client.
+     * <p>
+     * By default a {@link BasicHttpClientConnectionManager} holding a single
+     * connection is used. When connection pooling is enabled, a
+     * {@link PoolingHttpClientConnectionManager} is used instead so that
+     * statements executed concurrently on the same JDBC connection do not
+     * serialize on one http connection.
+     */
+    private HttpClientConnectionManager buildConnectionManager(
+            ConnectionConfig connectionConfig,
+            Registry<ConnectionSocketFactory> socketFactoryRegistry,
+            ApacheHttpClientConnectionFactory connectionFactory) {
+
+        if (!connectionConfig.connectionPooling()) {
+            return new BasicHttpClientConnectionManager(socketFactoryRegistry, connectionFactory);
+        }
+
+        PoolingHttpClientConnectionManager poolingConnectionManager =
+                new PoolingHttpClientConnectionManager(socketFactoryRegistry, connectionFactory);
+
+        // all requests go to a single route, so the per-route limit is the effective pool size
+        poolingConnectionManager.setMaxTotal(connectionConfig.getMaxConnections());
+        poolingConnectionManager.setDefaultMaxPerRoute(connectionConfig.getMaxConnections());
+        poolingConnectionManager.setValidateAfterInactivity(connectionConfig.getValidateAfterInactivity());
+        return poolingConnectionManager;
+    }
+
     private ConnectionSocketFactory getSslConnectionSocketFactory(ConnectionConfig connectionConfig)
             throws CertificateException, NoSuchAlgorithmException, KeyStoreException, IOException,
             UnrecoverableKeyException, KeyManagementException {
@@ -213,6 +251,17 @@ public class ApacheHttpTransport implements HttpTransport, LoggingSource {
         return this.requestConfig;
     }
 
+    /**
+     * Request config for a single request. Built per request rather than
+     * shared so that concurrent requests with different timeouts on a
+     * pooled transport do not race on the shared config.
+     */
+    private RequestConfig buildRequestConfig(int readTimeout) {
+        return RequestConfig.copy(getRequestConfig())
+                .setSocketTimeout(readTimeout)
+                .build();
+    }
+
     public void setReadTimeout(int readTimeout) {
         if (readTimeout != this.readTimeout) {
             this.readTimeout = readTimeout;
@@ -245,10 +294,9 @@ public class ApacheHttpTransport implements HttpTransport, LoggingSource {
 
     private CloseableHttpResponse doGet(URI uri, Header[] headers, int readTimeout) throws TransportException {
         try {
-            setReadTimeout(readTimeout);
             HttpGet request = new HttpGet(uri);
             request.setHeaders(headers);
-            request.setConfig(getRequestConfig());
+            request.setConfig(buildRequestConfig(readTimeout));
             return httpClient.execute(request);
         } catch (IOException e) {
             throw new TransportException(e);
@@ -257,11 +305,10 @@ public class ApacheHttpTransport implements HttpTransport, LoggingSource {
 
     private CloseableHttpResponse doPost(URI uri, Header[] headers, String body, int readTimeout) throws TransportException {
         try {
-            setReadTimeout(readTimeout);
             HttpPost request = new HttpPost(uri);
             request.setHeaders(headers);
             request.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
-            request.setConfig(getRequestConfig());
+            request.setConfig(buildRequestConfig(readTimeout));
             return httpClient.execute(request);
         } catch (IOException e) {
             throw new TransportException(e);
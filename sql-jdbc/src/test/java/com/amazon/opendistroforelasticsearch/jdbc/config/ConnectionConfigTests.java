@@ -306,6 +306,47 @@ class ConnectionConfigTests {
         assertCommonBooleanPropertyTests(HostnameVerificationConnectionProperty.KEY, ConnectionConfig::hostnameVerification);
     }
 
+    @Test
+    void testConnectionPoolingConfig() {
+        assertCommonBooleanPropertyTests(ConnectionPoolingConnectionProperty.KEY, ConnectionConfig::connectionPooling);
+    }
+
+    @Test
+    void testMaxConnectionsConfig() {
+        // exception with invalid values
+        assertPropertyRejects(MaxConnectionsConnectionProperty.KEY, 0, -1, "0", "invalid", "2.5");
+
+        // valid values
+        assertPropertyAccepts(MaxConnectionsConnectionProperty.KEY, ConnectionConfig::getMaxConnections,
+                1, 10, 100);
+        assertPropertyAcceptsParsedValue(MaxConnectionsConnectionProperty.KEY, ConnectionConfig::getMaxConnections,
+                "20", 20);
+    }
+
+    @Test
+    void testIdleConnectionTimeoutConfig() {
+        // exception with invalid values
+        assertPropertyRejects(IdleConnectionTimeoutConnectionProperty.KEY, -1, "-1", "invalid");
+
+        // valid values
+        assertPropertyAccepts(IdleConnectionTimeoutConnectionProperty.KEY,
+                ConnectionConfig::getIdleConnectionTimeout, 0, 30, 3600);
+        assertPropertyAcceptsParsedValue(IdleConnectionTimeoutConnectionProperty.KEY,
+                ConnectionConfig::getIdleConnectionTimeout, "120", 120);
+    }
+
+    @Test
+    void testValidateAfterInactivityConfig() {
+        // exception with invalid values
+        assertPropertyRejects(ValidateAfterInactivityConnectionProperty.KEY, -1, "-1", "invalid");
+
+        // valid values
+        assertPropertyAccepts(ValidateAfterInactivityConnectionProperty.KEY,
+                ConnectionConfig::getValidateAfterInactivity, 0, 500, 10000);
+        assertPropertyAcceptsParsedValue(ValidateAfterInactivityConnectionProperty.KEY,
+                ConnectionConfig::getValidateAfterInactivity, "5000", 5000);
+    }
+
     @Test
     void testConnectionConfigMultipleProps() {
         ConnectionConfig.Builder conConfigBuilder = ConnectionConfig.builder();
@@ -900,6 +941,10 @@ class ConnectionConfigTests {
         assertNull(connectionConfig.getRegion());
         assertEquals(LogLevel.OFF, connectionConfig.getLogLevel());
         assertTrue(connectionConfig.hostnameVerification());
+        assertFalse(connectionConfig.connectionPooling());
+        assertEquals(10, connectionConfig.getMaxConnections());
+        assertEquals(60, connectionConfig.getIdleConnectionTimeout());
+        assertEquals(2000, connectionConfig.getValidateAfterInactivity());
     }
 
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright <2019> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+package com.amazon.opendistroforelasticsearch.jdbc.transport.http;
+
+import com.amazon.opendistroforelasticsearch.jdbc.config.ConnectionConfig;
+import com.amazon.opendistroforelasticsearch.jdbc.config.ConnectionPoolingConnectionProperty;
+import com.amazon.opendistroforelasticsearch.jdbc.config.HostConnectionProperty;
+import com.amazon.opendistroforelasticsearch.jdbc.config.MaxConnectionsConnectionProperty;
+import com.amazon.opendistroforelasticsearch.jdbc.config.PortConnectionProperty;
+import com.amazon.opendistroforelasticsearch.jdbc.logging.NoOpLogger;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load tests for {@link ApacheHttpTransport} against a local stub http
+ * server that responds after a fixed delay. The number of requests the
+ * server sees in flight should scale with the configured connection pool
+ * size.
+ */
+public class ApacheHttpTransportPoolingTests {
+
+    private static final int RESPONSE_DELAY_MILLIS = 100;
+    private static final int CLIENT_THREADS = 8;
+    private static final int REQUESTS = 32;
+
+    static Server jettyServer;
+    static int port;
+    static DelayedResponseHandler handler;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        handler = new DelayedResponseHandler();
+        jettyServer = new Server(0);
+        jettyServer.setStopTimeout(0);
+        jettyServer.setHandler(handler);
+        jettyServer.start();
+        port = ((ServerConnector) jettyServer.getConnectors()[0]).getLocalPort();
+    }
+
+    @AfterAll
+    static void afterAll() throws Exception {
+        jettyServer.stop();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        handler.reset();
+    }
+
+    @Test
+    void testSingleConnectionPoolSerializesRequests() throws Exception {
+        runLoad(buildPoolingConfig(1));
+
+        assertEquals(REQUESTS, handler.requests.get());
+        assertEquals(1, handler.maxInFlight.get());
+    }
+
+    @Test
+    void testPooledTransportBoundsConcurrencyByPoolSize() throws Exception {
+        runLoad(buildPoolingConfig(4));
+
+        assertEquals(REQUESTS, handler.requests.get());
+        assertTrue(handler.maxInFlight.get() > 1,
+                "Expected concurrent requests, max in flight: " + handler.maxInFlight.get());
+        assertTrue(handler.maxInFlight.get() <= 4,
+                "Expected at most 4 requests in flight, max in flight: " + handler.maxInFlight.get());
+    }
+
+    @Test
+    void testConcurrencyScalesWithPoolSize() throws Exception {
+        runLoad(buildPoolingConfig(1));
+        int serialMaxInFlight = handler.maxInFlight.get();
+
+        handler.reset();
+        runLoad(buildPoolingConfig(CLIENT_THREADS));
+        int pooledMaxInFlight = handler.maxInFlight.get();
+
+        // with one connection every request waits for the previous one,
+        // with a connection per thread requests overlap
+        assertEquals(1, serialMaxInFlight);
+        assertTrue(pooledMaxInFlight > serialMaxInFlight,
+                "Expected more requests in flight with larger pool, max in flight: " + pooledMaxInFlight);
+        assertTrue(pooledMaxInFlight <= CLIENT_THREADS,
+                "Expected at most " + CLIENT_THREADS + " requests in flight, max in flight: " + pooledMaxInFlight);
+    }
+
+    private ConnectionConfig buildPoolingConfig(int maxConnections) throws Exception {
+        Map<String, Object> props = new HashMap<>();
+        props.put(HostConnectionProperty.KEY, "localhost");
+        props.put(PortConnectionProperty.KEY, port);
+        props.put(ConnectionPoolingConnectionProperty.KEY, true);
+        props.put(MaxConnectionsConnectionProperty.KEY, maxConnections);
+        return ConnectionConfig.builder().setPropertyMap(props).build();
+    }
+
+    /**
+     * Issues {@link #REQUESTS} requests from {@link #CLIENT_THREADS} threads
+     * sharing a single transport.
+     */
+    private void runLoad(ConnectionConfig connectionConfig) throws Exception {
+        ApacheHttpTransport transport = new ApacheHttpTransport(connectionConfig, NoOpLogger.INSTANCE, "test");
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENT_THREADS);
+
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    try (CloseableHttpResponse response = transport.doGet("/", null, null, 0)) {
+                        // consume the entity so the connection is released to the pool
+                        EntityUtils.consume(response.getEntity());
+                        return response.getStatusLine().getStatusCode();
+                    }
+                }));
+            }
+
+            for (Future<Integer> future : futures) {
+                assertEquals(200, (int) future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+            transport.close();
+        }
+    }
+
+    static class DelayedResponseHandler extends AbstractHandler {
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        void reset() {
+            requests.set(0);
+            inFlight.set(0);
+            maxInFlight.set(0);
+        }
+
+        @Override
+        public void handle(
+                String target,
+                Request baseRequest,
+                HttpServletRequest request,
+                HttpServletResponse response) throws IOException {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(RESPONSE_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            requests.incrementAndGet();
+            response.setContentType("application/json");
+            response.setStatus(200);
+            baseRequest.setHandled(true);
+            response.getWriter().write("{}");
+        }
+    }
+}
@@ -52,6 +52,7 @@ BY:                                 'BY';
 CASE:                               'CASE';
 CAST:                               'CAST';
 CROSS:                              'CROSS';
+CURRENT:                            'CURRENT';
 COLUMNS:                            'COLUMNS';
 DATETIME:                           'DATETIME';
 DELETE:                             'DELETE';
@@ -63,6 +64,7 @@ ELSE:                               'ELSE';
 EXISTS:                             'EXISTS';
 FALSE:                              'FALSE';
 FLOAT:                              'FLOAT';
+FOLLOWING:                          'FOLLOWING';
 FIRST:                              'FIRST';
 FROM:                               'FROM';
 GROUP:                              'GROUP';
@@ -89,13 +91,17 @@ ORDER:                              'ORDER';
 OUTER:                              'OUTER';
 OVER:                               'OVER';
 PARTITION:                          'PARTITION';
+PRECEDING:                          'PRECEDING';
 REGEXP:                             'REGEXP';
 RIGHT:                              'RIGHT';
+ROW:                                'ROW';
+ROWS:                               'ROWS';
 SELECT:                             'SELECT';
 SHOW:                               'SHOW';
 STRING:                             'STRING';
 THEN:                               'THEN';
 TRUE:                               'TRUE';
+UNBOUNDED:                          'UNBOUNDED';
 UNION:                              'UNION';
 USING:                              'USING';
 WHEN:                               'WHEN';
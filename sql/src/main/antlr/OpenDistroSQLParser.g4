@@ -156,7 +156,12 @@ limitClause
 
 //  Window Function's Details
 windowFunction
-    : function=rankingWindowFunction overClause
+    : function=windowedFunction overClause
+    ;
+
+windowedFunction
+    : rankingWindowFunction
+    | aggregateFunction
     ;
 
 rankingWindowFunction
@@ -164,13 +169,26 @@ rankingWindowFunction
     ;
 
 overClause
-    : OVER LR_BRACKET partitionByClause? orderByClause? RR_BRACKET
+    : OVER LR_BRACKET partitionByClause? orderByClause? frameClause? RR_BRACKET
     ;
 
 partitionByClause
     : PARTITION BY expression (COMMA expression)*
     ;
 
+frameClause
+    : frameUnit=(ROWS | RANGE) frameStart=frameBound
+    | frameUnit=(ROWS | RANGE) BETWEEN frameStart=frameBound AND frameEnd=frameBound
+    ;
+
+frameBound
+    : UNBOUNDED PRECEDING                                           #unboundedPrecedingBound
+    | offset=decimalLiteral PRECEDING                               #precedingBound
+    | CURRENT ROW                                                   #currentRowBound
+    | offset=decimalLiteral FOLLOWING                               #followingBound
+    | UNBOUNDED FOLLOWING                                           #unboundedFollowingBound
+    ;
+
 
 //    Literals
 
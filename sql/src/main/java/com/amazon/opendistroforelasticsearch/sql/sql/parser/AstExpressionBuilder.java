@@ -28,7 +28,10 @@ import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDis
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.CaseFuncAlternativeContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.CaseFunctionCallContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.CountStarFunctionCallContext;
+import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.CurrentRowBoundContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.DateLiteralContext;
+import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.FollowingBoundContext;
+import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.FrameClauseContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.IsNullPredicateContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.LikePredicateContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.MathExpressionAtomContext;
@@ -36,6 +39,7 @@ import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDis
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.NullLiteralContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.OrderByElementContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.OverClauseContext;
+import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.PrecedingBoundContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.QualifiedNameContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.RankingWindowFunctionContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.RegexpPredicateContext;
@@ -46,6 +50,8 @@ import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDis
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.StringContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.TimeLiteralContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.TimestampLiteralContext;
+import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.UnboundedFollowingBoundContext;
+import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.UnboundedPrecedingBoundContext;
 import static com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.WindowFunctionContext;
 
 import com.amazon.opendistroforelasticsearch.sql.ast.dsl.AstDSL;
@@ -64,6 +70,8 @@ import com.amazon.opendistroforelasticsearch.sql.ast.expression.UnresolvedExpres
 import com.amazon.opendistroforelasticsearch.sql.ast.expression.When;
 import com.amazon.opendistroforelasticsearch.sql.ast.expression.WindowFunction;
 import com.amazon.opendistroforelasticsearch.sql.common.utils.StringUtils;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition;
 import com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser;
 import com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.AndExpressionContext;
 import com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser.ColumnNameContext;
@@ -179,7 +187,12 @@ public class AstExpressionBuilder extends OpenDistroSQLParserBaseVisitor<Unresol
                            .map(item -> ImmutablePair.of(getOrder(item), visit(item.expression())))
                            .collect(Collectors.toList());
     }
-    return new WindowFunction((Function) visit(ctx.function), partitionByList, sortList);
+
+    FrameDefinition frame = null;
+    if (overClause.frameClause() != null) {
+      frame = visitFrameClause(overClause.frameClause());
+    }
+    return new WindowFunction(visit(ctx.function), partitionByList, sortList, frame);
   }
 
   @Override
@@ -341,4 +354,46 @@ public class AstExpressionBuilder extends OpenDistroSQLParserBaseVisitor<Unresol
     return (item.order == null) ? "ASC" : item.order.getText();
   }
 
+  private FrameDefinition visitFrameClause(FrameClauseContext ctx) {
+    FrameDefinition.Unit unit =
+        FrameDefinition.Unit.valueOf(ctx.frameUnit.getText().toUpperCase());
+    FrameBoundBuilder boundBuilder = new FrameBoundBuilder();
+    FrameBound start = boundBuilder.visit(ctx.frameStart);
+    if (ctx.frameEnd == null) {
+      return new FrameDefinition(unit, start);
+    }
+    return new FrameDefinition(unit, start, boundBuilder.visit(ctx.frameEnd));
+  }
+
+  /**
+   * Frame bound builder that builds frame bound from frame bound parse tree.
+   */
+  private static class FrameBoundBuilder extends OpenDistroSQLParserBaseVisitor<FrameBound> {
+
+    @Override
+    public FrameBound visitUnboundedPrecedingBound(UnboundedPrecedingBoundContext ctx) {
+      return FrameBound.unboundedPreceding();
+    }
+
+    @Override
+    public FrameBound visitPrecedingBound(PrecedingBoundContext ctx) {
+      return FrameBound.preceding(Long.parseLong(ctx.offset.getText()));
+    }
+
+    @Override
+    public FrameBound visitCurrentRowBound(CurrentRowBoundContext ctx) {
+      return FrameBound.currentRow();
+    }
+
+    @Override
+    public FrameBound visitFollowingBound(FollowingBoundContext ctx) {
+      return FrameBound.following(Long.parseLong(ctx.offset.getText()));
+    }
+
+    @Override
+    public FrameBound visitUnboundedFollowingBound(UnboundedFollowingBoundContext ctx) {
+      return FrameBound.unboundedFollowing();
+    }
+  }
+
 }
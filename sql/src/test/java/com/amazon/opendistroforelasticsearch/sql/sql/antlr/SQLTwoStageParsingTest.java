@@ -0,0 +1,95 @@
+/*
+ *    Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License").
+ *    You may not use this file except in compliance with the License.
+ *    A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    or in the "license" file accompanying this file. This file is distributed
+ *    on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *    express or implied. See the License for the specific language governing
+ *    permissions and limitations under the License.
+ *
+ */
+
+package com.amazon.opendistroforelasticsearch.sql.sql.antlr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.amazon.opendistroforelasticsearch.sql.common.antlr.CaseInsensitiveCharStream;
+import com.amazon.opendistroforelasticsearch.sql.common.antlr.SyntaxAnalysisErrorListener;
+import com.amazon.opendistroforelasticsearch.sql.common.antlr.SyntaxCheckException;
+import com.amazon.opendistroforelasticsearch.sql.common.antlr.TwoStageParser;
+import com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLLexer;
+import com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser;
+import java.util.stream.Stream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Make sure two-stage parsing produces exactly the same parse tree as full LL parsing
+ * for queries in the shape generated by BI and dashboard tools.
+ */
+class SQLTwoStageParsingTest {
+
+  private static Stream<String> dashboardQueries() {
+    return Stream.of(
+        "SELECT * FROM kibana_sample_data_flights",
+        "SELECT Carrier, COUNT(*) FROM kibana_sample_data_flights GROUP BY Carrier",
+        "SELECT `t`.`Carrier` AS `Carrier`, SUM(`t`.`FlightDelayMin`) AS `sum_delay` "
+            + "FROM `kibana_sample_data_flights` `t` GROUP BY `t`.`Carrier` "
+            + "ORDER BY `sum_delay` DESC LIMIT 10",
+        "SELECT DISTINCT DestCountry FROM kibana_sample_data_flights ORDER BY DestCountry ASC",
+        "SELECT OriginCityName, AVG(AvgTicketPrice) AS avg_price, MAX(DistanceKilometers) "
+            + "FROM kibana_sample_data_flights WHERE Cancelled = false AND FlightDelayMin > 30 "
+            + "GROUP BY OriginCityName HAVING AVG(AvgTicketPrice) > 500 ORDER BY 2 DESC",
+        "SELECT CASE WHEN FlightDelayMin > 60 THEN 'late' WHEN FlightDelayMin > 0 THEN 'delayed' "
+            + "ELSE 'on time' END AS flight_status, COUNT(1) FROM kibana_sample_data_flights "
+            + "GROUP BY CASE WHEN FlightDelayMin > 60 THEN 'late' WHEN FlightDelayMin > 0 "
+            + "THEN 'delayed' ELSE 'on time' END",
+        "SELECT ABS(FlightDelayMin) + 1 * (2 - 3) / 4 AS expr FROM kibana_sample_data_flights "
+            + "WHERE (Dest = 'Sydney' OR Dest = 'Rome') AND NOT (Cancelled = true) "
+            + "ORDER BY expr NULLS LAST LIMIT 5, 10",
+        "SELECT SUBSTRING(Carrier, 1, 3) AS c, COUNT(*) AS cnt FROM kibana_sample_data_flights "
+            + "GROUP BY 1 ORDER BY cnt DESC LIMIT 100 OFFSET 10",
+        "SELECT a.Carrier FROM (SELECT Carrier AS Carrier FROM kibana_sample_data_flights) AS a",
+        "SHOW TABLES LIKE 'kibana%'",
+        "DESCRIBE TABLES LIKE 'kibana_sample_data_flights' COLUMNS LIKE 'Dest%'"
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("dashboardQueries")
+  void twoStageParsingShouldProduceSameTreeAsFullLLParsing(String query) {
+    OpenDistroSQLParser twoStage = createParser(query);
+    OpenDistroSQLParser fullLL = createParser(query);
+    fullLL.getInterpreter().setPredictionMode(PredictionMode.LL);
+    fullLL.addErrorListener(new SyntaxAnalysisErrorListener());
+
+    assertEquals(
+        fullLL.root().toStringTree(fullLL),
+        TwoStageParser.parse(twoStage, new SyntaxAnalysisErrorListener(), OpenDistroSQLParser::root)
+            .toStringTree(twoStage));
+  }
+
+  @Test
+  void syntaxErrorShouldBeReportedByLLStage() {
+    SyntaxCheckException exception = assertThrows(SyntaxCheckException.class,
+        () -> new SQLSyntaxParser().parse("SELECT * FROM hello+world"));
+    assertTrue(exception.getMessage().startsWith(
+        "Failed to parse query due to offending symbol [+] at: 'SELECT * FROM hello+' <--- HERE"));
+  }
+
+  private OpenDistroSQLParser createParser(String query) {
+    return new OpenDistroSQLParser(
+        new CommonTokenStream(new OpenDistroSQLLexer(new CaseInsensitiveCharStream(query))));
+  }
+
+}
@@ -16,6 +16,7 @@
 
 package com.amazon.opendistroforelasticsearch.sql.sql.parser;
 
+import static com.amazon.opendistroforelasticsearch.sql.ast.dsl.AstDSL.aggregate;
 import static com.amazon.opendistroforelasticsearch.sql.ast.dsl.AstDSL.and;
 import static com.amazon.opendistroforelasticsearch.sql.ast.dsl.AstDSL.booleanLiteral;
 import static com.amazon.opendistroforelasticsearch.sql.ast.dsl.AstDSL.caseWhen;
@@ -33,6 +34,13 @@ import static com.amazon.opendistroforelasticsearch.sql.ast.dsl.AstDSL.timeLiter
 import static com.amazon.opendistroforelasticsearch.sql.ast.dsl.AstDSL.timestampLiteral;
 import static com.amazon.opendistroforelasticsearch.sql.ast.dsl.AstDSL.when;
 import static com.amazon.opendistroforelasticsearch.sql.ast.dsl.AstDSL.window;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.currentRow;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.following;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.preceding;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.unboundedFollowing;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameBound.unboundedPreceding;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.RANGE;
+import static com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition.Unit.ROWS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import com.amazon.opendistroforelasticsearch.sql.ast.Node;
@@ -40,6 +48,7 @@ import com.amazon.opendistroforelasticsearch.sql.ast.dsl.AstDSL;
 import com.amazon.opendistroforelasticsearch.sql.ast.expression.DataType;
 import com.amazon.opendistroforelasticsearch.sql.common.antlr.CaseInsensitiveCharStream;
 import com.amazon.opendistroforelasticsearch.sql.common.antlr.SyntaxAnalysisErrorListener;
+import com.amazon.opendistroforelasticsearch.sql.expression.window.frame.FrameDefinition;
 import com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLLexer;
 import com.amazon.opendistroforelasticsearch.sql.sql.antlr.parser.OpenDistroSQLParser;
 import com.google.common.collect.ImmutableList;
@@ -279,6 +288,56 @@ class AstExpressionBuilderTest {
         buildExprAst("RANK() OVER (PARTITION BY state)"));
   }
 
+  @Test
+  public void canBuildAggregateWindowFunction() {
+    assertEquals(
+        window(
+            aggregate("SUM", qualifiedName("balance")),
+            ImmutableList.of(qualifiedName("state")),
+            ImmutableList.of(ImmutablePair.of("ASC", qualifiedName("age")))),
+        buildExprAst("SUM(balance) OVER (PARTITION BY state ORDER BY age)"));
+  }
+
+  @Test
+  public void canBuildWindowFunctionWithFrameStartOnly() {
+    assertEquals(
+        window(
+            aggregate("AVG", qualifiedName("balance")),
+            ImmutableList.of(),
+            ImmutableList.of(ImmutablePair.of("ASC", qualifiedName("age"))),
+            new FrameDefinition(ROWS, unboundedPreceding(), currentRow())),
+        buildExprAst("AVG(balance) OVER (ORDER BY age ROWS UNBOUNDED PRECEDING)"));
+
+    assertEquals(
+        window(
+            aggregate("AVG", qualifiedName("balance")),
+            ImmutableList.of(),
+            ImmutableList.of(ImmutablePair.of("ASC", qualifiedName("age"))),
+            new FrameDefinition(RANGE, preceding(10), currentRow())),
+        buildExprAst("AVG(balance) OVER (ORDER BY age range 10 preceding)"));
+  }
+
+  @Test
+  public void canBuildWindowFunctionWithFrameBetweenBounds() {
+    assertEquals(
+        window(
+            aggregate("MAX", qualifiedName("balance")),
+            ImmutableList.of(),
+            ImmutableList.of(ImmutablePair.of("ASC", qualifiedName("age"))),
+            new FrameDefinition(ROWS, preceding(2), following(3))),
+        buildExprAst(
+            "MAX(balance) OVER (ORDER BY age ROWS BETWEEN 2 PRECEDING AND 3 FOLLOWING)"));
+
+    assertEquals(
+        window(
+            aggregate("MIN", qualifiedName("balance")),
+            ImmutableList.of(),
+            ImmutableList.of(ImmutablePair.of("ASC", qualifiedName("age"))),
+            new FrameDefinition(RANGE, currentRow(), unboundedFollowing())),
+        buildExprAst("MIN(balance) OVER (ORDER BY age "
+            + "RANGE BETWEEN CURRENT ROW AND UNBOUNDED FOLLOWING)"));
+  }
+
   @Test
   public void canBuildCaseConditionStatement() {
     assertEquals(